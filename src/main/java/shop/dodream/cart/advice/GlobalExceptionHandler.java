@@ -4,8 +4,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import shop.dodream.cart.exception.BookServiceUnavailableException;
+import shop.dodream.cart.exception.CartBusyException;
 import shop.dodream.cart.exception.DataNotFoundException;
 import shop.dodream.cart.exception.DuplicationException;
+import shop.dodream.cart.exception.GuestCartUnavailableException;
 import shop.dodream.cart.exception.InvalidQuantityException;
 import shop.dodream.cart.exception.MissingIdentifierException;
 
@@ -31,4 +34,19 @@ public class GlobalExceptionHandler {
 	public ResponseEntity<String> handleInvalidation(InvalidQuantityException e){
 		return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
 	}
+	
+	@ExceptionHandler(BookServiceUnavailableException.class)
+	public ResponseEntity<String> handleBookServiceUnavailable(BookServiceUnavailableException e) {
+		return new ResponseEntity<>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+	}
+	
+	@ExceptionHandler(GuestCartUnavailableException.class)
+	public ResponseEntity<String> handleGuestCartUnavailable(GuestCartUnavailableException e) {
+		return new ResponseEntity<>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+	}
+	
+	@ExceptionHandler(CartBusyException.class)
+	public ResponseEntity<String> handleCartBusy(CartBusyException e) {
+		return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
+	}
 }
@@ -0,0 +1,145 @@
+package shop.dodream.cart.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import shop.dodream.cart.config.BookProperties;
+import shop.dodream.cart.dto.BookListResponseRecord;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.LongSupplier;
+
+@Component
+public class BookNearCache {
+	
+	private static final int SEGMENT_COUNT = 16;
+	
+	private final boolean enabled;
+	private final long ttlNanos;
+	private final LongSupplier ticker;
+	private final Segment[] segments;
+	
+	private final Counter hitCounter;
+	private final Counter missCounter;
+	private final Counter sizeEvictionCounter;
+	private final Counter expiredEvictionCounter;
+	
+	@Autowired
+	public BookNearCache(BookProperties properties, MeterRegistry meterRegistry) {
+		this(properties.getNearCache().isEnabled(), properties.getNearCache().getMaxSize(),
+				properties.getNearCache().getTtl(), meterRegistry, System::nanoTime);
+	}
+	
+	BookNearCache(boolean enabled, int maxSize, Duration ttl, MeterRegistry meterRegistry, LongSupplier ticker) {
+		this.enabled = enabled;
+		this.ttlNanos = ttl.toNanos();
+		this.ticker = ticker;
+		
+		// 세그먼트별로 락을 나눠 조회 경합을 줄이고, 전체 크기는 maxSize를 넘지 않도록 분배
+		int segmentCount = Math.max(1, Math.min(SEGMENT_COUNT, maxSize));
+		this.segments = new Segment[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			this.segments[i] = new Segment(Math.max(1, maxSize / segmentCount));
+		}
+		
+		this.hitCounter = Counter.builder("cart.book.near-cache.requests").tag("result", "hit").register(meterRegistry);
+		this.missCounter = Counter.builder("cart.book.near-cache.requests").tag("result", "miss").register(meterRegistry);
+		this.sizeEvictionCounter = Counter.builder("cart.book.near-cache.evictions").tag("cause", "size").register(meterRegistry);
+		this.expiredEvictionCounter = Counter.builder("cart.book.near-cache.evictions").tag("cause", "expired").register(meterRegistry);
+		Gauge.builder("cart.book.near-cache.size", this, BookNearCache::size).register(meterRegistry);
+	}
+	
+	// 캐시에 있는 도서만 반환, 없는 ID는 결과에서 빠진다
+	public Map<Long, BookListResponseRecord> getAll(Collection<Long> bookIds) {
+		if (!enabled || bookIds.isEmpty()) {
+			return new HashMap<>();
+		}
+		long now = ticker.getAsLong();
+		Map<Long, BookListResponseRecord> found = new HashMap<>();
+		for (Long bookId : bookIds) {
+			BookListResponseRecord book = segmentFor(bookId).get(bookId, now);
+			if (book != null) {
+				found.put(bookId, book);
+			}
+		}
+		hitCounter.increment(found.size());
+		missCounter.increment(bookIds.size() - found.size());
+		return found;
+	}
+	
+	public void putAll(Collection<BookListResponseRecord> books) {
+		if (!enabled) {
+			return;
+		}
+		long expiresAt = ticker.getAsLong() + ttlNanos;
+		for (BookListResponseRecord book : books) {
+			if (book.getBookId() != null) {
+				segmentFor(book.getBookId()).put(book.getBookId(), book, expiresAt);
+			}
+		}
+	}
+	
+	public void invalidate(Long bookId) {
+		segmentFor(bookId).remove(bookId);
+	}
+	
+	public long size() {
+		long size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+	
+	private Segment segmentFor(Long bookId) {
+		return segments[Math.floorMod(Long.hashCode(bookId), segments.length)];
+	}
+	
+	private record Entry(BookListResponseRecord book, long expiresAt) {
+	}
+	
+	private final class Segment {
+		private final LinkedHashMap<Long, Entry> entries;
+		
+		private Segment(int capacity) {
+			this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+					if (size() > capacity) {
+						sizeEvictionCounter.increment();
+						return true;
+					}
+					return false;
+				}
+			};
+		}
+		
+		synchronized BookListResponseRecord get(Long bookId, long now) {
+			Entry entry = entries.get(bookId);
+			if (entry == null) {
+				return null;
+			}
+			if (entry.expiresAt() - now <= 0) {
+				entries.remove(bookId);
+				expiredEvictionCounter.increment();
+				return null;
+			}
+			return entry.book();
+		}
+		
+		synchronized void put(Long bookId, BookListResponseRecord book, long expiresAt) {
+			entries.put(bookId, new Entry(book, expiresAt));
+		}
+		
+		synchronized void remove(Long bookId) {
+			entries.remove(bookId);
+		}
+		
+		synchronized int size() {
+			return entries.size();
+		}
+	}
+}
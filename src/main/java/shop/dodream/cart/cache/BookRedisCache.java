@@ -0,0 +1,107 @@
+package shop.dodream.cart.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+import shop.dodream.cart.config.BookProperties;
+import shop.dodream.cart.dto.BookListResponseRecord;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Slf4j
+@Component
+public class BookRedisCache {
+	
+	private static final String REDIS_KEY_PREFIX = "book_cache:";
+	
+	private final RedisTemplate<String, BookListResponseRecord> bookRedisTemplate;
+	private final boolean enabled;
+	private final Duration ttl;
+	
+	private final Counter hitCounter;
+	private final Counter missCounter;
+	private final Counter errorCounter;
+	
+	public BookRedisCache(RedisTemplate<String, BookListResponseRecord> bookRedisTemplate,
+	                      BookProperties properties, MeterRegistry meterRegistry) {
+		this.bookRedisTemplate = bookRedisTemplate;
+		this.enabled = properties.getRedisCache().isEnabled();
+		this.ttl = properties.getRedisCache().getTtl();
+		this.hitCounter = Counter.builder("cart.book.redis-cache.requests").tag("result", "hit").register(meterRegistry);
+		this.missCounter = Counter.builder("cart.book.redis-cache.requests").tag("result", "miss").register(meterRegistry);
+		this.errorCounter = Counter.builder("cart.book.redis-cache.errors").register(meterRegistry);
+	}
+	
+	// 요청한 ID 전체를 MGET 한 번으로 조회, Redis 장애 시에는 전부 miss로 처리
+	public Map<Long, BookListResponseRecord> getAll(Collection<Long> bookIds) {
+		if (!enabled || bookIds.isEmpty()) {
+			return new HashMap<>();
+		}
+		List<Long> ids = new ArrayList<>(bookIds);
+		List<String> keys = ids.stream().map(this::buildKey).toList();
+		
+		List<BookListResponseRecord> values;
+		try {
+			values = bookRedisTemplate.opsForValue().multiGet(keys);
+		} catch (DataAccessException e) {
+			errorCounter.increment();
+			log.warn("Redis 도서 캐시 조회 실패: {}", e.getMessage());
+			return new HashMap<>();
+		}
+		
+		Map<Long, BookListResponseRecord> found = new HashMap<>();
+		if (values != null) {
+			for (int i = 0; i < ids.size() && i < values.size(); i++) {
+				BookListResponseRecord book = values.get(i);
+				if (book != null) {
+					found.put(ids.get(i), book);
+				}
+			}
+		}
+		hitCounter.increment(found.size());
+		missCounter.increment(ids.size() - found.size());
+		return found;
+	}
+	
+	// 도서 서비스에서 가져온 결과를 파이프라인으로 한 번에 기록
+	public void putAll(Collection<BookListResponseRecord> books) {
+		if (!enabled || books.isEmpty()) {
+			return;
+		}
+		try {
+			bookRedisTemplate.executePipelined(new SessionCallback<Object>() {
+				@Override
+				@SuppressWarnings("unchecked")
+				public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+					RedisOperations<String, BookListResponseRecord> ops = (RedisOperations<String, BookListResponseRecord>) operations;
+					for (BookListResponseRecord book : books) {
+						if (book.getBookId() != null) {
+							ops.opsForValue().set(buildKey(book.getBookId()), book, jitteredTtl());
+						}
+					}
+					return null;
+				}
+			});
+		} catch (DataAccessException e) {
+			errorCounter.increment();
+			log.warn("Redis 도서 캐시 저장 실패: {}", e.getMessage());
+		}
+	}
+	
+	// 같은 시점에 적재된 키가 동시에 만료되지 않도록 TTL을 최대 10% 분산
+	private Duration jitteredTtl() {
+		long ttlMillis = ttl.toMillis();
+		return Duration.ofMillis(ttlMillis + ThreadLocalRandom.current().nextLong(ttlMillis / 10 + 1));
+	}
+	
+	private String buildKey(Long bookId) {
+		return REDIS_KEY_PREFIX + bookId;
+	}
+}
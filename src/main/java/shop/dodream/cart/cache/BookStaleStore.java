@@ -0,0 +1,49 @@
+package shop.dodream.cart.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import shop.dodream.cart.config.BookProperties;
+import shop.dodream.cart.dto.BookListResponseRecord;
+
+import java.util.*;
+
+// 도서 서비스 장애 시 응답에 사용할 마지막 정상 조회 결과, TTL 없이 크기로만 제한한다
+@Component
+public class BookStaleStore {
+	
+	private final Map<Long, BookListResponseRecord> lastKnownGood;
+	private final Counter servedCounter;
+	
+	public BookStaleStore(BookProperties properties, MeterRegistry meterRegistry) {
+		int maxSize = Math.max(1, properties.getStaleStore().getMaxSize());
+		this.lastKnownGood = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, BookListResponseRecord> eldest) {
+				return size() > maxSize;
+			}
+		};
+		this.servedCounter = Counter.builder("cart.book.stale.served").register(meterRegistry);
+	}
+	
+	public synchronized void putAll(Collection<BookListResponseRecord> books) {
+		for (BookListResponseRecord book : books) {
+			if (book.getBookId() != null && !book.isStale()) {
+				lastKnownGood.put(book.getBookId(), book);
+			}
+		}
+	}
+	
+	// 보관된 도서는 stale 표시된 사본으로 반환한다
+	public synchronized Map<Long, BookListResponseRecord> getAll(Collection<Long> bookIds) {
+		Map<Long, BookListResponseRecord> found = new HashMap<>();
+		for (Long bookId : bookIds) {
+			BookListResponseRecord book = lastKnownGood.get(bookId);
+			if (book != null) {
+				found.put(bookId, book.asStale());
+			}
+		}
+		servedCounter.increment(found.size());
+		return found;
+	}
+}
@@ -0,0 +1,126 @@
+package shop.dodream.cart.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import shop.dodream.cart.config.BookProperties;
+import shop.dodream.cart.dto.BookListResponseRecord;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+@Component
+public class BatchingBookLoader {
+	
+	private final ChunkingBookFetcher bookFetcher;
+	private final boolean enabled;
+	private final long windowNanos;
+	private final int maxBatchSize;
+	
+	private final Object lock = new Object();
+	private Batch pending;
+	
+	private final Counter dispatchCounter;
+	private final DistributionSummary batchSizeSummary;
+	
+	@Autowired
+	public BatchingBookLoader(ChunkingBookFetcher bookFetcher, BookProperties properties, MeterRegistry meterRegistry) {
+		this(bookFetcher, properties.getBatch().isEnabled(), properties.getBatch().getWindow(),
+				properties.getBatch().getMaxSize(), meterRegistry);
+	}
+	
+	BatchingBookLoader(ChunkingBookFetcher bookFetcher, boolean enabled, Duration window, int maxBatchSize, MeterRegistry meterRegistry) {
+		this.bookFetcher = bookFetcher;
+		this.enabled = enabled;
+		this.windowNanos = window.toNanos();
+		this.maxBatchSize = Math.max(1, maxBatchSize);
+		this.dispatchCounter = Counter.builder("cart.book.batch.dispatched").register(meterRegistry);
+		this.batchSizeSummary = DistributionSummary.builder("cart.book.batch.size").register(meterRegistry);
+	}
+	
+	// 처음 도착한 요청이 리더가 되어 window 동안(또는 maxBatchSize가 찰 때까지) 다른 요청의 ID를 모은 뒤 한 번에 조회한다
+	public Map<Long, BookListResponseRecord> load(Collection<Long> bookIds) {
+		if (!enabled) {
+			return toMap(bookFetcher.fetch(new ArrayList<>(bookIds)));
+		}
+		
+		Batch batch;
+		boolean leader = false;
+		synchronized (lock) {
+			if (pending == null || pending.bookIds.size() >= maxBatchSize) {
+				pending = new Batch();
+				leader = true;
+			}
+			batch = pending;
+			batch.bookIds.addAll(bookIds);
+			if (batch.bookIds.size() >= maxBatchSize) {
+				lock.notifyAll();
+			}
+		}
+		
+		if (leader) {
+			awaitWindow(batch);
+			dispatch(batch);
+		}
+		
+		Map<Long, BookListResponseRecord> loaded = BookFetchFutures.await(batch.result);
+		Map<Long, BookListResponseRecord> bookMap = new HashMap<>();
+		for (Long bookId : bookIds) {
+			BookListResponseRecord book = loaded.get(bookId);
+			if (book != null) {
+				bookMap.put(bookId, book);
+			}
+		}
+		return bookMap;
+	}
+	
+	private void awaitWindow(Batch batch) {
+		long deadline = System.nanoTime() + windowNanos;
+		synchronized (lock) {
+			try {
+				long remaining = windowNanos;
+				while (pending == batch && batch.bookIds.size() < maxBatchSize && remaining > 0) {
+					lock.wait(remaining / 1_000_000, (int) (remaining % 1_000_000));
+					remaining = deadline - System.nanoTime();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				// 이후 도착한 요청은 새 배치를 시작한다
+				if (pending == batch) {
+					pending = null;
+				}
+			}
+		}
+	}
+	
+	private void dispatch(Batch batch) {
+		List<Long> bookIds;
+		synchronized (lock) {
+			bookIds = new ArrayList<>(batch.bookIds);
+		}
+		dispatchCounter.increment();
+		batchSizeSummary.record(bookIds.size());
+		try {
+			batch.result.complete(toMap(bookFetcher.fetch(bookIds)));
+		} catch (RuntimeException e) {
+			batch.result.completeExceptionally(e);
+		}
+	}
+	
+	private Map<Long, BookListResponseRecord> toMap(List<BookListResponseRecord> books) {
+		Map<Long, BookListResponseRecord> bookMap = new HashMap<>();
+		for (BookListResponseRecord book : books) {
+			bookMap.put(book.getBookId(), book);
+		}
+		return bookMap;
+	}
+	
+	private static final class Batch {
+		private final Set<Long> bookIds = new LinkedHashSet<>();
+		private final CompletableFuture<Map<Long, BookListResponseRecord>> result = new CompletableFuture<>();
+	}
+}
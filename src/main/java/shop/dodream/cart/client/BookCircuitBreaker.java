@@ -0,0 +1,173 @@
+package shop.dodream.cart.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import shop.dodream.cart.config.BookProperties;
+import shop.dodream.cart.exception.BookServiceUnavailableException;
+
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class BookCircuitBreaker {
+	
+	public enum State { CLOSED, OPEN, HALF_OPEN }
+	
+	private final boolean enabled;
+	private final int minimumNumberOfCalls;
+	private final float failureRateThreshold;
+	private final float slowCallRateThreshold;
+	private final long slowCallNanos;
+	private final long openNanos;
+	private final int permittedCallsInHalfOpenState;
+	private final LongSupplier ticker;
+	
+	// 최근 호출 결과를 담는 링 버퍼 (0: 성공, 1: 실패, 2: 느린 성공)
+	private final byte[] window;
+	private int windowIndex;
+	private int recordedCalls;
+	private int failedCalls;
+	private int slowCalls;
+	
+	private State state = State.CLOSED;
+	// 상태가 바뀔 때마다 증가, 이전 HALF_OPEN에서 받은 허가를 새 HALF_OPEN에 돌려주지 않기 위해 쓴다
+	private long generation;
+	private long openedAt;
+	private int halfOpenPermits;
+	private int halfOpenSuccesses;
+	
+	private final Counter rejectedCounter;
+	
+	@Autowired
+	public BookCircuitBreaker(BookProperties properties, MeterRegistry meterRegistry) {
+		this(properties.getCircuitBreaker(), meterRegistry, System::nanoTime);
+	}
+	
+	BookCircuitBreaker(BookProperties.CircuitBreaker config, MeterRegistry meterRegistry, LongSupplier ticker) {
+		this.enabled = config.isEnabled();
+		this.window = new byte[Math.max(1, config.getSlidingWindowSize())];
+		this.minimumNumberOfCalls = Math.max(1, Math.min(config.getMinimumNumberOfCalls(), window.length));
+		this.failureRateThreshold = config.getFailureRateThreshold();
+		this.slowCallRateThreshold = config.getSlowCallRateThreshold();
+		this.slowCallNanos = config.getSlowCallDuration().toNanos();
+		this.openNanos = config.getWaitDurationInOpenState().toNanos();
+		this.permittedCallsInHalfOpenState = Math.max(1, config.getPermittedCallsInHalfOpenState());
+		this.ticker = ticker;
+		this.rejectedCounter = Counter.builder("cart.book.circuit-breaker.rejected").register(meterRegistry);
+		Gauge.builder("cart.book.circuit-breaker.state", this, breaker -> breaker.getState().ordinal())
+				.register(meterRegistry);
+	}
+	
+	// 열린 상태에서는 도서 서비스를 호출하지 않고 바로 BookServiceUnavailableException을 던진다
+	// Error처럼 결과를 기록하지 못하고 끝난 호출은 HALF_OPEN 허가만 돌려준다
+	public <T> T execute(Supplier<T> call) {
+		if (!enabled) {
+			return call.get();
+		}
+		long permit = tryAcquirePermission();
+		if (permit < 0) {
+			rejectedCounter.increment();
+			throw new BookServiceUnavailableException("도서 서비스 호출이 일시적으로 차단되었습니다.");
+		}
+		long started = ticker.getAsLong();
+		boolean recorded = false;
+		try {
+			T result = call.get();
+			onResult(false, ticker.getAsLong() - started >= slowCallNanos);
+			recorded = true;
+			return result;
+		} catch (RuntimeException e) {
+			onResult(true, false);
+			recorded = true;
+			throw e;
+		} finally {
+			if (!recorded) {
+				releasePermission(permit);
+			}
+		}
+	}
+	
+	public synchronized State getState() {
+		return state;
+	}
+	
+	// 허가를 받은 상태의 generation, 거부되면 -1
+	private synchronized long tryAcquirePermission() {
+		if (state == State.OPEN) {
+			if (ticker.getAsLong() - openedAt < openNanos) {
+				return -1;
+			}
+			transitionTo(State.HALF_OPEN);
+		}
+		if (state == State.HALF_OPEN) {
+			if (halfOpenPermits >= permittedCallsInHalfOpenState) {
+				return -1;
+			}
+			halfOpenPermits++;
+		}
+		return generation;
+	}
+	
+	private synchronized void releasePermission(long permit) {
+		if (state == State.HALF_OPEN && permit == generation && halfOpenPermits > 0) {
+			halfOpenPermits--;
+		}
+	}
+	
+	private synchronized void onResult(boolean failed, boolean slow) {
+		if (state == State.HALF_OPEN) {
+			if (failed || slow) {
+				transitionTo(State.OPEN);
+			} else if (++halfOpenSuccesses >= permittedCallsInHalfOpenState) {
+				transitionTo(State.CLOSED);
+			}
+			return;
+		}
+		if (state == State.OPEN) {
+			return;
+		}
+		
+		byte outcome = failed ? (byte) 1 : slow ? (byte) 2 : (byte) 0;
+		if (recordedCalls == window.length) {
+			byte evicted = window[windowIndex];
+			if (evicted == 1) failedCalls--;
+			if (evicted == 2) slowCalls--;
+		} else {
+			recordedCalls++;
+		}
+		window[windowIndex] = outcome;
+		windowIndex = (windowIndex + 1) % window.length;
+		if (outcome == 1) failedCalls++;
+		if (outcome == 2) slowCalls++;
+		
+		if (recordedCalls >= minimumNumberOfCalls) {
+			float failureRate = failedCalls * 100f / recordedCalls;
+			float slowCallRate = slowCalls * 100f / recordedCalls;
+			if (failureRate >= failureRateThreshold || slowCallRate >= slowCallRateThreshold) {
+				log.warn("도서 서비스 서킷 브레이커 OPEN (실패율 {}%, 지연율 {}%)", failureRate, slowCallRate);
+				transitionTo(State.OPEN);
+			}
+		}
+	}
+	
+	private void transitionTo(State next) {
+		state = next;
+		generation++;
+		halfOpenPermits = 0;
+		halfOpenSuccesses = 0;
+		if (next == State.OPEN) {
+			openedAt = ticker.getAsLong();
+		}
+		if (next == State.CLOSED) {
+			recordedCalls = 0;
+			failedCalls = 0;
+			slowCalls = 0;
+			windowIndex = 0;
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package shop.dodream.cart.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+final class BookFetchFutures {
+	
+	private BookFetchFutures() {
+	}
+	
+	// 다른 스레드가 던진 예외를 감싸지 않고 호출한 쪽에 그대로 전달
+	static <T> T await(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package shop.dodream.cart.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import shop.dodream.cart.config.BookProperties;
+import shop.dodream.cart.dto.BookListResponseRecord;
+import shop.dodream.cart.exception.BookServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class ChunkingBookFetcher {
+	
+	private final BookClient bookClient;
+	private final BookCircuitBreaker bookCircuitBreaker;
+	private final int chunkSize;
+	private final long timeoutNanos;
+	private final ExecutorService executor;
+	
+	private final Counter chunkCounter;
+	private final Counter timeoutCounter;
+	private final Counter rejectedCounter;
+	
+	@Autowired
+	public ChunkingBookFetcher(BookClient bookClient, BookCircuitBreaker bookCircuitBreaker, BookProperties properties,
+	                           MeterRegistry meterRegistry) {
+		this(bookClient, bookCircuitBreaker, properties.getChunk().getSize(), properties.getChunk().getParallelism(),
+				properties.getChunk().getQueueCapacity(), properties.getChunk().getTimeout(), meterRegistry);
+	}
+	
+	ChunkingBookFetcher(BookClient bookClient, BookCircuitBreaker bookCircuitBreaker, int chunkSize, int parallelism,
+	                    int queueCapacity, Duration timeout, MeterRegistry meterRegistry) {
+		this.bookClient = bookClient;
+		this.bookCircuitBreaker = bookCircuitBreaker;
+		this.chunkSize = Math.max(1, chunkSize);
+		this.timeoutNanos = timeout.toNanos();
+		// 큐가 가득 차면 호출한 스레드에서 실행하지 않고 거부해, 요청 스레드가 제한 시간을 넘겨 붙잡히지 않게 한다
+		this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), new NamedThreadFactory(),
+				new ThreadPoolExecutor.AbortPolicy());
+		this.chunkCounter = Counter.builder("cart.book.chunk.calls").register(meterRegistry);
+		this.timeoutCounter = Counter.builder("cart.book.chunk.timeouts").register(meterRegistry);
+		this.rejectedCounter = Counter.builder("cart.book.chunk.rejected").register(meterRegistry);
+	}
+	
+	// chunkSize 단위로 나눠 병렬 호출하고, 전체 제한 시간 안에 모든 결과를 하나로 합친다
+	public List<BookListResponseRecord> fetch(List<Long> bookIds) {
+		if (bookIds.size() <= chunkSize) {
+			chunkCounter.increment();
+			return call(bookIds);
+		}
+		
+		long deadline = System.nanoTime() + timeoutNanos;
+		List<Future<List<BookListResponseRecord>>> futures = new ArrayList<>();
+		try {
+			// 첫 번째 청크도 작업 스레드에 맡겨 모든 청크가 같은 제한 시간 안에서 기다려지게 한다
+			for (int from = 0; from < bookIds.size(); from += chunkSize) {
+				List<Long> chunk = List.copyOf(bookIds.subList(from, Math.min(from + chunkSize, bookIds.size())));
+				futures.add(executor.submit(() -> call(chunk)));
+			}
+			chunkCounter.increment(futures.size());
+			
+			List<BookListResponseRecord> books = new ArrayList<>(bookIds.size());
+			for (Future<List<BookListResponseRecord>> future : futures) {
+				books.addAll(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+			}
+			return books;
+		} catch (RejectedExecutionException e) {
+			// 이미 맡긴 청크는 finally에서 취소한다
+			rejectedCounter.increment();
+			throw new BookServiceUnavailableException("도서 정보 조회 요청이 많아 처리할 수 없습니다.");
+		} catch (TimeoutException e) {
+			timeoutCounter.increment();
+			throw new BookServiceUnavailableException("도서 정보 조회 시간이 초과되었습니다.");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw new BookServiceUnavailableException("도서 정보 조회에 실패했습니다: " + e.getCause().getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BookServiceUnavailableException("도서 정보 조회가 중단되었습니다.");
+		} finally {
+			futures.forEach(future -> future.cancel(true));
+		}
+	}
+	
+	// 서킷 브레이커는 도서 서비스 호출 하나하나를 기록한다, 배치 대기와 청크 대기열에서 보낸 시간은 느린 호출로 세지 않는다
+	private List<BookListResponseRecord> call(List<Long> bookIds) {
+		return bookCircuitBreaker.execute(() -> bookClient.getBooksByIds(bookIds));
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+	
+	private static final class NamedThreadFactory implements ThreadFactory {
+		private final AtomicInteger sequence = new AtomicInteger();
+		
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "book-chunk-" + sequence.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package shop.dodream.cart.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import shop.dodream.cart.dto.BookListResponseRecord;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+@Component
+public class CoalescingBookFetcher {
+	
+	private final BatchingBookLoader bookLoader;
+	private final ConcurrentHashMap<Long, CompletableFuture<BookListResponseRecord>> inFlight = new ConcurrentHashMap<>();
+	
+	private final Counter requestedCounter;
+	private final Counter collapsedCounter;
+	
+	public CoalescingBookFetcher(BatchingBookLoader bookLoader, MeterRegistry meterRegistry) {
+		this.bookLoader = bookLoader;
+		this.requestedCounter = Counter.builder("cart.book.fetch.requested").register(meterRegistry);
+		this.collapsedCounter = Counter.builder("cart.book.fetch.collapsed").register(meterRegistry);
+	}
+	
+	// 이미 다른 요청이 조회 중인 도서 ID는 그 결과를 함께 기다리고, 나머지만 직접 조회한다
+	// onLoaded는 직접 조회한 결과에 대해서만 호출되므로 캐시 적재가 중복되지 않는다
+	public Map<Long, BookListResponseRecord> fetch(Collection<Long> bookIds, Consumer<Collection<BookListResponseRecord>> onLoaded) {
+		Map<Long, CompletableFuture<BookListResponseRecord>> owned = new LinkedHashMap<>();
+		Map<Long, CompletableFuture<BookListResponseRecord>> joined = new LinkedHashMap<>();
+		
+		for (Long bookId : bookIds) {
+			CompletableFuture<BookListResponseRecord> created = new CompletableFuture<>();
+			CompletableFuture<BookListResponseRecord> existing = inFlight.putIfAbsent(bookId, created);
+			if (existing == null) {
+				owned.put(bookId, created);
+			} else {
+				joined.put(bookId, existing);
+			}
+		}
+		requestedCounter.increment(bookIds.size());
+		collapsedCounter.increment(joined.size());
+		
+		Map<Long, BookListResponseRecord> bookMap = new HashMap<>();
+		if (!owned.isEmpty()) {
+			Map<Long, BookListResponseRecord> loaded = fetchOwned(owned);
+			onLoaded.accept(loaded.values());
+			bookMap.putAll(loaded);
+		}
+		for (Map.Entry<Long, CompletableFuture<BookListResponseRecord>> entry : joined.entrySet()) {
+			BookListResponseRecord book = BookFetchFutures.await(entry.getValue());
+			if (book != null) {
+				bookMap.put(entry.getKey(), book);
+			}
+		}
+		return bookMap;
+	}
+	
+	private Map<Long, BookListResponseRecord> fetchOwned(Map<Long, CompletableFuture<BookListResponseRecord>> owned) {
+		try {
+			// 합류한 요청은 같은 결과나 예외를 받을 뿐이고, 서킷 브레이커는 그 아래 실제 도서 서비스 호출마다 한 번씩 기록한다
+			Map<Long, BookListResponseRecord> bookMap = bookLoader.load(owned.keySet());
+			// 도서 서비스에 없는 ID는 null로 완료시켜 대기 중인 요청도 바로 풀어준다
+			owned.forEach((bookId, future) -> future.complete(bookMap.get(bookId)));
+			return bookMap;
+		} catch (RuntimeException e) {
+			owned.values().forEach(future -> future.completeExceptionally(e));
+			throw e;
+		} finally {
+			owned.forEach(inFlight::remove);
+		}
+	}
+}
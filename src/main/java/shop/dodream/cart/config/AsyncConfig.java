@@ -0,0 +1,42 @@
+package shop.dodream.cart.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+	
+	private static final int CART_QUERY_POOL_SIZE = 8;
+	private static final int CART_QUERY_QUEUE_CAPACITY = 100;
+	private static final int CART_MERGE_POOL_SIZE = 4;
+	private static final int CART_MERGE_QUEUE_CAPACITY = 1000;
+	
+	// 장바구니 조회와 아이템 조회를 동시에 실행하기 위한 전용 풀, 가득 차면 호출 스레드에서 실행
+	@Bean
+	public ThreadPoolTaskExecutor cartQueryExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(CART_QUERY_POOL_SIZE);
+		executor.setMaxPoolSize(CART_QUERY_POOL_SIZE);
+		executor.setQueueCapacity(CART_QUERY_QUEUE_CAPACITY);
+		executor.setThreadNamePrefix("cart-query-");
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.setWaitForTasksToCompleteOnShutdown(true);
+		return executor;
+	}
+	
+	// 비동기 장바구니 병합 전용 풀, 가득 차면 요청 스레드에서 반영해 대기 기록이 무한히 쌓이지 않게 한다
+	@Bean
+	public ThreadPoolTaskExecutor cartMergeExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(CART_MERGE_POOL_SIZE);
+		executor.setMaxPoolSize(CART_MERGE_POOL_SIZE);
+		executor.setQueueCapacity(CART_MERGE_QUEUE_CAPACITY);
+		executor.setThreadNamePrefix("cart-merge-");
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.setWaitForTasksToCompleteOnShutdown(true);
+		return executor;
+	}
+}
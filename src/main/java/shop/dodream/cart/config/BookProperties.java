@@ -0,0 +1,78 @@
+package shop.dodream.cart.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cart.book")
+public class BookProperties {
+	
+	private final NearCache nearCache = new NearCache();
+	private final RedisCache redisCache = new RedisCache();
+	private final Batch batch = new Batch();
+	private final Chunk chunk = new Chunk();
+	private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+	private final StaleStore staleStore = new StaleStore();
+	
+	// 노드 내부 도서 정보 캐시
+	@Getter
+	@Setter
+	public static class NearCache {
+		private boolean enabled = true;
+		private int maxSize = 10_000;
+		private Duration ttl = Duration.ofMinutes(1);
+	}
+	
+	// 노드 간 공유되는 Redis 도서 정보 캐시
+	@Getter
+	@Setter
+	public static class RedisCache {
+		private boolean enabled = true;
+		private Duration ttl = Duration.ofMinutes(10);
+	}
+	
+	// 여러 요청의 도서 조회를 모아 한 번에 호출하는 배치 설정
+	// 켜면 모든 캐시 미스가 window만큼 늦어지므로, 동시 요청이 많아 호출 수를 줄이는 이득이 클 때만 켠다
+	@Getter
+	@Setter
+	public static class Batch {
+		private boolean enabled = false;
+		private Duration window = Duration.ofMillis(2);
+		private int maxSize = 100;
+	}
+	
+	// 긴 ID 목록을 나눠 병렬로 호출하는 설정
+	@Getter
+	@Setter
+	public static class Chunk {
+		private int size = 50;
+		private int parallelism = 4;
+		private int queueCapacity = 64;
+		private Duration timeout = Duration.ofSeconds(3);
+	}
+	
+	// 도서 서비스 장애 시 빠르게 실패시키는 서킷 브레이커 설정
+	@Getter
+	@Setter
+	public static class CircuitBreaker {
+		private boolean enabled = true;
+		private int slidingWindowSize = 20;
+		private int minimumNumberOfCalls = 10;
+		private float failureRateThreshold = 50;
+		private float slowCallRateThreshold = 80;
+		private Duration slowCallDuration = Duration.ofSeconds(2);
+		private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+		private int permittedCallsInHalfOpenState = 3;
+	}
+	
+	// 장애 시 응답에 사용할 마지막 정상 도서 정보 보관소
+	@Getter
+	@Setter
+	public static class StaleStore {
+		private int maxSize = 50_000;
+	}
+}
@@ -0,0 +1,30 @@
+package shop.dodream.cart.config;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import shop.dodream.cart.lock.CartWriteLock;
+import shop.dodream.cart.lock.CartWriteLockInterceptor;
+import shop.dodream.cart.lock.CartWriteLocks;
+
+@Configuration(proxyBeanMethods = false)
+public class CartWriteLockConfig {
+	
+	// 트랜잭션/캐시 어드바이스(LOWEST_PRECEDENCE)보다 바깥에서 실행, 기다리는 동안 커넥션을 잡지 않는다
+	// 트랜잭션과 같은 인프라 어드바이저로 등록해 AspectJ 없이 기본 auto-proxy 생성기가 적용한다
+	@Bean
+	@Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+	public static Advisor cartWriteLockAdvisor(ObjectProvider<CartWriteLocks> cartWriteLocks) {
+		DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+				AnnotationMatchingPointcut.forMethodAnnotation(CartWriteLock.class),
+				new CartWriteLockInterceptor(cartWriteLocks));
+		advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return advisor;
+	}
+}
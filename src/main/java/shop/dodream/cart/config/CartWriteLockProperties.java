@@ -0,0 +1,19 @@
+package shop.dodream.cart.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+// 회원 장바구니 쓰기 직렬화 설정
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cart.write-lock")
+public class CartWriteLockProperties {
+	
+	// 락 개수, 2의 거듭제곱으로 올림
+	private int stripes = 256;
+	// 같은 장바구니의 앞선 쓰기를 기다리는 최대 시간, 넘으면 409
+	private Duration timeout = Duration.ofSeconds(3);
+}
@@ -0,0 +1,122 @@
+package shop.dodream.cart.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cart.guest")
+public class GuestCartProperties {
+	
+	// 비회원 장바구니 저장 방식 (value: 장바구니 전체를 JSON 한 값으로, hash: 도서별 해시 필드로)
+	private Storage storage = Storage.VALUE;
+	// value 방식의 직렬화 형식, binary는 기존 JSON 값도 읽을 수 있다
+	// hash 방식은 JSON 값만 해시로 옮길 수 있어 binary와 함께 설정하면 시작하지 않는다
+	private Codec codec = Codec.JSON;
+	private Duration ttl = Duration.ofDays(30);
+	// 조회 시 만료 시간을 연장하는 최소 간격 (0이면 조회로는 연장하지 않음)
+	private Duration touchInterval = Duration.ofHours(1);
+	// 마지막 연장 시각을 기억하는 비회원 수
+	private int touchTrackingSize = 100_000;
+	// 담을 수 있는 도서 종류 수이자 도서별 최대 수량
+	private int maxItemCount = 20;
+	// 해시 태그 도입 전 키(guest_cart:guestId)에 남은 장바구니를 새 키로 옮겨 읽는다
+	// 단일 Redis에서만 동작하며, 이전 키가 모두 만료된 뒤(ttl 경과)나 클러스터에서는 끈다
+	private boolean legacyKeyFallback = true;
+	
+	private final ClientCache clientCache = new ClientCache();
+	private final Failover failover = new Failover();
+	private final Cookie cookie = new Cookie();
+	private final ExistenceFilter existenceFilter = new ExistenceFilter();
+	private final Sweeper sweeper = new Sweeper();
+	private final Cleanup cleanup = new Cleanup();
+	private final Merge merge = new Merge();
+	
+	public enum Storage { VALUE, HASH }
+	
+	public enum Codec { JSON, BINARY }
+	
+	// Redis 서버 무효화(RESP3 트래킹) 기반 노드 내부 장바구니 캐시, value 저장 방식에서만 동작
+	@Getter
+	@Setter
+	public static class ClientCache {
+		private boolean enabled = false;
+		private int maxSize = 10_000;
+	}
+	
+	// Redis 장애 시 노드 메모리로 응답하고 복구 후 변경 내역을 반영하는 장애 모드
+	@Getter
+	@Setter
+	public static class Failover {
+		private boolean enabled = false;
+		private int maxSize = 10_000;
+		private int maxPendingOperations = 100;
+		private Duration retryInterval = Duration.ofSeconds(5);
+	}
+	
+	// 작은 장바구니는 서명된 쿠키에 담아 Redis 없이 처리하고, 크기를 넘으면 Redis에 저장
+	@Getter
+	@Setter
+	public static class Cookie {
+		private boolean enabled = false;
+		// HMAC-SHA256 서명 키, 사용 시 반드시 설정
+		private String secret;
+		// 쿠키 값 최대 길이 (브라우저 쿠키 한도 4KB 이내)
+		private int maxSize = 3072;
+		private boolean secure = true;
+	}
+	
+	// 장바구니를 쓴 적 없는 비회원 ID의 조회를 Redis 없이 처리하는 노드별 블룸 필터
+	@Getter
+	@Setter
+	public static class ExistenceFilter {
+		private boolean enabled = false;
+		// 필터 크기 기준, ttl 동안 장바구니를 쓰는 비회원 수보다 넉넉하게 잡는다
+		private long expectedInsertions = 1_000_000;
+		private double falsePositiveRate = 0.01;
+		// 만료된 ID를 비우기 위해 SCAN으로 다시 만드는 주기
+		private Duration rebuildInterval = Duration.ofHours(6);
+	}
+	
+	// SCAN으로 장바구니 키를 훑어 크기/TTL 분포를 집계하는 작업
+	@Getter
+	@Setter
+	public static class Sweeper {
+		// 주기 실행 여부, 꺼져 있어도 actuator(guestcarts)로 직접 실행할 수 있다
+		private boolean enabled = false;
+		private Duration interval = Duration.ofHours(1);
+		// SCAN COUNT이자 한 번에 파이프라인으로 조회하는 키 수
+		private int batchSize = 500;
+		// 배치 사이 대기 시간, Redis에 부하를 몰아서 주지 않도록
+		private Duration batchPause = Duration.ofMillis(50);
+	}
+	
+	// 회원 장바구니로 합친 비회원 장바구니의 비동기 삭제 재시도 (Redis ZSET 큐)
+	@Getter
+	@Setter
+	public static class Cleanup {
+		// 이 횟수만큼 실패하면 포기하고 병합 중 키는 TTL로 만료되게 둔다
+		private int maxAttempts = 10;
+		// 재시도 간격은 initialBackoff부터 두 배씩 늘어나 maxBackoff에서 멈춘다
+		private Duration initialBackoff = Duration.ofSeconds(1);
+		private Duration maxBackoff = Duration.ofMinutes(5);
+		private Duration pollInterval = Duration.ofSeconds(1);
+		// 한 번 조회할 때 꺼내는 최대 건수
+		private int batchSize = 100;
+	}
+	
+	// 로그인 시 회원 장바구니 병합을 요청 스레드 밖에서 반영하는 비동기 모드
+	@Getter
+	@Setter
+	public static class Merge {
+		// 켜면 병합 요청은 비회원 장바구니를 가져와 대기 기록만 남기고 바로 응답한다, 쿠키 저장과는 함께 쓸 수 없다
+		private boolean async = false;
+		// 대기 기록 보관 시간, 반영하지 못한 채 지나면 병합 중 장바구니와 함께 만료된다
+		private Duration pendingTtl = Duration.ofHours(1);
+		// 이 시간이 지나도 남은 대기 기록은 처리하던 노드가 멈춘 것으로 보고 다시 반영한다
+		private Duration resumeAfter = Duration.ofSeconds(30);
+	}
+}
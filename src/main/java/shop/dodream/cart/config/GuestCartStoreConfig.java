@@ -0,0 +1,106 @@
+package shop.dodream.cart.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import shop.dodream.cart.dto.GuestCart;
+import shop.dodream.cart.store.CookieGuestCartStore;
+import shop.dodream.cart.store.ExistenceFilterGuestCartStore;
+import shop.dodream.cart.store.FailoverGuestCartStore;
+import shop.dodream.cart.store.GuestCartStore;
+import shop.dodream.cart.store.RedisHashGuestCartStore;
+import shop.dodream.cart.store.RedisValueGuestCartStore;
+import shop.dodream.cart.store.SignedGuestCartCookieCodec;
+import shop.dodream.cart.store.SlidingExpiryGuestCartStore;
+import shop.dodream.cart.store.TrackingGuestCartStore;
+import shop.dodream.cart.util.GuestIdUtil;
+
+@Slf4j
+@Configuration
+public class GuestCartStoreConfig {
+	
+	// cart.guest.storage 설정에 따라 저장 방식을 선택하고, 켜진 부가 기능으로 감싼다
+	@Bean
+	public GuestCartStore guestCartStore(GuestCartProperties properties,
+	                                     RedisTemplate<String, GuestCart> redisTemplate,
+	                                     StringRedisTemplate stringRedisTemplate,
+	                                     RedisConnectionFactory connectionFactory,
+	                                     GuestIdUtil guestIdUtil,
+	                                     MeterRegistry meterRegistry) {
+		if (properties.getStorage() == GuestCartProperties.Storage.HASH
+				    && properties.getCodec() == GuestCartProperties.Codec.BINARY) {
+			// 해시로 옮기는 스크립트는 JSON 값만 읽을 수 있어, binary로 저장된 장바구니를 만날 때마다 실패한다
+			throw new IllegalStateException("cart.guest.storage=hash는 cart.guest.codec=binary와 함께 사용할 수 없습니다. "
+					                                + "codec을 json으로 되돌려 value 장바구니를 JSON으로 다시 쓴 뒤 hash로 전환하세요.");
+		}
+		if (properties.getMerge().isAsync() && properties.getCookie().isEnabled()) {
+			// 작업 스레드에는 요청이 없어, 병합에 실패하면 쿠키에서 가져간 장바구니를 되돌릴 곳이 없다
+			throw new IllegalStateException("cart.guest.merge.async는 cart.guest.cookie.enabled와 함께 사용할 수 없습니다.");
+		}
+		if (properties.isLegacyKeyFallback() && connectionFactory instanceof LettuceConnectionFactory lettuce
+				                                        && lettuce.isClusterAware()) {
+			// 이전 키와 새 키가 다른 슬롯에 있어 함께 다룰 수 없다 (클러스터에는 이전 키가 없음)
+			log.warn("Redis 클러스터에서는 비회원 장바구니 이전 키 조회를 사용하지 않습니다.");
+			properties.setLegacyKeyFallback(false);
+		}
+		
+		GuestCartStore store = switch (properties.getStorage()) {
+			case VALUE -> new RedisValueGuestCartStore(redisTemplate, properties);
+			case HASH -> new RedisHashGuestCartStore(stringRedisTemplate, properties);
+		};
+		
+		if (properties.getClientCache().isEnabled()) {
+			if (properties.getStorage() != GuestCartProperties.Storage.VALUE
+					    || !(connectionFactory instanceof LettuceConnectionFactory lettuceConnectionFactory)) {
+				log.warn("비회원 장바구니 클라이언트 캐시는 value 저장 방식과 Lettuce 연결에서만 사용할 수 있습니다.");
+			} else {
+				store = new TrackingGuestCartStore(store, lettuceConnectionFactory::getNativeClient,
+						guestCartSerializer(redisTemplate), properties.getClientCache().getMaxSize(),
+						properties.isLegacyKeyFallback(), meterRegistry);
+			}
+		}
+		
+		if (!properties.getTouchInterval().isZero()) {
+			store = new SlidingExpiryGuestCartStore(store, properties.getTouchInterval(),
+					properties.getTouchTrackingSize(), meterRegistry);
+		}
+		
+		// Redis 저장소들을 모두 감싸야 장애 시 안쪽 저장소 호출을 모두 건너뛸 수 있다
+		if (properties.getFailover().isEnabled()) {
+			GuestCartProperties.Failover failover = properties.getFailover();
+			store = new FailoverGuestCartStore(store, properties.getMaxItemCount(), failover.getMaxSize(),
+					failover.getMaxPendingOperations(), failover.getRetryInterval(), meterRegistry);
+		}
+		
+		// 쓴 적 없는 비회원은 장애 처리까지 갈 필요 없이 바로 빈 장바구니로 응답
+		if (properties.getExistenceFilter().isEnabled()) {
+			if (!(connectionFactory instanceof LettuceConnectionFactory lettuceConnectionFactory)) {
+				log.warn("비회원 장바구니 존재 필터는 Lettuce 연결에서만 사용할 수 있습니다.");
+			} else {
+				GuestCartProperties.ExistenceFilter existenceFilter = properties.getExistenceFilter();
+				store = new ExistenceFilterGuestCartStore(store, lettuceConnectionFactory::getNativeClient,
+						stringRedisTemplate, existenceFilter.getExpectedInsertions(),
+						existenceFilter.getFalsePositiveRate(), existenceFilter.getRebuildInterval(), meterRegistry);
+			}
+		}
+		
+		// 쿠키에 담긴 장바구니는 Redis 호출 없이 응답하도록 모든 저장소보다 바깥에 둔다
+		if (properties.getCookie().isEnabled()) {
+			GuestCartProperties.Cookie cookie = properties.getCookie();
+			store = new CookieGuestCartStore(store, new SignedGuestCartCookieCodec(cookie.getSecret()), guestIdUtil,
+					properties.getMaxItemCount(), cookie.getMaxSize(), properties.getTtl(), cookie.isSecure(), meterRegistry);
+		}
+		return store;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private RedisSerializer<GuestCart> guestCartSerializer(RedisTemplate<String, GuestCart> redisTemplate) {
+		return (RedisSerializer<GuestCart>) redisTemplate.getValueSerializer();
+	}
+}
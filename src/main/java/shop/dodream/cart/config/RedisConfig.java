@@ -1,23 +1,62 @@
 package shop.dodream.cart.config;
 
 
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import shop.dodream.cart.dto.BookListResponseRecord;
 import shop.dodream.cart.dto.GuestCart;
+import shop.dodream.cart.store.BinaryGuestCartSerializer;
+
+import java.time.Duration;
 
 
 @Configuration
 public class RedisConfig {
 	@Bean
-	public RedisTemplate<String, GuestCart> redisTemplate(RedisConnectionFactory connectionFactory) {
+	public RedisTemplate<String, GuestCart> redisTemplate(RedisConnectionFactory connectionFactory,
+	                                                      GuestCartProperties guestCartProperties) {
 		RedisTemplate<String, GuestCart> template = new RedisTemplate<>();
 		template.setConnectionFactory(connectionFactory);
 		template.setKeySerializer(new StringRedisSerializer());
-		template.setValueSerializer(new Jackson2JsonRedisSerializer<>(GuestCart.class));
+		template.setValueSerializer(guestCartSerializer(guestCartProperties.getCodec()));
 		return template;
 	}
+	
+	@Bean
+	public RedisTemplate<String, BookListResponseRecord> bookRedisTemplate(RedisConnectionFactory connectionFactory) {
+		RedisTemplate<String, BookListResponseRecord> template = new RedisTemplate<>();
+		template.setConnectionFactory(connectionFactory);
+		template.setKeySerializer(new StringRedisSerializer());
+		template.setValueSerializer(new Jackson2JsonRedisSerializer<>(BookListResponseRecord.class));
+		return template;
+	}
+	
+	// spring.data.redis.cluster.nodes가 있을 때만 적용, 슬롯 이동(MOVED/ASK)이나 노드 장애를 감지하면 바로 토폴로지를 다시 읽는다
+	@Bean
+	@ConditionalOnProperty(prefix = "spring.data.redis.cluster", name = "nodes")
+	public LettuceClientConfigurationBuilderCustomizer redisClusterCustomizer() {
+		ClusterTopologyRefreshOptions topologyRefreshOptions = ClusterTopologyRefreshOptions.builder()
+				                                                       .enableAllAdaptiveRefreshTriggers()
+				                                                       .enablePeriodicRefresh(Duration.ofMinutes(1))
+				                                                       .build();
+		return builder -> builder.clientOptions(ClusterClientOptions.builder()
+				                                        .topologyRefreshOptions(topologyRefreshOptions)
+				                                        .build());
+	}
+	
+	private RedisSerializer<GuestCart> guestCartSerializer(GuestCartProperties.Codec codec) {
+		return switch (codec) {
+			case JSON -> new Jackson2JsonRedisSerializer<>(GuestCart.class);
+			case BINARY -> new BinaryGuestCartSerializer();
+		};
+	}
 }
@@ -9,6 +9,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import shop.dodream.cart.dto.CartResponse;
 import shop.dodream.cart.dto.GuestCartResponse;
+import shop.dodream.cart.service.CartMergeService;
 import shop.dodream.cart.service.CartService;
 import shop.dodream.cart.service.GuestCartService;
 import shop.dodream.cart.util.GuestIdUtil;
@@ -23,12 +24,17 @@ public class CartController {
 	
 	private final CartService cartService;
 	private final GuestCartService guestCartService;
+	private final CartMergeService cartMergeService;
 	private final GuestIdUtil guestIdUtil;
 	
 	// 회원 장바구니 조회
-	@Operation(summary = "회원 장바구니 조회", description = "회원의 장바구니를 조회합니다.회원의 장바구니가 없다면 생성하고 조회합니다.")
+	@Operation(summary = "회원 장바구니 조회", description = "회원의 장바구니를 조회합니다.회원의 장바구니가 없다면 생성하고 조회합니다. includeItems=true 이면 장바구니 아이템도 함께 반환합니다.")
 	@GetMapping("/carts/users")
-	public ResponseEntity<CartResponse> getUserCart(@RequestHeader("X-USER-ID") String userId) {
+	public ResponseEntity<CartResponse> getUserCart(@RequestHeader("X-USER-ID") String userId,
+	                                                @RequestParam(defaultValue = "false") boolean includeItems) {
+		if (includeItems) {
+			return ResponseEntity.ok(cartService.getUserCartWithItems(userId));
+		}
 		return ResponseEntity.ok(cartService.getOrCreateUserCart(userId));
 	}
 	
@@ -63,11 +69,13 @@ public class CartController {
 		return ResponseEntity.noContent().build();
 	}
 	// 비회원 장바구니 통합
-	@Operation(summary = "장바구니 병합", description = "비회원 장바구니를 회원 장바구니를 생성 후 병합하고 비회원 장바구니를 지웁니다.")
+	@Operation(summary = "장바구니 병합", description = "비회원 장바구니를 회원 장바구니를 생성 후 병합하고 비회원 장바구니를 지웁니다. 비동기 병합이 켜져 있으면 병합을 예약하고 202를 반환합니다.")
 	@PostMapping("/carts/merge/{guestId}")
 	public ResponseEntity<Void> mergeCart(@RequestHeader("X-USER-ID") String userId,
 	                                      @PathVariable String guestId) {
-		cartService.mergeCartOnLogin(userId, guestId);
+		if (cartMergeService.requestMerge(userId, guestId)) {
+			return ResponseEntity.accepted().build();
+		}
 		return ResponseEntity.ok().build();
 	}
 }
@@ -86,4 +86,11 @@ public class CartItemController {
 		GuestCartResponse response = guestCartService.updateQuantity(guestId,request.getBookId(),request.getQuantity());
 		return ResponseEntity.ok(response);
 	}
+	
+	@Operation(summary = "비회원 장바구니 일괄 변경", description = "추가/수량 변경/삭제 목록을 순서대로 한 번에 적용합니다. 하나라도 실패하면 아무것도 변경하지 않습니다.")
+	@PostMapping("/public/carts/{guestId}/cart-items/bulk")
+	public ResponseEntity<GuestCartResponse> applyGuestCartOperations(@PathVariable String guestId, @RequestBody @Valid GuestCartBulkRequest request) {
+		GuestCartResponse response = guestCartService.applyOperations(guestId, request);
+		return ResponseEntity.ok(response);
+	}
 }
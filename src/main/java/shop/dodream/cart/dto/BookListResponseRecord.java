@@ -1,6 +1,7 @@
 package shop.dodream.cart.dto;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 
 @Getter
@@ -12,4 +13,15 @@ public class BookListResponseRecord {
 	private String title;
 	private Long salePrice;
 	private String bookUrl;
+	// 도서 서비스 장애로 마지막 정상 조회 결과를 대신 사용한 경우
+	@JsonIgnore
+	private boolean stale;
+	
+	public BookListResponseRecord(Long bookId, String title, Long salePrice, String bookUrl) {
+		this(bookId, title, salePrice, bookUrl, false);
+	}
+	
+	public BookListResponseRecord asStale() {
+		return new BookListResponseRecord(bookId, title, salePrice, bookUrl, true);
+	}
 }
@@ -17,6 +17,12 @@ public class CartItemResponse {
 	private Long salePrice;
 	private Long quantity;
 	private String bookUrl;
+	// 도서 서비스 장애로 마지막 정상 도서 정보를 사용한 경우 true
+	private boolean stale;
+	
+	public CartItemResponse(Long cartItemId, Long bookId, String title, Long salePrice, Long quantity, String bookUrl) {
+		this(cartItemId, bookId, title, salePrice, quantity, bookUrl, false);
+	}
 	
 	public static CartItemResponse of(CartItem item, BookListResponseRecord book) {
 		
@@ -26,7 +32,8 @@ public class CartItemResponse {
 				book.getTitle(),
 				book.getSalePrice(),
 				item.getQuantity(),
-				book.getBookUrl()
+				book.getBookUrl(),
+				book.isStale()
 		);
 	}
 }
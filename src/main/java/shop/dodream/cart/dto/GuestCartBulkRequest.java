@@ -0,0 +1,18 @@
+package shop.dodream.cart.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestCartBulkRequest {
+	@NotEmpty
+	@Size(max = 100)
+	private List<@Valid GuestCartOperationRequest> operations;
+}
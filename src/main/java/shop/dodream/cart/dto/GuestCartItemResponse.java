@@ -16,7 +16,12 @@ public class GuestCartItemResponse {
 	private Long quantity;
 	private Long salePrice;
 	private String bookUrl;
+	// 도서 서비스 장애로 마지막 정상 도서 정보를 사용한 경우 true
+	private boolean stale;
 	
+	public GuestCartItemResponse(Long bookId, String title, Long quantity, Long salePrice, String bookUrl) {
+		this(bookId, title, quantity, salePrice, bookUrl, false);
+	}
 	
 	public static GuestCartItemResponse of(GuestCartItem item, BookListResponseRecord book) {
 		
@@ -25,7 +30,8 @@ public class GuestCartItemResponse {
 				book != null ? book.getTitle() : null,
 				item.getQuantity(),
 				book != null ? book.getSalePrice() : null,
-				book != null ? book.getBookUrl() : null
+				book != null ? book.getBookUrl() : null,
+				book != null && book.isStale()
 		);
 	}
 }
@@ -0,0 +1,17 @@
+package shop.dodream.cart.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+// ADD: 수량만큼 더하기, UPDATE: 수량으로 바꾸기, REMOVE: 삭제 (수량 생략)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestCartOperationRequest {
+	@NotNull
+	private GuestCartOperationType type;
+	@NotNull
+	private Long bookId;
+	private Long quantity;
+}
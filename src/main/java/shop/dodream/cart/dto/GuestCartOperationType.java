@@ -0,0 +1,5 @@
+package shop.dodream.cart.dto;
+
+public enum GuestCartOperationType {
+	ADD, UPDATE, REMOVE
+}
@@ -10,6 +10,7 @@ import org.hibernate.annotations.OnDeleteAction;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_cart_item_cart_id_book_id", columnNames = {"cart_id", "book_id"}))
 @Getter
 @Setter
 public class CartItem {
@@ -0,0 +1,26 @@
+package shop.dodream.cart.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// 회원 장바구니에 반영한 비회원 장바구니 병합 기록, 같은 claimId의 병합을 다시 반영하지 않기 위해 쓴다
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class GuestCartMerge {
+	@Id
+	@Column(length = 64)
+	private String claimId;
+	
+	private String guestId;
+	
+	private Long cartId;
+	
+	private LocalDateTime mergedAt;
+}
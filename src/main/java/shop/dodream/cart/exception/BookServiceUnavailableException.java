@@ -0,0 +1,7 @@
+package shop.dodream.cart.exception;
+
+public class BookServiceUnavailableException extends RuntimeException {
+	public BookServiceUnavailableException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,7 @@
+package shop.dodream.cart.exception;
+
+public class CartBusyException extends RuntimeException {
+	public CartBusyException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,7 @@
+package shop.dodream.cart.exception;
+
+public class GuestCartUnavailableException extends RuntimeException {
+	public GuestCartUnavailableException(String message) {
+		super(message);
+	}
+}
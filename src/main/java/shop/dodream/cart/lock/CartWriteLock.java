@@ -0,0 +1,18 @@
+package shop.dodream.cart.lock;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// 같은 회원 장바구니에 대한 쓰기를 이 노드 안에서 한 번에 하나씩 실행한다
+// 트랜잭션보다 바깥에서 잡으므로 기다리는 동안 DB 커넥션을 쥐고 있지 않는다
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CartWriteLock {
+	
+	// 장바구니 ID를 구하는 SpEL (@CacheEvict key와 같은 형식), 결과가 null이면 잠그지 않는다
+	String key();
+}
@@ -0,0 +1,56 @@
+package shop.dodream.cart.lock;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// @CartWriteLock 메서드 앞에서 장바구니 락을 잡고 끝나면 푼다
+// 트랜잭션 어드바이스보다 먼저 실행되어 커밋이 끝난 뒤에 락을 푼다
+public class CartWriteLockInterceptor implements MethodInterceptor {
+	
+	private final ObjectProvider<CartWriteLocks> locks;
+	private final SpelExpressionParser parser = new SpelExpressionParser();
+	private final ParameterNameDiscoverer parameterNames = new DefaultParameterNameDiscoverer();
+	private final Map<Method, Expression> keys = new ConcurrentHashMap<>();
+	
+	// 어드바이저는 빈 후처리 전에 만들어지므로 락(MeterRegistry 의존)은 처음 호출될 때 가져온다
+	public CartWriteLockInterceptor(ObjectProvider<CartWriteLocks> locks) {
+		this.locks = locks;
+	}
+	
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		Method method = invocation.getMethod();
+		Expression key = keys.computeIfAbsent(method, this::parseKey);
+		Object cartId = key.getValue(new MethodBasedEvaluationContext(null, method, invocation.getArguments(), parameterNames));
+		if (cartId == null) {
+			return invocation.proceed();
+		}
+		
+		ReentrantLock lock = locks.getObject().acquire(((Number) cartId).longValue());
+		try {
+			return invocation.proceed();
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	private Expression parseKey(Method method) {
+		CartWriteLock annotation = AnnotationUtils.findAnnotation(method, CartWriteLock.class);
+		if (annotation == null) {
+			throw new IllegalStateException("@CartWriteLock not found on " + method);
+		}
+		return parser.parseExpression(annotation.key());
+	}
+}
@@ -0,0 +1,88 @@
+package shop.dodream.cart.lock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import shop.dodream.cart.config.CartWriteLockProperties;
+import shop.dodream.cart.exception.CartBusyException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 장바구니 ID를 고정 개수의 락 중 하나에 나눠 담는 줄무늬 락, 장바구니마다 락을 만들거나 지우지 않는다
+// 서로 다른 장바구니가 같은 락을 쓰게 될 수 있지만 락 수가 동시 요청 수보다 충분히 많으면 거의 겹치지 않는다
+@Component
+public class CartWriteLocks {
+	
+	private final ReentrantLock[] stripes;
+	private final int mask;
+	private final long timeoutNanos;
+	
+	private final Counter uncontendedCounter;
+	private final Counter contendedCounter;
+	private final Counter timeoutCounter;
+	private final Timer waitTimer;
+	
+	public CartWriteLocks(CartWriteLockProperties properties, MeterRegistry meterRegistry) {
+		int stripeCount = Integer.highestOneBit(Math.max(1, properties.getStripes() - 1)) << 1;
+		this.stripes = new ReentrantLock[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new ReentrantLock();
+		}
+		this.mask = stripeCount - 1;
+		this.timeoutNanos = properties.getTimeout().toNanos();
+		this.uncontendedCounter = Counter.builder("cart.write.lock.acquisitions").tag("result", "uncontended")
+				                          .register(meterRegistry);
+		this.contendedCounter = Counter.builder("cart.write.lock.acquisitions").tag("result", "contended")
+				                        .register(meterRegistry);
+		this.timeoutCounter = Counter.builder("cart.write.lock.acquisitions").tag("result", "timeout")
+				                      .register(meterRegistry);
+		this.waitTimer = Timer.builder("cart.write.lock.wait").register(meterRegistry);
+		Gauge.builder("cart.write.lock.waiting", this, CartWriteLocks::waiting).register(meterRegistry);
+	}
+	
+	// 잡은 락을 돌려주므로 호출한 쪽에서 finally로 unlock 해야 한다
+	public ReentrantLock acquire(long cartId) {
+		ReentrantLock lock = stripes[stripe(cartId)];
+		if (lock.tryLock()) {
+			uncontendedCounter.increment();
+			return lock;
+		}
+		
+		contendedCounter.increment();
+		long started = System.nanoTime();
+		boolean acquired;
+		try {
+			acquired = lock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CartBusyException("장바구니 변경 대기 중 중단되었습니다: cartId=" + cartId);
+		} finally {
+			waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+		}
+		if (!acquired) {
+			timeoutCounter.increment();
+			throw new CartBusyException("장바구니가 다른 요청으로 변경 중입니다. 잠시 후 다시 시도해 주세요: cartId=" + cartId);
+		}
+		return lock;
+	}
+	
+	int stripe(long cartId) {
+		long h = cartId * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+	
+	int stripeCount() {
+		return stripes.length;
+	}
+	
+	private double waiting() {
+		int waiting = 0;
+		for (ReentrantLock stripe : stripes) {
+			waiting += stripe.getQueueLength();
+		}
+		return waiting;
+	}
+}
@@ -0,0 +1,15 @@
+package shop.dodream.cart.repository;
+
+import shop.dodream.cart.entity.CartItem;
+
+import java.util.Collection;
+
+public interface CartItemBulkRepository {
+	
+	// 여러 아이템을 multi-row upsert 한 문장으로 반영, 기존 행은 수량만 더하고 가격은 그대로 둔다
+	int upsertAll(Collection<CartItem> items);
+	
+	// (cart_id, book_id) 유니크 인덱스 기반으로 없으면 추가, 있으면 수량을 더하고 가격을 갱신하는 단일 문장
+	// 새로 추가했으면 생성된 ID, 기존 행에 수량을 더했으면 null (MySQL에는 RETURNING이 없어 더한 결과는 알 수 없다)
+	Long upsertQuantity(Long cartId, Long bookId, Long quantity, Long salePrice);
+}
@@ -0,0 +1,91 @@
+package shop.dodream.cart.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import shop.dodream.cart.entity.CartItem;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class CartItemBulkRepositoryImpl implements CartItemBulkRepository {
+	
+	private static final int MAX_ROWS_PER_STATEMENT = 500;
+	private static final String INSERT_PREFIX = "INSERT INTO cart_item (cart_id, book_id, quantity, sale_price) VALUES ";
+	private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?)";
+	// 병합은 회원이 이미 담아 둔 행의 가격을 바꾸지 않고 수량만 더한다 (기존 병합과 같은 동작)
+	// 새 값은 MySQL 8.0.19부터 쓸 수 있는 행 별칭으로 참조한다, VALUES()는 8.0.20부터 사용 중단 예정
+	private static final String UPSERT_ALL_SUFFIX = " AS new ON DUPLICATE KEY UPDATE quantity = cart_item.quantity + new.quantity";
+	// 행 별칭을 해석하지 못하는 DB(테스트에 쓰는 H2 MySQL 모드)에서만 쓴다
+	private static final String UPSERT_ALL_LEGACY_SUFFIX = " ON DUPLICATE KEY UPDATE quantity = cart_item.quantity + VALUES(quantity)";
+	// 단건 추가는 도서를 다시 담을 때처럼 가격도 최신 값으로 바꾼다, 한 행뿐이라 새 값을 파라미터로 다시 넘긴다
+	private static final String UPSERT_ONE = INSERT_PREFIX + ROW_PLACEHOLDER
+			+ " ON DUPLICATE KEY UPDATE quantity = quantity + ?, sale_price = ?";
+	// ON DUPLICATE KEY UPDATE는 추가한 행을 1, 값을 바꾼 기존 행을 2로 센다 (수량이 늘어나므로 항상 바뀐다)
+	private static final int INSERTED = 1;
+	
+	private final JdbcTemplate jdbcTemplate;
+	private volatile String upsertAllSuffix;
+	
+	@Override
+	public int upsertAll(Collection<CartItem> items) {
+		List<CartItem> rows = new ArrayList<>(items);
+		int affected = 0;
+		for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+			affected += upsertChunk(rows.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, rows.size())));
+		}
+		return affected;
+	}
+	
+	@Override
+	public Long upsertQuantity(Long cartId, Long bookId, Long quantity, Long salePrice) {
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+		int affected = jdbcTemplate.update(connection -> {
+			PreparedStatement statement = connection.prepareStatement(UPSERT_ONE, Statement.RETURN_GENERATED_KEYS);
+			statement.setObject(1, cartId);
+			statement.setObject(2, bookId);
+			statement.setObject(3, quantity);
+			statement.setObject(4, salePrice);
+			statement.setObject(5, quantity);
+			statement.setObject(6, salePrice);
+			return statement;
+		}, keyHolder);
+		if (affected != INSERTED) {
+			return null;
+		}
+		Number key = keyHolder.getKey();
+		return key != null ? key.longValue() : null;
+	}
+	
+	private int upsertChunk(List<CartItem> rows) {
+		StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+		Object[] args = new Object[rows.size() * 4];
+		for (int i = 0; i < rows.size(); i++) {
+			CartItem row = rows.get(i);
+			sql.append(i == 0 ? "" : ", ").append(ROW_PLACEHOLDER);
+			args[i * 4] = row.getCart().getCartId();
+			args[i * 4 + 1] = row.getBookId();
+			args[i * 4 + 2] = row.getQuantity();
+			args[i * 4 + 3] = row.getSalePrice();
+		}
+		sql.append(upsertAllSuffix());
+		return jdbcTemplate.update(sql.toString(), args);
+	}
+	
+	private String upsertAllSuffix() {
+		String suffix = upsertAllSuffix;
+		if (suffix == null) {
+			String product = jdbcTemplate.execute(
+					(ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+			suffix = "MySQL".equalsIgnoreCase(product) ? UPSERT_ALL_SUFFIX : UPSERT_ALL_LEGACY_SUFFIX;
+			upsertAllSuffix = suffix;
+		}
+		return suffix;
+	}
+}
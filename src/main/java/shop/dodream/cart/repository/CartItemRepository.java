@@ -1,18 +1,28 @@
 package shop.dodream.cart.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import shop.dodream.cart.entity.CartItem;
 
 import java.util.List;
 
-public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+public interface CartItemRepository extends JpaRepository<CartItem, Long>, CartItemBulkRepository {
 	
 	List<CartItem> findByCart_CartId(Long cartId);
 	
+	List<CartItem> findByCart_UserId(String userId);
+	
 	CartItem findByCart_CartIdAndBookId(Long cartId, Long bookId);
 	
-	void deleteByCart_CartIdAndBookId(Long cartId, Long bookId);
+	// 엔티티를 로딩하지 않는 단일 DELETE 문, 삭제된 행 수를 반환
+	@Modifying(clearAutomatically = true)
+	@Query("delete from CartItem ci where ci.cart.cartId = :cartId and ci.bookId = :bookId")
+	int deleteByCart_CartIdAndBookId(@Param("cartId") Long cartId, @Param("bookId") Long bookId);
 	
-	void deleteByCart_CartId(Long cartId);
+	@Modifying(clearAutomatically = true)
+	@Query("delete from CartItem ci where ci.cart.cartId = :cartId")
+	int deleteByCart_CartId(@Param("cartId") Long cartId);
 	
 }
@@ -0,0 +1,24 @@
+package shop.dodream.cart.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import shop.dodream.cart.entity.GuestCartMerge;
+
+import java.util.Optional;
+
+public interface GuestCartMergeRepository extends JpaRepository<GuestCartMerge, String> {
+	
+	// 이미 기록된 claimId면 0을 반환, 같은 claimId를 동시에 기록하면 먼저 커밋한 쪽만 1을 받는다
+	@Modifying
+	@Query(value = "INSERT IGNORE INTO guest_cart_merge (claim_id, guest_id, cart_id, merged_at) " +
+			               "VALUES (:claimId, :guestId, :cartId, NOW())", nativeQuery = true)
+	int insertIfAbsent(@Param("claimId") String claimId, @Param("guestId") String guestId, @Param("cartId") Long cartId);
+	
+	// 공유 잠금 읽기라 같은 claimId를 기록하고 아직 커밋하지 않은 트랜잭션이 있으면 그 결과를 기다린다
+	@Lock(LockModeType.PESSIMISTIC_READ)
+	Optional<GuestCartMerge> findLockedByClaimId(String claimId);
+}
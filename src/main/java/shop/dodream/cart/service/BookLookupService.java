@@ -0,0 +1,73 @@
+package shop.dodream.cart.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import shop.dodream.cart.cache.BookNearCache;
+import shop.dodream.cart.cache.BookRedisCache;
+import shop.dodream.cart.cache.BookStaleStore;
+import shop.dodream.cart.client.CoalescingBookFetcher;
+import shop.dodream.cart.dto.BookListResponseRecord;
+
+import java.util.*;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookLookupService {
+	
+	private final CoalescingBookFetcher bookFetcher;
+	private final BookNearCache bookNearCache;
+	private final BookRedisCache bookRedisCache;
+	private final BookStaleStore bookStaleStore;
+	
+	// 노드 캐시 -> Redis 캐시 순으로 조회하고, 남은 도서 ID만 도서 서비스에 요청해 하나의 Map으로 합친다
+	public Map<Long, BookListResponseRecord> getBooks(Collection<Long> bookIds) {
+		if (bookIds == null || bookIds.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		Set<Long> requestedIds = new LinkedHashSet<>(bookIds);
+		requestedIds.remove(null);
+		
+		Map<Long, BookListResponseRecord> bookMap = bookNearCache.getAll(requestedIds);
+		if (bookMap.size() == requestedIds.size()) {
+			return bookMap;
+		}
+		
+		Map<Long, BookListResponseRecord> sharedHits = bookRedisCache.getAll(missingIds(requestedIds, bookMap));
+		if (!sharedHits.isEmpty()) {
+			bookNearCache.putAll(sharedHits.values());
+			bookStaleStore.putAll(sharedHits.values());
+			bookMap.putAll(sharedHits);
+			if (bookMap.size() == requestedIds.size()) {
+				return bookMap;
+			}
+		}
+		
+		List<Long> missingIds = missingIds(requestedIds, bookMap);
+		try {
+			bookMap.putAll(bookFetcher.fetch(missingIds, this::storeLoaded));
+		} catch (RuntimeException e) {
+			// 도서 서비스 장애 시 마지막 정상 조회 결과로 대체, 하나라도 없으면 원래 예외를 그대로 던진다
+			Map<Long, BookListResponseRecord> staleBooks = bookStaleStore.getAll(missingIds);
+			if (staleBooks.size() < missingIds.size()) {
+				throw e;
+			}
+			log.warn("도서 서비스 조회 실패로 이전 도서 정보 {}건을 사용합니다: {}", staleBooks.size(), e.getMessage());
+			bookMap.putAll(staleBooks);
+		}
+		return bookMap;
+	}
+	
+	private void storeLoaded(Collection<BookListResponseRecord> books) {
+		bookNearCache.putAll(books);
+		bookRedisCache.putAll(books);
+		bookStaleStore.putAll(books);
+	}
+	
+	private List<Long> missingIds(Set<Long> requestedIds, Map<Long, BookListResponseRecord> found) {
+		return requestedIds.stream()
+				       .filter(id -> !found.containsKey(id))
+				       .toList();
+	}
+}
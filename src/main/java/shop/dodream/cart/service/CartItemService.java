@@ -1,35 +1,97 @@
 package shop.dodream.cart.service;
 
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import shop.dodream.cart.client.BookClient;
 import shop.dodream.cart.dto.*;
 import shop.dodream.cart.entity.Cart;
 import shop.dodream.cart.entity.CartItem;
+import shop.dodream.cart.exception.BookServiceUnavailableException;
 import shop.dodream.cart.exception.DataNotFoundException;
+import shop.dodream.cart.lock.CartWriteLock;
 import shop.dodream.cart.repository.CartItemRepository;
 import shop.dodream.cart.repository.CartRepository;
+import shop.dodream.cart.repository.GuestCartMergeRepository;
+import shop.dodream.cart.store.GuestCartClaim;
+import shop.dodream.cart.store.PendingCartMerge;
+import shop.dodream.cart.store.PendingCartMergeStore;
+import shop.dodream.cart.util.CartQuantities;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CartItemService {
 	private final CartItemRepository cartItemRepository;
-	private final BookClient bookClient;
+	private final BookLookupService bookLookupService;
 	private final CartRepository cartRepository;
+	private final GuestCartMergeRepository guestCartMergeRepository;
+	private final PendingCartMergeStore pendingCartMergeStore;
+	
 	
-
 	@Transactional(readOnly = true)
 	public List<CartItemResponse> getCartItems(Long cartId) {
-		List<CartItem> items = cartItemRepository.findByCart_CartId(cartId);
+		if (!pendingCartMergeStore.isEnabled()) {
+			return toResponses(cartItemRepository.findByCart_CartId(cartId));
+		}
+		String userId = cartRepository.findById(cartId).map(Cart::getUserId).orElse(null);
+		List<PendingCartMerge> pending = pendingCartMergeStore.findAll(userId);
+		return toResponses(withPendingMerge(cartItemRepository.findByCart_CartId(cartId), pending));
+	}
+	
+	// 장바구니 ID 없이 회원 ID로 바로 조회해 장바구니 조회와 동시에 실행할 수 있도록 한다
+	@Transactional(readOnly = true)
+	public List<CartItemResponse> getCartItemsByUserId(String userId) {
+		List<PendingCartMerge> pending = pendingCartMergeStore.findAll(userId);
+		return toResponses(withPendingMerge(cartItemRepository.findByCart_UserId(userId), pending));
+	}
+	
+	// 대기 기록은 아이템 조회 전에 읽고, 병합 기록 확인은 아이템 조회와 같은 스냅샷에서 한다
+	// 반영이 끝난 뒤 스냅샷이면 병합 기록이 보여 더하지 않고, 그 전이면 아이템에도 반영되지 않았으므로 두 번 세지 않는다
+	// 여러 기기에서 로그인해 대기 기록이 여럿이면 아직 반영되지 않은 기록을 모두 더한다
+	private List<CartItem> withPendingMerge(List<CartItem> items, List<PendingCartMerge> pending) {
+		if (pending.isEmpty()) {
+			return items;
+		}
+		Set<String> merged = new HashSet<>();
+		guestCartMergeRepository.findAllById(pending.stream().map(PendingCartMerge::claimId).toList())
+				.forEach(record -> merged.add(record.getClaimId()));
+		CartQuantities pendingQuantities = new CartQuantities();
+		for (PendingCartMerge record : pending) {
+			if (!merged.contains(record.claimId())) {
+				pendingQuantities.addAll(CartQuantities.of(record.items()));
+			}
+		}
+		if (pendingQuantities.isEmpty()) {
+			return items;
+		}
 		
+		// 조회한 엔티티를 바꾸지 않도록 복사본에 수량을 더한다
+		CartQuantities stored = new CartQuantities(items.size());
+		List<CartItem> combined = new ArrayList<>(items.size() + pendingQuantities.size());
+		for (CartItem item : items) {
+			stored.put(item.getBookId(), item.getQuantity());
+			combined.add(new CartItem(item.getCartItemId(), item.getQuantity() + pendingQuantities.get(item.getBookId()),
+					item.getBookId(), item.getCart(), item.getSalePrice()));
+		}
+		for (int i = 0; i < pendingQuantities.size(); i++) {
+			if (!stored.contains(pendingQuantities.bookIdAt(i))) {
+				// 아직 저장되지 않은 아이템이라 ID가 없다
+				combined.add(new CartItem(null, pendingQuantities.quantityAt(i), pendingQuantities.bookIdAt(i), null, null));
+			}
+		}
+		return combined;
+	}
+	
+	private List<CartItemResponse> toResponses(List<CartItem> items) {
 		if (items.isEmpty()) {
 			return Collections.emptyList();
 		}
@@ -39,10 +101,7 @@ public class CartItemService {
 				                     .distinct()
 				                     .collect(Collectors.toList());
 		
-		List<BookListResponseRecord> books = bookClient.getBooksByIds(bookIds);
-		
-		Map<Long, BookListResponseRecord> bookMap = books.stream()
-				                                            .collect(Collectors.toMap(BookListResponseRecord::getBookId, Function.identity()));
+		Map<Long, BookListResponseRecord> bookMap = bookLookupService.getBooks(bookIds);
 		
 		return items.stream()
 				       .map(item -> {
@@ -55,39 +114,41 @@ public class CartItemService {
 				       .collect(Collectors.toList());
 	}
 	
+	@CartWriteLock(key = "#request.cartId")
 	@Transactional
 	public CartItemResponse addCartItem(CartItemRequest request) {
-		Cart cart = cartRepository.findById(request.getCartId())
-				            .orElseThrow(() -> new DataNotFoundException("Cart not found with id: " + request.getCartId()));
-		
-		CartItem existingItem = cartItemRepository.findByCart_CartIdAndBookId(request.getCartId(), request.getBookId());
-		
-		CartItem cartItemToProcess;
-		if (existingItem != null) {
-			existingItem.setQuantity(existingItem.getQuantity() + request.getQuantity());
-			cartItemToProcess = existingItem;
-		} else {
-			cartItemToProcess = new CartItem();
-			cartItemToProcess.setBookId(request.getBookId());
-			cartItemToProcess.setCart(cart);
-			cartItemToProcess.setQuantity(request.getQuantity());
-		}
+		Long cartId = request.getCartId();
+		Long bookId = request.getBookId();
 		
 		// 도서 정보 일괄 조회 (단 건이어도 동일한 로직 사용)
-		Map<Long, BookListResponseRecord> bookMap = fetchBooksInBulk(List.of(cartItemToProcess.getBookId()));
-		BookListResponseRecord book = bookMap.get(cartItemToProcess.getBookId());
+		Map<Long, BookListResponseRecord> bookMap = fetchBooksInBulk(List.of(bookId));
+		BookListResponseRecord book = bookMap.get(bookId);
 		
 		if (book == null) {
-			throw new DataNotFoundException("도서 정보를 찾을 수 없습니다: id=" + cartItemToProcess.getBookId());
+			throw new DataNotFoundException("도서 정보를 찾을 수 없습니다: id=" + bookId);
 		}
-		
-		// 판매 가격 업데이트 후 저장
-		cartItemToProcess.setSalePrice(book.getSalePrice());
-		CartItem savedItem = cartItemRepository.save(cartItemToProcess);
+		requireFreshPrice(book);
+		
+		// 추가와 수량 증가를 한 번의 쿼리로 처리, 장바구니가 없으면 FK 제약 조건 위반
+		Long insertedId;
+		try {
+			insertedId = cartItemRepository.upsertQuantity(cartId, bookId, request.getQuantity(), book.getSalePrice());
+		} catch (DataIntegrityViolationException e) {
+			// 장바구니가 있으면 FK가 아닌 다른 제약 조건 위반이므로 그대로 던진다
+			if (cartRepository.existsById(cartId)) {
+				throw e;
+			}
+			throw new DataNotFoundException("Cart not found with id: " + cartId);
+		}
+		// 새로 추가한 행은 넣은 값 그대로이므로 다시 읽지 않고, 기존 행만 더한 뒤 수량을 읽는다
+		CartItem savedItem = insertedId != null
+				                     ? new CartItem(insertedId, request.getQuantity(), bookId, null, book.getSalePrice())
+				                     : cartItemRepository.findByCart_CartIdAndBookId(cartId, bookId);
 		
 		return CartItemResponse.of(savedItem, book);
 	}
 	
+	@CartWriteLock(key = "#cartId")
 	@Transactional
 	public CartItemResponse updateCartItemQuantity(Long cartId,Long cartItemId, Long quantity) {
 		CartItem item = cartItemRepository.findById(cartItemId)
@@ -100,6 +161,7 @@ public class CartItemService {
 		if (book == null) {
 			throw new DataNotFoundException("도서를 찾을 수 없습니다: id=" + item.getBookId());
 		}
+		requireFreshPrice(book);
 		Cart cart = cartRepository.findById(cartId)
 				            .orElseThrow(() -> new DataNotFoundException("Cart not found: id=" + cartId));
 		item.setCart(cart);
@@ -110,67 +172,74 @@ public class CartItemService {
 		return CartItemResponse.of(updated, book);
 	}
 	
+	@CartWriteLock(key = "#cartId")
 	@Transactional
 	public void removeAllCartItems(Long cartId) {
-		List<CartItem> items = cartItemRepository.findByCart_CartId(cartId);
-		if (items.isEmpty()) {
-			return;
-		}
 		cartItemRepository.deleteByCart_CartId(cartId);
 	}
 	
+	@CartWriteLock(key = "#cartId")
 	@Transactional
 	public void removeCartItemByBookId(Long cartId, Long bookId) {
-		CartItem item = cartItemRepository.findByCart_CartIdAndBookId(cartId, bookId);
-		if (item == null) {
+		int deleted = cartItemRepository.deleteByCart_CartIdAndBookId(cartId, bookId);
+		if (deleted == 0) {
 			throw new DataNotFoundException("No cart item found for cartId " + cartId + " and bookId " + bookId);
 		}
-		cartItemRepository.deleteByCart_CartIdAndBookId(cartId, bookId);
 	}
 	
+	// 병합 기록을 아이템 반영과 같은 트랜잭션에 남겨, 이미 반영한 claimId면 아무것도 바꾸지 않고 false를 반환
+	@CartWriteLock(key = "#memberCart.getCartId()")
 	@CacheEvict(value = "cart", key = "#memberCart.getCartId()")
 	@Transactional
-	public void mergeGuestItemsIntoMemberCart(List<GuestCartItem> guestItems, Cart memberCart) {
-		// 1. 일괄 Book 조회
-		List<Long> bookIds = guestItems.stream()
-				                     .map(GuestCartItem::getBookId)
-				                     .distinct()
-				                     .collect(Collectors.toList());
+	public boolean mergeGuestItemsIntoMemberCart(GuestCartClaim claim, Cart memberCart) {
+		if (guestCartMergeRepository.insertIfAbsent(claim.claimId(), claim.cart().getGuestId(), memberCart.getCartId()) == 0) {
+			return false;
+		}
+		// 1. 병합 수량을 메모리에서 계산 (같은 도서가 여러 번 있으면 합산)
+		CartQuantities guestQuantities = CartQuantities.of(claim.cart().getItems());
 		
-		List<BookListResponseRecord> books = bookClient.getBooksByIds(bookIds);
-		Map<Long, BookListResponseRecord> bookMap = books.stream()
-				                                            .collect(Collectors.toMap(BookListResponseRecord::getBookId, Function.identity()));
+		// 2. 일괄 Book 조회
+		List<Long> bookIds = new ArrayList<>(guestQuantities.size());
+		for (int i = 0; i < guestQuantities.size(); i++) {
+			bookIds.add(guestQuantities.bookIdAt(i));
+		}
 		
-		// 2. 병합
-		for (GuestCartItem guestItem : guestItems) {
-			Long bookId = guestItem.getBookId();
+		Map<Long, BookListResponseRecord> bookMap = bookLookupService.getBooks(bookIds);
+		
+		List<CartItem> mergedItems = new ArrayList<>(guestQuantities.size());
+		for (int i = 0; i < guestQuantities.size(); i++) {
+			Long bookId = guestQuantities.bookIdAt(i);
 			BookListResponseRecord book = bookMap.get(bookId);
 			if (book == null) {
 				throw new DataNotFoundException("Book not found for ID: " + bookId);
 			}
-			
-			CartItem existing = cartItemRepository.findByCart_CartIdAndBookId(memberCart.getCartId(), bookId);
-			if (existing != null) {
-				existing.setQuantity(existing.getQuantity() + guestItem.getQuantity());
-				cartItemRepository.save(existing);
-			} else {
-				CartItem newItem = new CartItem();
-				newItem.setCart(memberCart);
-				newItem.setBookId(bookId);
-				newItem.setQuantity(guestItem.getQuantity());
-				newItem.setSalePrice(book.getSalePrice());
-				cartItemRepository.save(newItem);
-			}
+			requireFreshPrice(book);
+			mergedItems.add(new CartItem(null, guestQuantities.quantityAt(i), bookId, memberCart, book.getSalePrice()));
 		}
+		
+		// 3. 기존 아이템은 수량 증가, 신규 아이템은 추가를 한 문장으로 반영
+		cartItemRepository.upsertAll(mergedItems);
+		return true;
+	}
+	
+	// 장애 중 대체한 도서 정보의 가격은 저장하지 않는다, 조회 응답에만 stale로 표시해 쓴다
+	private void requireFreshPrice(BookListResponseRecord book) {
+		if (book.isStale()) {
+			throw new BookServiceUnavailableException("도서 서비스 장애로 최신 가격을 확인할 수 없어 장바구니를 변경할 수 없습니다: id=" + book.getBookId());
+		}
+	}
+	
+	// 같은 claim을 반영 중인 다른 트랜잭션이 있으면 커밋이나 롤백이 끝난 뒤의 결과를 답한다
+	@Transactional
+	public boolean isClaimMerged(String claimId) {
+		return guestCartMergeRepository.findLockedByClaimId(claimId).isPresent();
 	}
 	
 	private Map<Long, BookListResponseRecord> fetchBooksInBulk(List<Long> bookIds) {
 		if (bookIds == null || bookIds.isEmpty()) {
 			return Collections.emptyMap();
 		}
-		// 제공된 BookClient의 메소드를 직접 호출합니다.
-		List<BookListResponseRecord> books = bookClient.getBooksByIds(bookIds);
-		return books.stream()
-				       .collect(Collectors.toMap(BookListResponseRecord::getBookId, java.util.function.Function.identity()));
+		// 캐시를 거쳐 누락된 도서만 BookClient로 조회합니다.
+		return bookLookupService.getBooks(bookIds);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+package shop.dodream.cart.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import shop.dodream.cart.config.GuestCartProperties;
+import shop.dodream.cart.exception.MissingIdentifierException;
+import shop.dodream.cart.store.GuestCartClaim;
+import shop.dodream.cart.store.PendingCartMerge;
+import shop.dodream.cart.store.PendingCartMergeStore;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// 비동기 모드에서는 요청 스레드가 비회원 장바구니를 가져와 대기 기록만 남기고, 반영은 cartMergeExecutor에서 한다
+// 반영 전 조회는 대기 기록을 더해 보여주고(CartItemService), 처리하던 노드가 멈춰 남은 기록은 주기적으로 다시 반영한다
+// 같은 claim을 여러 번 반영해도 병합 기록으로 한 번만 더해진다
+@Slf4j
+@Service
+public class CartMergeService {
+	
+	private static final int RESUME_BATCH_SIZE = 100;
+	
+	private final CartService cartService;
+	private final GuestCartService guestCartService;
+	private final PendingCartMergeStore pendingCartMergeStore;
+	private final Executor cartMergeExecutor;
+	private final boolean async;
+	private final long resumeAfterMillis;
+	private final ScheduledExecutorService scheduler;
+	private final LongSupplier clock;
+	
+	// 이 노드에서 반영 중인 claim, 같은 기록을 중복으로 넘기지 않는다
+	private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+	
+	private final Counter queuedCounter;
+	private final Counter mergedCounter;
+	private final Counter failedCounter;
+	private final Counter resumedCounter;
+	
+	@Autowired
+	public CartMergeService(CartService cartService, GuestCartService guestCartService,
+	                        PendingCartMergeStore pendingCartMergeStore,
+	                        @Qualifier("cartMergeExecutor") Executor cartMergeExecutor,
+	                        GuestCartProperties properties, MeterRegistry meterRegistry) {
+		this(cartService, guestCartService, pendingCartMergeStore, cartMergeExecutor, properties.getMerge(),
+				meterRegistry, Executors.newSingleThreadScheduledExecutor(runnable -> {
+					Thread thread = new Thread(runnable, "cart-merge-resume");
+					thread.setDaemon(true);
+					return thread;
+				}), System::currentTimeMillis);
+		if (async) {
+			scheduler.scheduleWithFixedDelay(this::resumeQuietly, resumeAfterMillis, resumeAfterMillis,
+					TimeUnit.MILLISECONDS);
+		}
+	}
+	
+	CartMergeService(CartService cartService, GuestCartService guestCartService,
+	                 PendingCartMergeStore pendingCartMergeStore, Executor cartMergeExecutor,
+	                 GuestCartProperties.Merge config, MeterRegistry meterRegistry,
+	                 ScheduledExecutorService scheduler, LongSupplier clock) {
+		this.cartService = cartService;
+		this.guestCartService = guestCartService;
+		this.pendingCartMergeStore = pendingCartMergeStore;
+		this.cartMergeExecutor = cartMergeExecutor;
+		this.async = config.isAsync();
+		this.resumeAfterMillis = Math.max(1, config.getResumeAfter().toMillis());
+		this.scheduler = scheduler;
+		this.clock = clock;
+		this.queuedCounter = Counter.builder("cart.merge.async").tag("result", "queued").register(meterRegistry);
+		this.mergedCounter = Counter.builder("cart.merge.async").tag("result", "merged").register(meterRegistry);
+		this.failedCounter = Counter.builder("cart.merge.async").tag("result", "failed").register(meterRegistry);
+		this.resumedCounter = Counter.builder("cart.merge.async").tag("result", "resumed").register(meterRegistry);
+	}
+	
+	// 반영을 뒤로 미뤘으면 true, 동기 모드이거나 합칠 장바구니가 없어 이미 끝났으면 false
+	public boolean requestMerge(String userId, String guestId) {
+		if (!async) {
+			cartService.mergeCartOnLogin(userId, guestId);
+			return false;
+		}
+		if (!StringUtils.hasText(userId) || !StringUtils.hasText(guestId)) {
+			throw new MissingIdentifierException("Both userId and guestId must be provided.");
+		}
+		
+		GuestCartClaim claim = guestCartService.claimCart(guestId);
+		if (claim == null) {
+			return false;
+		}
+		if (claim.cart().getItems().isEmpty()) {
+			guestCartService.deleteGuestCartAfterMerge(guestId, claim.claimId());
+			return false;
+		}
+		
+		PendingCartMerge pending = new PendingCartMerge(guestId, claim.claimId(), claim.cart().getItems(),
+				clock.getAsLong());
+		try {
+			pendingCartMergeStore.save(userId, pending);
+		} catch (RuntimeException e) {
+			// 대기 기록을 남기지 못하면 조회에서 아이템이 빠져 보이므로 이 요청에서 바로 반영한다
+			log.warn("장바구니 병합 대기 기록 저장 실패, 바로 반영합니다 [{}]: {}", userId, e.getMessage());
+			cartService.mergeClaimedCart(userId, guestId, claim);
+			return false;
+		}
+		queuedCounter.increment();
+		submit(userId, pending);
+		return true;
+	}
+	
+	void submit(String userId, PendingCartMerge pending) {
+		if (!inFlight.add(pending.claimId())) {
+			return;
+		}
+		try {
+			cartMergeExecutor.execute(() -> merge(userId, pending));
+		} catch (RuntimeException e) {
+			inFlight.remove(pending.claimId());
+			log.warn("장바구니 병합 작업 등록 실패, 대기 기록으로 다시 시도합니다 [{}]: {}", userId, e.getMessage());
+		}
+	}
+	
+	// 실패하면 mergeClaimedCart가 비회원 장바구니를 되돌리므로 대기 기록도 지워 조회에 두 번 보이지 않게 한다
+	private void merge(String userId, PendingCartMerge pending) {
+		try {
+			cartService.mergeClaimedCart(userId, pending.guestId(), pending.toClaim());
+			mergedCounter.increment();
+		} catch (RuntimeException e) {
+			failedCounter.increment();
+			log.error("장바구니 비동기 병합 실패 [{}, {}]: {}", userId, pending.guestId(), e.getMessage(), e);
+		} finally {
+			try {
+				pendingCartMergeStore.remove(userId, pending.claimId());
+			} catch (RuntimeException e) {
+				log.warn("장바구니 병합 대기 기록 삭제 실패 [{}]: {}", userId, e.getMessage());
+			} finally {
+				inFlight.remove(pending.claimId());
+			}
+		}
+	}
+	
+	void resume() {
+		long now = clock.getAsLong();
+		for (PendingCartMergeStore.Entry entry : pendingCartMergeStore.requestedBefore(now - resumeAfterMillis,
+				RESUME_BATCH_SIZE)) {
+			if (inFlight.contains(entry.claimId())) {
+				continue;
+			}
+			PendingCartMerge pending = pendingCartMergeStore.find(entry.userId(), entry.claimId());
+			if (pending == null) {
+				pendingCartMergeStore.reindex(entry.userId(), entry.claimId(), null);
+				continue;
+			}
+			pendingCartMergeStore.reindex(entry.userId(), entry.claimId(), now);
+			resumedCounter.increment();
+			submit(entry.userId(), pending);
+		}
+	}
+	
+	private void resumeQuietly() {
+		try {
+			resume();
+		} catch (RuntimeException e) {
+			log.warn("남은 장바구니 병합 대기 기록 조회 실패: {}", e.getMessage());
+		}
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		scheduler.shutdownNow();
+	}
+}
@@ -1,6 +1,8 @@
 package shop.dodream.cart.service;
 
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -9,16 +11,35 @@ import shop.dodream.cart.dto.*;
 import shop.dodream.cart.entity.Cart;
 import shop.dodream.cart.exception.DataNotFoundException;
 import shop.dodream.cart.exception.MissingIdentifierException;
+import shop.dodream.cart.lock.CartWriteLock;
 import shop.dodream.cart.repository.CartRepository;
+import shop.dodream.cart.store.GuestCartClaim;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class CartService {
 	
 	private final CartRepository cartRepository;
 	private final CartItemService cartItemService;
 	private final GuestCartService guestCartService;
+	private final Executor cartQueryExecutor;
+	// 자기 자신 호출에도 @Transactional이 적용되도록 프록시를 통해 부른다
+	private final ObjectProvider<CartService> self;
+	
+	public CartService(CartRepository cartRepository, CartItemService cartItemService,
+	                   GuestCartService guestCartService, @Qualifier("cartQueryExecutor") Executor cartQueryExecutor,
+	                   ObjectProvider<CartService> self) {
+		this.cartRepository = cartRepository;
+		this.cartItemService = cartItemService;
+		this.guestCartService = guestCartService;
+		this.cartQueryExecutor = cartQueryExecutor;
+		this.self = self;
+	}
 	
 	@Transactional
 	public CartResponse getOrCreateUserCart(String userId) {
@@ -35,6 +56,24 @@ public class CartService {
 		}
 	}
 	
+	// 아이템은 회원 ID로 바로 조회하므로 장바구니 조회/생성과 도서 정보 보강을 동시에 실행한다
+	// 트랜잭션을 걸지 않는다: 커넥션을 쥔 채 다른 커넥션이 필요한 작업을 기다리면 풀이 바닥날 수 있다
+	public CartResponse getUserCartWithItems(String userId) {
+		CompletableFuture<List<CartItemResponse>> itemsFuture =
+				CompletableFuture.supplyAsync(() -> cartItemService.getCartItemsByUserId(userId), cartQueryExecutor);
+		CartResponse cartResponse = self.getObject().getOrCreateUserCart(userId);
+		try {
+			cartResponse.setItems(itemsFuture.join());
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+		return cartResponse;
+	}
+	
+	@CartWriteLock(key = "#cartId")
 	@Transactional
 	public void deleteCart(Long cartId) {
 		if(!cartRepository.existsById(cartId)) {
@@ -49,24 +88,55 @@ public class CartService {
 			throw new MissingIdentifierException("Both userId and guestId must be provided.");
 		}
 		
-		// 1. Redis에서 비회원 장바구니 가져오기
-		GuestCart guestCart = guestCartService.getRawCart(guestId);
-		if (guestCart == null || guestCart.getItems().isEmpty()) {
+		// 1. Redis에서 비회원 장바구니를 원자적으로 가져오기 (동시 로그인과 재시도는 같은 claimId를 받아 한 번만 반영된다)
+		GuestCartClaim claim = guestCartService.claimCart(guestId);
+		if (claim == null) {
+			return;
+		}
+		if (claim.cart().getItems().isEmpty()) {
+			guestCartService.deleteGuestCartAfterMerge(guestId, claim.claimId());
 			return;
 		}
 		
-		// 2. 회원 장바구니 조회 또는 생성
-		Cart memberCart = cartRepository.findByUserId(userId).orElseGet(() -> {
-			Cart newCart = new Cart();
-			newCart.setUserId(userId);
-			return cartRepository.save(newCart);
-		});
-		
-		// 3. 병합 로직 분리
-		cartItemService.mergeGuestItemsIntoMemberCart(guestCart.getItems(), memberCart);
+		mergeClaimedCart(userId, guestId, claim);
+	}
+	
+	// 가져온 비회원 장바구니를 회원 장바구니에 반영하고 정리, 실패하면 비회원 장바구니를 되돌린다
+	public void mergeClaimedCart(String userId, String guestId, GuestCartClaim claim) {
+		try {
+			// 2. 회원 장바구니 조회 또는 생성
+			Cart memberCart = cartRepository.findByUserId(userId).orElseGet(() -> {
+				Cart newCart = new Cart();
+				newCart.setUserId(userId);
+				return cartRepository.save(newCart);
+			});
+			
+			// 3. 병합 로직 분리, 이미 반영한 claim이면 수량을 다시 더하지 않는다
+			cartItemService.mergeGuestItemsIntoMemberCart(claim, memberCart);
+		} catch (RuntimeException e) {
+			// 반영하지 못했으면 장바구니를 되돌려 비회원이 계속 보고 다음 로그인에서 다시 합친다
+			releaseUnlessMerged(guestId, claim.claimId());
+			throw e;
+		}
 		
-		// 4. Redis 비회원 장바구니 삭제
-		guestCartService.deleteGuestCartWithRetry(guestId);
+		// 4. Redis 비회원 장바구니 삭제, 이미 반영한 claim을 다시 처리한 경우에도 병합 중 키가 아직 이 claim이면 지운다
+		// 그 사이 다른 로그인이 새로 가져간 장바구니는 claimId가 달라 남는다
+		guestCartService.deleteGuestCartAfterMerge(guestId, claim.claimId());
 	}
 	
+	// 같은 claim을 다른 로그인이 이미 반영했으면 되돌리지 않는다
+	// 되돌리면 그쪽의 정리가 claim 키를 찾지 못해 장바구니가 남고, 다음 로그인에서 수량이 한 번 더 더해진다
+	private void releaseUnlessMerged(String guestId, String claimId) {
+		boolean merged;
+		try {
+			merged = cartItemService.isClaimMerged(claimId);
+		} catch (RuntimeException e) {
+			// 확인하지 못하면 되돌리지 않는다, 병합 중 키에 남은 장바구니는 다음 로그인이 같은 claimId로 이어받는다
+			log.warn("비회원 장바구니 [{}] 병합 기록 확인 실패로 되돌리지 않습니다: {}", guestId, e.getMessage());
+			return;
+		}
+		if (!merged) {
+			guestCartService.releaseClaim(guestId, claimId);
+		}
+	}
 }
\ No newline at end of file
@@ -2,31 +2,27 @@ package shop.dodream.cart.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
-import shop.dodream.cart.client.BookClient;
+import shop.dodream.cart.config.GuestCartProperties;
 import shop.dodream.cart.dto.*;
 import shop.dodream.cart.exception.DataNotFoundException;
 import shop.dodream.cart.exception.InvalidQuantityException;
+import shop.dodream.cart.store.GuestCartClaim;
+import shop.dodream.cart.store.GuestCartCleanupQueue;
+import shop.dodream.cart.store.GuestCartOperation;
+import shop.dodream.cart.store.GuestCartStore;
 
-import java.time.Duration;
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class GuestCartService {
 	
-	private static final String REDIS_KEY_PREFIX = "guest_cart:";
-	private static final Duration CART_EXPIRATION = Duration.ofDays(30);
-	private static final int MAX_ITEM_COUNT = 20;
-	private static final int MAX_RETRY = 3;
-	private static final long RETRY_DELAY_MS = 500;
-	
-	private final RedisTemplate<String, GuestCart> redisTemplate;
-	private final BookClient bookClient;
+	private final GuestCartStore guestCartStore;
+	private final GuestCartProperties guestCartProperties;
+	private final BookLookupService bookLookupService;
+	private final GuestCartCleanupQueue guestCartCleanupQueue;
 	
 	public GuestCartResponse getCart(String guestId) {
 		GuestCart cart = fetchCart(guestId);
@@ -35,81 +31,60 @@ public class GuestCartService {
 	
 	public GuestCartResponse addCartItem(String guestId, GuestCartItemRequest request) {
 		validateRequest(request);
-		GuestCart cart = fetchCart(guestId);
-		
-		Optional<GuestCartItem> existing = cart.getItems().stream()
-				                                   .filter(i -> i.getBookId().equals(request.getBookId()))
-				                                   .findFirst();
-		
-		if (existing.isPresent()) {
-			long newQuantity = existing.get().getQuantity() + request.getQuantity();
-			if (newQuantity > MAX_ITEM_COUNT) {
-				newQuantity = MAX_ITEM_COUNT; // 20개 제한 예시
-			}
-			existing.get().setQuantity(newQuantity);
-		} else {
-			if (cart.getItems().size() >= MAX_ITEM_COUNT) {
-				throw new InvalidQuantityException("장바구니는 최대 " + MAX_ITEM_COUNT + "개까지만 담을 수 있습니다.");
-			}
-			long quantityToAdd = request.getQuantity();
-			if (quantityToAdd > MAX_ITEM_COUNT) {
-				quantityToAdd = MAX_ITEM_COUNT; // 신규 아이템도 제한
-			}
-			cart.getItems().add(new GuestCartItem(request.getBookId(), quantityToAdd));
-		}
-		
-		saveCart(guestId, cart);
+		GuestCart cart = guestCartStore.addItem(guestId, request.getBookId(), request.getQuantity());
 		return buildGuestCartResponse(cart);
 	}
 	
 	public void removeItem(String guestId, Long bookId) {
-		GuestCart cart = fetchCart(guestId);
-		cart.setItems(cart.getItems().stream()
-				              .filter(item -> !item.getBookId().equals(bookId))
-						              .toList());
-		saveCart(guestId, cart);
+		guestCartStore.removeItem(guestId, bookId);
 	}
 	
 	public void deleteCart(String guestId) {
-		redisTemplate.delete(buildKey(guestId));
+		guestCartStore.delete(guestId);
 	}
 	
 	public GuestCartResponse updateQuantity(String guestId, Long bookId, Long newQuantity) {
-		if (newQuantity == null || newQuantity < 1 || newQuantity > MAX_ITEM_COUNT) {
-			throw new InvalidQuantityException("수량은 1~" + MAX_ITEM_COUNT + " 사이여야 합니다.");
+		int maxItemCount = guestCartProperties.getMaxItemCount();
+		if (newQuantity == null || newQuantity < 1 || newQuantity > maxItemCount) {
+			throw new InvalidQuantityException("수량은 1~" + maxItemCount + " 사이여야 합니다.");
 		}
 		
-		GuestCart cart = fetchCart(guestId);
-		
-		Optional<GuestCartItem> itemOptional = cart.getItems().stream()
-				                                       .filter(item -> item.getBookId().equals(bookId))
-				                                       .findFirst();
-		
-		if (itemOptional.isEmpty()) {
-			throw new DataNotFoundException("해당 도서가 장바구니에 존재하지 않습니다.");
-		}
-		
-		itemOptional.get().setQuantity(newQuantity);
-		
-		saveCart(guestId, cart);
+		GuestCart cart = guestCartStore.updateQuantity(guestId, bookId, newQuantity);
+		return buildGuestCartResponse(cart);
+	}
+	
+	// 여러 변경을 저장소 한 번 호출로 적용하고 도서 정보는 마지막에 한 번만 조회
+	public GuestCartResponse applyOperations(String guestId, GuestCartBulkRequest request) {
+		List<GuestCartOperation> operations = request.getOperations().stream()
+				                                      .map(this::toOperation)
+				                                      .toList();
+		GuestCart cart = guestCartStore.applyAll(guestId, operations);
 		return buildGuestCartResponse(cart);
 	}
 	
 	public GuestCart getRawCart(String guestId) {
-		return redisTemplate.opsForValue().get(buildKey(guestId));
+		return guestCartStore.find(guestId);
 	}
 	
-	private GuestCart fetchCart(String guestId) {
-		GuestCart cart = redisTemplate.opsForValue().get(buildKey(guestId));
-		return cart != null ? cart : new GuestCart(guestId, new ArrayList<>());
+	// 회원 장바구니로 합칠 장바구니를 원자적으로 가져간다, 장바구니가 없으면 null
+	// 동시에 들어온 다른 로그인은 같은 claimId를 받고, 병합 기록으로 한 번만 반영된다
+	public GuestCartClaim claimCart(String guestId) {
+		return guestCartStore.claim(guestId);
 	}
 	
-	private void saveCart(String guestId, GuestCart cart) {
-		redisTemplate.opsForValue().set(buildKey(guestId), cart, CART_EXPIRATION);
+	// 병합 중 키가 이 claim의 것일 때만 되돌린다
+	public void releaseClaim(String guestId, String claimId) {
+		try {
+			guestCartStore.releaseClaim(guestId, claimId);
+		} catch (RuntimeException e) {
+			// 되돌리지 못한 장바구니는 병합 중 키에 남아 다음 로그인이 이어받는다
+			log.warn("비회원 장바구니 [{}] 되돌리기 실패: {}", guestId, e.getMessage());
+		}
 	}
 	
-	private String buildKey(String guestId) {
-		return REDIS_KEY_PREFIX + guestId;
+	private GuestCart fetchCart(String guestId) {
+		GuestCart cart = guestCartStore.find(guestId);
+		return cart != null ? cart : new GuestCart(guestId, new ArrayList<>());
 	}
 	
 	private GuestCartResponse buildGuestCartResponse(GuestCart cart) {
@@ -125,8 +100,7 @@ public class GuestCartService {
 		
 		Map<Long, BookListResponseRecord> bookMap = new HashMap<>();
 		try {
-			List<BookListResponseRecord> books = bookClient.getBooksByIds(bookIds);
-			bookMap = books.stream().collect(Collectors.toMap(BookListResponseRecord::getBookId, Function.identity()));
+			bookMap = bookLookupService.getBooks(bookIds);
 		} catch (Exception e) {
 			log.error("도서 목록 조회 실패: {}", e.getMessage());
 		}
@@ -151,27 +125,33 @@ public class GuestCartService {
 		}
 	}
 	
-	public void deleteGuestCartWithRetry(String guestId) {
-		String key = REDIS_KEY_PREFIX + guestId;
-		int attempt = 0;
-		boolean deleted = false;
-		
-		while (attempt < MAX_RETRY && !deleted) {
-			try {
-				deleted = Boolean.TRUE.equals(redisTemplate.delete(key));
-				if (!deleted) {
-					log.warn("Redis guest cart [{}] delete failed (attempt {}/{})", key, attempt + 1, MAX_RETRY);
-					Thread.sleep(RETRY_DELAY_MS);
+	// 단건 API와 같은 규칙으로 검증
+	private GuestCartOperation toOperation(GuestCartOperationRequest request) {
+		if (request.getBookId() == null) {
+			throw new DataNotFoundException("bookId는 null이 될 수 없습니다.");
+		}
+		Long quantity = request.getQuantity();
+		int maxItemCount = guestCartProperties.getMaxItemCount();
+		return switch (request.getType()) {
+			case ADD -> {
+				if (quantity == null || quantity <= 0) {
+					throw new InvalidQuantityException("수량은 1개 이상이어야 합니다.");
 				}
-			} catch (Exception e) {
-				log.error("Redis guest cart [{}] delete exception (attempt {}/{}): {}", key, attempt + 1, MAX_RETRY, e.getMessage());
-				try { Thread.sleep(RETRY_DELAY_MS); } catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
+				yield new GuestCartOperation(GuestCartOperationType.ADD, request.getBookId(), quantity);
 			}
-			attempt++;
-		}
-		
-		if (!deleted) {
-			log.error("Redis guest cart [{}] delete failed after {} attempts", key, MAX_RETRY);
-		}
+			case UPDATE -> {
+				if (quantity == null || quantity < 1 || quantity > maxItemCount) {
+					throw new InvalidQuantityException("수량은 1~" + maxItemCount + " 사이여야 합니다.");
+				}
+				yield new GuestCartOperation(GuestCartOperationType.UPDATE, request.getBookId(), quantity);
+			}
+			case REMOVE -> new GuestCartOperation(GuestCartOperationType.REMOVE, request.getBookId(), 0);
+		};
+	}
+	
+	// 회원 장바구니 병합 후 호출, 가져간 장바구니의 삭제는 재시도 큐가 요청 스레드 밖에서 처리한다
+	// 병합 중 키가 아직 이 claim의 것일 때만 지운다
+	public void deleteGuestCartAfterMerge(String guestId, String claimId) {
+		guestCartCleanupQueue.enqueue(guestId, claimId);
 	}
 }
@@ -0,0 +1,160 @@
+package shop.dodream.cart.store;
+
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import shop.dodream.cart.dto.GuestCart;
+import shop.dodream.cart.dto.GuestCartItem;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// [버전 1바이트][guestId 길이+1 varint][guestId UTF-8][아이템 수 varint][(bookId, 수량) zigzag varint 반복]
+// 첫 바이트가 버전 헤더가 아니면 이전 JSON 값으로 보고 JSON으로 읽는다
+public class BinaryGuestCartSerializer implements RedisSerializer<GuestCart> {
+	
+	static final byte VERSION_1 = 0x01;
+	
+	private final RedisSerializer<GuestCart> jsonSerializer;
+	
+	public BinaryGuestCartSerializer() {
+		this(new Jackson2JsonRedisSerializer<>(GuestCart.class));
+	}
+	
+	public BinaryGuestCartSerializer(RedisSerializer<GuestCart> jsonSerializer) {
+		this.jsonSerializer = jsonSerializer;
+	}
+	
+	@Override
+	public byte[] serialize(GuestCart cart) {
+		if (cart == null) {
+			return new byte[0];
+		}
+		byte[] guestId = cart.getGuestId() != null ? cart.getGuestId().getBytes(StandardCharsets.UTF_8) : null;
+		List<GuestCartItem> items = cart.getItems() != null ? cart.getItems() : List.of();
+		
+		Output out = new Output(8 + (guestId != null ? guestId.length : 0) + items.size() * 4);
+		out.writeByte(VERSION_1);
+		if (guestId == null) {
+			out.writeVarint(0);
+		} else {
+			out.writeVarint(guestId.length + 1L);
+			out.writeBytes(guestId);
+		}
+		out.writeVarint(items.size());
+		for (GuestCartItem item : items) {
+			out.writeVarint(zigzag(item.getBookId()));
+			out.writeVarint(zigzag(item.getQuantity()));
+		}
+		return out.toByteArray();
+	}
+	
+	@Override
+	public GuestCart deserialize(byte[] bytes) {
+		if (bytes == null || bytes.length == 0) {
+			return null;
+		}
+		if (bytes[0] != VERSION_1) {
+			return jsonSerializer.deserialize(bytes);
+		}
+		
+		Input in = new Input(bytes);
+		String guestId = null;
+		int guestIdLength = (int) in.readVarint();
+		if (guestIdLength > 0) {
+			guestId = in.readString(guestIdLength - 1);
+		}
+		long itemCount = in.readVarint();
+		if (itemCount > bytes.length) {
+			throw new SerializationException("잘못된 장바구니 데이터: 아이템 수 " + itemCount);
+		}
+		List<GuestCartItem> items = new ArrayList<>((int) itemCount);
+		for (int i = 0; i < itemCount; i++) {
+			items.add(new GuestCartItem(unzigzag(in.readVarint()), unzigzag(in.readVarint())));
+		}
+		return new GuestCart(guestId, items);
+	}
+	
+	private static long zigzag(Long value) {
+		long v = value != null ? value : 0L;
+		return (v << 1) ^ (v >> 63);
+	}
+	
+	private static long unzigzag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+	
+	private static final class Output {
+		private byte[] buffer;
+		private int position;
+		
+		private Output(int capacity) {
+			this.buffer = new byte[capacity];
+		}
+		
+		private void writeByte(int value) {
+			ensureCapacity(1);
+			buffer[position++] = (byte) value;
+		}
+		
+		private void writeBytes(byte[] bytes) {
+			ensureCapacity(bytes.length);
+			System.arraycopy(bytes, 0, buffer, position, bytes.length);
+			position += bytes.length;
+		}
+		
+		private void writeVarint(long value) {
+			ensureCapacity(10);
+			while ((value & ~0x7FL) != 0) {
+				buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			buffer[position++] = (byte) value;
+		}
+		
+		private void ensureCapacity(int extra) {
+			if (position + extra > buffer.length) {
+				buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+			}
+		}
+		
+		private byte[] toByteArray() {
+			return Arrays.copyOf(buffer, position);
+		}
+	}
+	
+	private static final class Input {
+		private final byte[] buffer;
+		private int position = 1;
+		
+		private Input(byte[] buffer) {
+			this.buffer = buffer;
+		}
+		
+		private long readVarint() {
+			long result = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				if (position >= buffer.length) {
+					throw new SerializationException("잘못된 장바구니 데이터: 길이가 부족합니다.");
+				}
+				byte b = buffer[position++];
+				result |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return result;
+				}
+			}
+			throw new SerializationException("잘못된 장바구니 데이터: varint 형식 오류");
+		}
+		
+		private String readString(int length) {
+			if (length < 0 || position + length > buffer.length) {
+				throw new SerializationException("잘못된 장바구니 데이터: 길이가 부족합니다.");
+			}
+			String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+			position += length;
+			return value;
+		}
+	}
+}
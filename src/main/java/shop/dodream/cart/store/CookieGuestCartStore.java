@@ -0,0 +1,270 @@
+package shop.dodream.cart.store;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import shop.dodream.cart.dto.GuestCart;
+import shop.dodream.cart.store.SignedGuestCartCookieCodec.CookieCart;
+import shop.dodream.cart.util.GuestIdUtil;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+// 요청에 담긴 서명 쿠키로 장바구니를 읽고 써서 Redis 왕복 없이 처리한다
+// 쿠키 크기를 넘는 장바구니와 쿠키가 없는 요청(이전 장바구니, 요청 밖 호출)은 안쪽 저장소를 사용한다
+@Slf4j
+public class CookieGuestCartStore implements GuestCartStore {
+	
+	// 같은 요청 안에서 다시 읽을 때 응답에 쓴 값을 보도록 요청 속성에 기록
+	private static final String STATE_ATTRIBUTE = CookieGuestCartStore.class.getName() + ".state";
+	private static final String CLAIMED_ATTRIBUTE = CookieGuestCartStore.class.getName() + ".claimed";
+	private static final String COOKIE_CLAIM_PREFIX = "cookie-";
+	
+	private final GuestCartStore delegate;
+	private final SignedGuestCartCookieCodec codec;
+	private final GuestIdUtil guestIdUtil;
+	private final int maxItemCount;
+	private final int maxCookieSize;
+	private final Duration ttl;
+	private final boolean secure;
+	
+	private final Counter hitCounter;
+	private final Counter missCounter;
+	private final Counter rejectedCounter;
+	private final Counter overflowCounter;
+	
+	public CookieGuestCartStore(GuestCartStore delegate, SignedGuestCartCookieCodec codec, GuestIdUtil guestIdUtil,
+	                            int maxItemCount, int maxCookieSize, Duration ttl, boolean secure,
+	                            MeterRegistry meterRegistry) {
+		this.delegate = delegate;
+		this.codec = codec;
+		this.guestIdUtil = guestIdUtil;
+		this.maxItemCount = maxItemCount;
+		this.maxCookieSize = maxCookieSize;
+		this.ttl = ttl;
+		this.secure = secure;
+		this.hitCounter = Counter.builder("cart.guest.cookie.requests").tag("result", "hit").register(meterRegistry);
+		this.missCounter = Counter.builder("cart.guest.cookie.requests").tag("result", "miss").register(meterRegistry);
+		this.rejectedCounter = Counter.builder("cart.guest.cookie.rejected").register(meterRegistry);
+		this.overflowCounter = Counter.builder("cart.guest.cookie.overflows").register(meterRegistry);
+	}
+	
+	@Override
+	public GuestCart find(String guestId) {
+		ServletRequestAttributes attributes = currentRequest();
+		if (attributes == null) {
+			return delegate.find(guestId);
+		}
+		CookieCart cookie = cookieCart(attributes.getRequest(), guestId);
+		if (cookie != null) {
+			hitCounter.increment();
+			return GuestCartMutations.copyOf(cookie.cart());
+		}
+		missCounter.increment();
+		return delegate.find(guestId);
+	}
+	
+	@Override
+	public GuestCart addItem(String guestId, Long bookId, long quantity) {
+		ServletRequestAttributes attributes = currentRequest();
+		if (attributes == null) {
+			return delegate.addItem(guestId, bookId, quantity);
+		}
+		return mutate(attributes, guestId, cart -> GuestCartMutations.addItem(cart, bookId, quantity, maxItemCount));
+	}
+	
+	@Override
+	public GuestCart updateQuantity(String guestId, Long bookId, long quantity) {
+		ServletRequestAttributes attributes = currentRequest();
+		if (attributes == null) {
+			return delegate.updateQuantity(guestId, bookId, quantity);
+		}
+		return mutate(attributes, guestId, cart -> GuestCartMutations.updateQuantity(cart, bookId, quantity));
+	}
+	
+	@Override
+	public void removeItem(String guestId, Long bookId) {
+		ServletRequestAttributes attributes = currentRequest();
+		if (attributes == null) {
+			delegate.removeItem(guestId, bookId);
+			return;
+		}
+		mutate(attributes, guestId, cart -> GuestCartMutations.removeItem(cart, bookId));
+	}
+	
+	@Override
+	public GuestCart applyAll(String guestId, List<GuestCartOperation> operations) {
+		ServletRequestAttributes attributes = currentRequest();
+		if (attributes == null) {
+			return delegate.applyAll(guestId, operations);
+		}
+		return mutate(attributes, guestId, cart -> GuestCartMutations.applyAll(cart, operations, maxItemCount));
+	}
+	
+	// 쿠키와 Redis 어느 쪽에 있든 함께 지운다
+	@Override
+	public boolean delete(String guestId) {
+		ServletRequestAttributes attributes = currentRequest();
+		if (attributes == null) {
+			return delegate.delete(guestId);
+		}
+		boolean hadCookie = cookieCart(attributes.getRequest(), guestId) != null;
+		if (hadCookie) {
+			guestIdUtil.clearCartCookie(attributes.getResponse(), secure);
+			attributes.getRequest().setAttribute(STATE_ATTRIBUTE, new CookieState(null));
+		}
+		return delegate.delete(guestId) || hadCookie;
+	}
+	
+	@Override
+	public void replace(GuestCart cart) {
+		ServletRequestAttributes attributes = currentRequest();
+		if (attributes == null) {
+			delegate.replace(cart);
+			return;
+		}
+		CookieCart cookie = cookieCart(attributes.getRequest(), cart.getGuestId());
+		String nonce = cookie != null ? cookie.nonce() : SignedGuestCartCookieCodec.newNonce();
+		save(attributes, nonce, GuestCartMutations.copyOf(cart), true);
+	}
+	
+	// 쿠키 장바구니는 쿠키 만료 시간을 다시 설정하고, 나머지는 안쪽 저장소에서 연장
+	@Override
+	public void touch(String guestId) {
+		ServletRequestAttributes attributes = currentRequest();
+		CookieCart cookie = attributes != null ? cookieCart(attributes.getRequest(), guestId) : null;
+		if (cookie == null) {
+			delegate.touch(guestId);
+			return;
+		}
+		guestIdUtil.setCartCookie(attributes.getResponse(), codec.encode(cookie), ttl, secure);
+	}
+	
+	// 쿠키 장바구니는 쿠키를 비워 가져가고, claimId는 쿠키를 처음 만들 때 정한 nonce로 정한다
+	// 같은 쿠키로 다시 요청하면 한 번만 반영되고, 비운 뒤 새로 만든 장바구니는 내용이 같아도 다른 claimId를 받는다
+	@Override
+	public GuestCartClaim claim(String guestId) {
+		ServletRequestAttributes attributes = currentRequest();
+		CookieCart cookie = attributes != null ? cookieCart(attributes.getRequest(), guestId) : null;
+		if (cookie == null) {
+			return delegate.claim(guestId);
+		}
+		guestIdUtil.clearCartCookie(attributes.getResponse(), secure);
+		attributes.getRequest().setAttribute(STATE_ATTRIBUTE, new CookieState(null));
+		attributes.getRequest().setAttribute(CLAIMED_ATTRIBUTE, cookie);
+		return new GuestCartClaim(COOKIE_CLAIM_PREFIX + cookie.nonce(), GuestCartMutations.copyOf(cookie.cart()));
+	}
+	
+	@Override
+	public boolean completeClaim(String guestId, String claimId) {
+		return delegate.completeClaim(guestId, claimId);
+	}
+	
+	// 이 요청에서 쿠키로 가져간 같은 claim이면 쿠키를 다시 쓴다
+	@Override
+	public boolean releaseClaim(String guestId, String claimId) {
+		ServletRequestAttributes attributes = currentRequest();
+		if (attributes != null && attributes.getRequest().getAttribute(CLAIMED_ATTRIBUTE) instanceof CookieCart cookie
+				    && guestId.equals(cookie.cart().getGuestId()) && claimId.equals(COOKIE_CLAIM_PREFIX + cookie.nonce())) {
+			attributes.getRequest().removeAttribute(CLAIMED_ATTRIBUTE);
+			save(attributes, cookie.nonce(), cookie.cart(), false);
+			return true;
+		}
+		return delegate.releaseClaim(guestId, claimId);
+	}
+	
+	@Override
+	public void close() {
+		delegate.close();
+	}
+	
+	private GuestCart mutate(ServletRequestAttributes attributes, String guestId, Predicate<GuestCart> mutation) {
+		CookieCart cookie = cookieCart(attributes.getRequest(), guestId);
+		GuestCart cart;
+		String nonce;
+		boolean stored = false;
+		if (cookie == null) {
+			// 쿠키가 없으면 Redis에 있던 장바구니(크기 초과 또는 이전 장바구니)를 이어서 사용
+			cart = delegate.find(guestId);
+			stored = cart != null;
+			if (cart == null) {
+				cart = new GuestCart(guestId, new ArrayList<>());
+			}
+			nonce = SignedGuestCartCookieCodec.newNonce();
+		} else {
+			cart = GuestCartMutations.copyOf(cookie.cart());
+			nonce = cookie.nonce();
+		}
+		if (mutation.test(cart)) {
+			save(attributes, nonce, cart, stored);
+		}
+		return cart;
+	}
+	
+	// 쿠키 크기 안이면 쿠키에 쓰고 Redis 사본은 지우며, 넘으면 Redis에 전체를 저장하고 쿠키를 지운다
+	private void save(ServletRequestAttributes attributes, String nonce, GuestCart cart, boolean stored) {
+		HttpServletRequest request = attributes.getRequest();
+		HttpServletResponse response = attributes.getResponse();
+		String value = codec.encode(new CookieCart(nonce, cart));
+		if (value.length() <= maxCookieSize) {
+			guestIdUtil.setCartCookie(response, value, ttl, secure);
+			request.setAttribute(STATE_ATTRIBUTE, new CookieState(new CookieCart(nonce, GuestCartMutations.copyOf(cart))));
+			if (stored) {
+				deleteStoredCopy(cart.getGuestId());
+			}
+			return;
+		}
+		
+		overflowCounter.increment();
+		delegate.replace(cart);
+		if (!stored) {
+			guestIdUtil.clearCartCookie(response, secure);
+		}
+		request.setAttribute(STATE_ATTRIBUTE, new CookieState(null));
+	}
+	
+	private void deleteStoredCopy(String guestId) {
+		try {
+			delegate.delete(guestId);
+		} catch (RuntimeException e) {
+			// 쿠키가 최신 값이므로 남은 사본은 TTL로 정리되도록 둔다
+			log.warn("쿠키로 옮긴 비회원 장바구니의 Redis 사본 삭제 실패 [{}]: {}", guestId, e.getMessage());
+		}
+	}
+	
+	// 요청에서 이 비회원의 쿠키 장바구니를 읽는다, 없거나 서명이 맞지 않으면 null
+	private CookieCart cookieCart(HttpServletRequest request, String guestId) {
+		if (request.getAttribute(STATE_ATTRIBUTE) instanceof CookieState state) {
+			return state.cookie();
+		}
+		String value = guestIdUtil.getCartCookie(request);
+		if (value == null || value.isEmpty()) {
+			return null;
+		}
+		CookieCart cookie = codec.decode(value);
+		if (cookie == null || !guestId.equals(cookie.cart().getGuestId())) {
+			rejectedCounter.increment();
+			return null;
+		}
+		return cookie;
+	}
+	
+	private ServletRequestAttributes currentRequest() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes instanceof ServletRequestAttributes servletAttributes && servletAttributes.getResponse() != null) {
+			return servletAttributes;
+		}
+		return null;
+	}
+	
+	// cookie가 null이면 이 요청에서 쿠키를 비웠다는 뜻
+	private record CookieState(CookieCart cookie) {
+	}
+}
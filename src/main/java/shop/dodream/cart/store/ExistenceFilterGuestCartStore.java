@@ -0,0 +1,359 @@
+package shop.dodream.cart.store;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import shop.dodream.cart.dto.GuestCart;
+import shop.dodream.cart.dto.GuestCartOperationType;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// 장바구니를 한 번이라도 쓴 비회원 ID를 블룸 필터로 기억해, 쓴 적 없는 ID의 조회와 삭제는 Redis 없이 응답한다
+// 다른 노드가 쓴 ID는 pub/sub으로 받아 반영하고, 구독이 (다시) 연결되면 SCAN으로 필터를 새로 만든다
+// 필터가 준비되지 않았으면(시작 직후, 구독이 끊긴 동안) 항상 원래 저장소로 조회한다
+@Slf4j
+public class ExistenceFilterGuestCartStore implements GuestCartStore {
+	
+	static final String CHANNEL = "guest_cart:written";
+	private static final long MAINTENANCE_INTERVAL_SECONDS = 10;
+	private static final int SCAN_BATCH_SIZE = 1000;
+	private static final int MAX_UNPUBLISHED = 10_000;
+	
+	private final GuestCartStore delegate;
+	private final Supplier<AbstractRedisClient> clientSupplier;
+	private final StringRedisTemplate redisTemplate;
+	private final long expectedInsertions;
+	private final double falsePositiveRate;
+	private final long rebuildIntervalNanos;
+	private final ScheduledExecutorService scheduler;
+	
+	// filter, building은 this 락 안에서만 바꾸고, 조회는 락 없이 filter만 읽는다
+	private volatile GuestIdBloomFilter filter;
+	private GuestIdBloomFilter building;
+	private volatile boolean ready;
+	private volatile boolean subscribed;
+	// 구독이 끊길 때마다 증가, 재구성 도중 끊겼으면 준비 완료로 보지 않는다
+	private volatile long subscriptionEpoch;
+	private volatile long lastRebuild;
+	// 발행에 실패한 ID, 다음 점검 때 다시 발행한다
+	private final Set<String> unpublished = ConcurrentHashMap.newKeySet();
+	
+	private volatile StatefulRedisPubSubConnection<String, String> connection;
+	private volatile RedisClient subscriberClient;
+	private volatile RedisConnectionStateListener connectionListener;
+	private volatile boolean unsupported;
+	
+	private final Counter skippedCounter;
+	private final Counter passedCounter;
+	
+	public ExistenceFilterGuestCartStore(GuestCartStore delegate, Supplier<AbstractRedisClient> clientSupplier,
+	                                     StringRedisTemplate redisTemplate, long expectedInsertions,
+	                                     double falsePositiveRate, Duration rebuildInterval, MeterRegistry meterRegistry) {
+		this(delegate, clientSupplier, redisTemplate, expectedInsertions, falsePositiveRate, rebuildInterval,
+				meterRegistry, Executors.newSingleThreadScheduledExecutor(runnable -> {
+					Thread thread = new Thread(runnable, "guest-cart-existence-filter");
+					thread.setDaemon(true);
+					return thread;
+				}));
+		scheduler.scheduleWithFixedDelay(this::maintain, 0, MAINTENANCE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+	}
+	
+	ExistenceFilterGuestCartStore(GuestCartStore delegate, Supplier<AbstractRedisClient> clientSupplier,
+	                              StringRedisTemplate redisTemplate, long expectedInsertions, double falsePositiveRate,
+	                              Duration rebuildInterval, MeterRegistry meterRegistry,
+	                              ScheduledExecutorService scheduler) {
+		this.delegate = delegate;
+		this.clientSupplier = clientSupplier;
+		this.redisTemplate = redisTemplate;
+		this.expectedInsertions = expectedInsertions;
+		this.falsePositiveRate = falsePositiveRate;
+		this.rebuildIntervalNanos = rebuildInterval.toNanos();
+		this.scheduler = scheduler;
+		this.skippedCounter = Counter.builder("cart.guest.existence-filter.requests").tag("result", "skipped").register(meterRegistry);
+		this.passedCounter = Counter.builder("cart.guest.existence-filter.requests").tag("result", "passed").register(meterRegistry);
+		Gauge.builder("cart.guest.existence-filter.ready", this, store -> store.ready ? 1 : 0).register(meterRegistry);
+	}
+	
+	@Override
+	public GuestCart find(String guestId) {
+		if (neverWritten(guestId)) {
+			return null;
+		}
+		return delegate.find(guestId);
+	}
+	
+	@Override
+	public GuestCart addItem(String guestId, Long bookId, long quantity) {
+		try {
+			return delegate.addItem(guestId, bookId, quantity);
+		} finally {
+			written(guestId);
+		}
+	}
+	
+	// 수량 변경과 삭제는 이미 있는 장바구니에만 의미가 있으므로 기록하지 않는다
+	@Override
+	public GuestCart updateQuantity(String guestId, Long bookId, long quantity) {
+		return delegate.updateQuantity(guestId, bookId, quantity);
+	}
+	
+	@Override
+	public void removeItem(String guestId, Long bookId) {
+		if (!neverWritten(guestId)) {
+			delegate.removeItem(guestId, bookId);
+		}
+	}
+	
+	@Override
+	public GuestCart applyAll(String guestId, List<GuestCartOperation> operations) {
+		try {
+			return delegate.applyAll(guestId, operations);
+		} finally {
+			if (operations.stream().anyMatch(operation -> operation.type() == GuestCartOperationType.ADD)) {
+				written(guestId);
+			}
+		}
+	}
+	
+	@Override
+	public boolean delete(String guestId) {
+		return !neverWritten(guestId) && delegate.delete(guestId);
+	}
+	
+	@Override
+	public void replace(GuestCart cart) {
+		try {
+			delegate.replace(cart);
+		} finally {
+			written(cart.getGuestId());
+		}
+	}
+	
+	@Override
+	public void touch(String guestId) {
+		delegate.touch(guestId);
+	}
+	
+	@Override
+	public GuestCartClaim claim(String guestId) {
+		return neverWritten(guestId) ? null : delegate.claim(guestId);
+	}
+	
+	@Override
+	public boolean completeClaim(String guestId, String claimId) {
+		return delegate.completeClaim(guestId, claimId);
+	}
+	
+	// 되돌린 장바구니가 필터 재구성 뒤에도 보이도록, 쓴 것과 같이 기록하고 다른 노드에 알린다
+	@Override
+	public boolean releaseClaim(String guestId, String claimId) {
+		boolean released = delegate.releaseClaim(guestId, claimId);
+		if (released) {
+			written(guestId);
+		}
+		return released;
+	}
+	
+	public boolean isReady() {
+		return ready;
+	}
+	
+	@Override
+	public void close() {
+		scheduler.shutdownNow();
+		ready = false;
+		if (subscriberClient != null) {
+			subscriberClient.removeListener(connectionListener);
+		}
+		StatefulRedisPubSubConnection<String, String> current = connection;
+		if (current != null) {
+			current.close();
+		}
+		delegate.close();
+	}
+	
+	private boolean neverWritten(String guestId) {
+		GuestIdBloomFilter current = filter;
+		if (!ready || current == null || current.mightContain(guestId)) {
+			passedCounter.increment();
+			return false;
+		}
+		skippedCounter.increment();
+		return true;
+	}
+	
+	// 저장소에 쓴 뒤 기록해야 재구성 중인 필터가 SCAN과 기록 중 하나로는 반드시 이 ID를 받는다
+	private void written(String guestId) {
+		record(guestId);
+		try {
+			redisTemplate.convertAndSend(CHANNEL, guestId);
+		} catch (RuntimeException e) {
+			if (unpublished.size() < MAX_UNPUBLISHED) {
+				unpublished.add(guestId);
+			}
+			log.warn("비회원 장바구니 기록 발행 실패 [{}]: {}", guestId, e.getMessage());
+		}
+	}
+	
+	synchronized void record(String guestId) {
+		if (filter != null) {
+			filter.put(guestId);
+		}
+		if (building != null) {
+			building.put(guestId);
+		}
+	}
+	
+	// 점검 주기마다 구독 연결, 발행 재시도, 필터 (재)구성을 처리한다
+	void maintain() {
+		try {
+			if (connection == null && !unsupported) {
+				subscribe();
+			}
+			retryUnpublished();
+			if (subscribed && (!ready || System.nanoTime() - lastRebuild >= rebuildIntervalNanos)) {
+				rebuild();
+			}
+		} catch (RuntimeException e) {
+			log.warn("비회원 장바구니 존재 필터 점검 실패: {}", e.getMessage());
+		}
+	}
+	
+	void retryUnpublished() {
+		for (String guestId : unpublished) {
+			redisTemplate.convertAndSend(CHANNEL, guestId);
+			unpublished.remove(guestId);
+		}
+	}
+	
+	private void rebuild() {
+		ScanOptions options = ScanOptions.scanOptions().match(GuestCartKeys.CART_KEY_PATTERN).count(SCAN_BATCH_SIZE).build();
+		try (Cursor<String> cursor = redisTemplate.scan(options)) {
+			rebuild(cursor);
+		}
+	}
+	
+	// 재구성 중에 쓰이거나 구독으로 받은 ID는 새 필터에도 함께 넣고, 다 채운 뒤 한 번에 바꾼다
+	// 병합 중 키만 남은 비회원도 넣는다, 병합이 실패하면 장바구니가 되돌아온다
+	void rebuild(Iterator<String> keys) {
+		long epoch = subscriptionEpoch;
+		GuestIdBloomFilter next = new GuestIdBloomFilter(expectedInsertions, falsePositiveRate);
+		synchronized (this) {
+			building = next;
+		}
+		long count = 0;
+		try {
+			while (keys.hasNext()) {
+				String key = keys.next();
+				String guestId = GuestCartKeys.guestIdOf(key);
+				if (guestId == null) {
+					guestId = GuestCartKeys.guestIdOfMerging(key);
+				}
+				if (guestId != null) {
+					next.put(guestId);
+					count++;
+				}
+			}
+		} finally {
+			synchronized (this) {
+				building = null;
+			}
+		}
+		synchronized (this) {
+			filter = next;
+			lastRebuild = System.nanoTime();
+			ready = subscribed && epoch == subscriptionEpoch;
+		}
+		log.info("비회원 장바구니 존재 필터 재구성 완료: {}건", count);
+	}
+	
+	void onSubscribed() {
+		subscribed = true;
+	}
+	
+	// 구독이 끊긴 동안의 기록은 받을 수 없으므로 다시 구성할 때까지 필터를 쓰지 않는다
+	void onUnsubscribed() {
+		synchronized (this) {
+			subscribed = false;
+			ready = false;
+			subscriptionEpoch++;
+		}
+	}
+	
+	private void subscribe() {
+		AbstractRedisClient client = clientSupplier.get();
+		if (client == null) {
+			return;
+		}
+		if (!(client instanceof RedisClient redisClient)) {
+			log.warn("비회원 장바구니 존재 필터는 단일 Redis 서버 구성에서만 지원합니다: {}", client.getClass().getSimpleName());
+			unsupported = true;
+			return;
+		}
+		
+		StatefulRedisPubSubConnection<String, String> pubSubConnection = redisClient.connectPubSub(StringCodec.UTF8);
+		RedisConnectionStateListener listener = new SubscriptionListener(pubSubConnection);
+		try {
+			pubSubConnection.addListener(new RedisPubSubAdapter<>() {
+				@Override
+				public void message(String channel, String guestId) {
+					record(guestId);
+				}
+			});
+			redisClient.addListener(listener);
+			pubSubConnection.sync().subscribe(CHANNEL);
+		} catch (RuntimeException e) {
+			redisClient.removeListener(listener);
+			pubSubConnection.close();
+			throw e;
+		}
+		subscriberClient = redisClient;
+		connectionListener = listener;
+		connection = pubSubConnection;
+		onSubscribed();
+	}
+	
+	// 재연결되면 Lettuce가 채널을 다시 구독하고, 다음 점검에서 필터를 새로 만든다
+	private final class SubscriptionListener implements RedisConnectionStateListener {
+		
+		private final StatefulRedisPubSubConnection<String, String> pubSubConnection;
+		
+		private SubscriptionListener(StatefulRedisPubSubConnection<String, String> pubSubConnection) {
+			this.pubSubConnection = pubSubConnection;
+		}
+		
+		@Override
+		public void onRedisDisconnected(RedisChannelHandler<?, ?> handler) {
+			if (handler == pubSubConnection) {
+				onUnsubscribed();
+			}
+		}
+		
+		@Override
+		public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress socketAddress) {
+			if (handler == pubSubConnection) {
+				onSubscribed();
+			}
+		}
+	}
+}
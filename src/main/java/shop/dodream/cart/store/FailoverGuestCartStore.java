@@ -0,0 +1,383 @@
+package shop.dodream.cart.store;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import shop.dodream.cart.dto.GuestCart;
+import shop.dodream.cart.exception.DataNotFoundException;
+import shop.dodream.cart.exception.GuestCartUnavailableException;
+import shop.dodream.cart.exception.InvalidQuantityException;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Redis 연결 실패나 타임아웃이 한 번이라도 나면 곧바로 장애 모드로 전환해 더 이상 Redis를 기다리지 않는다
+// 장애 중에는 마지막으로 본 장바구니에 변경을 적용해 메모리에서 응답하고, 변경 내역을 모아 두었다가
+// 백그라운드 점검에서 Redis가 살아나면 같은 순서로 다시 실행해 반영한다
+@Slf4j
+public class FailoverGuestCartStore implements GuestCartStore {
+	
+	private static final String PROBE_GUEST_ID = "failover-probe";
+	
+	private final GuestCartStore delegate;
+	private final int maxItemCount;
+	private final int maxPendingOperations;
+	private final LinkedHashMap<String, LocalCart> carts;
+	private final ScheduledExecutorService reconciler;
+	
+	private volatile boolean down;
+	
+	private final Counter fallbackCounter;
+	private final Counter droppedCounter;
+	private final Counter replayedCounter;
+	
+	public FailoverGuestCartStore(GuestCartStore delegate, int maxItemCount, int maxSize, int maxPendingOperations,
+	                              Duration retryInterval, MeterRegistry meterRegistry) {
+		this(delegate, maxItemCount, maxSize, maxPendingOperations, meterRegistry,
+				Executors.newSingleThreadScheduledExecutor(runnable -> {
+					Thread thread = new Thread(runnable, "guest-cart-reconciler");
+					thread.setDaemon(true);
+					return thread;
+				}));
+		reconciler.scheduleWithFixedDelay(this::reconcile, retryInterval.toMillis(), retryInterval.toMillis(),
+				TimeUnit.MILLISECONDS);
+	}
+	
+	FailoverGuestCartStore(GuestCartStore delegate, int maxItemCount, int maxSize, int maxPendingOperations,
+	                       MeterRegistry meterRegistry, ScheduledExecutorService reconciler) {
+		this.delegate = delegate;
+		this.maxItemCount = maxItemCount;
+		this.maxPendingOperations = maxPendingOperations;
+		this.reconciler = reconciler;
+		this.carts = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, LocalCart> eldest) {
+				if (size() <= maxSize) {
+					return false;
+				}
+				if (!eldest.getValue().pending.isEmpty()) {
+					droppedCounter.increment(eldest.getValue().pending.size());
+				}
+				return true;
+			}
+		};
+		this.fallbackCounter = Counter.builder("cart.guest.failover.fallbacks").register(meterRegistry);
+		this.droppedCounter = Counter.builder("cart.guest.failover.dropped").register(meterRegistry);
+		this.replayedCounter = Counter.builder("cart.guest.failover.replayed").register(meterRegistry);
+		Gauge.builder("cart.guest.failover.down", this, store -> store.down ? 1 : 0).register(meterRegistry);
+		Gauge.builder("cart.guest.failover.pending", this, FailoverGuestCartStore::pendingCount).register(meterRegistry);
+	}
+	
+	@Override
+	public GuestCart find(String guestId) {
+		if (!down && !hasPending(guestId)) {
+			try {
+				GuestCart cart = delegate.find(guestId);
+				remember(guestId, cart);
+				return cart;
+			} catch (DataAccessResourceFailureException | QueryTimeoutException e) {
+				markDown(e);
+			}
+		}
+		fallbackCounter.increment();
+		synchronized (carts) {
+			LocalCart local = carts.get(guestId);
+			return local != null && local.cart != null ? GuestCartMutations.copyOf(local.cart) : null;
+		}
+	}
+	
+	@Override
+	public GuestCart addItem(String guestId, Long bookId, long quantity) {
+		Operation operation = new Operation(OperationType.ADD, bookId, quantity, null, null);
+		if (!down && !hasPending(guestId)) {
+			try {
+				return remember(guestId, delegate.addItem(guestId, bookId, quantity));
+			} catch (DataAccessResourceFailureException | QueryTimeoutException e) {
+				markDown(e);
+			}
+		}
+		return applyLocally(guestId, operation);
+	}
+	
+	@Override
+	public GuestCart updateQuantity(String guestId, Long bookId, long quantity) {
+		Operation operation = new Operation(OperationType.UPDATE, bookId, quantity, null, null);
+		if (!down && !hasPending(guestId)) {
+			try {
+				return remember(guestId, delegate.updateQuantity(guestId, bookId, quantity));
+			} catch (DataAccessResourceFailureException | QueryTimeoutException e) {
+				markDown(e);
+			}
+		}
+		return applyLocally(guestId, operation);
+	}
+	
+	@Override
+	public void removeItem(String guestId, Long bookId) {
+		Operation operation = new Operation(OperationType.REMOVE, bookId, 0, null, null);
+		if (!down && !hasPending(guestId)) {
+			try {
+				delegate.removeItem(guestId, bookId);
+				forget(guestId);
+				return;
+			} catch (DataAccessResourceFailureException | QueryTimeoutException e) {
+				markDown(e);
+			}
+		}
+		applyLocally(guestId, operation);
+	}
+	
+	@Override
+	public GuestCart applyAll(String guestId, List<GuestCartOperation> operations) {
+		Operation operation = new Operation(OperationType.APPLY_ALL, null, 0, null, List.copyOf(operations));
+		if (!down && !hasPending(guestId)) {
+			try {
+				return remember(guestId, delegate.applyAll(guestId, operations));
+			} catch (DataAccessResourceFailureException | QueryTimeoutException e) {
+				markDown(e);
+			}
+		}
+		return applyLocally(guestId, operation);
+	}
+	
+	@Override
+	public boolean delete(String guestId) {
+		if (!down && !hasPending(guestId)) {
+			try {
+				boolean deleted = delegate.delete(guestId);
+				forget(guestId);
+				return deleted;
+			} catch (DataAccessResourceFailureException | QueryTimeoutException e) {
+				markDown(e);
+			}
+		}
+		applyLocally(guestId, new Operation(OperationType.DELETE, null, 0, null, null));
+		return true;
+	}
+	
+	@Override
+	public void replace(GuestCart cart) {
+		String guestId = cart.getGuestId();
+		if (!down && !hasPending(guestId)) {
+			try {
+				delegate.replace(cart);
+				remember(guestId, cart);
+				return;
+			} catch (DataAccessResourceFailureException | QueryTimeoutException e) {
+				markDown(e);
+			}
+		}
+		applyLocally(guestId, new Operation(OperationType.REPLACE, null, 0, GuestCartMutations.copyOf(cart), null));
+	}
+	
+	// 장애 중에는 만료 연장을 건너뛴다 (복구 후 변경 내역 반영 시 TTL이 갱신된다)
+	@Override
+	public void touch(String guestId) {
+		if (down) {
+			return;
+		}
+		try {
+			delegate.touch(guestId);
+		} catch (DataAccessResourceFailureException | QueryTimeoutException e) {
+			markDown(e);
+		}
+	}
+	
+	// 병합은 Redis에서 한 번만 가져가야 하므로 장애 중이거나 반영하지 못한 변경이 남아 있으면 노드 메모리로 대신하지 않는다
+	@Override
+	public GuestCartClaim claim(String guestId) {
+		if (!down && !hasPending(guestId)) {
+			try {
+				GuestCartClaim claim = delegate.claim(guestId);
+				forget(guestId);
+				return claim;
+			} catch (DataAccessResourceFailureException | QueryTimeoutException e) {
+				markDown(e);
+			}
+		}
+		throw new GuestCartUnavailableException("비회원 장바구니 저장소를 일시적으로 사용할 수 없습니다.");
+	}
+	
+	@Override
+	public boolean completeClaim(String guestId, String claimId) {
+		return delegate.completeClaim(guestId, claimId);
+	}
+	
+	@Override
+	public boolean releaseClaim(String guestId, String claimId) {
+		boolean released = delegate.releaseClaim(guestId, claimId);
+		forget(guestId);
+		return released;
+	}
+	
+	@Override
+	public void close() {
+		reconciler.shutdownNow();
+		delegate.close();
+	}
+	
+	public boolean isDown() {
+		return down;
+	}
+	
+	public int pendingCount() {
+		synchronized (carts) {
+			int count = 0;
+			for (LocalCart local : carts.values()) {
+				count += local.pending.size();
+			}
+			return count;
+		}
+	}
+	
+	// 장애 중이면 Redis를 한 번 찔러 보고, 살아 있으면 모아 둔 변경 내역을 비회원별로 순서대로 반영한다
+	void reconcile() {
+		try {
+			if (down) {
+				delegate.find(PROBE_GUEST_ID);
+				log.info("Redis 연결이 복구되어 모아 둔 비회원 장바구니 변경 내역을 반영합니다.");
+			}
+			for (String guestId : pendingGuestIds()) {
+				replay(guestId);
+			}
+			down = false;
+		} catch (DataAccessResourceFailureException | QueryTimeoutException e) {
+			down = true;
+		} catch (RuntimeException e) {
+			log.error("비회원 장바구니 변경 내역 반영 실패: {}", e.getMessage(), e);
+		}
+	}
+	
+	// 한 건씩 반영하고 바로 지워, 도중에 다시 장애가 나도 이미 반영한 변경을 두 번 실행하지 않는다
+	private void replay(String guestId) {
+		while (true) {
+			Operation operation;
+			synchronized (carts) {
+				LocalCart local = carts.get(guestId);
+				if (local == null || local.pending.isEmpty()) {
+					return;
+				}
+				operation = local.pending.get(0);
+			}
+			
+			try {
+				switch (operation.type()) {
+					case ADD -> delegate.addItem(guestId, operation.bookId(), operation.quantity());
+					case UPDATE -> delegate.updateQuantity(guestId, operation.bookId(), operation.quantity());
+					case REMOVE -> delegate.removeItem(guestId, operation.bookId());
+					case DELETE -> delegate.delete(guestId);
+					case REPLACE -> delegate.replace(operation.cart());
+					case APPLY_ALL -> delegate.applyAll(guestId, operation.operations());
+				}
+				replayedCounter.increment();
+			} catch (InvalidQuantityException | DataNotFoundException e) {
+				// 장애 중 보지 못한 Redis 상태와 합쳐지며 규칙에 어긋나게 된 변경은 버린다
+				log.warn("비회원 장바구니 [{}] 변경 내역 반영 중 제외: {}", guestId, e.getMessage());
+				droppedCounter.increment();
+			}
+			
+			synchronized (carts) {
+				LocalCart local = carts.get(guestId);
+				if (local == null) {
+					return;
+				}
+				local.pending.remove(0);
+				// 더 반영할 내역이 없으면 이후로는 Redis를 다시 원본으로 사용
+				if (local.pending.isEmpty()) {
+					carts.remove(guestId);
+				}
+			}
+		}
+	}
+	
+	private GuestCart applyLocally(String guestId, Operation operation) {
+		fallbackCounter.increment();
+		synchronized (carts) {
+			LocalCart local = carts.computeIfAbsent(guestId, id -> new LocalCart());
+			if (local.pending.size() >= maxPendingOperations) {
+				throw new GuestCartUnavailableException("비회원 장바구니 저장소를 일시적으로 사용할 수 없습니다.");
+			}
+			GuestCart cart = local.cart != null ? local.cart : new GuestCart(guestId, new ArrayList<>());
+			switch (operation.type()) {
+				case ADD -> GuestCartMutations.addItem(cart, operation.bookId(), operation.quantity(), maxItemCount);
+				case UPDATE -> GuestCartMutations.updateQuantity(cart, operation.bookId(), operation.quantity());
+				case REMOVE -> GuestCartMutations.removeItem(cart, operation.bookId());
+				case DELETE -> cart = null;
+				case REPLACE -> cart = GuestCartMutations.copyOf(operation.cart());
+				case APPLY_ALL -> GuestCartMutations.applyAll(cart, operation.operations(), maxItemCount);
+			}
+			local.cart = cart;
+			local.pending.add(operation);
+			return cart != null ? GuestCartMutations.copyOf(cart) : null;
+		}
+	}
+	
+	// 장애 모드 전환 시 기준으로 쓸 마지막 장바구니, 그 사이 다른 요청이 쌓은 변경 내역이 있으면 덮어쓰지 않는다
+	private GuestCart remember(String guestId, GuestCart cart) {
+		synchronized (carts) {
+			LocalCart local = carts.get(guestId);
+			if (local != null && !local.pending.isEmpty()) {
+				return cart;
+			}
+			if (cart == null) {
+				carts.remove(guestId);
+			} else {
+				carts.computeIfAbsent(guestId, id -> new LocalCart()).cart = GuestCartMutations.copyOf(cart);
+			}
+		}
+		return cart;
+	}
+	
+	private void forget(String guestId) {
+		synchronized (carts) {
+			LocalCart local = carts.get(guestId);
+			if (local != null && local.pending.isEmpty()) {
+				carts.remove(guestId);
+			}
+		}
+	}
+	
+	private boolean hasPending(String guestId) {
+		synchronized (carts) {
+			LocalCart local = carts.get(guestId);
+			return local != null && !local.pending.isEmpty();
+		}
+	}
+	
+	private List<String> pendingGuestIds() {
+		synchronized (carts) {
+			List<String> guestIds = new ArrayList<>();
+			carts.forEach((guestId, local) -> {
+				if (!local.pending.isEmpty()) {
+					guestIds.add(guestId);
+				}
+			});
+			return guestIds;
+		}
+	}
+	
+	private void markDown(RuntimeException e) {
+		if (!down) {
+			log.error("Redis를 사용할 수 없어 비회원 장바구니를 메모리 장애 모드로 전환합니다: {}", e.getMessage());
+		}
+		down = true;
+	}
+	
+	private enum OperationType { ADD, UPDATE, REMOVE, DELETE, REPLACE, APPLY_ALL }
+	
+	private record Operation(OperationType type, Long bookId, long quantity, GuestCart cart,
+	                         List<GuestCartOperation> operations) {
+	}
+	
+	// 마지막으로 본 장바구니(모르면 null)와 아직 Redis에 반영하지 못한 변경 내역
+	private static final class LocalCart {
+		private GuestCart cart;
+		private final List<Operation> pending = new ArrayList<>();
+	}
+}
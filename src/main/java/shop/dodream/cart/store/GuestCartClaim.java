@@ -0,0 +1,7 @@
+package shop.dodream.cart.store;
+
+import shop.dodream.cart.dto.GuestCart;
+
+// 회원 장바구니로 합치기 위해 가져온 비회원 장바구니, 같은 병합을 다시 시도하면 같은 claimId가 나온다
+public record GuestCartClaim(String claimId, GuestCart cart) {
+}
@@ -0,0 +1,93 @@
+package shop.dodream.cart.store;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+// 저장 방식과 관계없이 장바구니 키를 RENAME으로 통째로 옮기므로 value/hash 저장소가 함께 사용한다
+// KEYS: 장바구니, 병합 중 키, claim 키, 담은 순서 키, 병합 중 순서 키 (모두 같은 해시 태그라 클러스터에서도 한 슬롯)
+// 순서 키는 hash 저장소만 쓰고, 없으면 건너뛴다
+final class GuestCartClaimScripts {
+	
+	// ARGV: 새 claim ID, TTL(초) / 이미 옮겨 둔 장바구니가 있으면 그 claim ID, 옮길 장바구니가 없으면 nil
+	private static final RedisScript<String> CLAIM = new DefaultRedisScript<>("""
+			if redis.call('EXISTS', KEYS[2]) == 1 then
+			  local id = redis.call('GET', KEYS[3])
+			  if not id then
+			    id = ARGV[1]
+			    redis.call('SET', KEYS[3], id, 'EX', ARGV[2])
+			  end
+			  return id
+			end
+			if redis.call('EXISTS', KEYS[1]) == 0 then
+			  return false
+			end
+			redis.call('RENAME', KEYS[1], KEYS[2])
+			redis.call('EXPIRE', KEYS[2], ARGV[2])
+			redis.call('DEL', KEYS[5])
+			if redis.call('EXISTS', KEYS[4]) == 1 then
+			  redis.call('RENAME', KEYS[4], KEYS[5])
+			  redis.call('EXPIRE', KEYS[5], ARGV[2])
+			end
+			redis.call('SET', KEYS[3], ARGV[1], 'EX', ARGV[2])
+			return ARGV[1]
+			""", String.class);
+	
+	// ARGV: claim ID / 늦게 도착한 이전 병합의 정리가 그 뒤 다른 claim이 옮긴 장바구니를 지우지 않도록 claim ID를 비교한다
+	private static final RedisScript<Long> COMPLETE = new DefaultRedisScript<>("""
+			if redis.call('GET', KEYS[3]) ~= ARGV[1] then
+			  return 0
+			end
+			redis.call('DEL', KEYS[2], KEYS[3], KEYS[5])
+			return 1
+			""", Long.class);
+	
+	// ARGV: claim ID / 다른 claim이 가져간 장바구니나, 같은 claim을 먼저 끝낸 정리가 지운 뒤에는 되돌리지 않는다
+	// 그 사이 새 장바구니가 생겼으면 덮어쓰지 않고 병합 중 키를 남겨 다음 시도가 이어받게 한다
+	private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>("""
+			if redis.call('GET', KEYS[3]) ~= ARGV[1] then
+			  return 0
+			end
+			if redis.call('EXISTS', KEYS[1]) == 0 and redis.call('EXISTS', KEYS[2]) == 1 then
+			  redis.call('RENAME', KEYS[2], KEYS[1])
+			  redis.call('DEL', KEYS[4])
+			  if redis.call('EXISTS', KEYS[5]) == 1 then
+			    redis.call('RENAME', KEYS[5], KEYS[4])
+			  end
+			  redis.call('DEL', KEYS[3])
+			  return 1
+			end
+			return 0
+			""", Long.class);
+	
+	private GuestCartClaimScripts() {
+	}
+	
+	static String claim(RedisTemplate<String, ?> redisTemplate, String guestId, Duration ttl) {
+		return redisTemplate.execute(CLAIM, RedisSerializer.string(), RedisSerializer.string(), keys(guestId),
+				UUID.randomUUID().toString(), String.valueOf(ttl.toSeconds()));
+	}
+	
+	static boolean complete(RedisTemplate<String, ?> redisTemplate, String guestId, String claimId) {
+		Long deleted = redisTemplate.execute(COMPLETE, RedisSerializer.string(), new GenericToStringSerializer<>(Long.class),
+				keys(guestId), claimId);
+		return deleted != null && deleted == 1L;
+	}
+	
+	static boolean release(RedisTemplate<String, ?> redisTemplate, String guestId, String claimId) {
+		Long released = redisTemplate.execute(RELEASE, RedisSerializer.string(), new GenericToStringSerializer<>(Long.class),
+				keys(guestId), claimId);
+		return released != null && released == 1L;
+	}
+	
+	private static List<String> keys(String guestId) {
+		return List.of(GuestCartKeys.cart(guestId), GuestCartKeys.merging(guestId), GuestCartKeys.claim(guestId),
+				GuestCartKeys.order(guestId), GuestCartKeys.mergingOrder(guestId));
+	}
+}
@@ -0,0 +1,231 @@
+package shop.dodream.cart.store;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import shop.dodream.cart.config.GuestCartProperties;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// 회원 장바구니로 합친 비회원 장바구니를 요청 스레드 밖에서 지운다
+// 넣을 때 바로 Redis ZSET에 기록하고 지우는 데 성공해야 빼므로, 첫 시도 전에 노드가 재시작되어도 다른 노드가 이어받는다
+// 실패하면 다음 시도 시각을 점수로 다시 넣고, Redis에 넣지도 못하면 노드 메모리에 두었다가 다음 주기에 다시 시도한다
+// 끝내 포기한 병합 중 키는 TTL로 만료된다
+@Slf4j
+@Component
+public class GuestCartCleanupQueue {
+	
+	// guest_cart:* 패턴에 걸리지 않도록 별도 이름을 쓴다
+	static final String QUEUE_KEY = "guest_cart_cleanup";
+	static final String ATTEMPTS_KEY = "guest_cart_cleanup:attempts";
+	// 항목은 "claimId:비회원 ID", claimId(UUID, 쿠키 nonce)에는 ':'가 없다
+	private static final char ENTRY_SEPARATOR = ':';
+	
+	private final GuestCartStore guestCartStore;
+	private final StringRedisTemplate redisTemplate;
+	private final int maxAttempts;
+	private final long initialBackoffMillis;
+	private final long maxBackoffMillis;
+	private final int batchSize;
+	private final ScheduledExecutorService scheduler;
+	private final LongSupplier clock;
+	
+	// Redis 큐에 넣지 못한 항목과 시도 횟수
+	private final Map<String, Integer> localPending = new ConcurrentHashMap<>();
+	private volatile long queueDepth;
+	
+	private final Counter successCounter;
+	private final Counter failureCounter;
+	private final Counter abandonedCounter;
+	
+	@Autowired
+	public GuestCartCleanupQueue(GuestCartStore guestCartStore, StringRedisTemplate redisTemplate,
+	                             GuestCartProperties properties, MeterRegistry meterRegistry) {
+		this(guestCartStore, redisTemplate, properties.getCleanup(), meterRegistry,
+				Executors.newSingleThreadScheduledExecutor(runnable -> {
+					Thread thread = new Thread(runnable, "guest-cart-cleanup");
+					thread.setDaemon(true);
+					return thread;
+				}), System::currentTimeMillis);
+		long pollMillis = properties.getCleanup().getPollInterval().toMillis();
+		scheduler.scheduleWithFixedDelay(this::pollQuietly, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+	}
+	
+	GuestCartCleanupQueue(GuestCartStore guestCartStore, StringRedisTemplate redisTemplate,
+	                      GuestCartProperties.Cleanup config,
+	                      MeterRegistry meterRegistry, ScheduledExecutorService scheduler, LongSupplier clock) {
+		this.guestCartStore = guestCartStore;
+		this.redisTemplate = redisTemplate;
+		this.maxAttempts = Math.max(1, config.getMaxAttempts());
+		this.initialBackoffMillis = Math.max(1, config.getInitialBackoff().toMillis());
+		this.maxBackoffMillis = Math.max(initialBackoffMillis, config.getMaxBackoff().toMillis());
+		this.batchSize = Math.max(1, config.getBatchSize());
+		this.scheduler = scheduler;
+		this.clock = clock;
+		this.successCounter = Counter.builder("cart.guest.cleanup.attempts").tag("result", "success").register(meterRegistry);
+		this.failureCounter = Counter.builder("cart.guest.cleanup.attempts").tag("result", "failure").register(meterRegistry);
+		this.abandonedCounter = Counter.builder("cart.guest.cleanup.abandoned").register(meterRegistry);
+		Gauge.builder("cart.guest.cleanup.queue-depth", this, GuestCartCleanupQueue::depth).register(meterRegistry);
+	}
+	
+	// 트랜잭션 안에서 호출되면 커밋된 뒤에만 넘긴다, 호출한 스레드는 ZADD 한 번만 기다리고 삭제는 작업 스레드가 한다
+	// claimId가 같을 때만 지우므로 늦게 도착한 정리가 그 뒤 다른 로그인이 가져간 장바구니를 지우지 않는다
+	public void enqueue(String guestId, String claimId) {
+		String entry = entry(guestId, claimId);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					submit(entry);
+				}
+			});
+			return;
+		}
+		submit(entry);
+	}
+	
+	static String entry(String guestId, String claimId) {
+		return claimId + ENTRY_SEPARATOR + guestId;
+	}
+	
+	// Redis 큐 길이(마지막 조회 기준)와 노드 메모리에 남은 건수의 합
+	public long depth() {
+		return queueDepth + localPending.size();
+	}
+	
+	private void submit(String entry) {
+		boolean queued = record(entry);
+		scheduler.execute(() -> attempt(entry, 0, queued));
+	}
+	
+	// 첫 시도가 끝나기 전에 다른 노드가 가져가지 않도록 점수는 첫 재시도 간격 뒤로 둔다
+	// 기록하지 못해도 첫 시도는 하고, 실패하면 reschedule이 다시 넣거나 메모리에 둔다
+	private boolean record(String entry) {
+		try {
+			redisTemplate.opsForZSet().add(QUEUE_KEY, entry, clock.getAsLong() + initialBackoffMillis);
+			return true;
+		} catch (RuntimeException e) {
+			log.warn("비회원 장바구니 삭제 항목 [{}]을 Redis 큐에 기록하지 못했습니다: {}", entry, e.getMessage());
+			return false;
+		}
+	}
+	
+	void poll() {
+		Map.copyOf(localPending).forEach((entry, attempts) -> {
+			if (localPending.remove(entry, attempts)) {
+				attempt(entry, attempts, false);
+			}
+		});
+		
+		Set<String> due = redisTemplate.opsForZSet().rangeByScore(QUEUE_KEY, 0, clock.getAsLong(), 0, batchSize);
+		if (due != null) {
+			for (String entry : due) {
+				// ZREM에 성공한 노드만 처리해 여러 노드가 같은 항목을 중복으로 시도하지 않는다
+				Long claimed = redisTemplate.opsForZSet().remove(QUEUE_KEY, entry);
+				if (claimed == null || claimed == 0) {
+					continue;
+				}
+				Object attempts = redisTemplate.opsForHash().get(ATTEMPTS_KEY, entry);
+				attempt(entry, attempts != null ? Integer.parseInt(attempts.toString()) : 1, false);
+			}
+		}
+		Long size = redisTemplate.opsForZSet().zCard(QUEUE_KEY);
+		queueDepth = size != null ? size : 0;
+	}
+	
+	private void pollQuietly() {
+		try {
+			poll();
+		} catch (RuntimeException e) {
+			log.warn("비회원 장바구니 삭제 재시도 큐 조회 실패: {}", e.getMessage());
+		}
+	}
+	
+	// 병합 중 키만 지우므로 그 사이 같은 guestId로 새로 담은 장바구니는 남는다
+	// completeClaim이 false면 지울 키가 이미 없거나 다른 claim의 것이라는 뜻이므로 성공으로 본다
+	// queued: 항목이 아직 Redis 큐에 있는지 (poll이 꺼낸 항목과 메모리에 둔 항목은 false)
+	void attempt(String entry, int previousAttempts, boolean queued) {
+		int separator = entry.indexOf(ENTRY_SEPARATOR);
+		if (separator < 0) {
+			// claimId가 없는 이전 형식 항목은 어느 claim의 것인지 알 수 없어 병합 중 키의 TTL 만료에 맡긴다
+			log.info("claimId 없는 비회원 장바구니 삭제 항목 [{}]을 건너뜁니다", entry);
+			return;
+		}
+		String guestId = entry.substring(separator + 1);
+		try {
+			guestCartStore.completeClaim(guestId, entry.substring(0, separator));
+		} catch (RuntimeException e) {
+			failureCounter.increment();
+			reschedule(entry, previousAttempts + 1, queued, e);
+			return;
+		}
+		successCounter.increment();
+		if (queued) {
+			dequeue(entry);
+		}
+		if (previousAttempts > 0) {
+			try {
+				redisTemplate.opsForHash().delete(ATTEMPTS_KEY, entry);
+			} catch (RuntimeException e) {
+				log.warn("비회원 장바구니 [{}] 삭제 시도 횟수 정리 실패: {}", guestId, e.getMessage());
+			}
+		}
+	}
+	
+	private void reschedule(String entry, int attempts, boolean queued, RuntimeException cause) {
+		if (attempts >= maxAttempts) {
+			abandonedCounter.increment();
+			log.error("비회원 장바구니 [{}] 삭제를 {}회 실패해 TTL 만료에 맡깁니다: {}", entry, attempts, cause.getMessage());
+			if (queued) {
+				dequeue(entry);
+			}
+			try {
+				redisTemplate.opsForHash().delete(ATTEMPTS_KEY, entry);
+			} catch (RuntimeException ignored) {
+				// 남은 시도 횟수는 다음 enqueue 때 덮어쓴다
+			}
+			return;
+		}
+		log.warn("비회원 장바구니 [{}] 삭제 실패 ({}/{}), {}ms 뒤 재시도: {}", entry, attempts, maxAttempts,
+				backoffMillis(attempts), cause.getMessage());
+		try {
+			redisTemplate.opsForHash().put(ATTEMPTS_KEY, entry, Integer.toString(attempts));
+			redisTemplate.opsForZSet().add(QUEUE_KEY, entry, clock.getAsLong() + backoffMillis(attempts));
+		} catch (RuntimeException e) {
+			localPending.merge(entry, attempts, Math::max);
+		}
+	}
+	
+	// 빼지 못하면 점수가 지난 뒤 poll이 다시 꺼내지만, 이미 지웠으므로 completeClaim이 false로 끝난다
+	private void dequeue(String entry) {
+		try {
+			redisTemplate.opsForZSet().remove(QUEUE_KEY, entry);
+		} catch (RuntimeException e) {
+			log.warn("비회원 장바구니 삭제 항목 [{}]을 Redis 큐에서 빼지 못했습니다: {}", entry, e.getMessage());
+		}
+	}
+	
+	long backoffMillis(int attempts) {
+		int shift = Math.min(attempts - 1, 30);
+		return Math.min(maxBackoffMillis, initialBackoffMillis << shift);
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		scheduler.shutdownNow();
+	}
+}
@@ -0,0 +1,75 @@
+package shop.dodream.cart.store;
+
+import java.util.List;
+
+// 한 비회원의 키는 guestId를 해시 태그로 감싸 Redis 클러스터에서도 모두 같은 슬롯에 놓이게 한다
+// guest_cart:{guestId}, guest_cart:{guestId}:<용도>
+public final class GuestCartKeys {
+	
+	private static final String CART_KEY_PREFIX = "guest_cart:";
+	// SCAN으로 장바구니 키(새 키, 이전 키)를 찾을 때 쓰는 패턴
+	public static final String CART_KEY_PATTERN = CART_KEY_PREFIX + "*";
+	
+	private GuestCartKeys() {
+	}
+	
+	public static String cart(String guestId) {
+		return CART_KEY_PREFIX + "{" + guestId + "}";
+	}
+	
+	// 장바구니와 함께 다루는 부가 키, 장바구니 키와 같은 슬롯이라 멀티 키 명령과 Lua 스크립트에 함께 넘길 수 있다
+	public static String of(String guestId, String suffix) {
+		return cart(guestId) + ":" + suffix;
+	}
+	
+	// 회원 장바구니로 합치는 동안 장바구니를 옮겨 두는 키와, 그 병합을 구분하는 claim ID를 담는 키
+	public static String merging(String guestId) {
+		return of(guestId, "merging");
+	}
+	
+	public static String claim(String guestId) {
+		return of(guestId, "claim");
+	}
+	
+	// hash 저장소가 담은 순서를 두는 ZSET (멤버: bookId, 점수: 담은 순번)과, 병합 중 장바구니와 함께 옮긴 순서 키
+	public static String order(String guestId) {
+		return of(guestId, "order");
+	}
+	
+	public static String mergingOrder(String guestId) {
+		return of(guestId, "merging:order");
+	}
+	
+	// 해시 태그 도입 전 키 (guest_cart:guestId)
+	public static String legacyCart(String guestId) {
+		return CART_KEY_PREFIX + guestId;
+	}
+	
+	// 장바구니 키(새 키, 이전 키)에서 guestId를 꺼낸다, 부가 키 등 장바구니 키가 아니면 null
+	public static String guestIdOf(String key) {
+		if (key == null || !key.startsWith(CART_KEY_PREFIX)) {
+			return null;
+		}
+		String rest = key.substring(CART_KEY_PREFIX.length());
+		if (!rest.startsWith("{")) {
+			return rest.isEmpty() ? null : rest;
+		}
+		int end = rest.indexOf('}');
+		return end > 1 && end == rest.length() - 1 ? rest.substring(1, end) : null;
+	}
+	
+	// 병합 중 키(guest_cart:{guestId}:merging)에서 guestId를 꺼낸다, 아니면 null
+	public static String guestIdOfMerging(String key) {
+		String suffix = ":merging";
+		if (key == null || !key.endsWith(suffix)) {
+			return null;
+		}
+		String guestId = guestIdOf(key.substring(0, key.length() - suffix.length()));
+		return guestId != null && key.equals(merging(guestId)) ? guestId : null;
+	}
+	
+	// 이전 키 조회가 켜져 있으면 [새 키, 이전 키], 아니면 [새 키]
+	static List<String> cartKeys(String guestId, boolean legacyKeyFallback) {
+		return legacyKeyFallback ? List.of(cart(guestId), legacyCart(guestId)) : List.of(cart(guestId));
+	}
+}
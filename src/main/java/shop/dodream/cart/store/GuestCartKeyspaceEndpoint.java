@@ -0,0 +1,26 @@
+package shop.dodream.cart.store;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+// GET /actuator/guestcarts: 마지막 집계 결과, POST /actuator/guestcarts: 지금 바로 집계
+@Component
+@Endpoint(id = "guestcarts")
+@RequiredArgsConstructor
+public class GuestCartKeyspaceEndpoint {
+	
+	private final GuestCartSweeper guestCartSweeper;
+	
+	@ReadOperation
+	public GuestCartKeyspaceReport lastReport() {
+		return guestCartSweeper.getLastReport();
+	}
+	
+	@WriteOperation
+	public GuestCartKeyspaceReport sweep() {
+		return guestCartSweeper.sweep();
+	}
+}
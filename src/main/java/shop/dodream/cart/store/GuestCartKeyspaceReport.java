@@ -0,0 +1,18 @@
+package shop.dodream.cart.store;
+
+import java.util.Map;
+
+// 한 번의 정리 작업 결과, 히스토그램은 구간 이름 -> 장바구니 수
+// mergingCarts: 훑은 병합 중 키 수, mergedDeleted: 그중 병합 기록이 남아 있어 지운 키 수
+public record GuestCartKeyspaceReport(String startedAt,
+                                      long elapsedMillis,
+                                      long scannedKeys,
+                                      long carts,
+                                      long legacyCarts,
+                                      long mergingCarts,
+                                      long mergedDeleted,
+                                      long totalBytes,
+                                      Map<String, Long> ttlHistogram,
+                                      Map<String, Long> sizeHistogram,
+                                      boolean completed) {
+}
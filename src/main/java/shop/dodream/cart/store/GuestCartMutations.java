@@ -0,0 +1,112 @@
+package shop.dodream.cart.store;
+
+import shop.dodream.cart.dto.GuestCart;
+import shop.dodream.cart.dto.GuestCartItem;
+import shop.dodream.cart.exception.DataNotFoundException;
+import shop.dodream.cart.exception.InvalidQuantityException;
+import shop.dodream.cart.util.CartQuantities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// 메모리의 GuestCart에 변경을 적용하는 공통 규칙, 실제로 바뀌었으면 true
+final class GuestCartMutations {
+	
+	private GuestCartMutations() {
+	}
+	
+	static boolean addItem(GuestCart cart, Long bookId, long quantity, int maxItemCount) {
+		GuestCartItem existing = findItem(cart, bookId);
+		if (existing != null) {
+			long newQuantity = CartQuantities.clamp(existing.getQuantity() + quantity, maxItemCount);
+			if (newQuantity == existing.getQuantity()) {
+				return false;
+			}
+			existing.setQuantity(newQuantity);
+			return true;
+		}
+		if (cart.getItems().size() >= maxItemCount) {
+			throw fullCart(maxItemCount);
+		}
+		cart.getItems().add(new GuestCartItem(bookId, CartQuantities.clamp(quantity, maxItemCount)));
+		return true;
+	}
+	
+	static boolean updateQuantity(GuestCart cart, Long bookId, long quantity) {
+		GuestCartItem item = findItem(cart, bookId);
+		if (item == null) {
+			throw itemNotFound();
+		}
+		if (item.getQuantity() == quantity) {
+			return false;
+		}
+		item.setQuantity(quantity);
+		return true;
+	}
+	
+	static boolean removeItem(GuestCart cart, Long bookId) {
+		List<GuestCartItem> remaining = new ArrayList<>(cart.getItems());
+		if (!remaining.removeIf(item -> item.getBookId().equals(bookId))) {
+			return false;
+		}
+		cart.setItems(remaining);
+		return true;
+	}
+	
+	// 박싱 없는 맵에 모두 적용해 본 뒤 성공했고 결과가 달라졌을 때만 cart에 반영한다, O(n + 연산 수)
+	// 담았다가 빼는 것처럼 서로 상쇄되는 연산이면 저장하지 않는다
+	static boolean applyAll(GuestCart cart, List<GuestCartOperation> operations, int maxItemCount) {
+		CartQuantities original = CartQuantities.of(cart.getItems());
+		CartQuantities working = original.copy();
+		for (GuestCartOperation operation : operations) {
+			long bookId = operation.bookId();
+			switch (operation.type()) {
+				case ADD -> {
+					if (!working.contains(bookId) && working.size() >= maxItemCount) {
+						throw fullCart(maxItemCount);
+					}
+					working.addClamped(bookId, operation.quantity(), maxItemCount);
+				}
+				case UPDATE -> {
+					if (!working.contains(bookId)) {
+						throw itemNotFound();
+					}
+					working.put(bookId, operation.quantity());
+				}
+				case REMOVE -> working.remove(bookId);
+			}
+		}
+		if (working.diff(original).isEmpty()) {
+			return false;
+		}
+		cart.setItems(working.toGuestItems());
+		return true;
+	}
+	
+	static GuestCart copyOf(GuestCart cart) {
+		List<GuestCartItem> items = new ArrayList<>(cart.getItems().size());
+		for (GuestCartItem item : cart.getItems()) {
+			items.add(new GuestCartItem(item.getBookId(), item.getQuantity()));
+		}
+		return new GuestCart(cart.getGuestId(), items);
+	}
+	
+	// 항목이 적어 인덱스 순회가 맵을 만드는 것보다 싸다
+	private static GuestCartItem findItem(GuestCart cart, Long bookId) {
+		List<GuestCartItem> items = cart.getItems();
+		for (int i = 0; i < items.size(); i++) {
+			if (items.get(i).getBookId().equals(bookId)) {
+				return items.get(i);
+			}
+		}
+		return null;
+	}
+	
+	private static InvalidQuantityException fullCart(int maxItemCount) {
+		return new InvalidQuantityException("장바구니는 최대 " + maxItemCount + "개까지만 담을 수 있습니다.");
+	}
+	
+	private static DataNotFoundException itemNotFound() {
+		return new DataNotFoundException("해당 도서가 장바구니에 존재하지 않습니다.");
+	}
+}
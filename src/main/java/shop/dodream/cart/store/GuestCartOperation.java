@@ -0,0 +1,7 @@
+package shop.dodream.cart.store;
+
+import shop.dodream.cart.dto.GuestCartOperationType;
+
+// 일괄 변경 한 건, REMOVE는 quantity를 쓰지 않는다
+public record GuestCartOperation(GuestCartOperationType type, Long bookId, long quantity) {
+}
@@ -0,0 +1,45 @@
+package shop.dodream.cart.store;
+
+import shop.dodream.cart.dto.GuestCart;
+
+import java.util.List;
+
+// 비회원 장바구니 저장소, 변경 메서드는 변경 후의 장바구니를 반환한다
+public interface GuestCartStore {
+	
+	// 장바구니가 없으면 null
+	GuestCart find(String guestId);
+	
+	// 같은 도서가 있으면 수량을 더하고 최대 수량으로 제한, 도서 종류가 가득 찼으면 InvalidQuantityException
+	GuestCart addItem(String guestId, Long bookId, long quantity);
+	
+	// 장바구니에 없는 도서면 DataNotFoundException
+	GuestCart updateQuantity(String guestId, Long bookId, long quantity);
+	
+	void removeItem(String guestId, Long bookId);
+	
+	// 여러 변경을 순서대로 한 번에 적용, 하나라도 실패하면 아무것도 바꾸지 않고 해당 예외를 던진다
+	GuestCart applyAll(String guestId, List<GuestCartOperation> operations);
+	
+	boolean delete(String guestId);
+	
+	// 장바구니 전체를 주어진 내용으로 교체
+	void replace(GuestCart cart);
+	
+	// 값은 그대로 두고 만료 시간만 연장
+	void touch(String guestId);
+	
+	// 회원 장바구니로 합치기 위해 장바구니를 병합 중 키로 옮기고 가져온다, 장바구니가 없으면 null
+	// 이미 옮겨 둔 장바구니가 있으면 같은 claimId로 다시 반환해 중단된 병합을 이어받는다
+	GuestCartClaim claim(String guestId);
+	
+	// 병합을 반영한 뒤 병합 중 장바구니를 지운다, 그 사이 다른 claim이 가져간 장바구니면 지우지 않고 false
+	boolean completeClaim(String guestId, String claimId);
+	
+	// 병합에 실패하면 장바구니를 되돌린다, 병합 중 키가 이 claim의 것일 때만 되돌리고 되돌렸으면 true
+	boolean releaseClaim(String guestId, String claimId);
+	
+	// 빈 종료 시 호출, 감싸는 저장소는 안쪽 저장소까지 닫아야 한다
+	default void close() {
+	}
+}
@@ -0,0 +1,323 @@
+package shop.dodream.cart.store;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import shop.dodream.cart.config.GuestCartProperties;
+import shop.dodream.cart.entity.GuestCartMerge;
+import shop.dodream.cart.repository.GuestCartMergeRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// SCAN 커서로 장바구니 키를 batchSize씩 나눠 훑고, 배치마다 PTTL/MEMORY USAGE를 파이프라인 한 번으로 조회한다
+// 클러스터에서는 SCAN이 노드 하나만 훑으므로 모든 마스터를 차례로 훑는다
+// 병합 중 키는 claim ID가 guest_cart_merge에 이미 기록된 것(반영 후 정리만 실패한 병합)을 claim ID 비교 스크립트로 지운다
+// KEYS처럼 Redis를 오래 붙잡지 않도록 배치 사이에 batchPause만큼 쉰다
+@Slf4j
+@Component
+public class GuestCartSweeper {
+	
+	private static final long[] TTL_BOUNDS_SECONDS = {3600, 86_400, 7 * 86_400, 30 * 86_400};
+	private static final String[] TTL_BUCKETS = {"<1h", "<1d", "<7d", "<30d", ">=30d"};
+	private static final long[] SIZE_BOUNDS_BYTES = {256, 1024, 4096, 16_384};
+	private static final String[] SIZE_BUCKETS = {"<256B", "<1KB", "<4KB", "<16KB", ">=16KB"};
+	// MEMORY는 Spring Data Redis에 반환 형식 정보가 없어 그대로 보내면 Lettuce가 정수 응답을 읽지 못한다
+	// 키 하나만 넘기므로 클러스터에서도 그 키의 노드에서 실행된다, 결과는 {PTTL, MEMORY USAGE(없으면 -1)}
+	private static final byte[] KEY_STATS = bytes("""
+			local bytes = redis.call('MEMORY', 'USAGE', KEYS[1])
+			return {redis.call('PTTL', KEYS[1]), bytes or -1}
+			""");
+	
+	private final StringRedisTemplate redisTemplate;
+	private final GuestCartMergeRepository guestCartMergeRepository;
+	private final int batchSize;
+	private final long batchPauseMillis;
+	private final ScheduledExecutorService scheduler;
+	private final AtomicBoolean running = new AtomicBoolean();
+	private final Counter mergedDeletedCounter;
+	
+	private volatile GuestCartKeyspaceReport lastReport;
+	
+	@Autowired
+	public GuestCartSweeper(StringRedisTemplate redisTemplate, GuestCartMergeRepository guestCartMergeRepository,
+	                        GuestCartProperties properties, MeterRegistry meterRegistry) {
+		this(redisTemplate, guestCartMergeRepository, properties.getSweeper().getBatchSize(),
+				properties.getSweeper().getBatchPause(), meterRegistry,
+				Executors.newSingleThreadScheduledExecutor(runnable -> {
+					Thread thread = new Thread(runnable, "guest-cart-sweeper");
+					thread.setDaemon(true);
+					return thread;
+				}));
+		GuestCartProperties.Sweeper sweeper = properties.getSweeper();
+		if (sweeper.isEnabled()) {
+			scheduler.scheduleWithFixedDelay(this::sweepQuietly, sweeper.getInterval().toMillis(),
+					sweeper.getInterval().toMillis(), TimeUnit.MILLISECONDS);
+		}
+	}
+	
+	GuestCartSweeper(StringRedisTemplate redisTemplate, GuestCartMergeRepository guestCartMergeRepository, int batchSize,
+	                 Duration batchPause, MeterRegistry meterRegistry, ScheduledExecutorService scheduler) {
+		this.redisTemplate = redisTemplate;
+		this.guestCartMergeRepository = guestCartMergeRepository;
+		this.batchSize = Math.max(1, batchSize);
+		this.batchPauseMillis = batchPause.toMillis();
+		this.scheduler = scheduler;
+		this.mergedDeletedCounter = Counter.builder("cart.guest.keyspace.merged-deleted").register(meterRegistry);
+		Gauge.builder("cart.guest.keyspace.carts", this, s -> s.lastReport != null ? s.lastReport.carts() : 0)
+				.register(meterRegistry);
+		Gauge.builder("cart.guest.keyspace.bytes", this, s -> s.lastReport != null ? s.lastReport.totalBytes() : 0)
+				.register(meterRegistry);
+	}
+	
+	public GuestCartKeyspaceReport getLastReport() {
+		return lastReport;
+	}
+	
+	// 이미 실행 중이면 기다리지 않고 마지막 결과를 반환
+	public GuestCartKeyspaceReport sweep() {
+		if (!running.compareAndSet(false, true)) {
+			return lastReport;
+		}
+		try {
+			ScanOptions options = ScanOptions.scanOptions().match(GuestCartKeys.CART_KEY_PATTERN).count(batchSize).build();
+			try (RedisConnection connection = redisTemplate.getRequiredConnectionFactory().getConnection()) {
+				List<Cursor<byte[]>> cursors = new ArrayList<>();
+				try {
+					if (connection instanceof RedisClusterConnection cluster) {
+						for (RedisClusterNode node : cluster.clusterGetNodes()) {
+							if (node.isMaster()) {
+								cursors.add(cluster.scan(node, options));
+							}
+						}
+					} else {
+						cursors.add(connection.keyCommands().scan(options));
+					}
+					lastReport = sweep(keysOf(cursors));
+				} finally {
+					cursors.forEach(Cursor::close);
+				}
+			}
+			return lastReport;
+		} finally {
+			running.set(false);
+		}
+	}
+	
+	GuestCartKeyspaceReport sweep(Iterator<String> keys) {
+		Instant startedAt = Instant.now();
+		Tally tally = new Tally();
+		List<String> batch = new ArrayList<>(batchSize);
+		List<String> mergingGuestIds = new ArrayList<>();
+		boolean completed = true;
+		while (keys.hasNext()) {
+			String key = keys.next();
+			tally.scannedKeys++;
+			String mergingGuestId;
+			if (GuestCartKeys.guestIdOf(key) != null) {
+				batch.add(key);
+			} else if ((mergingGuestId = GuestCartKeys.guestIdOfMerging(key)) != null) {
+				mergingGuestIds.add(mergingGuestId);
+			}
+			if (batch.size() + mergingGuestIds.size() >= batchSize) {
+				processBatch(batch, tally);
+				deleteMerged(mergingGuestIds, tally);
+				batch.clear();
+				mergingGuestIds.clear();
+				if (!pause()) {
+					completed = false;
+					break;
+				}
+			}
+		}
+		if (completed) {
+			processBatch(batch, tally);
+			deleteMerged(mergingGuestIds, tally);
+		}
+		
+		long elapsed = Duration.between(startedAt, Instant.now()).toMillis();
+		log.info("비회원 장바구니 키 정리 완료: 장바구니 {}건, {}바이트, 병합 중 키 {}건 중 병합 끝난 {}건 삭제 ({}ms)",
+				tally.carts, tally.totalBytes, tally.mergingCarts, tally.mergedDeleted, elapsed);
+		return new GuestCartKeyspaceReport(startedAt.toString(), elapsed, tally.scannedKeys, tally.carts,
+				tally.legacyCarts, tally.mergingCarts, tally.mergedDeleted, tally.totalBytes, histogram(TTL_BUCKETS, tally.ttlCounts, tally.noExpiry),
+				histogram(SIZE_BUCKETS, tally.sizeCounts, -1), completed);
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		scheduler.shutdownNow();
+	}
+	
+	// 키마다 [PTTL, MEMORY USAGE] 목록 하나가 결과로 온다
+	private void processBatch(List<String> keys, Tally tally) {
+		if (keys.isEmpty()) {
+			return;
+		}
+		List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			for (String key : keys) {
+				connection.scriptingCommands().eval(KEY_STATS, ReturnType.MULTI, 1, bytes(key));
+			}
+			return null;
+		});
+		
+		for (int i = 0; i < keys.size(); i++) {
+			if (!(results.get(i) instanceof List<?> stats) || stats.size() < 2) {
+				continue;
+			}
+			long pttl = (Long) stats.get(0);
+			long bytes = (Long) stats.get(1);
+			if (pttl == -2) {
+				// 조회 사이에 만료된 키
+				continue;
+			}
+			String key = keys.get(i);
+			String guestId = GuestCartKeys.guestIdOf(key);
+			tally.carts++;
+			if (!key.equals(GuestCartKeys.cart(guestId))) {
+				tally.legacyCarts++;
+			}
+			if (pttl < 0) {
+				tally.noExpiry++;
+			} else {
+				tally.ttlCounts[bucket(TTL_BOUNDS_SECONDS, pttl / 1000)]++;
+			}
+			if (bytes >= 0) {
+				tally.totalBytes += bytes;
+				tally.sizeCounts[bucket(SIZE_BOUNDS_BYTES, bytes)]++;
+			}
+		}
+	}
+	
+	// claim 키를 파이프라인 한 번으로 읽고, 병합 기록이 있는 claim만 지운다
+	// 기록이 없는 병합 중 키는 진행 중이거나 다음 로그인/재시도가 이어받을 병합이라 남긴다 (TTL로도 사라진다)
+	private void deleteMerged(List<String> guestIds, Tally tally) {
+		if (guestIds.isEmpty()) {
+			return;
+		}
+		tally.mergingCarts += guestIds.size();
+		List<Object> claimIds = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			for (String guestId : guestIds) {
+				connection.stringCommands().get(bytes(GuestCartKeys.claim(guestId)));
+			}
+			return null;
+		});
+		
+		Map<String, String> guestIdByClaimId = new HashMap<>();
+		for (int i = 0; i < guestIds.size(); i++) {
+			if (claimIds.get(i) instanceof String claimId) {
+				guestIdByClaimId.put(claimId, guestIds.get(i));
+			}
+		}
+		if (guestIdByClaimId.isEmpty()) {
+			return;
+		}
+		for (GuestCartMerge merge : guestCartMergeRepository.findAllById(guestIdByClaimId.keySet())) {
+			// 그 사이 다른 claim이 장바구니를 다시 옮겼으면 스크립트가 지우지 않는다
+			if (GuestCartClaimScripts.complete(redisTemplate, guestIdByClaimId.get(merge.getClaimId()), merge.getClaimId())) {
+				tally.mergedDeleted++;
+				mergedDeletedCounter.increment();
+			}
+		}
+	}
+	
+	private void sweepQuietly() {
+		try {
+			sweep();
+		} catch (RuntimeException e) {
+			log.warn("비회원 장바구니 키 집계 실패: {}", e.getMessage());
+		}
+	}
+	
+	private boolean pause() {
+		if (batchPauseMillis <= 0) {
+			return true;
+		}
+		try {
+			Thread.sleep(batchPauseMillis);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+	
+	private static int bucket(long[] bounds, long value) {
+		for (int i = 0; i < bounds.length; i++) {
+			if (value < bounds[i]) {
+				return i;
+			}
+		}
+		return bounds.length;
+	}
+	
+	private static Map<String, Long> histogram(String[] buckets, long[] counts, long noExpiry) {
+		Map<String, Long> histogram = new LinkedHashMap<>();
+		for (int i = 0; i < buckets.length; i++) {
+			histogram.put(buckets[i], counts[i]);
+		}
+		if (noExpiry >= 0) {
+			histogram.put("none", noExpiry);
+		}
+		return histogram;
+	}
+	
+	// 커서를 차례로 이어 하나의 키 목록처럼 읽는다
+	private static Iterator<String> keysOf(List<Cursor<byte[]>> cursors) {
+		return new Iterator<>() {
+			private int current;
+			
+			@Override
+			public boolean hasNext() {
+				while (current < cursors.size()) {
+					if (cursors.get(current).hasNext()) {
+						return true;
+					}
+					current++;
+				}
+				return false;
+			}
+			
+			@Override
+			public String next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return new String(cursors.get(current).next(), StandardCharsets.UTF_8);
+			}
+		};
+	}
+	
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+	
+	private static final class Tally {
+		private long scannedKeys;
+		private long carts;
+		private long legacyCarts;
+		private long mergingCarts;
+		private long mergedDeleted;
+		private long totalBytes;
+		private long noExpiry;
+		private final long[] ttlCounts = new long[TTL_BUCKETS.length];
+		private final long[] sizeCounts = new long[SIZE_BUCKETS.length];
+	}
+}
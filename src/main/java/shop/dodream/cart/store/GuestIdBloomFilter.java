@@ -0,0 +1,69 @@
+package shop.dodream.cart.store;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// 비회원 ID 블룸 필터, 넣은 값은 반드시 true이고 넣지 않은 값은 오탐률 이하로만 true
+// 비트 설정은 CAS로 처리해 락 없이 여러 스레드가 함께 쓸 수 있다
+final class GuestIdBloomFilter {
+	
+	private static final double LN2 = Math.log(2);
+	
+	private final AtomicLongArray words;
+	private final long bitCount;
+	private final int hashCount;
+	
+	GuestIdBloomFilter(long expectedInsertions, double falsePositiveRate) {
+		long n = Math.max(1, expectedInsertions);
+		long optimalBits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (LN2 * LN2));
+		int wordCount = (int) Math.max(1, Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) / 64));
+		this.words = new AtomicLongArray(wordCount);
+		this.bitCount = wordCount * 64L;
+		this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * LN2));
+	}
+	
+	void put(String value) {
+		long hash1 = hash(value);
+		long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+		for (int i = 0; i < hashCount; i++) {
+			long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+			long mask = 1L << bit;
+			int index = (int) (bit >>> 6);
+			long current = words.get(index);
+			while ((current & mask) == 0 && !words.compareAndSet(index, current, current | mask)) {
+				current = words.get(index);
+			}
+		}
+	}
+	
+	boolean mightContain(String value) {
+		long hash1 = hash(value);
+		long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+		for (int i = 0; i < hashCount; i++) {
+			long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+			if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	// FNV-1a 64비트 해시에 비트를 고르게 섞는 마무리 단계를 더한다
+	private static long hash(String value) {
+		long hash = 0xCBF29CE484222325L;
+		for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b & 0xFF;
+			hash *= 0x100000001B3L;
+		}
+		return mix(hash);
+	}
+	
+	private static long mix(long value) {
+		value ^= value >>> 33;
+		value *= 0xFF51AFD7ED558CCDL;
+		value ^= value >>> 33;
+		value *= 0xC4CEB9FE1A85EC53L;
+		value ^= value >>> 33;
+		return value;
+	}
+}
@@ -0,0 +1,14 @@
+package shop.dodream.cart.store;
+
+import shop.dodream.cart.dto.GuestCart;
+import shop.dodream.cart.dto.GuestCartItem;
+
+import java.util.List;
+
+// 가져왔지만 아직 회원 장바구니에 반영하지 않은 비회원 장바구니, 반영 전 조회는 이 아이템을 더해 보여준다
+public record PendingCartMerge(String guestId, String claimId, List<GuestCartItem> items, long requestedAt) {
+	
+	public GuestCartClaim toClaim() {
+		return new GuestCartClaim(claimId, new GuestCart(guestId, items));
+	}
+}
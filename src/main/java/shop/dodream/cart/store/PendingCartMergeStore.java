@@ -0,0 +1,143 @@
+package shop.dodream.cart.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.stereotype.Component;
+import shop.dodream.cart.config.GuestCartProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// 회원별 반영 대기 중인 병합 기록 (cart_merge_pending_claims:userId 해시, 필드는 claimId)과, 오래 남은 기록을 찾기 위한 요청 시각 ZSET 색인
+// 같은 회원이 여러 기기에서 로그인해도 claim마다 따로 남아, 조회에는 모두 더해지고 멈춘 병합도 각각 다시 반영된다
+// 비동기 병합을 끄면 Redis를 조회하지 않고 항상 대기 중인 병합이 없다고 본다
+@Slf4j
+@Component
+public class PendingCartMergeStore {
+	
+	private static final String KEY_PREFIX = "cart_merge_pending_claims:";
+	// 색인 항목은 claimId:userId (claimId는 UUID 또는 쿠키 nonce라 ':'가 없다)
+	static final String INDEX_KEY = "cart_merge_pending_claims";
+	private static final char ENTRY_SEPARATOR = ':';
+	// 회원당 기록 하나를 문자열로 두던 이전 형식 (cart_merge_pending:userId)과 그 색인 (항목은 userId)
+	private static final String LEGACY_KEY_PREFIX = "cart_merge_pending:";
+	static final String LEGACY_INDEX_KEY = "cart_merge_pending";
+	
+	private final StringRedisTemplate redisTemplate;
+	private final Jackson2JsonRedisSerializer<PendingCartMerge> serializer =
+			new Jackson2JsonRedisSerializer<>(PendingCartMerge.class);
+	private final boolean enabled;
+	private final Duration ttl;
+	
+	public PendingCartMergeStore(StringRedisTemplate redisTemplate, GuestCartProperties properties) {
+		this.redisTemplate = redisTemplate;
+		this.enabled = properties.getMerge().isAsync();
+		this.ttl = properties.getMerge().getPendingTtl();
+	}
+	
+	public boolean isEnabled() {
+		return enabled;
+	}
+	
+	// 해시 전체의 만료 시간을 새로 잡으므로, 먼저 남긴 기록도 마지막 요청부터 ttl 동안 남는다
+	public void save(String userId, PendingCartMerge pending) {
+		String key = key(userId);
+		redisTemplate.opsForHash().put(key, pending.claimId(), serialize(pending));
+		redisTemplate.expire(key, ttl);
+		redisTemplate.opsForZSet().add(INDEX_KEY, entry(userId, pending.claimId()), pending.requestedAt());
+	}
+	
+	// 조회 경로에서 쓰므로 Redis 장애 시 예외 대신 빈 목록 (회원 장바구니만 보여준다)
+	public List<PendingCartMerge> findAll(String userId) {
+		if (!enabled || userId == null) {
+			return List.of();
+		}
+		try {
+			List<Object> values = redisTemplate.opsForHash().values(key(userId));
+			List<PendingCartMerge> pending = new ArrayList<>(values.size());
+			for (Object value : values) {
+				pending.add(deserialize(value.toString()));
+			}
+			return pending;
+		} catch (RuntimeException e) {
+			log.warn("반영 대기 중인 장바구니 병합 조회 실패 [{}]: {}", userId, e.getMessage());
+			return List.of();
+		}
+	}
+	
+	// 다시 반영할 기록을 읽는다, 없으면 null (Redis 장애는 그대로 던져 색인을 지우지 않게 한다)
+	public PendingCartMerge find(String userId, String claimId) {
+		Object value = redisTemplate.opsForHash().get(key(userId), claimId);
+		return value != null ? deserialize(value.toString()) : null;
+	}
+	
+	// 같은 병합의 기록만 지운다 (그 사이 새로 요청된 병합은 남긴다)
+	public void remove(String userId, String claimId) {
+		redisTemplate.opsForHash().delete(key(userId), claimId);
+		redisTemplate.opsForZSet().remove(INDEX_KEY, entry(userId, claimId));
+	}
+	
+	// requestedBefore 이전에 요청되고 아직 색인에 남은 기록
+	public List<Entry> requestedBefore(long requestedBefore, int limit) {
+		migrateLegacy(limit);
+		Set<String> entries = redisTemplate.opsForZSet().rangeByScore(INDEX_KEY, 0, requestedBefore, 0, limit);
+		if (entries == null) {
+			return List.of();
+		}
+		List<Entry> result = new ArrayList<>(entries.size());
+		for (String entry : entries) {
+			int separator = entry.indexOf(ENTRY_SEPARATOR);
+			if (separator > 0) {
+				result.add(new Entry(entry.substring(separator + 1), entry.substring(0, separator)));
+			}
+		}
+		return result;
+	}
+	
+	// 기록이 만료된 색인 항목 정리, 또는 다시 시도한 기록을 다른 노드가 곧바로 다시 집지 않도록 요청 시각을 미룬다
+	public void reindex(String userId, String claimId, Long requestedAt) {
+		if (requestedAt == null) {
+			redisTemplate.opsForZSet().remove(INDEX_KEY, entry(userId, claimId));
+		} else {
+			redisTemplate.opsForZSet().add(INDEX_KEY, entry(userId, claimId), requestedAt);
+		}
+	}
+	
+	// 배포 전에 남은 이전 형식 기록을 claim별 기록으로 옮긴다, 옮긴 기록은 요청 시각 그대로라 같은 주기에 다시 반영된다
+	private void migrateLegacy(int limit) {
+		Set<String> userIds = redisTemplate.opsForZSet().range(LEGACY_INDEX_KEY, 0, limit - 1);
+		if (userIds == null) {
+			return;
+		}
+		for (String userId : userIds) {
+			String value = redisTemplate.opsForValue().getAndDelete(LEGACY_KEY_PREFIX + userId);
+			if (value != null) {
+				save(userId, deserialize(value));
+			}
+			redisTemplate.opsForZSet().remove(LEGACY_INDEX_KEY, userId);
+		}
+	}
+	
+	private String serialize(PendingCartMerge pending) {
+		return new String(serializer.serialize(pending), StandardCharsets.UTF_8);
+	}
+	
+	private PendingCartMerge deserialize(String value) {
+		return serializer.deserialize(value.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	private static String entry(String userId, String claimId) {
+		return claimId + ENTRY_SEPARATOR + userId;
+	}
+	
+	private String key(String userId) {
+		return KEY_PREFIX + userId;
+	}
+	
+	public record Entry(String userId, String claimId) {
+	}
+}
@@ -0,0 +1,346 @@
+package shop.dodream.cart.store;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import shop.dodream.cart.config.GuestCartProperties;
+import shop.dodream.cart.dto.GuestCart;
+import shop.dodream.cart.dto.GuestCartItem;
+import shop.dodream.cart.exception.DataNotFoundException;
+import shop.dodream.cart.exception.InvalidQuantityException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// 비회원 한 명당 해시 하나 (필드: bookId, 값: 수량), 모든 변경은 Lua 스크립트로 서버에서 원자적으로 처리
+// 해시 필드 순서는 보장되지 않으므로 담은 순서는 같은 슬롯의 ZSET(guest_cart:{guestId}:order, 점수: 담은 순번)에 따로 둔다
+// 변경은 건드린 필드와 순서 항목만 읽고 쓰며, 응답에 쓸 장바구니 전체는 순서 키 순으로 한 번만 읽는다
+// KEYS: 장바구니, 순서 키, (이전 키 조회가 켜져 있으면) 해시 태그 도입 전 키
+public class RedisHashGuestCartStore implements GuestCartStore {
+	
+	// 모든 스크립트 앞에 붙는 공통 함수와 이전 형식 변환
+	// KEYS[3]으로 해시 태그 도입 전 키가 넘어오면 새 키로 이름을 바꾸고,
+	// 이전 방식(JSON 문자열)으로 저장된 장바구니를 같은 키의 해시로 옮기고 남은 TTL을 유지
+	// 순서 키가 없는 해시('담은 순번:수량' 값을 쓰던 형식 포함)는 한 번만 순서 키를 만들어 둔다, 순번이 없으면 0
+	// binary 형식 값은 읽지 못하므로 GuestCartStoreConfig가 hash + binary 설정을 시작 시 거부한다
+	private static final String COMMON = """
+			local function nextSeq(order)
+			  local last = redis.call('ZRANGE', order, -1, -1, 'WITHSCORES')
+			  return last[2] and tonumber(last[2]) + 1 or 1
+			end
+			local function refresh(key, order, ttl)
+			  redis.call('EXPIRE', key, ttl)
+			  redis.call('EXPIRE', order, ttl)
+			end
+			local function items(key, order)
+			  local books = redis.call('ZRANGE', order, 0, -1)
+			  local result = {}
+			  if #books == 0 then
+			    return result
+			  end
+			  local quantities = redis.call('HMGET', key, unpack(books))
+			  for i, book in ipairs(books) do
+			    if quantities[i] then
+			      result[#result + 1] = book
+			      result[#result + 1] = quantities[i]
+			    end
+			  end
+			  return result
+			end
+			local function migrate(key, order)
+			  local kind = redis.call('TYPE', key)['ok']
+			  if kind == 'string' then
+			    local legacy = cjson.decode(redis.call('GET', key))
+			    local ttl = redis.call('PTTL', key)
+			    redis.call('DEL', key, order)
+			    if type(legacy['items']) == 'table' then
+			      for seq, item in ipairs(legacy['items']) do
+			        local book = string.format('%d', item['bookId'])
+			        redis.call('HSET', key, book, item['quantity'])
+			        redis.call('ZADD', order, seq, book)
+			      end
+			    end
+			    if ttl > 0 and redis.call('EXISTS', key) == 1 then
+			      redis.call('PEXPIRE', key, ttl)
+			      redis.call('PEXPIRE', order, ttl)
+			    end
+			  elseif kind == 'hash' and redis.call('EXISTS', order) == 0 then
+			    local entries = redis.call('HGETALL', key)
+			    for i = 1, #entries, 2 do
+			      local seq, quantity = string.match(entries[i + 1], '^(%d+):(%d+)$')
+			      if seq then
+			        redis.call('HSET', key, entries[i], quantity)
+			      end
+			      redis.call('ZADD', order, seq or 0, entries[i])
+			    end
+			    local ttl = redis.call('PTTL', key)
+			    if ttl > 0 then
+			      redis.call('PEXPIRE', order, ttl)
+			    end
+			  end
+			end
+			if #KEYS > 2 and redis.call('EXISTS', KEYS[1]) == 0 and redis.call('EXISTS', KEYS[3]) == 1 then
+			  redis.call('RENAME', KEYS[3], KEYS[1])
+			end
+			migrate(KEYS[1], KEYS[2])
+			""";
+	
+	// ARGV: bookId, 추가 수량, 최대 수량(도서 종류 수), TTL(초) / 가득 찼으면 nil
+	private static final RedisScript<List<Object>> ADD_ITEM = listScript(COMMON + """
+			local max = tonumber(ARGV[3])
+			if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 0 then
+			  if redis.call('HLEN', KEYS[1]) >= max then
+			    return false
+			  end
+			  redis.call('ZADD', KEYS[2], nextSeq(KEYS[2]), ARGV[1])
+			end
+			if redis.call('HINCRBY', KEYS[1], ARGV[1], ARGV[2]) > max then
+			  redis.call('HSET', KEYS[1], ARGV[1], max)
+			end
+			refresh(KEYS[1], KEYS[2], ARGV[4])
+			return items(KEYS[1], KEYS[2])
+			""");
+	
+	// ARGV: bookId, 수량, TTL(초) / 장바구니에 없는 도서면 nil
+	private static final RedisScript<List<Object>> UPDATE_QUANTITY = listScript(COMMON + """
+			if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 0 then
+			  return false
+			end
+			redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+			refresh(KEYS[1], KEYS[2], ARGV[3])
+			return items(KEYS[1], KEYS[2])
+			""");
+	
+	// ARGV: bookId, TTL(초) / 지운 필드 수만 돌려준다
+	private static final RedisScript<Long> REMOVE_ITEM = new DefaultRedisScript<>(COMMON + """
+			local removed = redis.call('HDEL', KEYS[1], ARGV[1])
+			redis.call('ZREM', KEYS[2], ARGV[1])
+			if redis.call('EXISTS', KEYS[1]) == 1 then
+			  refresh(KEYS[1], KEYS[2], ARGV[2])
+			else
+			  redis.call('DEL', KEYS[2])
+			end
+			return removed
+			""", Long.class);
+	
+	// ARGV: 최대 수량(도서 종류 수), TTL(초), (종류, bookId, 수량) 반복
+	// 건드리는 도서의 수량만 읽어 메모리 테이블에 모두 적용해 본 뒤, 성공했을 때만 그 필드와 순서 항목을 쓴다
+	// ['ok', 필드1, 값1, ...] 또는 ['full'], ['missing']
+	private static final RedisScript<List<Object>> APPLY_ALL = listScript(COMMON + """
+			local max = tonumber(ARGV[1])
+			local size = redis.call('HLEN', KEYS[1])
+			local last = nextSeq(KEYS[2]) - 1
+			local cart, seqs = {}, {}
+			local function current(book)
+			  if cart[book] == nil then
+			    cart[book] = tonumber(redis.call('HGET', KEYS[1], book)) or false
+			  end
+			  return cart[book]
+			end
+			for i = 3, #ARGV, 3 do
+			  local op, book, quantity = ARGV[i], ARGV[i + 1], tonumber(ARGV[i + 2])
+			  if op == 'ADD' then
+			    local existing = current(book)
+			    if not existing then
+			      if size >= max then
+			        return {'full'}
+			      end
+			      existing = 0
+			      size, last = size + 1, last + 1
+			      seqs[book] = last
+			    end
+			    cart[book] = math.min(existing + quantity, max)
+			  elseif op == 'UPDATE' then
+			    if not current(book) then
+			      return {'missing'}
+			    end
+			    cart[book] = quantity
+			  elseif current(book) then
+			    cart[book] = false
+			    seqs[book] = nil
+			    size = size - 1
+			  end
+			end
+			for book, quantity in pairs(cart) do
+			  if quantity then
+			    redis.call('HSET', KEYS[1], book, quantity)
+			    if seqs[book] then
+			      redis.call('ZADD', KEYS[2], seqs[book], book)
+			    end
+			  else
+			    redis.call('HDEL', KEYS[1], book)
+			    redis.call('ZREM', KEYS[2], book)
+			  end
+			end
+			if size > 0 then
+			  refresh(KEYS[1], KEYS[2], ARGV[2])
+			else
+			  redis.call('DEL', KEYS[2])
+			end
+			local result = items(KEYS[1], KEYS[2])
+			table.insert(result, 1, 'ok')
+			return result
+			""");
+	
+	// ARGV: TTL(초), bookId1, 수량1, bookId2, 수량2, ... / 이전 형식의 값도 DEL로 함께 정리된다, 순번은 넘긴 순서
+	private static final RedisScript<Long> REPLACE = new DefaultRedisScript<>("""
+			redis.call('DEL', unpack(KEYS))
+			for i = 2, #ARGV, 2 do
+			  redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+			  redis.call('ZADD', KEYS[2], i / 2, ARGV[i])
+			end
+			if #ARGV > 1 then
+			  redis.call('EXPIRE', KEYS[1], ARGV[1])
+			  redis.call('EXPIRE', KEYS[2], ARGV[1])
+			end
+			return #ARGV / 2
+			""", Long.class);
+	
+	private static final RedisScript<List<Object>> FIND = listScript(COMMON + """
+			return items(KEYS[1], KEYS[2])
+			""");
+	
+	// ARGV: TTL(초)
+	private static final RedisScript<Long> TOUCH = new DefaultRedisScript<>("""
+			redis.call('EXPIRE', KEYS[2], ARGV[1])
+			return redis.call('EXPIRE', KEYS[1], ARGV[1])
+			""", Long.class);
+	
+	private final StringRedisTemplate redisTemplate;
+	private final Duration ttl;
+	private final String ttlSeconds;
+	private final int maxItemCount;
+	private final boolean legacyKeyFallback;
+	
+	public RedisHashGuestCartStore(StringRedisTemplate redisTemplate, GuestCartProperties properties) {
+		this.redisTemplate = redisTemplate;
+		this.ttl = properties.getTtl();
+		this.ttlSeconds = String.valueOf(ttl.toSeconds());
+		this.maxItemCount = properties.getMaxItemCount();
+		this.legacyKeyFallback = properties.isLegacyKeyFallback();
+	}
+	
+	@Override
+	public GuestCart find(String guestId) {
+		List<Object> entries = execute(FIND, guestId);
+		return entries == null || entries.isEmpty() ? null : toCart(guestId, entries);
+	}
+	
+	@Override
+	public GuestCart addItem(String guestId, Long bookId, long quantity) {
+		List<Object> entries = execute(ADD_ITEM, guestId, bookId.toString(), String.valueOf(quantity),
+				String.valueOf(maxItemCount), ttlSeconds);
+		if (entries == null) {
+			throw new InvalidQuantityException("장바구니는 최대 " + maxItemCount + "개까지만 담을 수 있습니다.");
+		}
+		return toCart(guestId, entries);
+	}
+	
+	@Override
+	public GuestCart updateQuantity(String guestId, Long bookId, long quantity) {
+		List<Object> entries = execute(UPDATE_QUANTITY, guestId, bookId.toString(), String.valueOf(quantity), ttlSeconds);
+		if (entries == null) {
+			throw new DataNotFoundException("해당 도서가 장바구니에 존재하지 않습니다.");
+		}
+		return toCart(guestId, entries);
+	}
+	
+	@Override
+	public void removeItem(String guestId, Long bookId) {
+		redisTemplate.execute(REMOVE_ITEM, keys(guestId), bookId.toString(), ttlSeconds);
+	}
+	
+	@Override
+	public GuestCart applyAll(String guestId, List<GuestCartOperation> operations) {
+		List<String> args = new ArrayList<>(2 + operations.size() * 3);
+		args.add(String.valueOf(maxItemCount));
+		args.add(ttlSeconds);
+		for (GuestCartOperation operation : operations) {
+			args.add(operation.type().name());
+			args.add(operation.bookId().toString());
+			args.add(String.valueOf(operation.quantity()));
+		}
+		List<Object> result = redisTemplate.execute(APPLY_ALL, keys(guestId), args.toArray());
+		Object status = result != null && !result.isEmpty() ? result.get(0) : "";
+		return switch (status.toString()) {
+			case "ok" -> toCart(guestId, result.subList(1, result.size()));
+			case "full" -> throw new InvalidQuantityException("장바구니는 최대 " + maxItemCount + "개까지만 담을 수 있습니다.");
+			case "missing" -> throw new DataNotFoundException("해당 도서가 장바구니에 존재하지 않습니다.");
+			default -> throw new IllegalStateException("알 수 없는 일괄 변경 결과: " + status);
+		};
+	}
+	
+	@Override
+	public boolean delete(String guestId) {
+		Long deleted = redisTemplate.delete(keys(guestId));
+		return deleted != null && deleted > 0;
+	}
+	
+	@Override
+	public void replace(GuestCart cart) {
+		List<String> args = new ArrayList<>(1 + cart.getItems().size() * 2);
+		args.add(ttlSeconds);
+		for (GuestCartItem item : cart.getItems()) {
+			args.add(item.getBookId().toString());
+			args.add(item.getQuantity().toString());
+		}
+		redisTemplate.execute(REPLACE, keys(cart.getGuestId()), args.toArray());
+	}
+	
+	@Override
+	public void touch(String guestId) {
+		redisTemplate.execute(TOUCH, List.of(GuestCartKeys.cart(guestId), GuestCartKeys.order(guestId)), ttlSeconds);
+	}
+	
+	// 이전 키는 FIND로 먼저 새 키로 옮기고, 이전 형식(JSON 문자열)은 병합 중 키에서 해시로 바꿔 읽는다
+	@Override
+	public GuestCartClaim claim(String guestId) {
+		if (legacyKeyFallback) {
+			execute(FIND, guestId);
+		}
+		String claimId = GuestCartClaimScripts.claim(redisTemplate, guestId, ttl);
+		if (claimId == null) {
+			return null;
+		}
+		List<Object> entries = redisTemplate.execute(FIND,
+				List.of(GuestCartKeys.merging(guestId), GuestCartKeys.mergingOrder(guestId)));
+		return new GuestCartClaim(claimId, toCart(guestId, entries != null ? entries : List.of()));
+	}
+	
+	@Override
+	public boolean completeClaim(String guestId, String claimId) {
+		return GuestCartClaimScripts.complete(redisTemplate, guestId, claimId);
+	}
+	
+	@Override
+	public boolean releaseClaim(String guestId, String claimId) {
+		return GuestCartClaimScripts.release(redisTemplate, guestId, claimId);
+	}
+	
+	// 배열 응답은 StringRedisTemplate이 문자열 목록으로 읽는다
+	@SuppressWarnings("unchecked")
+	private static RedisScript<List<Object>> listScript(String script) {
+		return new DefaultRedisScript<>(script, (Class<List<Object>>) (Class<?>) List.class);
+	}
+	
+	private List<Object> execute(RedisScript<List<Object>> script, String guestId, String... args) {
+		return redisTemplate.execute(script, keys(guestId), (Object[]) args);
+	}
+	
+	private List<String> keys(String guestId) {
+		return legacyKeyFallback
+				? List.of(GuestCartKeys.cart(guestId), GuestCartKeys.order(guestId), GuestCartKeys.legacyCart(guestId))
+				: List.of(GuestCartKeys.cart(guestId), GuestCartKeys.order(guestId));
+	}
+	
+	// 스크립트 결과는 담은 순서대로 [bookId1, 수량1, bookId2, 수량2, ...]
+	private GuestCart toCart(String guestId, List<Object> entries) {
+		List<GuestCartItem> items = new ArrayList<>(entries.size() / 2);
+		for (int i = 0; i + 1 < entries.size(); i += 2) {
+			items.add(new GuestCartItem(Long.parseLong(entries.get(i).toString()),
+					Long.parseLong(entries.get(i + 1).toString())));
+		}
+		return new GuestCart(guestId, items);
+	}
+}
@@ -0,0 +1,133 @@
+package shop.dodream.cart.store;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import shop.dodream.cart.config.GuestCartProperties;
+import shop.dodream.cart.dto.GuestCart;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// 장바구니 전체를 하나의 값으로 저장, 실제로 바뀐 경우에만 읽고 수정한 뒤 통째로 다시 쓴다
+public class RedisValueGuestCartStore implements GuestCartStore {
+	
+	// KEYS: 새 키, 이전 키 / 새 키가 없고 이전 키가 있으면 TTL을 유지한 채 이름만 바꾼다
+	private static final RedisScript<Long> MIGRATE_LEGACY_KEY = new DefaultRedisScript<>("""
+			if redis.call('EXISTS', KEYS[1]) == 0 and redis.call('EXISTS', KEYS[2]) == 1 then
+			  redis.call('RENAME', KEYS[2], KEYS[1])
+			  return 1
+			end
+			return 0
+			""", Long.class);
+	
+	private final RedisTemplate<String, GuestCart> redisTemplate;
+	private final Duration ttl;
+	private final int maxItemCount;
+	private final boolean legacyKeyFallback;
+	
+	public RedisValueGuestCartStore(RedisTemplate<String, GuestCart> redisTemplate, GuestCartProperties properties) {
+		this.redisTemplate = redisTemplate;
+		this.ttl = properties.getTtl();
+		this.maxItemCount = properties.getMaxItemCount();
+		this.legacyKeyFallback = properties.isLegacyKeyFallback();
+	}
+	
+	@Override
+	public GuestCart find(String guestId) {
+		GuestCart cart = redisTemplate.opsForValue().get(GuestCartKeys.cart(guestId));
+		if (cart == null && legacyKeyFallback && migrateLegacyKey(guestId)) {
+			cart = redisTemplate.opsForValue().get(GuestCartKeys.cart(guestId));
+		}
+		return cart;
+	}
+	
+	@Override
+	public GuestCart addItem(String guestId, Long bookId, long quantity) {
+		GuestCart cart = findOrEmpty(guestId);
+		// 이미 최대 수량이면 값은 다시 쓰지 않고 만료 시간만 연장
+		saveOrTouch(guestId, cart, GuestCartMutations.addItem(cart, bookId, quantity, maxItemCount));
+		return cart;
+	}
+	
+	@Override
+	public GuestCart updateQuantity(String guestId, Long bookId, long quantity) {
+		GuestCart cart = findOrEmpty(guestId);
+		saveOrTouch(guestId, cart, GuestCartMutations.updateQuantity(cart, bookId, quantity));
+		return cart;
+	}
+	
+	@Override
+	public void removeItem(String guestId, Long bookId) {
+		GuestCart cart = find(guestId);
+		if (cart != null) {
+			saveOrTouch(guestId, cart, GuestCartMutations.removeItem(cart, bookId));
+		}
+	}
+	
+	// 한 번 읽고 메모리에서 모두 적용한 뒤 한 번만 다시 쓴다
+	@Override
+	public GuestCart applyAll(String guestId, List<GuestCartOperation> operations) {
+		GuestCart cart = findOrEmpty(guestId);
+		saveOrTouch(guestId, cart, GuestCartMutations.applyAll(cart, operations, maxItemCount));
+		return cart;
+	}
+	
+	@Override
+	public boolean delete(String guestId) {
+		Long deleted = redisTemplate.delete(GuestCartKeys.cartKeys(guestId, legacyKeyFallback));
+		return deleted != null && deleted > 0;
+	}
+	
+	@Override
+	public void replace(GuestCart cart) {
+		redisTemplate.opsForValue().set(GuestCartKeys.cart(cart.getGuestId()), cart, ttl);
+	}
+	
+	@Override
+	public void touch(String guestId) {
+		redisTemplate.expire(GuestCartKeys.cart(guestId), ttl);
+	}
+	
+	@Override
+	public GuestCartClaim claim(String guestId) {
+		if (legacyKeyFallback) {
+			migrateLegacyKey(guestId);
+		}
+		String claimId = GuestCartClaimScripts.claim(redisTemplate, guestId, ttl);
+		if (claimId == null) {
+			return null;
+		}
+		GuestCart cart = redisTemplate.opsForValue().get(GuestCartKeys.merging(guestId));
+		return new GuestCartClaim(claimId, cart != null ? cart : new GuestCart(guestId, new ArrayList<>()));
+	}
+	
+	@Override
+	public boolean completeClaim(String guestId, String claimId) {
+		return GuestCartClaimScripts.complete(redisTemplate, guestId, claimId);
+	}
+	
+	@Override
+	public boolean releaseClaim(String guestId, String claimId) {
+		return GuestCartClaimScripts.release(redisTemplate, guestId, claimId);
+	}
+	
+	private boolean migrateLegacyKey(String guestId) {
+		Long migrated = redisTemplate.execute(MIGRATE_LEGACY_KEY, GuestCartKeys.cartKeys(guestId, true));
+		return migrated != null && migrated == 1L;
+	}
+	
+	private GuestCart findOrEmpty(String guestId) {
+		GuestCart cart = find(guestId);
+		return cart != null ? cart : new GuestCart(guestId, new ArrayList<>());
+	}
+	
+	private void saveOrTouch(String guestId, GuestCart cart, boolean changed) {
+		if (changed) {
+			redisTemplate.opsForValue().set(GuestCartKeys.cart(guestId), cart, ttl);
+		} else {
+			touch(guestId);
+		}
+	}
+}
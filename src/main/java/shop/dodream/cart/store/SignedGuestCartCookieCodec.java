@@ -0,0 +1,90 @@
+package shop.dodream.cart.store;
+
+import org.springframework.data.redis.serializer.SerializationException;
+import shop.dodream.cart.dto.GuestCart;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+// [base64url(nonce + 바이너리 장바구니)].[base64url(HMAC-SHA256)] 형식의 쿠키 값
+// 장바구니 데이터에 guestId가 함께 서명되므로 다른 비회원의 쿠키는 사용할 수 없다
+public class SignedGuestCartCookieCodec {
+	
+	private static final String ALGORITHM = "HmacSHA256";
+	private static final int NONCE_BYTES = 16;
+	private static final SecureRandom RANDOM = new SecureRandom();
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+	
+	private final SecretKeySpec key;
+	private final BinaryGuestCartSerializer serializer = new BinaryGuestCartSerializer();
+	
+	public SignedGuestCartCookieCodec(String secret) {
+		if (secret == null || secret.isBlank()) {
+			throw new IllegalStateException("cart.guest.cookie.secret 설정이 필요합니다.");
+		}
+		this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+	}
+	
+	// 쿠키 장바구니를 처음 만들 때 한 번 정해 변경 사이에 유지하는 값, 장바구니를 구분하는 데 쓴다
+	public static String newNonce() {
+		byte[] nonce = new byte[NONCE_BYTES];
+		RANDOM.nextBytes(nonce);
+		return ENCODER.encodeToString(nonce);
+	}
+	
+	public String encode(CookieCart cookieCart) {
+		byte[] nonce = DECODER.decode(cookieCart.nonce());
+		if (nonce.length != NONCE_BYTES) {
+			throw new IllegalArgumentException("nonce must be " + NONCE_BYTES + " bytes");
+		}
+		byte[] cart = serializer.serialize(cookieCart.cart());
+		byte[] payload = Arrays.copyOf(nonce, NONCE_BYTES + cart.length);
+		System.arraycopy(cart, 0, payload, NONCE_BYTES, cart.length);
+		return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+	}
+	
+	// 형식이 잘못됐거나 서명이 맞지 않으면 null
+	public CookieCart decode(String value) {
+		if (value == null) {
+			return null;
+		}
+		int separator = value.indexOf('.');
+		if (separator <= 0) {
+			return null;
+		}
+		try {
+			byte[] payload = DECODER.decode(value.substring(0, separator));
+			byte[] signature = DECODER.decode(value.substring(separator + 1));
+			if (payload.length <= NONCE_BYTES || !MessageDigest.isEqual(sign(payload), signature)) {
+				return null;
+			}
+			GuestCart cart = serializer.deserialize(Arrays.copyOfRange(payload, NONCE_BYTES, payload.length));
+			if (cart == null || cart.getItems() == null) {
+				return null;
+			}
+			return new CookieCart(ENCODER.encodeToString(Arrays.copyOf(payload, NONCE_BYTES)), cart);
+		} catch (IllegalArgumentException | SerializationException e) {
+			return null;
+		}
+	}
+	
+	private byte[] sign(byte[] payload) {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(key);
+			return mac.doFinal(payload);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("장바구니 쿠키 서명에 실패했습니다.", e);
+		}
+	}
+	
+	public record CookieCart(String nonce, GuestCart cart) {
+	}
+}
@@ -0,0 +1,151 @@
+package shop.dodream.cart.store;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import shop.dodream.cart.dto.GuestCart;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+// 조회만 해도 장바구니 만료 시간을 연장하되, 비회원별로 interval 동안 한 번만 EXPIRE를 보낸다
+// 마지막 연장 시각은 노드 내부에만 기록하며, 변경 명령은 저장소가 직접 TTL을 갱신하므로 연장한 것으로 본다
+@Slf4j
+public class SlidingExpiryGuestCartStore implements GuestCartStore {
+	
+	private final GuestCartStore delegate;
+	private final long intervalNanos;
+	private final LongSupplier ticker;
+	private final LinkedHashMap<String, Long> lastTouched;
+	
+	private final Counter touchCounter;
+	
+	public SlidingExpiryGuestCartStore(GuestCartStore delegate, Duration interval, int maxTracked, MeterRegistry meterRegistry) {
+		this(delegate, interval, maxTracked, meterRegistry, System::nanoTime);
+	}
+	
+	SlidingExpiryGuestCartStore(GuestCartStore delegate, Duration interval, int maxTracked,
+	                            MeterRegistry meterRegistry, LongSupplier ticker) {
+		this.delegate = delegate;
+		this.intervalNanos = interval.toNanos();
+		this.ticker = ticker;
+		this.lastTouched = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+				return size() > maxTracked;
+			}
+		};
+		this.touchCounter = Counter.builder("cart.guest.ttl.touches").register(meterRegistry);
+	}
+	
+	@Override
+	public GuestCart find(String guestId) {
+		GuestCart cart = delegate.find(guestId);
+		if (cart != null && touchDue(guestId)) {
+			try {
+				delegate.touch(guestId);
+				touchCounter.increment();
+			} catch (RuntimeException e) {
+				// 만료 연장 실패로 조회까지 실패시키지 않는다
+				forget(guestId);
+				log.warn("비회원 장바구니 만료 시간 연장 실패 [{}]: {}", guestId, e.getMessage());
+			}
+		}
+		return cart;
+	}
+	
+	@Override
+	public GuestCart addItem(String guestId, Long bookId, long quantity) {
+		GuestCart cart = delegate.addItem(guestId, bookId, quantity);
+		markTouched(guestId);
+		return cart;
+	}
+	
+	@Override
+	public GuestCart updateQuantity(String guestId, Long bookId, long quantity) {
+		GuestCart cart = delegate.updateQuantity(guestId, bookId, quantity);
+		markTouched(guestId);
+		return cart;
+	}
+	
+	@Override
+	public void removeItem(String guestId, Long bookId) {
+		delegate.removeItem(guestId, bookId);
+		markTouched(guestId);
+	}
+	
+	@Override
+	public GuestCart applyAll(String guestId, List<GuestCartOperation> operations) {
+		GuestCart cart = delegate.applyAll(guestId, operations);
+		markTouched(guestId);
+		return cart;
+	}
+	
+	@Override
+	public boolean delete(String guestId) {
+		forget(guestId);
+		return delegate.delete(guestId);
+	}
+	
+	@Override
+	public void replace(GuestCart cart) {
+		delegate.replace(cart);
+		markTouched(cart.getGuestId());
+	}
+	
+	@Override
+	public void touch(String guestId) {
+		delegate.touch(guestId);
+		markTouched(guestId);
+	}
+	
+	@Override
+	public GuestCartClaim claim(String guestId) {
+		forget(guestId);
+		return delegate.claim(guestId);
+	}
+	
+	@Override
+	public boolean completeClaim(String guestId, String claimId) {
+		return delegate.completeClaim(guestId, claimId);
+	}
+	
+	// 되돌린 장바구니의 TTL은 옮기기 전 그대로이므로 다음 조회에서 연장한다
+	@Override
+	public boolean releaseClaim(String guestId, String claimId) {
+		return delegate.releaseClaim(guestId, claimId);
+	}
+	
+	@Override
+	public void close() {
+		delegate.close();
+	}
+	
+	private boolean touchDue(String guestId) {
+		long now = ticker.getAsLong();
+		synchronized (lastTouched) {
+			Long last = lastTouched.get(guestId);
+			if (last != null && now - last < intervalNanos) {
+				return false;
+			}
+			lastTouched.put(guestId, now);
+			return true;
+		}
+	}
+	
+	private void markTouched(String guestId) {
+		long now = ticker.getAsLong();
+		synchronized (lastTouched) {
+			lastTouched.put(guestId, now);
+		}
+	}
+	
+	private void forget(String guestId) {
+		synchronized (lastTouched) {
+			lastTouched.remove(guestId);
+		}
+	}
+}
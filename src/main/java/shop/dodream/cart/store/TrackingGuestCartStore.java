@@ -0,0 +1,348 @@
+package shop.dodream.cart.store;
+
+import io.lettuce.core.*;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import shop.dodream.cart.dto.GuestCart;
+
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// RESP3 클라이언트 트래킹으로 다른 노드가 키를 변경하면 Redis가 보내는 무효화 메시지로 즉시 지워지는 노드 내부 캐시
+// 값 전체를 GET으로 읽는 value 저장 방식에서만 사용, 트래킹을 켤 수 없으면 항상 원래 저장소로 조회한다
+@Slf4j
+public class TrackingGuestCartStore implements GuestCartStore {
+	
+	private static final byte[] ABSENT = new byte[0];
+	private static final long RECONNECT_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(10);
+	private static final int INVALIDATION_STRIPES = 256;
+	
+	private final GuestCartStore delegate;
+	private final Supplier<AbstractRedisClient> clientSupplier;
+	private final RedisSerializer<GuestCart> serializer;
+	private final boolean legacyKeyFallback;
+	private final LinkedHashMap<String, byte[]> entries;
+	
+	// 조회 도중 같은 키(같은 구간)의 무효화가 끼어들었는지 확인하기 위한 순번, entries 락으로 보호
+	// 다른 키의 무효화는 캐시를 막지 않고, 전체 무효화는 모든 조회를 막는다
+	private final long[] invalidationSequences = new long[INVALIDATION_STRIPES];
+	private long invalidationEpoch;
+	
+	private volatile StatefulRedisConnection<byte[], byte[]> connection;
+	private volatile RedisClient trackingClient;
+	private volatile RedisConnectionStateListener connectionListener;
+	private volatile boolean tracking;
+	private volatile boolean unsupported;
+	private volatile long nextConnectAttempt;
+	
+	private final Counter hitCounter;
+	private final Counter missCounter;
+	private final Counter invalidationCounter;
+	
+	public TrackingGuestCartStore(GuestCartStore delegate, Supplier<AbstractRedisClient> clientSupplier,
+	                              RedisSerializer<GuestCart> serializer, int maxSize, boolean legacyKeyFallback,
+	                              MeterRegistry meterRegistry) {
+		this.delegate = delegate;
+		this.clientSupplier = clientSupplier;
+		this.serializer = serializer;
+		this.legacyKeyFallback = legacyKeyFallback;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+				return size() > maxSize;
+			}
+		};
+		this.hitCounter = Counter.builder("cart.guest.client-cache.requests").tag("result", "hit").register(meterRegistry);
+		this.missCounter = Counter.builder("cart.guest.client-cache.requests").tag("result", "miss").register(meterRegistry);
+		this.invalidationCounter = Counter.builder("cart.guest.client-cache.invalidations").register(meterRegistry);
+		Gauge.builder("cart.guest.client-cache.size", this, TrackingGuestCartStore::size).register(meterRegistry);
+	}
+	
+	@Override
+	public GuestCart find(String guestId) {
+		if (!ensureTracking()) {
+			return delegate.find(guestId);
+		}
+		String key = GuestCartKeys.cart(guestId);
+		int stripe = stripe(key);
+		long sequence;
+		long epoch;
+		synchronized (entries) {
+			byte[] cached = entries.get(key);
+			if (cached != null) {
+				hitCounter.increment();
+				return decode(cached);
+			}
+			sequence = invalidationSequences[stripe];
+			epoch = invalidationEpoch;
+		}
+		missCounter.increment();
+		
+		// 트래킹 커넥션으로 읽어야 Redis가 이 키를 기억하고 변경 시 무효화 메시지를 보낸다
+		// 이전 키도 트래킹 커넥션으로 확인하므로, 없다고 캐시한 뒤 이전 키가 생기면 무효화 메시지로 지워진다
+		byte[] value;
+		try {
+			value = connection.sync().get(key.getBytes(StandardCharsets.UTF_8));
+			if (value == null && legacyKeyFallback
+					    && connection.sync().get(GuestCartKeys.legacyCart(guestId).getBytes(StandardCharsets.UTF_8)) != null) {
+				// 이전 키에 남은 장바구니는 원래 저장소가 새 키로 옮기며 읽고, 옮기면 무효화 메시지가 오므로 캐시하지 않는다
+				return delegate.find(guestId);
+			}
+		} catch (RuntimeException e) {
+			log.warn("클라이언트 캐시 조회 실패, 원래 저장소로 조회합니다: {}", e.getMessage());
+			return delegate.find(guestId);
+		}
+		synchronized (entries) {
+			if (tracking && sequence == invalidationSequences[stripe] && epoch == invalidationEpoch) {
+				entries.put(key, value != null ? value : ABSENT);
+			}
+		}
+		return value != null ? decode(value) : null;
+	}
+	
+	@Override
+	public GuestCart addItem(String guestId, Long bookId, long quantity) {
+		try {
+			return delegate.addItem(guestId, bookId, quantity);
+		} finally {
+			invalidate(GuestCartKeys.cart(guestId));
+		}
+	}
+	
+	@Override
+	public GuestCart updateQuantity(String guestId, Long bookId, long quantity) {
+		try {
+			return delegate.updateQuantity(guestId, bookId, quantity);
+		} finally {
+			invalidate(GuestCartKeys.cart(guestId));
+		}
+	}
+	
+	@Override
+	public void removeItem(String guestId, Long bookId) {
+		try {
+			delegate.removeItem(guestId, bookId);
+		} finally {
+			invalidate(GuestCartKeys.cart(guestId));
+		}
+	}
+	
+	@Override
+	public boolean delete(String guestId) {
+		try {
+			return delegate.delete(guestId);
+		} finally {
+			invalidate(GuestCartKeys.cart(guestId));
+		}
+	}
+	
+	@Override
+	public GuestCart applyAll(String guestId, List<GuestCartOperation> operations) {
+		try {
+			return delegate.applyAll(guestId, operations);
+		} finally {
+			invalidate(GuestCartKeys.cart(guestId));
+		}
+	}
+	
+	@Override
+	public void replace(GuestCart cart) {
+		try {
+			delegate.replace(cart);
+		} finally {
+			invalidate(GuestCartKeys.cart(cart.getGuestId()));
+		}
+	}
+	
+	@Override
+	public GuestCartClaim claim(String guestId) {
+		try {
+			return delegate.claim(guestId);
+		} finally {
+			invalidate(GuestCartKeys.cart(guestId));
+		}
+	}
+	
+	// 병합 중 키는 캐시하지 않으므로 지울 것이 없다
+	@Override
+	public boolean completeClaim(String guestId, String claimId) {
+		return delegate.completeClaim(guestId, claimId);
+	}
+	
+	@Override
+	public boolean releaseClaim(String guestId, String claimId) {
+		try {
+			return delegate.releaseClaim(guestId, claimId);
+		} finally {
+			invalidate(GuestCartKeys.cart(guestId));
+		}
+	}
+	
+	// 만료 시간 변경은 값이 바뀌지 않으므로 캐시를 지우지 않는다
+	@Override
+	public void touch(String guestId) {
+		delegate.touch(guestId);
+	}
+	
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+	
+	@Override
+	public void close() {
+		tracking = false;
+		if (trackingClient != null) {
+			trackingClient.removeListener(connectionListener);
+		}
+		StatefulRedisConnection<byte[], byte[]> current = connection;
+		if (current != null) {
+			current.close();
+		}
+		delegate.close();
+	}
+	
+	private GuestCart decode(byte[] value) {
+		return value == ABSENT ? null : serializer.deserialize(value);
+	}
+	
+	private boolean ensureTracking() {
+		if (tracking) {
+			return true;
+		}
+		if (unsupported || connection != null || System.nanoTime() - nextConnectAttempt < 0) {
+			return false;
+		}
+		synchronized (this) {
+			if (connection == null && !unsupported && System.nanoTime() - nextConnectAttempt >= 0) {
+				connect();
+			}
+		}
+		return tracking;
+	}
+	
+	private void connect() {
+		AbstractRedisClient client = clientSupplier.get();
+		if (client == null) {
+			return;
+		}
+		if (!(client instanceof RedisClient redisClient)) {
+			log.warn("클라이언트 캐시는 단일 Redis 서버 구성에서만 지원합니다: {}", client.getClass().getSimpleName());
+			unsupported = true;
+			return;
+		}
+		
+		StatefulRedisConnection<byte[], byte[]> trackingConnection = null;
+		try {
+			trackingConnection = redisClient.connect(ByteArrayCodec.INSTANCE);
+			if (!(trackingConnection instanceof StatefulRedisConnectionImpl<?, ?> impl)
+					    || impl.getConnectionState().getNegotiatedProtocolVersion() != ProtocolVersion.RESP3) {
+				// RESP2에서는 무효화 메시지를 같은 커넥션으로 받을 수 없어 오래된 장바구니를 보여줄 수 있다
+				log.warn("RESP3를 사용할 수 없어 비회원 장바구니 클라이언트 캐시를 끕니다.");
+				trackingConnection.close();
+				unsupported = true;
+				return;
+			}
+			trackingConnection.addListener(this::onPushMessage);
+			trackingConnection.sync().clientTracking(TrackingArgs.Builder.enabled());
+			RedisConnectionStateListener listener = new TrackingConnectionListener(trackingConnection);
+			redisClient.addListener(listener);
+			trackingClient = redisClient;
+			connectionListener = listener;
+			connection = trackingConnection;
+			tracking = true;
+		} catch (RuntimeException e) {
+			log.warn("클라이언트 캐시 트래킹 커넥션 연결 실패, {}초 후 재시도합니다: {}",
+					TimeUnit.NANOSECONDS.toSeconds(RECONNECT_BACKOFF_NANOS), e.getMessage());
+			if (trackingConnection != null) {
+				trackingConnection.close();
+			}
+			nextConnectAttempt = System.nanoTime() + RECONNECT_BACKOFF_NANOS;
+		}
+	}
+	
+	void onPushMessage(PushMessage message) {
+		if (!"invalidate".equals(message.getType())) {
+			return;
+		}
+		List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+		// 키 목록이 null이면 FLUSHALL 등으로 전체 무효화
+		if (content.size() > 1 && content.get(1) instanceof List<?> keys) {
+			for (Object key : keys) {
+				// 이전 키의 무효화는 그 비회원의 새 키 항목을 지운다
+				String guestId = GuestCartKeys.guestIdOf(String.valueOf(key));
+				invalidate(guestId != null ? GuestCartKeys.cart(guestId) : String.valueOf(key));
+			}
+		} else {
+			invalidateAll();
+		}
+	}
+	
+	private void invalidate(String key) {
+		synchronized (entries) {
+			invalidationSequences[stripe(key)]++;
+			entries.remove(key);
+		}
+		invalidationCounter.increment();
+	}
+	
+	private void invalidateAll() {
+		synchronized (entries) {
+			invalidationEpoch++;
+			entries.clear();
+		}
+		invalidationCounter.increment();
+	}
+	
+	private static int stripe(String key) {
+		return Math.floorMod(key.hashCode(), INVALIDATION_STRIPES);
+	}
+	
+	// 연결이 끊기면 무효화 메시지를 놓칠 수 있으므로 캐시를 비우고, 재연결되면 트래킹을 다시 켠다
+	private final class TrackingConnectionListener implements RedisConnectionStateListener {
+		
+		private final StatefulRedisConnection<byte[], byte[]> trackingConnection;
+		
+		private TrackingConnectionListener(StatefulRedisConnection<byte[], byte[]> trackingConnection) {
+			this.trackingConnection = trackingConnection;
+		}
+		
+		@Override
+		public void onRedisDisconnected(RedisChannelHandler<?, ?> handler) {
+			if (handler == trackingConnection) {
+				tracking = false;
+				invalidateAll();
+			}
+		}
+		
+		@Override
+		public void onRedisConnected(RedisChannelHandler<?, ?> handler, SocketAddress socketAddress) {
+			if (handler != trackingConnection) {
+				return;
+			}
+			trackingConnection.async().clientTracking(TrackingArgs.Builder.enabled())
+					.whenComplete((reply, error) -> {
+						if (error != null) {
+							log.warn("클라이언트 캐시 트래킹 재설정 실패: {}", error.getMessage());
+							return;
+						}
+						invalidateAll();
+						tracking = true;
+					});
+		}
+	}
+}
@@ -0,0 +1,223 @@
+package shop.dodream.cart.util;
+
+import shop.dodream.cart.dto.GuestCartItem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// 도서 ID → 수량을 박싱 없이 담는 장바구니 계산용 맵, 비회원/회원 경로가 병합·수량 제한·변경 비교에 함께 쓴다
+// 항목은 넣은 순서대로 long 배열에 모아 두고, 해시 테이블에는 그 위치만 담는다 (순서 유지, 순회 시 할당 없음)
+// 장바구니는 수십 개 이하라 삭제는 뒤 항목을 당기고 테이블을 다시 만드는 O(n)으로 충분하다
+public final class CartQuantities {
+	
+	private static final int MIN_CAPACITY = 4;
+	
+	private long[] bookIds;
+	private long[] quantities;
+	private int size;
+	// 항목 위치 + 1, 0은 빈 칸 (선형 탐사, 크기는 항상 2의 거듭제곱이고 항목 수의 두 배 이상)
+	private int[] slots;
+	
+	public CartQuantities() {
+		this(MIN_CAPACITY);
+	}
+	
+	public CartQuantities(int expectedSize) {
+		int capacity = Math.max(MIN_CAPACITY, expectedSize);
+		this.bookIds = new long[capacity];
+		this.quantities = new long[capacity];
+		this.slots = new int[tableSizeFor(capacity)];
+	}
+	
+	// 같은 도서가 여러 번 있으면 수량을 합친다
+	public static CartQuantities of(List<GuestCartItem> items) {
+		CartQuantities result = new CartQuantities(items.size());
+		for (GuestCartItem item : items) {
+			result.add(item.getBookId(), item.getQuantity());
+		}
+		return result;
+	}
+	
+	public CartQuantities copy() {
+		CartQuantities copy = new CartQuantities(size);
+		System.arraycopy(bookIds, 0, copy.bookIds, 0, size);
+		System.arraycopy(quantities, 0, copy.quantities, 0, size);
+		copy.size = size;
+		copy.rehash();
+		return copy;
+	}
+	
+	public int size() {
+		return size;
+	}
+	
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	// 넣은 순서로 순회할 때 사용, 0 <= index < size()
+	public long bookIdAt(int index) {
+		return bookIds[index];
+	}
+	
+	public long quantityAt(int index) {
+		return quantities[index];
+	}
+	
+	public boolean contains(long bookId) {
+		return indexOf(bookId) >= 0;
+	}
+	
+	// 없으면 0
+	public long get(long bookId) {
+		int index = indexOf(bookId);
+		return index >= 0 ? quantities[index] : 0;
+	}
+	
+	// 이전 수량, 없었으면 0
+	public long put(long bookId, long quantity) {
+		int index = indexOf(bookId);
+		if (index >= 0) {
+			long previous = quantities[index];
+			quantities[index] = quantity;
+			return previous;
+		}
+		append(bookId, quantity);
+		return 0;
+	}
+	
+	// 합친 뒤 수량
+	public long add(long bookId, long quantity) {
+		int index = indexOf(bookId);
+		if (index >= 0) {
+			return quantities[index] += quantity;
+		}
+		append(bookId, quantity);
+		return quantity;
+	}
+	
+	// 합친 수량을 max로 자른다, 합친 뒤 수량
+	public long addClamped(long bookId, long quantity, long max) {
+		int index = indexOf(bookId);
+		if (index >= 0) {
+			return quantities[index] = clamp(quantities[index] + quantity, max);
+		}
+		long clamped = clamp(quantity, max);
+		append(bookId, clamped);
+		return clamped;
+	}
+	
+	public boolean remove(long bookId) {
+		int index = indexOf(bookId);
+		if (index < 0) {
+			return false;
+		}
+		int moved = size - index - 1;
+		System.arraycopy(bookIds, index + 1, bookIds, index, moved);
+		System.arraycopy(quantities, index + 1, quantities, index, moved);
+		size--;
+		rehash();
+		return true;
+	}
+	
+	// other의 수량을 모두 더한다, O(other.size())
+	public void addAll(CartQuantities other) {
+		for (int i = 0; i < other.size; i++) {
+			add(other.bookIds[i], other.quantities[i]);
+		}
+	}
+	
+	// 모든 수량을 max 이하로 자른다, 잘린 항목 수
+	public int clampAll(long max) {
+		int clamped = 0;
+		for (int i = 0; i < size; i++) {
+			if (quantities[i] > max) {
+				quantities[i] = max;
+				clamped++;
+			}
+		}
+		return clamped;
+	}
+	
+	// before 대비 바뀐 수량 (새로 생긴 항목은 수량 그대로, 사라진 항목은 -이전 수량), 같으면 빈 결과
+	public CartQuantities diff(CartQuantities before) {
+		CartQuantities changes = new CartQuantities(0);
+		for (int i = 0; i < size; i++) {
+			long delta = quantities[i] - before.get(bookIds[i]);
+			if (delta != 0) {
+				changes.append(bookIds[i], delta);
+			}
+		}
+		for (int i = 0; i < before.size; i++) {
+			if (!contains(before.bookIds[i])) {
+				changes.append(before.bookIds[i], -before.quantities[i]);
+			}
+		}
+		return changes;
+	}
+	
+	public List<GuestCartItem> toGuestItems() {
+		List<GuestCartItem> items = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			items.add(new GuestCartItem(bookIds[i], quantities[i]));
+		}
+		return items;
+	}
+	
+	public static long clamp(long quantity, long max) {
+		return Math.min(quantity, max);
+	}
+	
+	private int indexOf(long bookId) {
+		int mask = slots.length - 1;
+		for (int slot = hash(bookId) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+			int index = slots[slot] - 1;
+			if (bookIds[index] == bookId) {
+				return index;
+			}
+		}
+		return -1;
+	}
+	
+	// 호출 전에 bookId가 없음을 확인해야 한다
+	private void append(long bookId, long quantity) {
+		if (size == bookIds.length) {
+			int capacity = bookIds.length * 2;
+			bookIds = Arrays.copyOf(bookIds, capacity);
+			quantities = Arrays.copyOf(quantities, capacity);
+			slots = new int[tableSizeFor(capacity)];
+			rehash();
+		}
+		bookIds[size] = bookId;
+		quantities[size] = quantity;
+		size++;
+		insertSlot(size - 1);
+	}
+	
+	private void rehash() {
+		Arrays.fill(slots, 0);
+		for (int i = 0; i < size; i++) {
+			insertSlot(i);
+		}
+	}
+	
+	private void insertSlot(int index) {
+		int mask = slots.length - 1;
+		int slot = hash(bookIds[index]) & mask;
+		while (slots[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		slots[slot] = index + 1;
+	}
+	
+	private static int tableSizeFor(int capacity) {
+		return Integer.highestOneBit(capacity * 2 - 1) << 1;
+	}
+	
+	// 도서 ID는 연속된 값이 많아 상위 비트까지 섞어 탐사 길이를 줄인다
+	private static int hash(long bookId) {
+		long h = bookId * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
@@ -3,14 +3,19 @@ package shop.dodream.cart.util;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
 import org.springframework.stereotype.Component;
 import org.springframework.web.util.WebUtils;
 
+import java.time.Duration;
 import java.util.UUID;
 
 @Component
 public class GuestIdUtil {
 	
+	public static final String CART_COOKIE_NAME = "guestCart";
+	
 	public String getOrCreateGuestId(HttpServletRequest request, HttpServletResponse response) {
 		Cookie cookie = WebUtils.getCookie(request, "guestId");
 		if (cookie != null) return cookie.getValue();
@@ -22,4 +27,25 @@ public class GuestIdUtil {
 		response.addCookie(newCookie);
 		return guestId;
 	}
+	
+	// 쿠키 장바구니 모드에서 서명된 장바구니 값을 읽고 쓴다
+	public String getCartCookie(HttpServletRequest request) {
+		Cookie cookie = WebUtils.getCookie(request, CART_COOKIE_NAME);
+		return cookie != null ? cookie.getValue() : null;
+	}
+	
+	public void setCartCookie(HttpServletResponse response, String value, Duration maxAge, boolean secure) {
+		ResponseCookie cookie = ResponseCookie.from(CART_COOKIE_NAME, value)
+				                        .path("/")
+				                        .maxAge(maxAge)
+				                        .httpOnly(true)
+				                        .secure(secure)
+				                        .sameSite("Lax")
+				                        .build();
+		response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+	}
+	
+	public void clearCartCookie(HttpServletResponse response, boolean secure) {
+		setCartCookie(response, "", Duration.ZERO, secure);
+	}
 }
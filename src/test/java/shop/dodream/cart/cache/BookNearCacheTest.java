@@ -0,0 +1,64 @@
+package shop.dodream.cart.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import shop.dodream.cart.dto.BookListResponseRecord;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("BookNearCache 테스트")
+class BookNearCacheTest {
+	
+	private final AtomicLong ticker = new AtomicLong();
+	private SimpleMeterRegistry meterRegistry;
+	
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+	}
+	
+	private BookListResponseRecord book(long id) {
+		return new BookListResponseRecord(id, "도서" + id, 1000L * id, "/books/" + id + ".jpg");
+	}
+	
+	@Test
+	@DisplayName("저장된 도서는 hit, 없는 도서는 miss로 집계된다")
+	void getAll_countsHitsAndMisses() {
+		BookNearCache cache = new BookNearCache(true, 100, Duration.ofMinutes(1), meterRegistry, ticker::get);
+		cache.putAll(List.of(book(1L)));
+		
+		assertThat(cache.getAll(List.of(1L, 2L))).containsOnlyKeys(1L);
+		assertThat(meterRegistry.get("cart.book.near-cache.requests").tag("result", "hit").counter().count()).isEqualTo(1.0);
+		assertThat(meterRegistry.get("cart.book.near-cache.requests").tag("result", "miss").counter().count()).isEqualTo(1.0);
+	}
+	
+	@Test
+	@DisplayName("TTL이 지난 도서는 반환하지 않고 제거한다")
+	void getAll_expiredEntry_isEvicted() {
+		BookNearCache cache = new BookNearCache(true, 100, Duration.ofSeconds(10), meterRegistry, ticker::get);
+		cache.putAll(List.of(book(1L)));
+		
+		ticker.addAndGet(Duration.ofSeconds(11).toNanos());
+		
+		assertThat(cache.getAll(List.of(1L))).isEmpty();
+		assertThat(cache.size()).isZero();
+		assertThat(meterRegistry.get("cart.book.near-cache.evictions").tag("cause", "expired").counter().count()).isEqualTo(1.0);
+	}
+	
+	@Test
+	@DisplayName("최대 크기를 넘으면 가장 오래 사용하지 않은 도서부터 제거한다")
+	void putAll_overCapacity_evictsLeastRecentlyUsed() {
+		BookNearCache cache = new BookNearCache(true, 1, Duration.ofMinutes(1), meterRegistry, ticker::get);
+		cache.putAll(List.of(book(1L), book(2L)));
+		
+		assertThat(cache.size()).isEqualTo(1);
+		assertThat(cache.getAll(List.of(2L))).containsOnlyKeys(2L);
+		assertThat(meterRegistry.get("cart.book.near-cache.evictions").tag("cause", "size").counter().count()).isEqualTo(1.0);
+	}
+}
@@ -0,0 +1,103 @@
+package shop.dodream.cart.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import shop.dodream.cart.config.BookProperties;
+import shop.dodream.cart.dto.BookListResponseRecord;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@DisplayName("BatchingBookLoader 테스트")
+class BatchingBookLoaderTest {
+	
+	private ChunkingBookFetcher bookFetcher;
+	private SimpleMeterRegistry meterRegistry;
+	
+	private final BookListResponseRecord book1 = new BookListResponseRecord(1L, "도서1", 1000L, "/books/1.jpg");
+	private final BookListResponseRecord book2 = new BookListResponseRecord(2L, "도서2", 2000L, "/books/2.jpg");
+	
+	@BeforeEach
+	void setUp() {
+		bookFetcher = mock(ChunkingBookFetcher.class);
+		meterRegistry = new SimpleMeterRegistry();
+		given(bookFetcher.fetch(anyList())).willAnswer(invocation -> {
+			List<Long> ids = invocation.getArgument(0);
+			return List.of(book1, book2).stream().filter(book -> ids.contains(book.getBookId())).toList();
+		});
+	}
+	
+	@Test
+	@DisplayName("window 안에 들어온 요청은 한 번의 호출로 묶이고 각자 요청한 도서만 돌려받는다")
+	void load_withinWindow_dispatchesSingleBatch() throws Exception {
+		// given
+		BatchingBookLoader loader = new BatchingBookLoader(bookFetcher, true, Duration.ofMillis(200), 100, meterRegistry);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		
+		try {
+			// when
+			Future<Map<Long, BookListResponseRecord>> first = executor.submit(() -> loader.load(List.of(1L)));
+			Future<Map<Long, BookListResponseRecord>> second = executor.submit(() -> loader.load(List.of(2L)));
+			
+			// then
+			assertThat(first.get(5, TimeUnit.SECONDS)).containsOnlyKeys(1L);
+			assertThat(second.get(5, TimeUnit.SECONDS)).containsOnlyKeys(2L);
+			verify(bookFetcher, times(1)).fetch(anyList());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	@DisplayName("maxBatchSize에 도달하면 window를 기다리지 않고 바로 호출한다")
+	void load_reachingMaxBatchSize_dispatchesImmediately() {
+		// given
+		BatchingBookLoader loader = new BatchingBookLoader(bookFetcher, true, Duration.ofSeconds(30), 2, meterRegistry);
+		
+		// when
+		long started = System.nanoTime();
+		Map<Long, BookListResponseRecord> result = loader.load(List.of(1L, 2L));
+		
+		// then
+		assertThat(result).containsOnlyKeys(1L, 2L);
+		assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(5));
+	}
+	
+	@Test
+	@DisplayName("배치가 꺼져 있으면 요청마다 바로 호출한다")
+	void load_whenDisabled_fetchesPerRequest() {
+		// given
+		BatchingBookLoader loader = new BatchingBookLoader(bookFetcher, false, Duration.ofMillis(200), 100, meterRegistry);
+		
+		// when
+		loader.load(List.of(1L));
+		loader.load(List.of(2L));
+		
+		// then
+		verify(bookFetcher, times(2)).fetch(anyList());
+	}
+	
+	@Test
+	@DisplayName("기본 설정에서는 배치가 꺼져 있어 window만큼 기다리지 않고 바로 호출한다")
+	void load_withDefaultProperties_fetchesWithoutWindow() {
+		// given
+		BatchingBookLoader loader = new BatchingBookLoader(bookFetcher, new BookProperties(), meterRegistry);
+		
+		// when
+		Map<Long, BookListResponseRecord> loaded = loader.load(List.of(1L));
+		
+		// then
+		assertThat(loaded).containsEntry(1L, book1);
+		verify(bookFetcher).fetch(List.of(1L));
+		assertThat(meterRegistry.find("cart.book.batch.dispatched").counter().count()).isZero();
+	}
+}
@@ -0,0 +1,95 @@
+package shop.dodream.cart.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import shop.dodream.cart.config.BookProperties;
+import shop.dodream.cart.exception.BookServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("BookCircuitBreaker 테스트")
+class BookCircuitBreakerTest {
+	
+	private final AtomicLong ticker = new AtomicLong();
+	private BookCircuitBreaker circuitBreaker;
+	
+	@BeforeEach
+	void setUp() {
+		BookProperties.CircuitBreaker config = new BookProperties.CircuitBreaker();
+		config.setSlidingWindowSize(4);
+		config.setMinimumNumberOfCalls(4);
+		config.setFailureRateThreshold(50);
+		config.setSlowCallDuration(Duration.ofSeconds(1));
+		config.setWaitDurationInOpenState(Duration.ofSeconds(10));
+		config.setPermittedCallsInHalfOpenState(1);
+		circuitBreaker = new BookCircuitBreaker(config, new SimpleMeterRegistry(), ticker::get);
+	}
+	
+	private void fail() {
+		try {
+			circuitBreaker.execute(() -> {
+				throw new IllegalStateException("book service down");
+			});
+		} catch (IllegalStateException ignored) {
+			// 실패 호출 기록용
+		}
+	}
+	
+	@Test
+	@DisplayName("실패율이 임계치를 넘으면 OPEN 되어 호출 없이 바로 실패한다")
+	void execute_overFailureRate_opensCircuit() {
+		circuitBreaker.execute(() -> "ok");
+		circuitBreaker.execute(() -> "ok");
+		fail();
+		fail();
+		
+		assertThat(circuitBreaker.getState()).isEqualTo(BookCircuitBreaker.State.OPEN);
+		assertThatThrownBy(() -> circuitBreaker.execute(() -> "ok"))
+				.isInstanceOf(BookServiceUnavailableException.class);
+	}
+	
+	@Test
+	@DisplayName("대기 시간이 지나면 HALF_OPEN으로 시험 호출하고 성공하면 CLOSED로 돌아간다")
+	void execute_afterWaitDuration_closesOnSuccess() {
+		for (int i = 0; i < 4; i++) {
+			fail();
+		}
+		ticker.addAndGet(Duration.ofSeconds(11).toNanos());
+		
+		assertThat(circuitBreaker.execute(() -> "ok")).isEqualTo("ok");
+		assertThat(circuitBreaker.getState()).isEqualTo(BookCircuitBreaker.State.CLOSED);
+	}
+	
+	@Test
+	@DisplayName("느린 호출 비율이 임계치를 넘어도 OPEN 된다")
+	void execute_slowCalls_opensCircuit() {
+		for (int i = 0; i < 4; i++) {
+			circuitBreaker.execute(() -> ticker.addAndGet(Duration.ofSeconds(2).toNanos()));
+		}
+		
+		assertThat(circuitBreaker.getState()).isEqualTo(BookCircuitBreaker.State.OPEN);
+	}
+	
+	@Test
+	@DisplayName("HALF_OPEN 시험 호출이 Error로 끝나면 허가를 돌려주어 다음 호출이 다시 시험한다")
+	void execute_errorInHalfOpen_releasesPermit() {
+		for (int i = 0; i < 4; i++) {
+			fail();
+		}
+		ticker.addAndGet(Duration.ofSeconds(11).toNanos());
+		
+		assertThatThrownBy(() -> circuitBreaker.execute(() -> {
+			throw new AssertionError("unexpected");
+		})).isInstanceOf(AssertionError.class);
+		
+		assertThat(circuitBreaker.getState()).isEqualTo(BookCircuitBreaker.State.HALF_OPEN);
+		assertThat(circuitBreaker.execute(() -> "ok")).isEqualTo("ok");
+		assertThat(circuitBreaker.getState()).isEqualTo(BookCircuitBreaker.State.CLOSED);
+	}
+}
@@ -0,0 +1,72 @@
+package shop.dodream.cart.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import shop.dodream.cart.config.BookProperties;
+import shop.dodream.cart.dto.BookListResponseRecord;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+// 기본 테스트 실행에는 포함되지 않음: mvn test -Dtest=ChunkingBookFetcherBenchmark
+class ChunkingBookFetcherBenchmark {
+	
+	private static final int WARMUP = 5;
+	private static final int ITERATIONS = 30;
+	
+	// 호출당 고정 지연 + ID 개수에 비례하는 직렬화/조회 비용을 흉내낸 도서 서비스
+	private final BookClient simulatedClient = bookIds -> {
+		sleepMicros(15_000 + bookIds.size() * 100L);
+		return bookIds.stream().map(id -> new BookListResponseRecord(id, "도서" + id, 1000L, "/books/" + id + ".jpg")).toList();
+	};
+	
+	@Test
+	void compareSingleCallWithChunkedFanOut() {
+		BookProperties.CircuitBreaker disabled = new BookProperties.CircuitBreaker();
+		disabled.setEnabled(false);
+		BookCircuitBreaker circuitBreaker = new BookCircuitBreaker(disabled, new SimpleMeterRegistry(), System::nanoTime);
+		ChunkingBookFetcher single = new ChunkingBookFetcher(simulatedClient, circuitBreaker, Integer.MAX_VALUE, 1, 1, Duration.ofSeconds(30), new SimpleMeterRegistry());
+		ChunkingBookFetcher chunked = new ChunkingBookFetcher(simulatedClient, circuitBreaker, 50, 8, 64, Duration.ofSeconds(30), new SimpleMeterRegistry());
+		try {
+			System.out.printf("%-6s %-10s %10s %10s%n", "ids", "mode", "p50(ms)", "p95(ms)");
+			for (int size : new int[]{10, 100, 1000}) {
+				List<Long> bookIds = LongStream.rangeClosed(1, size).boxed().toList();
+				report(size, "single", measure(single, bookIds));
+				report(size, "chunked", measure(chunked, bookIds));
+			}
+		} finally {
+			single.shutdown();
+			chunked.shutdown();
+		}
+	}
+	
+	private long[] measure(ChunkingBookFetcher fetcher, List<Long> bookIds) {
+		for (int i = 0; i < WARMUP; i++) {
+			fetcher.fetch(bookIds);
+		}
+		long[] samples = new long[ITERATIONS];
+		for (int i = 0; i < ITERATIONS; i++) {
+			long started = System.nanoTime();
+			fetcher.fetch(bookIds);
+			samples[i] = System.nanoTime() - started;
+		}
+		Arrays.sort(samples);
+		return samples;
+	}
+	
+	private void report(int size, String mode, long[] sortedSamples) {
+		double p50 = sortedSamples[sortedSamples.length / 2] / 1_000_000.0;
+		double p95 = sortedSamples[(int) (sortedSamples.length * 0.95)] / 1_000_000.0;
+		System.out.printf("%-6d %-10s %10.2f %10.2f%n", size, mode, p50, p95);
+	}
+	
+	private static void sleepMicros(long micros) {
+		try {
+			Thread.sleep(micros / 1000, (int) (micros % 1000) * 1000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
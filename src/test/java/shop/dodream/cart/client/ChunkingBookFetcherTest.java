@@ -0,0 +1,128 @@
+package shop.dodream.cart.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import shop.dodream.cart.config.BookProperties;
+import shop.dodream.cart.dto.BookListResponseRecord;
+import shop.dodream.cart.exception.BookServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ChunkingBookFetcher 테스트")
+class ChunkingBookFetcherTest {
+	
+	private final List<List<Long>> calls = new CopyOnWriteArrayList<>();
+	private BookCircuitBreaker circuitBreaker = circuitBreaker(false);
+	private ChunkingBookFetcher fetcher;
+	
+	@AfterEach
+	void tearDown() {
+		fetcher.shutdown();
+	}
+	
+	private BookClient recordingClient(long delayMillis) {
+		return bookIds -> {
+			calls.add(List.copyOf(bookIds));
+			try {
+				Thread.sleep(delayMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return bookIds.stream().map(id -> new BookListResponseRecord(id, "도서" + id, 1000L, "/books/" + id + ".jpg")).toList();
+		};
+	}
+	
+	// 실패 두 번이면 OPEN
+	private static BookCircuitBreaker circuitBreaker(boolean enabled) {
+		BookProperties.CircuitBreaker config = new BookProperties.CircuitBreaker();
+		config.setEnabled(enabled);
+		config.setSlidingWindowSize(2);
+		config.setMinimumNumberOfCalls(2);
+		config.setFailureRateThreshold(100);
+		config.setSlowCallDuration(Duration.ofSeconds(10));
+		return new BookCircuitBreaker(config, new SimpleMeterRegistry(), System::nanoTime);
+	}
+	
+	@Test
+	@DisplayName("chunkSize 이하의 목록은 나누지 않고 한 번에 호출한다")
+	void fetch_smallList_singleCall() {
+		fetcher = new ChunkingBookFetcher(recordingClient(0), circuitBreaker, 50, 4, 16, Duration.ofSeconds(3), new SimpleMeterRegistry());
+		
+		List<BookListResponseRecord> books = fetcher.fetch(List.of(1L, 2L, 3L));
+		
+		assertThat(books).hasSize(3);
+		assertThat(calls).containsExactly(List.of(1L, 2L, 3L));
+	}
+	
+	@Test
+	@DisplayName("긴 목록은 chunkSize 단위로 나눠 호출하고 결과를 모두 합친다")
+	void fetch_largeList_splitsIntoChunks() {
+		fetcher = new ChunkingBookFetcher(recordingClient(0), circuitBreaker, 2, 4, 16, Duration.ofSeconds(3), new SimpleMeterRegistry());
+		List<Long> bookIds = LongStream.rangeClosed(1, 5).boxed().toList();
+		
+		List<BookListResponseRecord> books = fetcher.fetch(bookIds);
+		
+		assertThat(books).extracting(BookListResponseRecord::getBookId).containsExactlyInAnyOrderElementsOf(bookIds);
+		assertThat(calls).hasSize(3).allSatisfy(chunk -> assertThat(chunk.size()).isLessThanOrEqualTo(2));
+	}
+	
+	@Test
+	@DisplayName("제한 시간 안에 모든 청크가 끝나지 않으면 BookServiceUnavailableException을 던진다")
+	void fetch_overDeadline_throwsUnavailable() {
+		fetcher = new ChunkingBookFetcher(recordingClient(500), circuitBreaker, 1, 1, 16, Duration.ofMillis(100), new SimpleMeterRegistry());
+		
+		assertThatThrownBy(() -> fetcher.fetch(List.of(1L, 2L, 3L)))
+				.isInstanceOf(BookServiceUnavailableException.class);
+	}
+	
+	@Test
+	@DisplayName("첫 번째 청크가 늦어도 제한 시간이 지나면 기다리지 않고 BookServiceUnavailableException을 던진다")
+	void fetch_slowFirstChunk_isBoundedByDeadline() {
+		// 두 청크 모두 작업 스레드에서 실행되고, 호출한 스레드는 제한 시간까지만 기다린다
+		fetcher = new ChunkingBookFetcher(recordingClient(2_000), circuitBreaker, 1, 2, 16, Duration.ofMillis(100), new SimpleMeterRegistry());
+		long started = System.nanoTime();
+		
+		assertThatThrownBy(() -> fetcher.fetch(List.of(1L, 2L)))
+				.isInstanceOf(BookServiceUnavailableException.class);
+		assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+	}
+	
+	@Test
+	@DisplayName("대기열이 가득 차면 호출한 스레드에서 실행하지 않고 바로 BookServiceUnavailableException을 던진다")
+	void fetch_whenQueueFull_failsFast() {
+		// 작업 스레드 1개, 대기열 1칸이라 세 번째 청크는 거부된다
+		fetcher = new ChunkingBookFetcher(recordingClient(2_000), circuitBreaker, 1, 1, 1, Duration.ofSeconds(3), new SimpleMeterRegistry());
+		long started = System.nanoTime();
+		
+		assertThatThrownBy(() -> fetcher.fetch(List.of(1L, 2L, 3L)))
+				.isInstanceOf(BookServiceUnavailableException.class);
+		assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+		assertThat(calls).doesNotContain(List.of(3L));
+	}
+	
+	@Test
+	@DisplayName("서킷 브레이커는 도서 서비스 호출마다 기록하고, 열리면 도서 서비스를 호출하지 않는다")
+	void fetch_recordsEachClientCallInCircuitBreaker() {
+		circuitBreaker = circuitBreaker(true);
+		BookClient failingClient = bookIds -> {
+			calls.add(List.copyOf(bookIds));
+			throw new IllegalStateException("book service down");
+		};
+		fetcher = new ChunkingBookFetcher(failingClient, circuitBreaker, 50, 1, 16, Duration.ofSeconds(3), new SimpleMeterRegistry());
+		
+		assertThatThrownBy(() -> fetcher.fetch(List.of(1L))).isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> fetcher.fetch(List.of(2L))).isInstanceOf(IllegalStateException.class);
+		
+		assertThat(circuitBreaker.getState()).isEqualTo(BookCircuitBreaker.State.OPEN);
+		assertThatThrownBy(() -> fetcher.fetch(List.of(3L))).isInstanceOf(BookServiceUnavailableException.class);
+		assertThat(calls).hasSize(2);
+	}
+}
@@ -0,0 +1,130 @@
+package shop.dodream.cart.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import shop.dodream.cart.dto.BookListResponseRecord;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@DisplayName("CoalescingBookFetcher 테스트")
+class CoalescingBookFetcherTest {
+	
+	private BatchingBookLoader bookLoader;
+	private SimpleMeterRegistry meterRegistry;
+	private CoalescingBookFetcher fetcher;
+	
+	private final BookListResponseRecord book1 = new BookListResponseRecord(1L, "도서1", 1000L, "/books/1.jpg");
+	
+	@BeforeEach
+	void setUp() {
+		bookLoader = mock(BatchingBookLoader.class);
+		meterRegistry = new SimpleMeterRegistry();
+		fetcher = new CoalescingBookFetcher(bookLoader, meterRegistry);
+	}
+	
+	@Test
+	@DisplayName("동시에 같은 도서를 요청하면 도서 서비스는 한 번만 호출된다")
+	void fetch_concurrentSameId_collapsesIntoSingleCall() throws Exception {
+		// given
+		CountDownLatch firstCallStarted = new CountDownLatch(1);
+		CountDownLatch releaseFirstCall = new CountDownLatch(1);
+		given(bookLoader.load(Set.of(1L))).willAnswer(invocation -> {
+			firstCallStarted.countDown();
+			releaseFirstCall.await(5, TimeUnit.SECONDS);
+			return Map.of(1L, book1);
+		});
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		
+		try {
+			// when
+			Future<Map<Long, BookListResponseRecord>> first = executor.submit(() -> fetcher.fetch(List.of(1L), books -> {}));
+			assertThat(firstCallStarted.await(5, TimeUnit.SECONDS)).isTrue();
+			Future<Map<Long, BookListResponseRecord>> second = executor.submit(() -> fetcher.fetch(List.of(1L), books -> {}));
+			
+			// 두 번째 요청이 진행 중인 조회에 합류할 때까지 대기
+			while (meterRegistry.get("cart.book.fetch.collapsed").counter().count() < 1) {
+				Thread.onSpinWait();
+			}
+			releaseFirstCall.countDown();
+			
+			// then
+			assertThat(first.get(5, TimeUnit.SECONDS)).containsEntry(1L, book1);
+			assertThat(second.get(5, TimeUnit.SECONDS)).containsEntry(1L, book1);
+			verify(bookLoader, times(1)).load(anyCollection());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	@Test
+	@DisplayName("조회가 끝난 도서는 다음 요청에서 다시 조회한다")
+	void fetch_afterCompletion_doesNotReuseResult() {
+		// given
+		given(bookLoader.load(Set.of(1L))).willReturn(Map.of(1L, book1));
+		
+		// when
+		fetcher.fetch(List.of(1L), books -> {});
+		fetcher.fetch(List.of(1L), books -> {});
+		
+		// then
+		verify(bookLoader, times(2)).load(Set.of(1L));
+	}
+	
+	@Test
+	@DisplayName("도서 서비스 호출이 실패하면 예외를 그대로 전달한다")
+	void fetch_whenBookClientFails_propagatesException() {
+		// given
+		given(bookLoader.load(anyCollection())).willThrow(new IllegalStateException("book service down"));
+		
+		// when & then
+		assertThatThrownBy(() -> fetcher.fetch(List.of(1L), books -> {}))
+				.isInstanceOf(IllegalStateException.class);
+		// 실패 후에는 진행 중 목록에서 제거되어 다음 요청이 새로 조회한다
+		assertThatThrownBy(() -> fetcher.fetch(List.of(1L), books -> {}))
+				.isInstanceOf(IllegalStateException.class);
+		verify(bookLoader, times(2)).load(anyCollection());
+	}
+	
+	@Test
+	@DisplayName("실패한 조회에 합류한 요청도 도서 서비스를 다시 호출하지 않고 같은 예외를 받는다")
+	void fetch_concurrentFailure_sharesException() throws Exception {
+		// given
+		CountDownLatch firstCallStarted = new CountDownLatch(1);
+		CountDownLatch releaseFirstCall = new CountDownLatch(1);
+		given(bookLoader.load(Set.of(1L))).willAnswer(invocation -> {
+			firstCallStarted.countDown();
+			releaseFirstCall.await(5, TimeUnit.SECONDS);
+			throw new IllegalStateException("book service down");
+		});
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		
+		try {
+			// when
+			Future<Map<Long, BookListResponseRecord>> first = executor.submit(() -> fetcher.fetch(List.of(1L), books -> {}));
+			assertThat(firstCallStarted.await(5, TimeUnit.SECONDS)).isTrue();
+			Future<Map<Long, BookListResponseRecord>> second = executor.submit(() -> fetcher.fetch(List.of(1L), books -> {}));
+			while (meterRegistry.get("cart.book.fetch.collapsed").counter().count() < 1) {
+				Thread.onSpinWait();
+			}
+			releaseFirstCall.countDown();
+			
+			// then
+			assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+			assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+			verify(bookLoader, times(1)).load(anyCollection());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -12,17 +12,21 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
+import shop.dodream.cart.dto.CartItemResponse;
 import shop.dodream.cart.dto.CartResponse;
 import shop.dodream.cart.dto.GuestCartResponse;
+import shop.dodream.cart.service.CartMergeService;
 import shop.dodream.cart.service.CartService;
 import shop.dodream.cart.service.GuestCartService;
 import shop.dodream.cart.util.GuestIdUtil;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -40,6 +44,9 @@ class CartControllerTest {
 	@MockBean
 	private GuestCartService guestCartService;
 	
+	@MockBean
+	private CartMergeService cartMergeService;
+	
 	@MockBean
 	private GuestIdUtil guestIdUtil;
 	
@@ -77,6 +84,28 @@ class CartControllerTest {
 		verify(cartService).getOrCreateUserCart(USER_ID);
 	}
 	
+	@Test
+	@DisplayName("[GET] 회원 장바구니 조회 - 아이템 포함")
+	void getUserCart_WithItems() throws Exception {
+		// given
+		CartResponse withItems = new CartResponse(CART_ID, USER_ID,
+				List.of(new CartItemResponse(10L, 101L, "Book 1", 10000L, 2L, "url1")));
+		given(cartService.getUserCartWithItems(USER_ID)).willReturn(withItems);
+		
+		// when
+		ResultActions resultActions = mockMvc.perform(get("/carts/users")
+				                                              .header("X-USER-ID", USER_ID)
+				                                              .param("includeItems", "true"));
+		
+		// then
+		resultActions.andExpect(status().isOk())
+				.andExpect(jsonPath("$.cartId").value(CART_ID))
+				.andExpect(jsonPath("$.items[0].bookId").value(101L))
+				.andDo(print());
+		verify(cartService).getUserCartWithItems(USER_ID);
+		verify(cartService, never()).getOrCreateUserCart(any());
+	}
+	
 	@Test
 	@DisplayName("[DELETE] 회원 장바구니 삭제 - 성공")
 	void deleteCart_Success() throws Exception {
@@ -146,7 +175,7 @@ class CartControllerTest {
 	@DisplayName("[POST] 비회원 장바구니를 회원 장바구니로 병합 - 성공")
 	void mergeCart_Success() throws Exception {
 		// given
-		willDoNothing().given(cartService).mergeCartOnLogin(USER_ID, GUEST_ID);
+		given(cartMergeService.requestMerge(USER_ID, GUEST_ID)).willReturn(false);
 		
 		// when
 		ResultActions resultActions = mockMvc.perform(post("/carts/merge/{guestId}", GUEST_ID)
@@ -155,7 +184,22 @@ class CartControllerTest {
 		// then
 		resultActions.andExpect(status().isOk()) // 본문이 없는 200 OK
 				.andDo(print());
-		verify(cartService).mergeCartOnLogin(USER_ID, GUEST_ID);
+		verify(cartMergeService).requestMerge(USER_ID, GUEST_ID);
+	}
+	
+	@Test
+	@DisplayName("[POST] 비동기 병합이 예약되면 202 Accepted")
+	void mergeCart_Queued() throws Exception {
+		// given
+		given(cartMergeService.requestMerge(USER_ID, GUEST_ID)).willReturn(true);
+		
+		// when
+		ResultActions resultActions = mockMvc.perform(post("/carts/merge/{guestId}", GUEST_ID)
+				                                              .header("X-USER-ID", USER_ID));
+		
+		// then
+		resultActions.andExpect(status().isAccepted())
+				.andDo(print());
 	}
 	
 }
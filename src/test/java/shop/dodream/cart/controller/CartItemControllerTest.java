@@ -243,4 +243,42 @@ class CartItemControllerTest {
 		resultActions.andExpect(status().isBadRequest()).andDo(print());
 	}
 	
-}
\ No newline at end of file
+	
+	@Test
+	@DisplayName("[POST] 비회원 장바구니 일괄 변경 - 성공")
+	void applyGuestCartOperations_Success() throws Exception {
+		// given
+		GuestCartBulkRequest request = new GuestCartBulkRequest(List.of(
+				new GuestCartOperationRequest(GuestCartOperationType.ADD, BOOK_ID, 1L),
+				new GuestCartOperationRequest(GuestCartOperationType.REMOVE, 102L, null)));
+		given(guestCartService.applyOperations(eq(GUEST_ID), any(GuestCartBulkRequest.class))).willReturn(guestCartResponse);
+		
+		// when
+		ResultActions resultActions = mockMvc.perform(post("/public/carts/{guestId}/cart-items/bulk", GUEST_ID)
+				                                              .contentType(MediaType.APPLICATION_JSON)
+				                                              .content(objectMapper.writeValueAsString(request)));
+		
+		// then
+		resultActions.andExpect(status().isOk())
+				.andExpect(jsonPath("$.guestId").value(GUEST_ID))
+				.andDo(print());
+		ArgumentCaptor<GuestCartBulkRequest> captor = ArgumentCaptor.forClass(GuestCartBulkRequest.class);
+		verify(guestCartService).applyOperations(eq(GUEST_ID), captor.capture());
+		assertThat(captor.getValue().getOperations()).hasSize(2);
+	}
+	
+	@Test
+	@DisplayName("[POST] 비회원 장바구니 일괄 변경 - 변경 목록이 비어 있으면 400 Bad Request")
+	void applyGuestCartOperations_WithEmptyOperations_ShouldReturnBadRequest() throws Exception {
+		// given
+		String jsonRequest = objectMapper.writeValueAsString(new GuestCartBulkRequest(List.of()));
+		
+		// when
+		ResultActions resultActions = mockMvc.perform(post("/public/carts/{guestId}/cart-items/bulk", GUEST_ID)
+				                                              .contentType(MediaType.APPLICATION_JSON)
+				                                              .content(jsonRequest));
+		
+		// then
+		resultActions.andExpect(status().isBadRequest()).andDo(print());
+	}
+}
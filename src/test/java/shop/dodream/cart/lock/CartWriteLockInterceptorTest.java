@@ -0,0 +1,131 @@
+package shop.dodream.cart.lock;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import shop.dodream.cart.entity.Cart;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CartWriteLockInterceptor 단위 테스트")
+class CartWriteLockInterceptorTest {
+	
+	@Mock
+	private ObjectProvider<CartWriteLocks> provider;
+	@Mock
+	private CartWriteLocks locks;
+	
+	private final ReentrantLock lock = new ReentrantLock();
+	private Writer writer;
+	
+	static class Writer {
+		
+		ReentrantLock observed;
+		
+		@CartWriteLock(key = "#cartId")
+		public boolean write(Long cartId) {
+			return observed.isHeldByCurrentThread();
+		}
+		
+		@CartWriteLock(key = "#cart.getCartId()")
+		public boolean writeCart(Cart cart) {
+			return observed.isHeldByCurrentThread();
+		}
+		
+		@CartWriteLock(key = "#cartId")
+		public void fail(Long cartId) {
+			throw new IllegalStateException("boom");
+		}
+		
+		public boolean read(Long cartId) {
+			return observed.isHeldByCurrentThread();
+		}
+	}
+	
+	@BeforeEach
+	void setUp() {
+		Writer target = new Writer();
+		target.observed = lock;
+		ProxyFactory factory = new ProxyFactory(target);
+		factory.setProxyTargetClass(true);
+		factory.addAdvisor(new DefaultPointcutAdvisor(AnnotationMatchingPointcut.forMethodAnnotation(CartWriteLock.class),
+				new CartWriteLockInterceptor(provider)));
+		writer = (Writer) factory.getProxy();
+	}
+	
+	@Test
+	@DisplayName("키 식으로 구한 장바구니 ID의 락을 잡은 채 메서드를 실행하고 끝나면 푼다")
+	void invoke_locksCartForDuration() {
+		// given
+		given(provider.getObject()).willReturn(locks);
+		given(locks.acquire(5L)).willAnswer(invocation -> {
+			lock.lock();
+			return lock;
+		});
+		
+		// when
+		boolean heldInside = writer.write(5L);
+		
+		// then
+		assertThat(heldInside).isTrue();
+		assertThat(lock.isLocked()).isFalse();
+	}
+	
+	@Test
+	@DisplayName("파라미터 객체의 속성으로도 장바구니 ID를 구한다")
+	void invoke_resolvesNestedKey() {
+		// given
+		given(provider.getObject()).willReturn(locks);
+		given(locks.acquire(9L)).willAnswer(invocation -> {
+			lock.lock();
+			return lock;
+		});
+		
+		// when & then
+		assertThat(writer.writeCart(new Cart(9L, "user"))).isTrue();
+		assertThat(lock.isLocked()).isFalse();
+	}
+	
+	@Test
+	@DisplayName("메서드가 실패해도 락을 푼다")
+	void invoke_whenMethodThrows_unlocks() {
+		// given
+		given(provider.getObject()).willReturn(locks);
+		given(locks.acquire(5L)).willAnswer(invocation -> {
+			lock.lock();
+			return lock;
+		});
+		
+		// when & then
+		assertThatThrownBy(() -> writer.fail(5L)).isInstanceOf(IllegalStateException.class);
+		assertThat(lock.isLocked()).isFalse();
+	}
+	
+	@Test
+	@DisplayName("장바구니 ID가 null이거나 어노테이션이 없는 메서드는 잠그지 않는다")
+	void invoke_withoutKeyOrAnnotation_doesNotLock() {
+		// when
+		boolean nullKey = writer.write(null);
+		boolean unannotated = writer.read(5L);
+		
+		// then
+		assertThat(nullKey).isFalse();
+		assertThat(unannotated).isFalse();
+		verify(locks, never()).acquire(anyLong());
+	}
+}
@@ -0,0 +1,120 @@
+package shop.dodream.cart.lock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import shop.dodream.cart.config.CartWriteLockProperties;
+import shop.dodream.cart.exception.CartBusyException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CartWriteLocks 단위 테스트")
+class CartWriteLocksTest {
+	
+	private SimpleMeterRegistry meterRegistry;
+	private CartWriteLocks locks;
+	
+	@BeforeEach
+	void setUp() {
+		CartWriteLockProperties properties = new CartWriteLockProperties();
+		properties.setStripes(100);
+		properties.setTimeout(Duration.ofMillis(50));
+		meterRegistry = new SimpleMeterRegistry();
+		locks = new CartWriteLocks(properties, meterRegistry);
+	}
+	
+	private double count(String result) {
+		return meterRegistry.counter("cart.write.lock.acquisitions", "result", result).count();
+	}
+	
+	@Test
+	@DisplayName("락 개수는 2의 거듭제곱으로 올리고, 같은 장바구니는 항상 같은 락을 쓴다")
+	void stripe_isStablePerCart() {
+		assertThat(locks.stripeCount()).isEqualTo(128);
+		assertThat(locks.stripe(42L)).isEqualTo(locks.stripe(42L));
+	}
+	
+	@Test
+	@DisplayName("아무도 잡지 않은 락은 기다리지 않고 잡는다")
+	void acquire_whenFree_isUncontended() {
+		// when
+		ReentrantLock lock = locks.acquire(1L);
+		lock.unlock();
+		
+		// then
+		assertThat(count("uncontended")).isEqualTo(1.0);
+		assertThat(meterRegistry.timer("cart.write.lock.wait").count()).isZero();
+	}
+	
+	@Test
+	@DisplayName("같은 장바구니의 앞선 쓰기가 끝나면 이어서 잡고 대기 시간을 기록한다")
+	void acquire_whenHeld_waitsForRelease() throws Exception {
+		// given
+		CartWriteLockProperties properties = new CartWriteLockProperties();
+		properties.setTimeout(Duration.ofSeconds(5));
+		CartWriteLocks patientLocks = new CartWriteLocks(properties, meterRegistry);
+		ReentrantLock held = patientLocks.acquire(7L);
+		CountDownLatch started = new CountDownLatch(1);
+		
+		// when
+		CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> {
+			started.countDown();
+			patientLocks.acquire(7L).unlock();
+		});
+		started.await();
+		while (held.getQueueLength() == 0) {
+			Thread.onSpinWait();
+		}
+		held.unlock();
+		waiter.get(5, TimeUnit.SECONDS);
+		
+		// then
+		assertThat(count("contended")).isEqualTo(1.0);
+		assertThat(meterRegistry.timer("cart.write.lock.wait").count()).isEqualTo(1);
+	}
+	
+	@Test
+	@DisplayName("제한 시간 안에 잡지 못하면 CartBusyException을 던진다")
+	void acquire_whenTimeout_throws() throws Exception {
+		// given
+		ReentrantLock held = locks.acquire(7L);
+		try {
+			// when & then
+			CompletableFuture<Throwable> waiter = CompletableFuture.supplyAsync(() -> {
+				try {
+					locks.acquire(7L).unlock();
+					return null;
+				} catch (CartBusyException e) {
+					return e;
+				}
+			});
+			assertThat(waiter.get(5, TimeUnit.SECONDS)).isInstanceOf(CartBusyException.class);
+			assertThat(count("timeout")).isEqualTo(1.0);
+		} finally {
+			held.unlock();
+		}
+	}
+	
+	@Test
+	@DisplayName("같은 스레드는 이미 잡은 락을 다시 잡을 수 있다")
+	void acquire_isReentrant() {
+		// when
+		ReentrantLock outer = locks.acquire(3L);
+		ReentrantLock inner = locks.acquire(3L);
+		
+		// then
+		assertThat(inner).isSameAs(outer);
+		assertThat(outer.getHoldCount()).isEqualTo(2);
+		inner.unlock();
+		outer.unlock();
+		assertThatThrownBy(outer::unlock).isInstanceOf(IllegalMonitorStateException.class);
+	}
+}
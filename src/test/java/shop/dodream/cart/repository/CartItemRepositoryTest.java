@@ -69,6 +69,21 @@ class CartItemRepositoryTest {
 		assertThat(foundItems).isEmpty();
 	}
 	
+	@Test
+	@DisplayName("findByCart_UserId: 회원 ID로 장바구니의 모든 아이템을 반환한다")
+	void findByCart_UserId_returnsAllItemsOfUser() {
+		// given
+		createAndPersistItem(101L, 2L, 1000L);
+		createAndPersistItem(102L, 1L, 2000L);
+		
+		// when
+		List<CartItem> foundItems = cartItemRepository.findByCart_UserId("test-user");
+		
+		// then
+		assertThat(foundItems).extracting(CartItem::getBookId).containsExactlyInAnyOrder(101L, 102L);
+		assertThat(cartItemRepository.findByCart_UserId("other-user")).isEmpty();
+	}
+	
 	@Test
 	@DisplayName("findByCart_CartIdAndBookId: 특정 장바구니의 특정 도서 아이템을 반환한다")
 	void findByCart_CartIdAndBookId_returnsSpecificItem() {
@@ -103,11 +118,12 @@ class CartItemRepositoryTest {
 		createAndPersistItem(202L, 1L, 2000L); // 이 아이템은 남아있어야 함
 		
 		// when
-		cartItemRepository.deleteByCart_CartIdAndBookId(cart.getCartId(), 201L);
+		int deleted = cartItemRepository.deleteByCart_CartIdAndBookId(cart.getCartId(), 201L);
 		entityManager.flush(); // delete 쿼리 실행
 		entityManager.clear(); // 영속성 컨텍스트 초기화하여 DB에서 다시 조회
 		
 		// then
+		assertThat(deleted).isEqualTo(1);
 		List<CartItem> remainingItems = cartItemRepository.findAll();
 		assertThat(remainingItems).hasSize(1);
 		assertThat(remainingItems.get(0).getBookId()).isEqualTo(202L);
@@ -121,11 +137,12 @@ class CartItemRepositoryTest {
 		createAndPersistItem(302L, 1L, 2000L);
 		
 		// when
-		cartItemRepository.deleteByCart_CartId(cart.getCartId());
+		int deleted = cartItemRepository.deleteByCart_CartId(cart.getCartId());
 		entityManager.flush();
 		entityManager.clear();
 		
 		// then
+		assertThat(deleted).isEqualTo(2);
 		List<CartItem> remainingItems = cartItemRepository.findByCart_CartId(cart.getCartId());
 		assertThat(remainingItems).isEmpty();
 	}
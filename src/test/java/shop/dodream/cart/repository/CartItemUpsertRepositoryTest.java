@@ -0,0 +1,156 @@
+package shop.dodream.cart.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import shop.dodream.cart.entity.Cart;
+import shop.dodream.cart.entity.CartItem;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// ON DUPLICATE KEY UPDATE는 MySQL 문법이라 H2를 MySQL 호환 모드로 띄운다
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:cart-upsert;MODE=MySQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@DisplayName("CartItemRepository upsert 테스트 (H2 MySQL 모드)")
+class CartItemUpsertRepositoryTest {
+	
+	@Autowired
+	private TestEntityManager entityManager;
+	
+	@Autowired
+	private CartItemRepository cartItemRepository;
+	
+	private Cart cart;
+	
+	@BeforeEach
+	void setUp() {
+		Cart newCart = new Cart();
+		newCart.setUserId("upsert-user");
+		cart = entityManager.persistAndFlush(newCart);
+	}
+	
+	private CartItem createAndPersistItem(Long bookId, Long quantity, Long price) {
+		return entityManager.persistAndFlush(new CartItem(null, quantity, bookId, cart, price));
+	}
+	
+	private List<CartItem> items(long fromBookId, long toBookId) {
+		return LongStream.rangeClosed(fromBookId, toBookId)
+				       .mapToObj(bookId -> new CartItem(null, 1L, bookId, cart, 500L))
+				       .toList();
+	}
+	
+	private Map<Long, Long> quantitiesByBookId() {
+		entityManager.clear();
+		return cartItemRepository.findByCart_CartId(cart.getCartId()).stream()
+				       .collect(Collectors.toMap(CartItem::getBookId, CartItem::getQuantity));
+	}
+	
+	@Test
+	@DisplayName("upsertQuantity: 없는 도서는 새 행으로 추가하고 생성된 ID를 반환한다")
+	void upsertQuantity_whenNew_insertsAndReturnsId() {
+		// when
+		Long insertedId = cartItemRepository.upsertQuantity(cart.getCartId(), 101L, 2L, 1000L);
+		entityManager.clear();
+		
+		// then
+		assertThat(insertedId).isNotNull();
+		CartItem item = cartItemRepository.findByCart_CartIdAndBookId(cart.getCartId(), 101L);
+		assertThat(item.getCartItemId()).isEqualTo(insertedId);
+		assertThat(item.getQuantity()).isEqualTo(2L);
+		assertThat(item.getSalePrice()).isEqualTo(1000L);
+	}
+	
+	@Test
+	@DisplayName("upsertQuantity: 이미 있는 도서는 수량을 더하고 가격을 갱신하며 null을 반환한다")
+	void upsertQuantity_whenExists_addsQuantityAndReturnsNull() {
+		// given
+		Long insertedId = cartItemRepository.upsertQuantity(cart.getCartId(), 101L, 2L, 1000L);
+		
+		// when
+		Long secondId = cartItemRepository.upsertQuantity(cart.getCartId(), 101L, 3L, 900L);
+		entityManager.clear();
+		
+		// then
+		assertThat(secondId).isNull();
+		CartItem item = cartItemRepository.findByCart_CartIdAndBookId(cart.getCartId(), 101L);
+		assertThat(item.getCartItemId()).isEqualTo(insertedId);
+		assertThat(item.getQuantity()).isEqualTo(5L);
+		assertThat(item.getSalePrice()).isEqualTo(900L);
+		assertThat(cartItemRepository.findByCart_CartId(cart.getCartId())).hasSize(1);
+	}
+	
+	@Test
+	@DisplayName("upsertQuantity: 없는 장바구니면 FK 위반으로 DataIntegrityViolationException을 던진다")
+	void upsertQuantity_whenCartMissing_throwsDataIntegrityViolation() {
+		// when & then
+		assertThatThrownBy(() -> cartItemRepository.upsertQuantity(cart.getCartId() + 1000, 101L, 1L, 1000L))
+				.isInstanceOf(DataIntegrityViolationException.class);
+	}
+	
+	@Test
+	@DisplayName("upsertAll: 새 도서는 추가하고 이미 있는 도서는 가격은 두고 수량만 더한다")
+	void upsertAll_insertsNewAndAddsToExisting() {
+		// given
+		createAndPersistItem(1L, 2L, 1000L);
+		createAndPersistItem(3L, 4L, 1000L);
+		
+		// when
+		int affected = cartItemRepository.upsertAll(items(1L, 4L));
+		
+		// then
+		// 추가한 행은 1, 수량을 더한 행은 2로 센다
+		assertThat(affected).isEqualTo(2 * 2 + 2);
+		assertThat(quantitiesByBookId()).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 3L, 2L, 1L, 3L, 5L, 4L, 1L));
+		assertThat(cartItemRepository.findByCart_CartIdAndBookId(cart.getCartId(), 1L).getSalePrice()).isEqualTo(1000L);
+		assertThat(cartItemRepository.findByCart_CartIdAndBookId(cart.getCartId(), 2L).getSalePrice()).isEqualTo(500L);
+	}
+	
+	@Test
+	@DisplayName("upsertAll: 500행을 넘으면 문장을 나누어 실행하고, 경계 양쪽의 추가와 수량 증가가 모두 반영된다")
+	void upsertAll_acrossChunkBoundary_appliesEveryRow() {
+		// given
+		// 첫 문장의 마지막 행(500)과 두 번째 문장의 첫 행(501)이 기존 행
+		createAndPersistItem(500L, 2L, 1000L);
+		createAndPersistItem(501L, 3L, 1000L);
+		
+		// when
+		int affected = cartItemRepository.upsertAll(items(1L, 501L));
+		
+		// then
+		assertThat(affected).isEqualTo(499 + 2 * 2);
+		Map<Long, Long> quantities = quantitiesByBookId();
+		assertThat(quantities).hasSize(501);
+		assertThat(quantities.get(1L)).isEqualTo(1L);
+		assertThat(quantities.get(499L)).isEqualTo(1L);
+		assertThat(quantities.get(500L)).isEqualTo(3L);
+		assertThat(quantities.get(501L)).isEqualTo(4L);
+	}
+	
+	@Test
+	@DisplayName("upsertAll: 정확히 500행이면 한 문장으로 모두 추가한다")
+	void upsertAll_withExactlyChunkSize_insertsAll() {
+		// when
+		int affected = cartItemRepository.upsertAll(items(1L, 500L));
+		
+		// then
+		assertThat(affected).isEqualTo(500);
+		assertThat(quantitiesByBookId()).hasSize(500);
+	}
+}
@@ -0,0 +1,136 @@
+package shop.dodream.cart.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import shop.dodream.cart.cache.BookNearCache;
+import shop.dodream.cart.cache.BookRedisCache;
+import shop.dodream.cart.cache.BookStaleStore;
+import shop.dodream.cart.client.CoalescingBookFetcher;
+import shop.dodream.cart.dto.BookListResponseRecord;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BookLookupService 단위 테스트")
+class BookLookupServiceTest {
+	
+	@Mock
+	private CoalescingBookFetcher bookFetcher;
+	
+	@Mock
+	private BookNearCache bookNearCache;
+	
+	@Mock
+	private BookRedisCache bookRedisCache;
+	
+	@Mock
+	private BookStaleStore bookStaleStore;
+	
+	@InjectMocks
+	private BookLookupService bookLookupService;
+	
+	private final BookListResponseRecord book1 = new BookListResponseRecord(1L, "캐시된 도서", 1000L, "/books/1.jpg");
+	private final BookListResponseRecord book2 = new BookListResponseRecord(2L, "새 도서", 2000L, "/books/2.jpg");
+	
+	@Test
+	@DisplayName("모든 도서가 캐시에 있으면 도서 서비스를 호출하지 않는다")
+	void getBooks_allCached_skipsBookClient() {
+		// given
+		given(bookNearCache.getAll(anyCollection())).willReturn(new HashMap<>(Map.of(1L, book1)));
+		
+		// when
+		Map<Long, BookListResponseRecord> result = bookLookupService.getBooks(List.of(1L));
+		
+		// then
+		assertThat(result).containsOnlyKeys(1L);
+		verify(bookFetcher, never()).fetch(anyCollection(), any());
+	}
+	
+	@Test
+	@DisplayName("캐시에 없는 도서 ID만 조회하고 결과를 병합한다")
+	void getBooks_partialHit_fetchesOnlyMissingIds() {
+		// given
+		given(bookNearCache.getAll(anyCollection())).willReturn(new HashMap<>(Map.of(1L, book1)));
+		given(bookFetcher.fetch(eq(List.of(2L)), any())).willAnswer(invocation -> {
+			Consumer<Collection<BookListResponseRecord>> onLoaded = invocation.getArgument(1);
+			onLoaded.accept(List.of(book2));
+			return Map.of(2L, book2);
+		});
+		
+		// when
+		Map<Long, BookListResponseRecord> result = bookLookupService.getBooks(List.of(1L, 2L, 2L));
+		
+		// then
+		assertThat(result).containsEntry(1L, book1).containsEntry(2L, book2);
+		verify(bookFetcher).fetch(eq(List.of(2L)), any());
+		verify(bookNearCache).putAll(List.of(book2));
+		verify(bookRedisCache).putAll(List.of(book2));
+		verify(bookStaleStore).putAll(List.of(book2));
+	}
+	
+	@Test
+	@DisplayName("도서 서비스 조회가 실패하면 마지막 정상 도서 정보를 stale로 표시해 반환한다")
+	void getBooks_whenFetchFails_servesStaleBooks() {
+		// given
+		given(bookNearCache.getAll(anyCollection())).willReturn(new HashMap<>());
+		given(bookFetcher.fetch(anyCollection(), any())).willThrow(new IllegalStateException("book service down"));
+		given(bookStaleStore.getAll(List.of(2L))).willReturn(Map.of(2L, book2.asStale()));
+		
+		// when
+		Map<Long, BookListResponseRecord> result = bookLookupService.getBooks(List.of(2L));
+		
+		// then
+		assertThat(result.get(2L).isStale()).isTrue();
+		assertThat(result.get(2L).getTitle()).isEqualTo(book2.getTitle());
+	}
+	
+	@Test
+	@DisplayName("도서 서비스 조회가 실패하고 대체할 도서 정보도 없으면 예외를 그대로 던진다")
+	void getBooks_whenFetchFailsWithoutStale_rethrows() {
+		// given
+		given(bookNearCache.getAll(anyCollection())).willReturn(new HashMap<>());
+		given(bookFetcher.fetch(anyCollection(), any())).willThrow(new IllegalStateException("book service down"));
+		given(bookStaleStore.getAll(List.of(2L))).willReturn(Map.of());
+		
+		// when & then
+		assertThatThrownBy(() -> bookLookupService.getBooks(List.of(2L)))
+				.isInstanceOf(IllegalStateException.class);
+	}
+	
+	@Test
+	@DisplayName("Redis 캐시에 있는 도서는 노드 캐시에 적재하고 도서 서비스를 호출하지 않는다")
+	void getBooks_redisHit_warmsNearCacheWithoutBookClient() {
+		// given
+		given(bookNearCache.getAll(anyCollection())).willReturn(new HashMap<>());
+		given(bookRedisCache.getAll(List.of(2L))).willReturn(new HashMap<>(Map.of(2L, book2)));
+		
+		// when
+		Map<Long, BookListResponseRecord> result = bookLookupService.getBooks(List.of(2L));
+		
+		// then
+		assertThat(result).containsEntry(2L, book2);
+		verify(bookNearCache).putAll(argThat(books -> books.contains(book2)));
+		verify(bookFetcher, never()).fetch(anyCollection(), any());
+	}
+	
+	@Test
+	@DisplayName("빈 ID 목록이면 빈 Map을 반환한다")
+	void getBooks_emptyIds_returnsEmptyMap() {
+		assertThat(bookLookupService.getBooks(List.of())).isEmpty();
+		verifyNoInteractions(bookFetcher, bookNearCache, bookRedisCache, bookStaleStore);
+	}
+}
@@ -10,19 +10,28 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import shop.dodream.cart.client.BookClient;
+import org.springframework.dao.DataIntegrityViolationException;
 import shop.dodream.cart.dto.BookListResponseRecord;
 import shop.dodream.cart.dto.CartItemRequest;
 import shop.dodream.cart.dto.CartItemResponse;
+import shop.dodream.cart.dto.GuestCart;
 import shop.dodream.cart.dto.GuestCartItem;
 import shop.dodream.cart.entity.Cart;
 import shop.dodream.cart.entity.CartItem;
+import shop.dodream.cart.entity.GuestCartMerge;
+import shop.dodream.cart.exception.BookServiceUnavailableException;
 import shop.dodream.cart.exception.DataNotFoundException;
 import shop.dodream.cart.repository.CartItemRepository;
 import shop.dodream.cart.repository.CartRepository;
+import shop.dodream.cart.repository.GuestCartMergeRepository;
+import shop.dodream.cart.store.GuestCartClaim;
+import shop.dodream.cart.store.PendingCartMerge;
+import shop.dodream.cart.store.PendingCartMergeStore;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -42,11 +51,17 @@ class CartItemServiceTest {
 	private CartItemRepository cartItemRepository;
 	
 	@Mock
-	private BookClient bookClient;
+	private BookLookupService bookLookupService;
 	
 	@Mock
 	private CartRepository cartRepository;
 	
+	@Mock
+	private GuestCartMergeRepository guestCartMergeRepository;
+	
+	@Mock
+	private PendingCartMergeStore pendingCartMergeStore;
+	
 	// 테스트에서 공통으로 사용할 변수들
 	private Cart cart;
 	private CartItem cartItem1;
@@ -75,12 +90,12 @@ class CartItemServiceTest {
 		// given (준비)
 		Long cartId = cart.getCartId();
 		List<CartItem> itemsInDb = List.of(cartItem1, cartItem2);
-		List<BookListResponseRecord> booksFromClient = List.of(book1, book2);
+		Map<Long, BookListResponseRecord> booksFromClient = Map.of(101L, book1, 102L, book2);
 		List<Long> bookIds = List.of(101L, 102L);
 		
 		// Repository와 Client의 동작 Mocking
 		when(cartItemRepository.findByCart_CartId(cartId)).thenReturn(itemsInDb);
-		when(bookClient.getBooksByIds(bookIds)).thenReturn(booksFromClient);
+		when(bookLookupService.getBooks(bookIds)).thenReturn(booksFromClient);
 		
 		// when (실행)
 		List<CartItemResponse> result = cartItemService.getCartItems(cartId);
@@ -101,7 +116,7 @@ class CartItemServiceTest {
 		
 		// Mock 객체의 메소드가 정확히 1번씩 호출되었는지 검증
 		verify(cartItemRepository, times(1)).findByCart_CartId(cartId);
-		verify(bookClient, times(1)).getBooksByIds(bookIds);
+		verify(bookLookupService, times(1)).getBooks(bookIds);
 	}
 	
 	@Test
@@ -119,7 +134,103 @@ class CartItemServiceTest {
 		assertThat(result).isEmpty();
 		
 		// BookClient는 호출되지 않아야 함
-		verify(bookClient, never()).getBooksByIds(anyList());
+		verify(bookLookupService, never()).getBooks(anyCollection());
+	}
+	
+	@Test
+	@DisplayName("성공: 회원 ID로 장바구니 아이템을 바로 조회한다")
+	void getCartItemsByUserId_Success() {
+		// given
+		when(cartItemRepository.findByCart_UserId("user1")).thenReturn(List.of(cartItem1, cartItem2));
+		when(bookLookupService.getBooks(List.of(101L, 102L))).thenReturn(Map.of(101L, book1, 102L, book2));
+		
+		// when
+		List<CartItemResponse> result = cartItemService.getCartItemsByUserId("user1");
+		
+		// then
+		assertThat(result).extracting(CartItemResponse::getBookId).containsExactly(101L, 102L);
+		verify(cartItemRepository, never()).findByCart_CartId(anyLong());
+	}
+	
+	@Test
+	@DisplayName("성공: 반영 대기 중인 비회원 아이템을 더해서 보여준다")
+	void getCartItemsByUserId_WithPendingMerge_ShowsCombinedItems() {
+		// given
+		PendingCartMerge pending = new PendingCartMerge("guest1", "claim-1",
+				List.of(new GuestCartItem(101L, 3L), new GuestCartItem(103L, 1L)), 0L);
+		BookListResponseRecord book3 = new BookListResponseRecord(103L, "이펙티브 자바", 36000L, "/books/103.jpg");
+		when(pendingCartMergeStore.findAll("user123")).thenReturn(List.of(pending));
+		when(cartItemRepository.findByCart_UserId("user123")).thenReturn(List.of(cartItem1, cartItem2));
+		when(guestCartMergeRepository.findAllById(List.of("claim-1"))).thenReturn(List.of());
+		when(bookLookupService.getBooks(List.of(101L, 102L, 103L))).thenReturn(Map.of(101L, book1, 102L, book2, 103L, book3));
+		
+		// when
+		List<CartItemResponse> result = cartItemService.getCartItemsByUserId("user123");
+		
+		// then
+		assertThat(result).extracting(CartItemResponse::getBookId).containsExactly(101L, 102L, 103L);
+		assertThat(result).extracting(CartItemResponse::getQuantity).containsExactly(5L, 1L, 1L);
+		assertThat(result.get(2).getCartItemId()).isNull();
+		// 조회한 엔티티는 바뀌지 않아야 함
+		assertThat(cartItem1.getQuantity()).isEqualTo(2L);
+	}
+	
+	@Test
+	@DisplayName("성공: 이미 반영된 대기 기록은 더하지 않는다")
+	void getCartItemsByUserId_WhenPendingAlreadyMerged_ShowsStoredItems() {
+		// given
+		PendingCartMerge pending = new PendingCartMerge("guest1", "claim-1", List.of(new GuestCartItem(101L, 3L)), 0L);
+		when(pendingCartMergeStore.findAll("user123")).thenReturn(List.of(pending));
+		when(cartItemRepository.findByCart_UserId("user123")).thenReturn(List.of(cartItem1));
+		when(guestCartMergeRepository.findAllById(List.of("claim-1")))
+				.thenReturn(List.of(new GuestCartMerge("claim-1", "guest1", 1L, null)));
+		when(bookLookupService.getBooks(List.of(101L))).thenReturn(Map.of(101L, book1));
+		
+		// when
+		List<CartItemResponse> result = cartItemService.getCartItemsByUserId("user123");
+		
+		// then
+		assertThat(result).extracting(CartItemResponse::getQuantity).containsExactly(2L);
+	}
+	
+	@Test
+	@DisplayName("성공: 여러 기기에서 로그인해 대기 기록이 여럿이면 반영되지 않은 기록을 모두 더한다")
+	void getCartItemsByUserId_WithSeveralPendingMerges_SumsUnmergedOnes() {
+		// given
+		PendingCartMerge first = new PendingCartMerge("guest1", "claim-1", List.of(new GuestCartItem(101L, 1L)), 0L);
+		PendingCartMerge second = new PendingCartMerge("guest2", "claim-2", List.of(new GuestCartItem(101L, 2L)), 0L);
+		PendingCartMerge merged = new PendingCartMerge("guest3", "claim-3", List.of(new GuestCartItem(101L, 7L)), 0L);
+		when(pendingCartMergeStore.findAll("user123")).thenReturn(List.of(first, second, merged));
+		when(cartItemRepository.findByCart_UserId("user123")).thenReturn(List.of(cartItem1));
+		when(guestCartMergeRepository.findAllById(List.of("claim-1", "claim-2", "claim-3")))
+				.thenReturn(List.of(new GuestCartMerge("claim-3", "guest3", 1L, null)));
+		when(bookLookupService.getBooks(List.of(101L))).thenReturn(Map.of(101L, book1));
+		
+		// when
+		List<CartItemResponse> result = cartItemService.getCartItemsByUserId("user123");
+		
+		// then
+		assertThat(result).extracting(CartItemResponse::getQuantity).containsExactly(5L);
+	}
+	
+	@Test
+	@DisplayName("성공: 장바구니 ID로 조회해도 회원의 대기 기록을 더한다")
+	void getCartItems_WithPendingMerge_ShowsCombinedItems() {
+		// given
+		Long cartId = cart.getCartId();
+		PendingCartMerge pending = new PendingCartMerge("guest1", "claim-1", List.of(new GuestCartItem(102L, 2L)), 0L);
+		when(pendingCartMergeStore.isEnabled()).thenReturn(true);
+		when(cartRepository.findById(cartId)).thenReturn(Optional.of(cart));
+		when(pendingCartMergeStore.findAll("user123")).thenReturn(List.of(pending));
+		when(cartItemRepository.findByCart_CartId(cartId)).thenReturn(List.of(cartItem1, cartItem2));
+		when(guestCartMergeRepository.findAllById(List.of("claim-1"))).thenReturn(List.of());
+		when(bookLookupService.getBooks(List.of(101L, 102L))).thenReturn(Map.of(101L, book1, 102L, book2));
+		
+		// when
+		List<CartItemResponse> result = cartItemService.getCartItems(cartId);
+		
+		// then
+		assertThat(result).extracting(CartItemResponse::getQuantity).containsExactly(2L, 3L);
 	}
 	
 	@Test
@@ -128,34 +239,25 @@ class CartItemServiceTest {
 		// given
 		CartItemRequest request = new CartItemRequest(cart.getCartId(), book1.getBookId(), 1L);
 		
-		when(cartRepository.findById(request.getCartId())).thenReturn(Optional.of(cart));
-		when(cartItemRepository.findByCart_CartIdAndBookId(request.getCartId(), request.getBookId())).thenReturn(null); // 기존 아이템 없음
-		when(bookClient.getBooksByIds(List.of(request.getBookId()))).thenReturn(List.of(book1));
-		// save 메소드가 호출될 때, 입력으로 받은 CartItem 객체를 그대로 반환하도록 설정
-		when(cartItemRepository.save(any(CartItem.class))).thenAnswer(invocation -> {
-			CartItem itemToSave = invocation.getArgument(0);
-			itemToSave.setCartItemId(99L); // 새로운 ID 부여 시뮬레이션
-			return itemToSave;
-		});
+		when(bookLookupService.getBooks(List.of(request.getBookId()))).thenReturn(Map.of(101L, book1));
+		// 새로 추가된 행의 ID
+		when(cartItemRepository.upsertQuantity(request.getCartId(), request.getBookId(), request.getQuantity(), book1.getSalePrice())).thenReturn(99L);
 		
 		// when
 		CartItemResponse result = cartItemService.addCartItem(request);
 		
 		// then
 		assertThat(result).isNotNull();
+		assertThat(result.getCartItemId()).isEqualTo(99L);
 		assertThat(result.getBookId()).isEqualTo(request.getBookId());
 		assertThat(result.getQuantity()).isEqualTo(request.getQuantity());
 		assertThat(result.getTitle()).isEqualTo(book1.getTitle());
 		
-		// ArgumentCaptor를 사용하여 save 메소드에 전달된 실제 CartItem 객체를 캡처
-		ArgumentCaptor<CartItem> captor = ArgumentCaptor.forClass(CartItem.class);
-		verify(cartItemRepository, times(1)).save(captor.capture());
-		
-		CartItem savedItem = captor.getValue();
-		assertThat(savedItem.getBookId()).isEqualTo(request.getBookId());
-		assertThat(savedItem.getQuantity()).isEqualTo(request.getQuantity());
-		assertThat(savedItem.getCart()).isEqualTo(cart);
-		assertThat(savedItem.getSalePrice()).isEqualTo(book1.getSalePrice());
+		// 조회 후 저장(read-modify-write)이나 결과 행 재조회 없이 단일 upsert 쿼리만 실행되어야 함
+		verify(cartItemRepository, times(1)).upsertQuantity(request.getCartId(), request.getBookId(), 1L, book1.getSalePrice());
+		verify(cartItemRepository, never()).findByCart_CartIdAndBookId(any(), any());
+		verify(cartRepository, never()).findById(any());
+		verify(cartItemRepository, never()).save(any());
 	}
 	
 	@Test
@@ -164,27 +266,22 @@ class CartItemServiceTest {
 		// given
 		CartItemRequest request = new CartItemRequest(cart.getCartId(), book1.getBookId(), 2L); // 2개 추가 요청
 		
-		// 기존에 2개가 담겨있던 cartItem1을 반환하도록 설정
-		when(cartRepository.findById(request.getCartId())).thenReturn(Optional.of(cart));
+		// DB에서 기존 수량(2) + 요청 수량(2) = 4 로 증가된 행을 반환하도록 설정
+		cartItem1.setQuantity(4L);
+		when(bookLookupService.getBooks(List.of(request.getBookId()))).thenReturn(Map.of(101L, book1));
+		// 기존 행에 수량을 더하면 생성된 ID가 없다
+		when(cartItemRepository.upsertQuantity(request.getCartId(), request.getBookId(), request.getQuantity(), book1.getSalePrice())).thenReturn(null);
 		when(cartItemRepository.findByCart_CartIdAndBookId(request.getCartId(), request.getBookId())).thenReturn(cartItem1);
-		when(bookClient.getBooksByIds(List.of(request.getBookId()))).thenReturn(List.of(book1));
-		when(cartItemRepository.save(any(CartItem.class))).thenReturn(cartItem1); // 변경된 cartItem1 반환
 		
 		// when
 		CartItemResponse result = cartItemService.addCartItem(request);
 		
 		// then
 		assertThat(result).isNotNull();
-		// 기존 수량(2) + 요청 수량(2) = 4
 		assertThat(result.getQuantity()).isEqualTo(4L);
 		assertThat(result.getCartItemId()).isEqualTo(cartItem1.getCartItemId());
-		
-		// save 메소드가 호출되었는지, 그리고 수량이 정확히 업데이트 되었는지 검증
-		ArgumentCaptor<CartItem> captor = ArgumentCaptor.forClass(CartItem.class);
-		verify(cartItemRepository, times(1)).save(captor.capture());
-		
-		CartItem savedItem = captor.getValue();
-		assertThat(savedItem.getQuantity()).isEqualTo(4L);
+		verify(cartItemRepository, times(1)).upsertQuantity(request.getCartId(), request.getBookId(), 2L, book1.getSalePrice());
+		verify(cartItemRepository, never()).save(any());
 	}
 	
 	@Test
@@ -192,7 +289,11 @@ class CartItemServiceTest {
 	void addCartItem_WhenCartNotFound_ShouldThrowException() {
 		// given
 		CartItemRequest request = new CartItemRequest(999L, book1.getBookId(), 1L);
-		when(cartRepository.findById(request.getCartId())).thenReturn(Optional.empty());
+		when(bookLookupService.getBooks(List.of(request.getBookId()))).thenReturn(Map.of(101L, book1));
+		// 장바구니 FK 제약 조건 위반
+		when(cartItemRepository.upsertQuantity(request.getCartId(), request.getBookId(), request.getQuantity(), book1.getSalePrice()))
+				.thenThrow(new DataIntegrityViolationException("fk_cart_item_cart"));
+		when(cartRepository.existsById(request.getCartId())).thenReturn(false);
 		
 		// when & then
 		DataNotFoundException exception = assertThrows(DataNotFoundException.class, () -> {
@@ -200,11 +301,52 @@ class CartItemServiceTest {
 		});
 		
 		assertThat(exception.getMessage()).isEqualTo("Cart not found with id: " + request.getCartId());
-		// 아이템 조회나 저장은 일어나지 않아야 함
+		// 결과 행 조회나 저장은 일어나지 않아야 함
 		verify(cartItemRepository, never()).findByCart_CartIdAndBookId(any(), any());
 		verify(cartItemRepository, never()).save(any());
 	}
 	
+	@Test
+	@DisplayName("실패: 장바구니가 있는데 제약 조건을 위반하면 원래 예외를 그대로 던진다")
+	void addCartItem_WhenOtherConstraintFails_RethrowsOriginalException() {
+		// given
+		CartItemRequest request = new CartItemRequest(cart.getCartId(), book1.getBookId(), 1L);
+		DataIntegrityViolationException violation = new DataIntegrityViolationException("Column 'sale_price' cannot be null");
+		when(bookLookupService.getBooks(List.of(request.getBookId()))).thenReturn(Map.of(101L, book1));
+		when(cartItemRepository.upsertQuantity(request.getCartId(), request.getBookId(), request.getQuantity(), book1.getSalePrice()))
+				.thenThrow(violation);
+		when(cartRepository.existsById(request.getCartId())).thenReturn(true);
+		
+		// when & then
+		DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class,
+				() -> cartItemService.addCartItem(request));
+		assertThat(exception).isSameAs(violation);
+	}
+	
+	@Test
+	@DisplayName("실패: 도서 정보가 없으면 장바구니에 추가하지 않는다")
+	void addCartItem_WhenBookNotFound_ShouldThrowException() {
+		// given
+		CartItemRequest request = new CartItemRequest(cart.getCartId(), 999L, 1L);
+		when(bookLookupService.getBooks(List.of(999L))).thenReturn(Map.of());
+		
+		// when & then
+		assertThrows(DataNotFoundException.class, () -> cartItemService.addCartItem(request));
+		verify(cartItemRepository, never()).upsertQuantity(any(), any(), any(), any());
+	}
+	
+	@Test
+	@DisplayName("실패: 도서 서비스 장애로 대체한 도서 정보면 가격을 저장하지 않고 예외가 발생한다")
+	void addCartItem_WhenBookIsStale_ShouldNotPersist() {
+		// given
+		CartItemRequest request = new CartItemRequest(cart.getCartId(), 101L, 1L);
+		when(bookLookupService.getBooks(List.of(101L))).thenReturn(Map.of(101L, book1.asStale()));
+		
+		// when & then
+		assertThrows(BookServiceUnavailableException.class, () -> cartItemService.addCartItem(request));
+		verify(cartItemRepository, never()).upsertQuantity(any(), any(), any(), any());
+	}
+	
 	@Test
 	@DisplayName("성공: 장바구니 아이템의 수량을 정상적으로 변경한다")
 	void updateCartItemQuantity_Success() {
@@ -214,7 +356,7 @@ class CartItemServiceTest {
 		Long newQuantity = 5L;
 		
 		when(cartItemRepository.findById(cartItemId)).thenReturn(Optional.of(cartItem1));
-		when(bookClient.getBooksByIds(List.of(cartItem1.getBookId()))).thenReturn(List.of(book1));
+		when(bookLookupService.getBooks(List.of(cartItem1.getBookId()))).thenReturn(Map.of(101L, book1));
 		when(cartRepository.findById(cartId)).thenReturn(Optional.of(cart));
 		when(cartItemRepository.save(any(CartItem.class))).thenAnswer(invocation -> invocation.getArgument(0));
 		
@@ -234,6 +376,19 @@ class CartItemServiceTest {
 		assertThat(updatedItem.getSalePrice()).isEqualTo(book1.getSalePrice());
 	}
 	
+	@Test
+	@DisplayName("실패: 도서 서비스 장애로 대체한 도서 정보면 수량과 가격을 저장하지 않는다")
+	void updateCartItemQuantity_WhenBookIsStale_ShouldNotPersist() {
+		// given
+		when(cartItemRepository.findById(cartItem1.getCartItemId())).thenReturn(Optional.of(cartItem1));
+		when(bookLookupService.getBooks(List.of(101L))).thenReturn(Map.of(101L, book1.asStale()));
+		
+		// when & then
+		assertThrows(BookServiceUnavailableException.class,
+				() -> cartItemService.updateCartItemQuantity(cart.getCartId(), cartItem1.getCartItemId(), 5L));
+		verify(cartItemRepository, never()).save(any());
+	}
+	
 	@Test
 	@DisplayName("실패: 변경하려는 아이템이 없으면 예외가 발생한다")
 	void updateCartItemQuantity_WhenItemNotFound_ShouldThrowException() {
@@ -256,14 +411,15 @@ class CartItemServiceTest {
 	void removeAllCartItems_Success() {
 		// given
 		Long cartId = cart.getCartId();
-		when(cartItemRepository.findByCart_CartId(cartId)).thenReturn(List.of(cartItem1, cartItem2));
-		doNothing().when(cartItemRepository).deleteByCart_CartId(cartId);
+		when(cartItemRepository.deleteByCart_CartId(cartId)).thenReturn(2);
 		
 		// when
 		cartItemService.removeAllCartItems(cartId);
 		
 		// then
+		// 아이템을 미리 조회하지 않고 DELETE 한 번만 실행되어야 함
 		verify(cartItemRepository, times(1)).deleteByCart_CartId(cartId);
+		verify(cartItemRepository, never()).findByCart_CartId(anyLong());
 	}
 	
 	@Test
@@ -272,14 +428,14 @@ class CartItemServiceTest {
 		// given
 		Long cartId = cart.getCartId();
 		Long bookIdToRemove = book1.getBookId();
-		when(cartItemRepository.findByCart_CartIdAndBookId(cartId, bookIdToRemove)).thenReturn(cartItem1);
-		doNothing().when(cartItemRepository).deleteByCart_CartIdAndBookId(cartId, bookIdToRemove);
+		when(cartItemRepository.deleteByCart_CartIdAndBookId(cartId, bookIdToRemove)).thenReturn(1);
 		
 		// when
 		cartItemService.removeCartItemByBookId(cartId, bookIdToRemove);
 		
 		// then
 		verify(cartItemRepository, times(1)).deleteByCart_CartIdAndBookId(cartId, bookIdToRemove);
+		verify(cartItemRepository, never()).findByCart_CartIdAndBookId(anyLong(), anyLong());
 	}
 	
 	@Test
@@ -288,14 +444,13 @@ class CartItemServiceTest {
 		// given
 		Long cartId = cart.getCartId();
 		Long bookIdToRemove = 999L; // 존재하지 않는 책 ID
-		when(cartItemRepository.findByCart_CartIdAndBookId(cartId, bookIdToRemove)).thenReturn(null);
+		// 삭제된 행이 없으면 존재하지 않는 아이템
+		when(cartItemRepository.deleteByCart_CartIdAndBookId(cartId, bookIdToRemove)).thenReturn(0);
 		
 		// when & then
 		assertThrows(DataNotFoundException.class, () -> {
 			cartItemService.removeCartItemByBookId(cartId, bookIdToRemove);
 		});
-		
-		verify(cartItemRepository, never()).deleteByCart_CartIdAndBookId(anyLong(), anyLong());
 	}
 	
 	@Test
@@ -311,33 +466,97 @@ class CartItemServiceTest {
 		// cartItem1 (bookId: 101L, quantity: 2L)
 		
 		List<Long> bookIdsToFetch = List.of(101L, 102L);
-		when(bookClient.getBooksByIds(bookIdsToFetch)).thenReturn(List.of(book1, book2));
-		
-		// 기존에 존재하는 아이템(book1)에 대한 Mocking
-		when(cartItemRepository.findByCart_CartIdAndBookId(cart.getCartId(), book1.getBookId())).thenReturn(cartItem1);
-		// 새로 추가될 아이템(book2)에 대한 Mocking
-		when(cartItemRepository.findByCart_CartIdAndBookId(cart.getCartId(), book2.getBookId())).thenReturn(null);
+		when(bookLookupService.getBooks(bookIdsToFetch)).thenReturn(Map.of(101L, book1, 102L, book2));
+		when(guestCartMergeRepository.insertIfAbsent("claim-1", "guest", cart.getCartId())).thenReturn(1);
 		
 		// when
-		cartItemService.mergeGuestItemsIntoMemberCart(guestItems, cart);
+		boolean merged = cartItemService.mergeGuestItemsIntoMemberCart(claimOf(guestItems), cart);
 		
 		// then
-		// save 메소드가 2번 호출되었는지 검증 (1번은 수량 업데이트, 1번은 신규 생성)
-		ArgumentCaptor<CartItem> captor = ArgumentCaptor.forClass(CartItem.class);
-		verify(cartItemRepository, times(2)).save(captor.capture());
+		assertThat(merged).isTrue();
+		// 아이템별 조회/저장 없이 upsertAll 한 번으로 반영되어야 함 (기존 수량 증가는 DB에서 처리)
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<Collection<CartItem>> captor = ArgumentCaptor.forClass(Collection.class);
+		verify(cartItemRepository, times(1)).upsertAll(captor.capture());
+		verify(cartItemRepository, never()).findByCart_CartIdAndBookId(anyLong(), anyLong());
+		verify(cartItemRepository, never()).save(any());
 		
-		List<CartItem> savedItems = captor.getAllValues();
+		List<CartItem> upsertedItems = List.copyOf(captor.getValue());
+		assertThat(upsertedItems).hasSize(2);
 		
-		// book1 (기존 아이템) 검증: 기존 수량(2) + 게스트 수량(1) = 3
-		CartItem updatedItem = savedItems.stream().filter(item -> item.getBookId().equals(book1.getBookId())).findFirst().orElseThrow();
-		assertThat(updatedItem.getQuantity()).isEqualTo(3L);
+		// book1: 게스트 수량(1)만큼 증가 요청
+		CartItem book1Item = upsertedItems.stream().filter(item -> item.getBookId().equals(book1.getBookId())).findFirst().orElseThrow();
+		assertThat(book1Item.getQuantity()).isEqualTo(1L);
 		
 		// book2 (신규 아이템) 검증: 게스트 수량(3)
-		CartItem newItem = savedItems.stream().filter(item -> item.getBookId().equals(book2.getBookId())).findFirst().orElseThrow();
+		CartItem newItem = upsertedItems.stream().filter(item -> item.getBookId().equals(book2.getBookId())).findFirst().orElseThrow();
 		assertThat(newItem.getQuantity()).isEqualTo(3L);
 		assertThat(newItem.getCart()).isEqualTo(cart);
 		assertThat(newItem.getSalePrice()).isEqualTo(book2.getSalePrice());
 	}
 	
+	@Test
+	@DisplayName("성공: 비회원 장바구니에 같은 도서가 여러 번 있으면 수량을 합쳐 한 행으로 반영한다")
+	void mergeGuestItemsIntoMemberCart_DuplicateBooks_AreSummed() {
+		// given
+		List<GuestCartItem> guestItems = List.of(new GuestCartItem(101L, 1L), new GuestCartItem(101L, 2L));
+		when(bookLookupService.getBooks(List.of(101L))).thenReturn(Map.of(101L, book1));
+		when(guestCartMergeRepository.insertIfAbsent("claim-1", "guest", cart.getCartId())).thenReturn(1);
+		
+		// when
+		cartItemService.mergeGuestItemsIntoMemberCart(claimOf(guestItems), cart);
+		
+		// then
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<Collection<CartItem>> captor = ArgumentCaptor.forClass(Collection.class);
+		verify(cartItemRepository).upsertAll(captor.capture());
+		assertThat(captor.getValue()).singleElement()
+				.satisfies(item -> assertThat(item.getQuantity()).isEqualTo(3L));
+	}
+	
+	@Test
+	@DisplayName("실패: 도서 서비스 장애로 대체한 도서 정보면 병합하지 않고 예외가 발생한다")
+	void mergeGuestItemsIntoMemberCart_WhenBookIsStale_ShouldNotPersist() {
+		// given
+		List<GuestCartItem> guestItems = List.of(new GuestCartItem(101L, 1L));
+		when(bookLookupService.getBooks(List.of(101L))).thenReturn(Map.of(101L, book1.asStale()));
+		when(guestCartMergeRepository.insertIfAbsent("claim-1", "guest", cart.getCartId())).thenReturn(1);
+		
+		// when & then
+		// 예외로 트랜잭션이 롤백되어 병합 기록도 남지 않고, 비회원 장바구니는 다음 로그인에서 다시 병합된다
+		assertThrows(BookServiceUnavailableException.class,
+				() -> cartItemService.mergeGuestItemsIntoMemberCart(claimOf(guestItems), cart));
+		verify(cartItemRepository, never()).upsertAll(any());
+	}
+	
+	@Test
+	@DisplayName("성공: 병합 기록은 잠금 읽기로 확인한다")
+	void isClaimMerged_UsesLockedRead() {
+		// given
+		when(guestCartMergeRepository.findLockedByClaimId("claim-1")).thenReturn(Optional.empty());
+		
+		// when & then
+		assertThat(cartItemService.isClaimMerged("claim-1")).isFalse();
+		verify(guestCartMergeRepository, never()).existsById(anyString());
+	}
+	
+	@Test
+	@DisplayName("성공: 이미 기록된 claim이면 도서 조회와 수량 반영 없이 false를 반환한다")
+	void mergeGuestItemsIntoMemberCart_AlreadyMergedClaim_IsNoOp() {
+		// given
+		when(guestCartMergeRepository.insertIfAbsent("claim-1", "guest", cart.getCartId())).thenReturn(0);
+		
+		// when
+		boolean merged = cartItemService.mergeGuestItemsIntoMemberCart(claimOf(List.of(new GuestCartItem(101L, 1L))), cart);
+		
+		// then
+		assertThat(merged).isFalse();
+		verify(bookLookupService, never()).getBooks(anyCollection());
+		verify(cartItemRepository, never()).upsertAll(any());
+	}
+	
+	private GuestCartClaim claimOf(List<GuestCartItem> items) {
+		return new GuestCartClaim("claim-1", new GuestCart("guest", items));
+	}
+	
 }
-
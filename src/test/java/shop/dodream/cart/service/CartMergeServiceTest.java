@@ -0,0 +1,210 @@
+package shop.dodream.cart.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import shop.dodream.cart.config.GuestCartProperties;
+import shop.dodream.cart.dto.GuestCart;
+import shop.dodream.cart.dto.GuestCartItem;
+import shop.dodream.cart.exception.MissingIdentifierException;
+import shop.dodream.cart.store.GuestCartClaim;
+import shop.dodream.cart.store.PendingCartMerge;
+import shop.dodream.cart.store.PendingCartMergeStore;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CartMergeService 단위 테스트")
+class CartMergeServiceTest {
+	
+	private static final long NOW = 1_000_000L;
+	private static final String USER_ID = "user";
+	private static final String GUEST_ID = "guest";
+	
+	@Mock
+	private CartService cartService;
+	@Mock
+	private GuestCartService guestCartService;
+	@Mock
+	private PendingCartMergeStore pendingCartMergeStore;
+	@Mock
+	private ScheduledExecutorService scheduler;
+	
+	private final List<Runnable> submitted = new ArrayList<>();
+	private SimpleMeterRegistry meterRegistry;
+	private GuestCartClaim claim;
+	
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		claim = new GuestCartClaim("claim-1", new GuestCart(GUEST_ID, List.of(new GuestCartItem(101L, 2L))));
+	}
+	
+	private CartMergeService service(boolean async) {
+		GuestCartProperties.Merge config = new GuestCartProperties.Merge();
+		config.setAsync(async);
+		config.setResumeAfter(Duration.ofSeconds(30));
+		return new CartMergeService(cartService, guestCartService, pendingCartMergeStore, submitted::add, config,
+				meterRegistry, scheduler, () -> NOW);
+	}
+	
+	private double count(String result) {
+		return meterRegistry.counter("cart.merge.async", "result", result).count();
+	}
+	
+	@Test
+	@DisplayName("비동기 모드가 꺼져 있으면 요청 안에서 병합한다")
+	void requestMerge_whenSync_mergesInline() {
+		// when
+		boolean queued = service(false).requestMerge(USER_ID, GUEST_ID);
+		
+		// then
+		assertThat(queued).isFalse();
+		verify(cartService).mergeCartOnLogin(USER_ID, GUEST_ID);
+		verifyNoInteractions(guestCartService, pendingCartMergeStore);
+	}
+	
+	@Test
+	@DisplayName("비동기 모드에서는 대기 기록을 남기고 반영은 작업 스레드에서 한다")
+	void requestMerge_whenAsync_savesPendingAndMergesLater() {
+		// given
+		CartMergeService service = service(true);
+		given(guestCartService.claimCart(GUEST_ID)).willReturn(claim);
+		
+		// when
+		boolean queued = service.requestMerge(USER_ID, GUEST_ID);
+		
+		// then
+		assertThat(queued).isTrue();
+		ArgumentCaptor<PendingCartMerge> pending = ArgumentCaptor.forClass(PendingCartMerge.class);
+		verify(pendingCartMergeStore).save(eq(USER_ID), pending.capture());
+		assertThat(pending.getValue().claimId()).isEqualTo("claim-1");
+		assertThat(pending.getValue().requestedAt()).isEqualTo(NOW);
+		verify(cartService, never()).mergeClaimedCart(anyString(), anyString(), any());
+		
+		submitted.get(0).run();
+		// 작업 스레드는 대기 기록으로 다시 만든 claim을 반영한다
+		verify(cartService).mergeClaimedCart(eq(USER_ID), eq(GUEST_ID), argThat(merged -> merged.claimId().equals("claim-1")));
+		verify(pendingCartMergeStore).remove(USER_ID, "claim-1");
+		assertThat(count("merged")).isEqualTo(1.0);
+	}
+	
+	@Test
+	@DisplayName("대기 기록 저장에 실패하면 요청 안에서 바로 병합한다")
+	void requestMerge_whenPendingSaveFails_mergesInline() {
+		// given
+		CartMergeService service = service(true);
+		given(guestCartService.claimCart(GUEST_ID)).willReturn(claim);
+		willThrow(new RedisConnectionFailureException("down")).given(pendingCartMergeStore).save(eq(USER_ID), any());
+		
+		// when
+		boolean queued = service.requestMerge(USER_ID, GUEST_ID);
+		
+		// then
+		assertThat(queued).isFalse();
+		assertThat(submitted).isEmpty();
+		verify(cartService).mergeClaimedCart(USER_ID, GUEST_ID, claim);
+	}
+	
+	@Test
+	@DisplayName("비회원 장바구니가 비어 있으면 예약하지 않고 정리만 한다")
+	void requestMerge_whenGuestCartEmpty_onlyCleansUp() {
+		// given
+		given(guestCartService.claimCart(GUEST_ID))
+				.willReturn(new GuestCartClaim("claim-1", new GuestCart(GUEST_ID, new ArrayList<>())));
+		
+		// when
+		boolean queued = service(true).requestMerge(USER_ID, GUEST_ID);
+		
+		// then
+		assertThat(queued).isFalse();
+		verify(guestCartService).deleteGuestCartAfterMerge(GUEST_ID, "claim-1");
+		verifyNoInteractions(pendingCartMergeStore);
+	}
+	
+	@Test
+	@DisplayName("ID가 없으면 예외를 던진다")
+	void requestMerge_whenIdMissing_throws() {
+		assertThatThrownBy(() -> service(true).requestMerge(USER_ID, " "))
+				.isInstanceOf(MissingIdentifierException.class);
+		verifyNoInteractions(guestCartService);
+	}
+	
+	@Test
+	@DisplayName("반영에 실패해도 대기 기록을 지워 조회에 두 번 보이지 않게 한다")
+	void merge_whenFails_removesPending() {
+		// given
+		CartMergeService service = service(true);
+		given(guestCartService.claimCart(GUEST_ID)).willReturn(claim);
+		willThrow(new IllegalStateException("db down")).given(cartService).mergeClaimedCart(eq(USER_ID), eq(GUEST_ID), any());
+		service.requestMerge(USER_ID, GUEST_ID);
+		
+		// when
+		submitted.get(0).run();
+		
+		// then
+		verify(pendingCartMergeStore).remove(USER_ID, "claim-1");
+		assertThat(count("failed")).isEqualTo(1.0);
+	}
+	
+	@Test
+	@DisplayName("오래 남은 대기 기록은 다시 반영하고, 기록이 사라진 항목은 색인에서 지운다")
+	void resume_resubmitsStalePendingMerges() {
+		// given
+		CartMergeService service = service(true);
+		PendingCartMerge pending = new PendingCartMerge(GUEST_ID, "claim-1", claim.cart().getItems(), 0L);
+		given(pendingCartMergeStore.requestedBefore(NOW - 30_000L, 100)).willReturn(List.of(
+				new PendingCartMergeStore.Entry(USER_ID, "claim-1"), new PendingCartMergeStore.Entry(USER_ID, "gone")));
+		given(pendingCartMergeStore.find(USER_ID, "claim-1")).willReturn(pending);
+		
+		// when
+		service.resume();
+		
+		// then
+		verify(pendingCartMergeStore).reindex(USER_ID, "claim-1", NOW);
+		verify(pendingCartMergeStore).reindex(USER_ID, "gone", null);
+		assertThat(submitted).hasSize(1);
+		assertThat(count("resumed")).isEqualTo(1.0);
+	}
+	
+	@Test
+	@DisplayName("같은 회원의 대기 기록이 여럿이면 claim마다 따로 다시 반영한다")
+	void resume_resubmitsEveryClaimOfSameUser() {
+		// given
+		CartMergeService service = service(true);
+		PendingCartMerge first = new PendingCartMerge(GUEST_ID, "claim-1", claim.cart().getItems(), 0L);
+		PendingCartMerge second = new PendingCartMerge("other-guest", "claim-2", claim.cart().getItems(), 0L);
+		given(pendingCartMergeStore.requestedBefore(NOW - 30_000L, 100)).willReturn(List.of(
+				new PendingCartMergeStore.Entry(USER_ID, "claim-1"), new PendingCartMergeStore.Entry(USER_ID, "claim-2")));
+		given(pendingCartMergeStore.find(USER_ID, "claim-1")).willReturn(first);
+		given(pendingCartMergeStore.find(USER_ID, "claim-2")).willReturn(second);
+		
+		// when
+		service.resume();
+		submitted.forEach(Runnable::run);
+		
+		// then
+		verify(cartService).mergeClaimedCart(eq(USER_ID), eq(GUEST_ID), argThat(merged -> merged.claimId().equals("claim-1")));
+		verify(cartService).mergeClaimedCart(eq(USER_ID), eq("other-guest"), argThat(merged -> merged.claimId().equals("claim-2")));
+		verify(pendingCartMergeStore).remove(USER_ID, "claim-1");
+		verify(pendingCartMergeStore).remove(USER_ID, "claim-2");
+	}
+}
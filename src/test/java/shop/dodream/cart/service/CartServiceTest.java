@@ -7,16 +7,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.dao.DataIntegrityViolationException;
+import shop.dodream.cart.dto.CartItemResponse;
 import shop.dodream.cart.dto.CartResponse;
 import shop.dodream.cart.dto.GuestCart;
 import shop.dodream.cart.dto.GuestCartItem;
 import shop.dodream.cart.entity.Cart;
+import shop.dodream.cart.exception.CartBusyException;
 import shop.dodream.cart.exception.DataNotFoundException;
 import shop.dodream.cart.exception.MissingIdentifierException;
 import shop.dodream.cart.repository.CartRepository;
+import shop.dodream.cart.store.GuestCartClaim;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -26,19 +31,25 @@ import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class CartServiceTest {
-
+	
 	@Mock
 	CartRepository cartRepository;
-
+	
 	@Mock
 	CartItemService cartItemService;
-
+	
 	@Mock
 	GuestCartService guestCartService;
-
+	
+	@Mock
+	Executor cartQueryExecutor;
+	
+	@Mock
+	ObjectProvider<CartService> self;
+	
 	@InjectMocks
 	CartService cartService;
-
+	
 	private final String userId = "user123";
 	private final String guestId = "guest456";
 	private final Long cartId = 1L;
@@ -95,7 +106,33 @@ class CartServiceTest {
 		verify(cartRepository, times(2)).findByUserId(userId);
 		verify(cartRepository, times(1)).save(any(Cart.class));
 	}
-
+	
+	@Test
+	@DisplayName("아이템 포함 조회 시 장바구니와 도서 정보가 채워진 아이템을 함께 반환한다")
+	void getUserCartWithItems_returnsCartWithItems() {
+		// given
+		Cart existingCart = new Cart(cartId, userId);
+		List<CartItemResponse> items = List.of(new CartItemResponse(10L, 101L, "Book 1", 10000L, 2L, "url1"));
+		// 테스트에서는 비동기 작업을 호출 스레드에서 바로 실행
+		doAnswer(invocation -> {
+			invocation.<Runnable>getArgument(0).run();
+			return null;
+		}).when(cartQueryExecutor).execute(any(Runnable.class));
+		given(cartRepository.findByUserId(userId)).willReturn(Optional.of(existingCart));
+		given(cartItemService.getCartItemsByUserId(userId)).willReturn(items);
+		given(self.getObject()).willReturn(cartService);
+		
+		// when
+		CartResponse response = cartService.getUserCartWithItems(userId);
+		
+		// then
+		assertThat(response.getCartId()).isEqualTo(cartId);
+		assertThat(response.getItems()).isEqualTo(items);
+		verify(cartItemService, never()).getCartItems(anyLong());
+		// 장바구니 조회/생성은 프록시를 거쳐 자체 트랜잭션에서 실행된다
+		verify(self).getObject();
+	}
+	
 	@Test
 	@DisplayName("삭제할 장바구니가 존재하면 성공적으로 삭제한다")
 	void whenCartExists_deletesSuccessfully() {
@@ -137,7 +174,8 @@ class CartServiceTest {
 		GuestCart guestCart = createGuestCart(List.of(new GuestCartItem(1L, 2L)));
 		Cart newMemberCart = new Cart(2L, userId);
 		
-		given(guestCartService.getRawCart(guestId)).willReturn(guestCart);
+		GuestCartClaim claim = new GuestCartClaim("claim-1", guestCart);
+		given(guestCartService.claimCart(guestId)).willReturn(claim);
 		given(cartRepository.findByUserId(userId)).willReturn(Optional.empty());
 		given(cartRepository.save(any(Cart.class))).willReturn(newMemberCart);
 		
@@ -146,8 +184,8 @@ class CartServiceTest {
 		
 		// then
 		verify(cartRepository).save(any(Cart.class));
-		verify(cartItemService).mergeGuestItemsIntoMemberCart(guestCart.getItems(), newMemberCart);
-		verify(guestCartService).deleteGuestCartWithRetry(guestId);
+		verify(cartItemService).mergeGuestItemsIntoMemberCart(claim, newMemberCart);
+		verify(guestCartService).deleteGuestCartAfterMerge(guestId, "claim-1");
 	}
 	
 	@Test
@@ -157,7 +195,8 @@ class CartServiceTest {
 		GuestCart guestCart = createGuestCart(List.of(new GuestCartItem(1L, 2L)));
 		Cart existingMemberCart = new Cart(5L, userId);
 		
-		given(guestCartService.getRawCart(guestId)).willReturn(guestCart);
+		GuestCartClaim claim = new GuestCartClaim("claim-1", guestCart);
+		given(guestCartService.claimCart(guestId)).willReturn(claim);
 		given(cartRepository.findByUserId(userId)).willReturn(Optional.of(existingMemberCart));
 		
 		// when
@@ -165,16 +204,16 @@ class CartServiceTest {
 		
 		// then
 		verify(cartRepository, never()).save(any(Cart.class));
-		verify(cartItemService).mergeGuestItemsIntoMemberCart(guestCart.getItems(), existingMemberCart);
-		verify(guestCartService).deleteGuestCartWithRetry(guestId);
+		verify(cartItemService).mergeGuestItemsIntoMemberCart(claim, existingMemberCart);
+		verify(guestCartService).deleteGuestCartAfterMerge(guestId, "claim-1");
 	}
 	
 	@Test
-	@DisplayName("비회원 장바구니가 비어있을 경우, 아무 작업도 수행하지 않는다")
-	void withEmptyGuestCart_doesNothing() {
+	@DisplayName("가져온 비회원 장바구니가 비어있을 경우, 병합 없이 가져온 장바구니만 정리한다")
+	void withEmptyGuestCart_onlyCleansUpClaim() {
 		// given
 		GuestCart emptyGuestCart = createGuestCart(List.of());
-		given(guestCartService.getRawCart(guestId)).willReturn(emptyGuestCart);
+		given(guestCartService.claimCart(guestId)).willReturn(new GuestCartClaim("claim-1", emptyGuestCart));
 		
 		// when
 		cartService.mergeCartOnLogin(userId, guestId);
@@ -182,14 +221,31 @@ class CartServiceTest {
 		// then
 		verify(cartRepository, never()).findByUserId(anyString());
 		verify(cartItemService, never()).mergeGuestItemsIntoMemberCart(any(), any());
-		verify(guestCartService, never()).deleteGuestCartWithRetry(anyString());
+		verify(guestCartService).deleteGuestCartAfterMerge(guestId, "claim-1");
 	}
 	
 	@Test
-	@DisplayName("비회원 장바구니가 null일 경우, 아무 작업도 수행하지 않는다")
-	void withNullGuestCart_doesNothing() {
+	@DisplayName("이미 반영한 claim을 다시 처리하면 수량을 더하지 않고 그 claim의 병합 중 키만 정리한다")
+	void whenClaimAlreadyMerged_cleansUpOnlyThatClaim() {
 		// given
-		given(guestCartService.getRawCart(guestId)).willReturn(null);
+		GuestCartClaim claim = new GuestCartClaim("claim-1", createGuestCart(List.of(new GuestCartItem(1L, 2L))));
+		Cart existingMemberCart = new Cart(5L, userId);
+		given(cartRepository.findByUserId(userId)).willReturn(Optional.of(existingMemberCart));
+		given(cartItemService.mergeGuestItemsIntoMemberCart(claim, existingMemberCart)).willReturn(false);
+		
+		// when
+		cartService.mergeClaimedCart(userId, guestId, claim);
+		
+		// then
+		verify(guestCartService).deleteGuestCartAfterMerge(guestId, "claim-1");
+		verify(guestCartService, never()).releaseClaim(anyString(), anyString());
+	}
+	
+	@Test
+	@DisplayName("가져올 비회원 장바구니가 없을 경우(다른 요청이 이미 가져감), 아무 작업도 수행하지 않는다")
+	void withNoClaim_doesNothing() {
+		// given
+		given(guestCartService.claimCart(guestId)).willReturn(null);
 		
 		// when
 		cartService.mergeCartOnLogin(userId, guestId);
@@ -197,7 +253,59 @@ class CartServiceTest {
 		// then
 		verify(cartRepository, never()).findByUserId(anyString());
 		verify(cartItemService, never()).mergeGuestItemsIntoMemberCart(any(), any());
-		verify(guestCartService, never()).deleteGuestCartWithRetry(anyString());
+		verify(guestCartService, never()).deleteGuestCartAfterMerge(anyString(), anyString());
+	}
+	
+	@Test
+	@DisplayName("병합 반영에 실패하면 가져온 비회원 장바구니를 되돌리고 예외를 그대로 던진다")
+	void whenMergeFails_releasesClaim() {
+		// given
+		GuestCartClaim claim = new GuestCartClaim("claim-1", createGuestCart(List.of(new GuestCartItem(1L, 2L))));
+		Cart existingMemberCart = new Cart(5L, userId);
+		given(guestCartService.claimCart(guestId)).willReturn(claim);
+		given(cartRepository.findByUserId(userId)).willReturn(Optional.of(existingMemberCart));
+		given(cartItemService.mergeGuestItemsIntoMemberCart(claim, existingMemberCart))
+				.willThrow(new DataNotFoundException("Book not found for ID: 1"));
+		
+		// when & then
+		assertThatThrownBy(() -> cartService.mergeCartOnLogin(userId, guestId))
+				.isInstanceOf(DataNotFoundException.class);
+		verify(guestCartService).releaseClaim(guestId, "claim-1");
+		verify(guestCartService, never()).deleteGuestCartAfterMerge(anyString(), anyString());
+	}
+	
+	@Test
+	@DisplayName("병합 반영에 실패해도 같은 claim을 다른 로그인이 이미 반영했으면 되돌리지 않는다")
+	void whenMergeFailsButClaimAlreadyMerged_doesNotRelease() {
+		// given
+		GuestCartClaim claim = new GuestCartClaim("claim-1", createGuestCart(List.of(new GuestCartItem(1L, 2L))));
+		Cart existingMemberCart = new Cart(5L, userId);
+		given(cartRepository.findByUserId(userId)).willReturn(Optional.of(existingMemberCart));
+		given(cartItemService.mergeGuestItemsIntoMemberCart(claim, existingMemberCart))
+				.willThrow(new CartBusyException("busy"));
+		given(cartItemService.isClaimMerged("claim-1")).willReturn(true);
+		
+		// when & then
+		assertThatThrownBy(() -> cartService.mergeClaimedCart(userId, guestId, claim))
+				.isInstanceOf(CartBusyException.class);
+		verify(guestCartService, never()).releaseClaim(anyString(), anyString());
+	}
+	
+	@Test
+	@DisplayName("병합 기록을 확인하지 못하면 되돌리지 않고 병합 중 키에 남겨 다음 로그인이 이어받게 한다")
+	void whenMergeFailsAndRecordCheckFails_doesNotRelease() {
+		// given
+		GuestCartClaim claim = new GuestCartClaim("claim-1", createGuestCart(List.of(new GuestCartItem(1L, 2L))));
+		Cart existingMemberCart = new Cart(5L, userId);
+		given(cartRepository.findByUserId(userId)).willReturn(Optional.of(existingMemberCart));
+		given(cartItemService.mergeGuestItemsIntoMemberCart(claim, existingMemberCart))
+				.willThrow(new DataNotFoundException("Book not found for ID: 1"));
+		given(cartItemService.isClaimMerged("claim-1")).willThrow(new IllegalStateException("db down"));
+		
+		// when & then
+		assertThatThrownBy(() -> cartService.mergeClaimedCart(userId, guestId, claim))
+				.isInstanceOf(DataNotFoundException.class);
+		verify(guestCartService, never()).releaseClaim(anyString(), anyString());
 	}
 	
 	@Test
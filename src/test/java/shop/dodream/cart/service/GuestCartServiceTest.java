@@ -1,29 +1,26 @@
 package shop.dodream.cart.service;
 
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
-import shop.dodream.cart.client.BookClient;
+import shop.dodream.cart.config.GuestCartProperties;
 import shop.dodream.cart.dto.*;
 import shop.dodream.cart.exception.DataNotFoundException;
 import shop.dodream.cart.exception.InvalidQuantityException;
+import shop.dodream.cart.store.GuestCartCleanupQueue;
+import shop.dodream.cart.store.GuestCartOperation;
+import shop.dodream.cart.store.GuestCartStore;
 
-import java.time.Duration;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.stream.LongStream;
+import java.util.Map;
 
-import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,34 +28,24 @@ import static org.mockito.Mockito.*;
 class GuestCartServiceTest {
 	
 	@Mock
-	private RedisTemplate<String, GuestCart> redisTemplate;
+	private GuestCartStore guestCartStore;
+	@Spy
+	private GuestCartProperties guestCartProperties = new GuestCartProperties();
 	@Mock
-	private BookClient bookClient;
+	private BookLookupService bookLookupService;
 	@Mock
-	private ValueOperations<String, GuestCart> valueOperations;
+	private GuestCartCleanupQueue guestCartCleanupQueue;
 	
 	@InjectMocks
 	private GuestCartService guestCartService;
 	
-	@Captor
-	private ArgumentCaptor<GuestCart> cartCaptor;
-	
 	private final String guestId = "guest123";
-	private final String redisKey = "guest_cart:guest123";
-	private final Duration CART_EXPIRATION = Duration.ofDays(30);
-	
-	@BeforeEach
-	void setUp() {
-		// Mockito.lenient()를 사용하여 불필요한 엄격한 stubbing 검사를 완화합니다.
-		// 모든 테스트에서 redisTemplate.opsForValue()가 호출될 수 있기 때문에 공통으로 설정합니다.
-		lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-	}
 	
 	@Test
 	@DisplayName("Redis에 장바구니가 없으면 빈 장바구니 응답을 반환한다")
 	void getCart_whenNotExists_returnsEmptyResponse() {
 		// given
-		given(valueOperations.get(redisKey)).willReturn(null);
+		given(guestCartStore.find(guestId)).willReturn(null);
 		
 		// when
 		GuestCartResponse response = guestCartService.getCart(guestId);
@@ -66,7 +53,7 @@ class GuestCartServiceTest {
 		// then
 		assertThat(response.getGuestId()).isEqualTo(guestId);
 		assertThat(response.getItems()).isEmpty();
-		verify(bookClient, never()).getBooksByIds(anyList());
+		verify(bookLookupService, never()).getBooks(anyCollection());
 	}
 	
 	@Test
@@ -75,8 +62,8 @@ class GuestCartServiceTest {
 		// given
 		GuestCart cart = new GuestCart(guestId, List.of(new GuestCartItem(1L, 2L)));
 		BookListResponseRecord book = new BookListResponseRecord(1L, "Test Book", 3000L, "url");
-		given(valueOperations.get(redisKey)).willReturn(cart);
-		given(bookClient.getBooksByIds(List.of(1L))).willReturn(List.of(book));
+		given(guestCartStore.find(guestId)).willReturn(cart);
+		given(bookLookupService.getBooks(List.of(1L))).willReturn(Map.of(1L, book));
 		
 		// when
 		GuestCartResponse response = guestCartService.getCart(guestId);
@@ -93,8 +80,8 @@ class GuestCartServiceTest {
 	void getCart_whenBookClientFails_returnsResponseWithNullBookInfo() {
 		// given
 		GuestCart cart = new GuestCart(guestId, List.of(new GuestCartItem(1L, 2L)));
-		given(valueOperations.get(redisKey)).willReturn(cart);
-		given(bookClient.getBooksByIds(anyList())).willThrow(new RuntimeException("Feign client error"));
+		given(guestCartStore.find(guestId)).willReturn(cart);
+		given(bookLookupService.getBooks(anyCollection())).willThrow(new RuntimeException("Feign client error"));
 		
 		// when
 		GuestCartResponse response = guestCartService.getCart(guestId);
@@ -111,7 +98,7 @@ class GuestCartServiceTest {
 	void getRawCart_returnsRawCartObject() {
 		// given
 		GuestCart cart = new GuestCart(guestId, List.of(new GuestCartItem(1L, 2L)));
-		given(valueOperations.get(redisKey)).willReturn(cart);
+		given(guestCartStore.find(guestId)).willReturn(cart);
 		
 		// when
 		GuestCart result = guestCartService.getRawCart(guestId);
@@ -140,52 +127,31 @@ class GuestCartServiceTest {
 	}
 	
 	@Test
-	@DisplayName("새로운 아이템을 추가하면 수량이 20을 넘을 경우 20으로 제한된다")
-	void addCartItem_whenNewAndQuantityOverMax_capsAtMax() {
+	@DisplayName("아이템 추가는 저장소에 위임하고 변경된 장바구니로 응답한다")
+	void addCartItem_delegatesToStoreAndBuildsResponse() {
 		// given
-		GuestCartItemRequest request = new GuestCartItemRequest(1L, 25L); // 20 초과
-		given(valueOperations.get(redisKey)).willReturn(new GuestCart(guestId, new ArrayList<>()));
-		given(bookClient.getBooksByIds(anyList())).willReturn(Collections.emptyList());
-		
-		// when
-		guestCartService.addCartItem(guestId, request);
-		
-		// then
-		verify(valueOperations).set(eq(redisKey), cartCaptor.capture(), eq(CART_EXPIRATION));
-		GuestCart savedCart = cartCaptor.getValue();
-		assertThat(savedCart.getItems().get(0).getQuantity()).isEqualTo(20L);
-	}
-	
-	@Test
-	@DisplayName("기존 아이템에 수량을 더할 때 20을 넘으면 20으로 제한된다")
-	void addCartItem_whenExistingAndSumOverMax_capsAtMax() {
-		// given
-		GuestCartItem existingItem = new GuestCartItem(1L, 15L);
-		GuestCart cart = new GuestCart(guestId, new ArrayList<>(List.of(existingItem)));
-		GuestCartItemRequest request = new GuestCartItemRequest(1L, 10L); // 15 + 10 = 25
-		given(valueOperations.get(redisKey)).willReturn(cart);
-		given(bookClient.getBooksByIds(anyList())).willReturn(Collections.emptyList());
+		GuestCartItemRequest request = new GuestCartItemRequest(1L, 2L);
+		BookListResponseRecord book = new BookListResponseRecord(1L, "Test Book", 3000L, "url");
+		given(guestCartStore.addItem(guestId, 1L, 2L)).willReturn(new GuestCart(guestId, List.of(new GuestCartItem(1L, 2L))));
+		given(bookLookupService.getBooks(List.of(1L))).willReturn(Map.of(1L, book));
 		
 		// when
-		guestCartService.addCartItem(guestId, request);
+		GuestCartResponse response = guestCartService.addCartItem(guestId, request);
 		
 		// then
-		verify(valueOperations).set(eq(redisKey), cartCaptor.capture(), eq(CART_EXPIRATION));
-		GuestCart savedCart = cartCaptor.getValue();
-		assertThat(savedCart.getItems().get(0).getQuantity()).isEqualTo(20L);
+		assertThat(response.getItems()).hasSize(1);
+		assertThat(response.getItems().get(0).getQuantity()).isEqualTo(2L);
+		assertThat(response.getItems().get(0).getTitle()).isEqualTo("Test Book");
+		verify(guestCartStore, never()).find(anyString());
 	}
 	
 	@Test
-	@DisplayName("장바구니가 가득 찼을 때 새 아이템 추가 시 예외를 던진다")
+	@DisplayName("장바구니가 가득 찼을 때 저장소의 예외를 그대로 던진다")
 	void addCartItem_whenCartIsFull_throwsException() {
 		// given
-		List<GuestCartItem> fullItems = LongStream.range(1, 21)
-				                                .mapToObj(i -> new GuestCartItem(i, 1L))
-				                                .collect(toList());
-		GuestCart cart = new GuestCart(guestId, fullItems);
-		given(valueOperations.get(redisKey)).willReturn(cart);
-		
 		GuestCartItemRequest request = new GuestCartItemRequest(21L, 1L); // 21번째 아이템
+		given(guestCartStore.addItem(guestId, 21L, 1L))
+				.willThrow(new InvalidQuantityException("장바구니는 최대 20개까지만 담을 수 있습니다."));
 		
 		// when & then
 		assertThatThrownBy(() -> guestCartService.addCartItem(guestId, request))
@@ -208,7 +174,8 @@ class GuestCartServiceTest {
 	@DisplayName("변경할 아이템이 장바구니에 없으면 예외를 던진다")
 	void updateQuantity_whenItemNotFound_throwsException() {
 		// given
-		given(valueOperations.get(redisKey)).willReturn(new GuestCart(guestId, new ArrayList<>()));
+		given(guestCartStore.updateQuantity(guestId, 1L, 5L))
+				.willThrow(new DataNotFoundException("해당 도서가 장바구니에 존재하지 않습니다."));
 		
 		// when & then
 		assertThatThrownBy(() -> guestCartService.updateQuantity(guestId, 1L, 5L))
@@ -220,92 +187,92 @@ class GuestCartServiceTest {
 	@DisplayName("성공적으로 아이템 수량을 변경한다")
 	void updateQuantity_success() {
 		// given
-		GuestCart cart = new GuestCart(guestId, new ArrayList<>(List.of(new GuestCartItem(1L, 2L))));
-		given(valueOperations.get(redisKey)).willReturn(cart);
-		given(bookClient.getBooksByIds(anyList())).willReturn(Collections.emptyList());
+		given(guestCartStore.updateQuantity(guestId, 1L, 10L))
+				.willReturn(new GuestCart(guestId, List.of(new GuestCartItem(1L, 10L))));
+		given(bookLookupService.getBooks(anyCollection())).willReturn(Map.of());
 		
 		// when
-		guestCartService.updateQuantity(guestId, 1L, 10L);
+		GuestCartResponse response = guestCartService.updateQuantity(guestId, 1L, 10L);
 		
 		// then
-		verify(valueOperations).set(eq(redisKey), cartCaptor.capture(), eq(CART_EXPIRATION));
-		GuestCart savedCart = cartCaptor.getValue();
-		assertThat(savedCart.getItems().get(0).getQuantity()).isEqualTo(10L);
+		assertThat(response.getItems().get(0).getQuantity()).isEqualTo(10L);
 	}
 	
-	
 	@Test
-	@DisplayName("removeItem은 특정 아이템을 장바구니에서 제거한다")
+	@DisplayName("removeItem은 저장소에서 특정 아이템을 제거한다")
 	void removeItem_removesItemFromCart() {
-		// given
-		GuestCartItem itemToRemove = new GuestCartItem(1L, 2L);
-		GuestCartItem itemToKeep = new GuestCartItem(2L, 1L);
-		GuestCart cart = new GuestCart(guestId, new ArrayList<>(List.of(itemToRemove, itemToKeep)));
-		given(valueOperations.get(redisKey)).willReturn(cart);
-		
 		// when
 		guestCartService.removeItem(guestId, 1L);
 		
 		// then
-		verify(valueOperations).set(eq(redisKey), cartCaptor.capture(), eq(CART_EXPIRATION));
-		GuestCart savedCart = cartCaptor.getValue();
-		assertThat(savedCart.getItems()).hasSize(1);
-		assertThat(savedCart.getItems().get(0).getBookId()).isEqualTo(2L);
+		verify(guestCartStore).removeItem(guestId, 1L);
 	}
 	
 	@Test
-	@DisplayName("deleteCart는 Redis에서 해당 키를 삭제한다")
+	@DisplayName("deleteCart는 저장소에서 장바구니를 삭제한다")
 	void deleteCart_deletesKeyFromRedis() {
 		// when
 		guestCartService.deleteCart(guestId);
 		// then
-		verify(redisTemplate).delete(redisKey);
+		verify(guestCartStore).delete(guestId);
 	}
 	
 	@Test
-	@DisplayName("첫 시도에 성공하면 1번만 호출한다")
-	void deleteWithRetry_succeedsOnFirstTry() {
-		// given
-		given(redisTemplate.delete(redisKey)).willReturn(true);
+	@DisplayName("병합 후 삭제는 저장소를 직접 호출하지 않고 재시도 큐에 넘긴다")
+	void deleteGuestCartAfterMerge_enqueuesWithoutDeleting() {
 		// when
-		guestCartService.deleteGuestCartWithRetry(guestId);
+		guestCartService.deleteGuestCartAfterMerge(guestId, "claim-1");
 		// then
-		verify(redisTemplate, times(1)).delete(redisKey);
+		verify(guestCartCleanupQueue).enqueue(guestId, "claim-1");
+		verify(guestCartStore, never()).delete(anyString());
 	}
 	
 	@Test
-	@DisplayName("재시도 후 성공하면 성공할 때까지 호출한다")
-	void deleteWithRetry_succeedsOnRetry() {
+	@DisplayName("releaseClaim은 되돌리기에 실패해도 예외를 던지지 않는다 (병합 중 키를 다음 로그인이 이어받는다)")
+	void releaseClaim_whenStoreFails_doesNotThrow() {
 		// given
-		given(redisTemplate.delete(redisKey)).willReturn(false, true); // 첫 실패, 두 번째 성공
+		willThrow(new RuntimeException("Connection error")).given(guestCartStore).releaseClaim(guestId, "claim-1");
 		// when
-		guestCartService.deleteGuestCartWithRetry(guestId);
+		guestCartService.releaseClaim(guestId, "claim-1");
 		// then
-		verify(redisTemplate, times(2)).delete(redisKey);
+		verify(guestCartStore).releaseClaim(guestId, "claim-1");
 	}
 	
 	@Test
-	@DisplayName("최대 재시도 횟수까지 실패하면 3번 호출한다")
-	void deleteWithRetry_failsAfterMaxRetries() {
+	@DisplayName("일괄 변경은 저장소를 한 번 호출하고 도서 정보도 한 번만 조회한다")
+	void applyOperations_callsStoreAndBookLookupOnce() {
 		// given
-		given(redisTemplate.delete(redisKey)).willReturn(false);
+		GuestCartBulkRequest request = new GuestCartBulkRequest(List.of(
+				new GuestCartOperationRequest(GuestCartOperationType.ADD, 1L, 2L),
+				new GuestCartOperationRequest(GuestCartOperationType.UPDATE, 2L, 5L),
+				new GuestCartOperationRequest(GuestCartOperationType.REMOVE, 3L, null)));
+		GuestCart cart = new GuestCart(guestId, List.of(new GuestCartItem(1L, 2L), new GuestCartItem(2L, 5L)));
+		given(guestCartStore.applyAll(eq(guestId), anyList())).willReturn(cart);
+		given(bookLookupService.getBooks(List.of(1L, 2L))).willReturn(Map.of());
+		
 		// when
-		guestCartService.deleteGuestCartWithRetry(guestId);
+		GuestCartResponse response = guestCartService.applyOperations(guestId, request);
+		
 		// then
-		verify(redisTemplate, times(3)).delete(redisKey);
+		assertThat(response.getItems()).hasSize(2);
+		verify(guestCartStore).applyAll(guestId, List.of(
+				new GuestCartOperation(GuestCartOperationType.ADD, 1L, 2L),
+				new GuestCartOperation(GuestCartOperationType.UPDATE, 2L, 5L),
+				new GuestCartOperation(GuestCartOperationType.REMOVE, 3L, 0L)));
+		verify(bookLookupService, times(1)).getBooks(anyCollection());
 	}
 	
 	@Test
-	@DisplayName("삭제 중 예외가 발생하면 재시도한다")
-	void deleteWithRetry_retriesAfterException() {
+	@DisplayName("일괄 변경 중 하나라도 수량 범위를 벗어나면 저장소를 호출하지 않는다")
+	void applyOperations_whenAnyQuantityInvalid_throwsBeforeStore() {
 		// given
-		given(redisTemplate.delete(redisKey))
-				.willThrow(new RuntimeException("Connection error"))
-				.willReturn(true);
-		// when
-		guestCartService.deleteGuestCartWithRetry(guestId);
-		// then
-		verify(redisTemplate, times(2)).delete(redisKey);
+		GuestCartBulkRequest request = new GuestCartBulkRequest(List.of(
+				new GuestCartOperationRequest(GuestCartOperationType.ADD, 1L, 2L),
+				new GuestCartOperationRequest(GuestCartOperationType.UPDATE, 2L, 21L)));
+		
+		// when & then
+		assertThatThrownBy(() -> guestCartService.applyOperations(guestId, request))
+				.isInstanceOf(InvalidQuantityException.class);
+		verify(guestCartStore, never()).applyAll(anyString(), anyList());
 	}
-	
-}
\ No newline at end of file
+}
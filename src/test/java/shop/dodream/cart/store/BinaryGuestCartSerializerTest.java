@@ -0,0 +1,77 @@
+package shop.dodream.cart.store;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import shop.dodream.cart.dto.GuestCart;
+import shop.dodream.cart.dto.GuestCartItem;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("BinaryGuestCartSerializer 단위 테스트")
+class BinaryGuestCartSerializerTest {
+	
+	private final BinaryGuestCartSerializer serializer = new BinaryGuestCartSerializer();
+	
+	@Test
+	@DisplayName("직렬화 후 역직렬화하면 같은 장바구니가 된다")
+	void roundTrip_preservesCart() {
+		// given
+		GuestCart cart = new GuestCart("guest-123", List.of(new GuestCartItem(1L, 2L), new GuestCartItem(300_000L, 20L)));
+		
+		// when
+		GuestCart result = serializer.deserialize(serializer.serialize(cart));
+		
+		// then
+		assertThat(result.getGuestId()).isEqualTo("guest-123");
+		assertThat(result.getItems()).extracting(GuestCartItem::getBookId).containsExactly(1L, 300_000L);
+		assertThat(result.getItems()).extracting(GuestCartItem::getQuantity).containsExactly(2L, 20L);
+	}
+	
+	@Test
+	@DisplayName("버전 헤더가 없는 이전 JSON 값도 읽을 수 있다")
+	void deserialize_readsLegacyJson() {
+		// given
+		GuestCart cart = new GuestCart("guest-123", List.of(new GuestCartItem(7L, 3L)));
+		byte[] json = new Jackson2JsonRedisSerializer<>(GuestCart.class).serialize(cart);
+		
+		// when
+		GuestCart result = serializer.deserialize(json);
+		
+		// then
+		assertThat(result.getGuestId()).isEqualTo("guest-123");
+		assertThat(result.getItems()).extracting(GuestCartItem::getBookId).containsExactly(7L);
+	}
+	
+	@Test
+	@DisplayName("JSON보다 훨씬 작은 크기로 저장된다")
+	void serialize_isSmallerThanJson() {
+		// given
+		GuestCart cart = new GuestCart("guest-123", List.of(new GuestCartItem(1234L, 2L), new GuestCartItem(5678L, 1L)));
+		
+		// when
+		byte[] binary = serializer.serialize(cart);
+		byte[] json = new Jackson2JsonRedisSerializer<>(GuestCart.class).serialize(cart);
+		
+		// then
+		assertThat(binary[0]).isEqualTo(BinaryGuestCartSerializer.VERSION_1);
+		assertThat(binary.length * 4).isLessThan(json.length);
+	}
+	
+	@Test
+	@DisplayName("잘린 데이터는 SerializationException을 던진다")
+	void deserialize_whenTruncated_throwsException() {
+		// given
+		byte[] bytes = serializer.serialize(new GuestCart("guest-123", List.of(new GuestCartItem(1234L, 2L))));
+		byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+		
+		// when & then
+		assertThatThrownBy(() -> serializer.deserialize(truncated))
+				.isInstanceOf(SerializationException.class);
+	}
+}
@@ -0,0 +1,251 @@
+package shop.dodream.cart.store;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import shop.dodream.cart.dto.GuestCart;
+import shop.dodream.cart.dto.GuestCartItem;
+import shop.dodream.cart.util.GuestIdUtil;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CookieGuestCartStore 단위 테스트")
+class CookieGuestCartStoreTest {
+	
+	@Mock
+	private GuestCartStore delegate;
+	
+	private final String guestId = "guest123";
+	private final SignedGuestCartCookieCodec codec = new SignedGuestCartCookieCodec("test-secret");
+	
+	private MockHttpServletRequest request;
+	private MockHttpServletResponse response;
+	private CookieGuestCartStore store;
+	
+	@BeforeEach
+	void setUp() {
+		request = new MockHttpServletRequest();
+		response = new MockHttpServletResponse();
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+		store = newStore(3072);
+	}
+	
+	@AfterEach
+	void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+	
+	@Test
+	@DisplayName("서명이 맞는 쿠키가 있으면 Redis를 조회하지 않는다")
+	void find_withValidCookie_skipsDelegate() {
+		// given
+		request.setCookies(new Cookie(GuestIdUtil.CART_COOKIE_NAME, cookie(cart(guestId, 1L, 2L))));
+		
+		// when
+		GuestCart result = store.find(guestId);
+		
+		// then
+		assertThat(result.getItems()).extracting(GuestCartItem::getBookId).containsExactly(1L);
+		verifyNoInteractions(delegate);
+	}
+	
+	@Test
+	@DisplayName("서명이 변조되었거나 다른 비회원의 쿠키는 무시하고 Redis에서 조회한다")
+	void find_withTamperedOrForeignCookie_fallsBackToDelegate() {
+		// given
+		String value = cookie(cart(guestId, 1L, 2L));
+		String tampered = cookie(cart(guestId, 1L, 20L)).split("\\.")[0] + value.substring(value.indexOf('.'));
+		request.setCookies(new Cookie(GuestIdUtil.CART_COOKIE_NAME, tampered));
+		
+		// when
+		store.find(guestId);
+		request.setCookies(new Cookie(GuestIdUtil.CART_COOKIE_NAME, cookie(cart("other", 1L, 2L))));
+		store.find(guestId);
+		
+		// then
+		verify(delegate, times(2)).find(guestId);
+	}
+	
+	@Test
+	@DisplayName("상품 추가 결과는 쿠키에 저장하고 같은 요청의 조회는 새 값을 본다")
+	void addItem_writesCookie() {
+		// when
+		store.addItem(guestId, 1L, 2L);
+		GuestCart result = store.find(guestId);
+		
+		// then
+		assertThat(result.getItems()).extracting(GuestCartItem::getQuantity).containsExactly(2L);
+		assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).startsWith(GuestIdUtil.CART_COOKIE_NAME + "=")
+				.contains("HttpOnly");
+		verify(delegate, never()).replace(any());
+	}
+	
+	@Test
+	@DisplayName("Redis에 있던 장바구니를 변경하면 쿠키로 옮기고 Redis 사본은 삭제한다")
+	void addItem_movesStoredCartIntoCookie() {
+		// given
+		given(delegate.find(guestId)).willReturn(cart(guestId, 1L, 1L));
+		
+		// when
+		GuestCart result = store.addItem(guestId, 2L, 1L);
+		
+		// then
+		assertThat(result.getItems()).hasSize(2);
+		assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).isNotNull();
+		verify(delegate).delete(guestId);
+	}
+	
+	@Test
+	@DisplayName("쿠키 크기를 넘는 장바구니는 Redis에 저장하고 쿠키를 비운다")
+	void addItem_whenCookieTooLarge_overflowsToDelegate() {
+		// given
+		store = newStore(10);
+		request.setCookies(new Cookie(GuestIdUtil.CART_COOKIE_NAME, cookie(cart(guestId, 1L, 1L))));
+		
+		// when
+		store.addItem(guestId, 2L, 1L);
+		store.find(guestId);
+		
+		// then
+		verify(delegate).replace(argThat(cart -> cart.getItems().size() == 2));
+		verify(delegate).find(guestId);
+		assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).contains("Max-Age=0");
+	}
+	
+	@Test
+	@DisplayName("삭제 시 쿠키와 Redis를 함께 비운다")
+	void delete_clearsCookieAndDelegate() {
+		// given
+		request.setCookies(new Cookie(GuestIdUtil.CART_COOKIE_NAME, cookie(cart(guestId, 1L, 1L))));
+		
+		// when
+		boolean deleted = store.delete(guestId);
+		
+		// then
+		assertThat(deleted).isTrue();
+		verify(delegate).delete(guestId);
+		assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).contains("Max-Age=0");
+	}
+	
+	@Test
+	@DisplayName("요청 밖에서 호출하면 안쪽 저장소를 그대로 사용한다")
+	void outsideRequest_delegates() {
+		// given
+		RequestContextHolder.resetRequestAttributes();
+		
+		// when
+		store.addItem(guestId, 1L, 1L);
+		
+		// then
+		verify(delegate).addItem(guestId, 1L, 1L);
+	}
+	
+	@Test
+	@DisplayName("쿠키 장바구니를 claim하면 쿠키를 비우고, 같은 쿠키로 다시 claim하면 같은 claimId를 받는다")
+	void claim_fromCookie_clearsCookieWithStableClaimId() {
+		// given
+		Cookie cookie = new Cookie(GuestIdUtil.CART_COOKIE_NAME, cookie(cart(guestId, 1L, 2L)));
+		request.setCookies(cookie);
+		
+		// when
+		GuestCartClaim first = store.claim(guestId);
+		MockHttpServletRequest retry = new MockHttpServletRequest();
+		retry.setCookies(cookie);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(retry, new MockHttpServletResponse()));
+		GuestCartClaim second = store.claim(guestId);
+		
+		// then
+		assertThat(first.cart().getItems()).extracting(GuestCartItem::getBookId).containsExactly(1L);
+		assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).contains("Max-Age=0");
+		assertThat(second.claimId()).isEqualTo(first.claimId());
+		verifyNoInteractions(delegate);
+	}
+	
+	@Test
+	@DisplayName("가져간 뒤 새로 만든 쿠키 장바구니는 내용이 같아도 다른 claimId를 받는다")
+	void claim_afterRebuildingSameCart_getsNewClaimId() {
+		// given
+		request.setCookies(new Cookie(GuestIdUtil.CART_COOKIE_NAME, cookie(cart(guestId, 1L, 2L))));
+		GuestCartClaim first = store.claim(guestId);
+		
+		// 쿠키를 비운 뒤 같은 도서를 같은 수량으로 다시 담는다
+		MockHttpServletRequest next = new MockHttpServletRequest();
+		MockHttpServletResponse nextResponse = new MockHttpServletResponse();
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(next, nextResponse));
+		store.addItem(guestId, 1L, 2L);
+		Cookie rebuilt = nextResponse.getCookie(GuestIdUtil.CART_COOKIE_NAME);
+		
+		// when
+		MockHttpServletRequest login = new MockHttpServletRequest();
+		login.setCookies(rebuilt);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(login, new MockHttpServletResponse()));
+		GuestCartClaim second = store.claim(guestId);
+		
+		// then
+		assertThat(second.cart().getItems()).extracting(GuestCartItem::getQuantity).containsExactly(2L);
+		assertThat(second.claimId()).isNotEqualTo(first.claimId());
+	}
+	
+	@Test
+	@DisplayName("쿠키에서 가져간 장바구니를 되돌리면 쿠키를 다시 쓴다")
+	void releaseClaim_fromCookie_rewritesCookie() {
+		// given
+		request.setCookies(new Cookie(GuestIdUtil.CART_COOKIE_NAME, cookie(cart(guestId, 1L, 2L))));
+		GuestCartClaim claim = store.claim(guestId);
+		
+		// when
+		boolean released = store.releaseClaim(guestId, claim.claimId());
+		
+		// then
+		assertThat(released).isTrue();
+		assertThat(store.find(guestId).getItems()).extracting(GuestCartItem::getBookId).containsExactly(1L);
+		verify(delegate, never()).releaseClaim(anyString(), anyString());
+	}
+	
+	@Test
+	@DisplayName("쿠키에서 가져간 장바구니라도 다른 claim을 되돌리면 쿠키를 쓰지 않고 안쪽 저장소에 넘긴다")
+	void releaseClaim_withOtherClaimId_delegates() {
+		// given
+		request.setCookies(new Cookie(GuestIdUtil.CART_COOKIE_NAME, cookie(cart(guestId, 1L, 2L))));
+		store.claim(guestId);
+		
+		// when
+		store.releaseClaim(guestId, "other-claim");
+		
+		// then
+		verify(delegate).releaseClaim(guestId, "other-claim");
+		assertThat(response.getHeader(HttpHeaders.SET_COOKIE)).contains("Max-Age=0");
+	}
+	
+	private CookieGuestCartStore newStore(int maxCookieSize) {
+		return new CookieGuestCartStore(delegate, codec, new GuestIdUtil(), 20, maxCookieSize,
+				Duration.ofDays(30), true, new SimpleMeterRegistry());
+	}
+	
+	private String cookie(GuestCart cart) {
+		return codec.encode(new SignedGuestCartCookieCodec.CookieCart(SignedGuestCartCookieCodec.newNonce(), cart));
+	}
+	
+	private GuestCart cart(String guestId, Long bookId, Long quantity) {
+		return new GuestCart(guestId, new ArrayList<>(List.of(new GuestCartItem(bookId, quantity))));
+	}
+}
@@ -0,0 +1,177 @@
+package shop.dodream.cart.store;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import shop.dodream.cart.dto.GuestCart;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExistenceFilterGuestCartStore 단위 테스트")
+class ExistenceFilterGuestCartStoreTest {
+	
+	@Mock
+	private GuestCartStore delegate;
+	@Mock
+	private StringRedisTemplate redisTemplate;
+	@Mock
+	private ScheduledExecutorService scheduler;
+	
+	private ExistenceFilterGuestCartStore store;
+	
+	@BeforeEach
+	void setUp() {
+		store = new ExistenceFilterGuestCartStore(delegate, () -> null, redisTemplate, 1000, 0.01,
+				Duration.ofHours(6), new SimpleMeterRegistry(), scheduler);
+	}
+	
+	@Test
+	@DisplayName("필터가 준비되기 전에는 모든 조회를 저장소로 보낸다")
+	void find_beforeReady_delegates() {
+		// when
+		store.find("guest123");
+		
+		// then
+		assertThat(store.isReady()).isFalse();
+		verify(delegate).find("guest123");
+	}
+	
+	@Test
+	@DisplayName("SCAN으로 구성한 필터에 없는 ID는 Redis를 조회하지 않는다")
+	void find_whenNeverWritten_skipsDelegate() {
+		// given
+		given(delegate.find("guest123")).willReturn(new GuestCart("guest123", new ArrayList<>()));
+		store.onSubscribed();
+		store.rebuild(List.of("guest_cart:{guest123}", "guest_cart:legacy", "guest_cart:{guest123}:merging").iterator());
+		
+		// when
+		GuestCart existing = store.find("guest123");
+		GuestCart legacy = store.find("legacy");
+		GuestCart unknown = store.find("unknown");
+		
+		// then
+		assertThat(existing).isNotNull();
+		assertThat(unknown).isNull();
+		verify(delegate).find("legacy");
+		verify(delegate, never()).find("unknown");
+		assertThat(store.delete("unknown")).isFalse();
+		verify(delegate, never()).delete("unknown");
+	}
+	
+	@Test
+	@DisplayName("이 노드에서 쓴 ID는 필터에 넣고 다른 노드에 발행한다")
+	void addItem_recordsAndPublishes() {
+		// given
+		readyWithNoKeys();
+		
+		// when
+		store.addItem("guest123", 1L, 1L);
+		store.find("guest123");
+		
+		// then
+		verify(redisTemplate).convertAndSend(ExistenceFilterGuestCartStore.CHANNEL, "guest123");
+		verify(delegate).find("guest123");
+	}
+	
+	@Test
+	@DisplayName("병합 중 키만 남은 비회원도 재구성한 필터에 넣는다")
+	void rebuild_includesMergingKeys() {
+		// given
+		store.onSubscribed();
+		store.rebuild(List.of("guest_cart:{merging}:merging", "guest_cart:{claimed}:claim").iterator());
+		
+		// when
+		store.find("merging");
+		store.find("claimed");
+		
+		// then
+		verify(delegate).find("merging");
+		verify(delegate, never()).find("claimed");
+	}
+	
+	@Test
+	@DisplayName("되돌린 claim의 장바구니는 필터에 넣고 다른 노드에 발행한다, 되돌리지 못했으면 기록하지 않는다")
+	void releaseClaim_whenReleased_recordsAndPublishes() {
+		// given
+		readyWithNoKeys();
+		given(delegate.releaseClaim("guest123", "claim-1")).willReturn(true);
+		given(delegate.releaseClaim("other", "claim-2")).willReturn(false);
+		
+		// when
+		store.releaseClaim("guest123", "claim-1");
+		store.releaseClaim("other", "claim-2");
+		store.find("guest123");
+		
+		// then
+		verify(redisTemplate).convertAndSend(ExistenceFilterGuestCartStore.CHANNEL, "guest123");
+		verify(redisTemplate, never()).convertAndSend(ExistenceFilterGuestCartStore.CHANNEL, "other");
+		verify(delegate).find("guest123");
+	}
+	
+	@Test
+	@DisplayName("다른 노드가 발행한 ID도 조회 대상이 된다")
+	void record_fromOtherNode_makesIdVisible() {
+		// given
+		readyWithNoKeys();
+		
+		// when
+		store.record("guest123");
+		store.find("guest123");
+		
+		// then
+		verify(delegate).find("guest123");
+	}
+	
+	@Test
+	@DisplayName("구독이 끊기면 다시 구성할 때까지 필터를 쓰지 않는다")
+	void onUnsubscribed_disablesFilterUntilRebuilt() {
+		// given
+		readyWithNoKeys();
+		
+		// when
+		store.onUnsubscribed();
+		store.find("guest123");
+		
+		// then
+		assertThat(store.isReady()).isFalse();
+		verify(delegate).find("guest123");
+	}
+	
+	@Test
+	@DisplayName("발행에 실패한 ID는 다음 점검에서 다시 발행한다")
+	void written_whenPublishFails_retriesLater() {
+		// given
+		readyWithNoKeys();
+		willThrow(new RedisConnectionFailureException("down")).willReturn(1L)
+				.given(redisTemplate).convertAndSend(ExistenceFilterGuestCartStore.CHANNEL, "guest123");
+		
+		// when
+		store.addItem("guest123", 1L, 1L);
+		store.retryUnpublished();
+		store.retryUnpublished();
+		
+		// then
+		verify(redisTemplate, times(2)).convertAndSend(ExistenceFilterGuestCartStore.CHANNEL, "guest123");
+	}
+	
+	private void readyWithNoKeys() {
+		store.onSubscribed();
+		store.rebuild(List.<String>of().iterator());
+		assertThat(store.isReady()).isTrue();
+	}
+}
@@ -0,0 +1,152 @@
+package shop.dodream.cart.store;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import shop.dodream.cart.dto.GuestCart;
+import shop.dodream.cart.dto.GuestCartItem;
+import shop.dodream.cart.exception.GuestCartUnavailableException;
+import shop.dodream.cart.exception.InvalidQuantityException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FailoverGuestCartStore 단위 테스트")
+class FailoverGuestCartStoreTest {
+	
+	@Mock
+	private GuestCartStore delegate;
+	@Mock
+	private ScheduledExecutorService reconciler;
+	
+	private final String guestId = "guest123";
+	
+	private FailoverGuestCartStore store;
+	
+	@BeforeEach
+	void setUp() {
+		store = new FailoverGuestCartStore(delegate, 20, 100, 10, new SimpleMeterRegistry(), reconciler);
+	}
+	
+	@Test
+	@DisplayName("Redis 연결이 실패하면 장애 모드로 전환하고 마지막으로 본 장바구니에 변경을 적용해 응답한다")
+	void addItem_whenRedisFails_appliesToLastKnownCart() {
+		// given
+		given(delegate.find(guestId)).willReturn(new GuestCart(guestId, new ArrayList<>(List.of(new GuestCartItem(1L, 2L)))));
+		given(delegate.addItem(guestId, 2L, 1L)).willThrow(new RedisConnectionFailureException("down"));
+		store.find(guestId);
+		
+		// when
+		GuestCart result = store.addItem(guestId, 2L, 1L);
+		
+		// then
+		assertThat(store.isDown()).isTrue();
+		assertThat(result.getItems()).extracting(GuestCartItem::getBookId).containsExactly(1L, 2L);
+		assertThat(store.pendingCount()).isEqualTo(1);
+	}
+	
+	@Test
+	@DisplayName("장애 중에는 Redis를 호출하지 않고 메모리에서 응답한다")
+	void find_whileDown_doesNotCallRedis() {
+		// given
+		given(delegate.addItem(guestId, 1L, 1L)).willThrow(new RedisConnectionFailureException("down"));
+		store.addItem(guestId, 1L, 1L);
+		
+		// when
+		GuestCart result = store.find(guestId);
+		store.addItem(guestId, 1L, 2L);
+		
+		// then
+		assertThat(result.getItems()).extracting(GuestCartItem::getQuantity).containsExactly(1L);
+		verify(delegate, never()).find(anyString());
+		verify(delegate, times(1)).addItem(anyString(), anyLong(), anyLong());
+	}
+	
+	@Test
+	@DisplayName("Redis가 복구되면 모아 둔 변경을 같은 순서로 반영하고 다시 Redis를 사용한다")
+	void reconcile_afterRecovery_replaysInOrder() {
+		// given
+		given(delegate.addItem(guestId, 1L, 1L))
+				.willThrow(new RedisConnectionFailureException("down"))
+				.willReturn(new GuestCart(guestId, List.of(new GuestCartItem(1L, 1L))));
+		store.addItem(guestId, 1L, 1L);
+		store.updateQuantity(guestId, 1L, 3L);
+		store.removeItem(guestId, 9L);
+		
+		// when
+		store.reconcile();
+		
+		// then
+		InOrder inOrder = inOrder(delegate);
+		inOrder.verify(delegate).find("failover-probe");
+		inOrder.verify(delegate).addItem(guestId, 1L, 1L);
+		inOrder.verify(delegate).updateQuantity(guestId, 1L, 3L);
+		inOrder.verify(delegate).removeItem(guestId, 9L);
+		assertThat(store.isDown()).isFalse();
+		assertThat(store.pendingCount()).isZero();
+		
+		store.find(guestId);
+		verify(delegate).find(guestId);
+	}
+	
+	@Test
+	@DisplayName("점검 중 Redis가 아직 죽어 있으면 변경 내역을 유지한다")
+	void reconcile_whileStillDown_keepsPending() {
+		// given
+		given(delegate.addItem(guestId, 1L, 1L)).willThrow(new RedisConnectionFailureException("down"));
+		store.addItem(guestId, 1L, 1L);
+		given(delegate.find("failover-probe")).willThrow(new RedisConnectionFailureException("down"));
+		
+		// when
+		store.reconcile();
+		
+		// then
+		assertThat(store.isDown()).isTrue();
+		assertThat(store.pendingCount()).isEqualTo(1);
+	}
+	
+	@Test
+	@DisplayName("Redis 상태와 합쳐져 규칙에 어긋나는 변경은 버리고 나머지를 반영한다")
+	void reconcile_skipsRejectedOperation() {
+		// given
+		given(delegate.addItem(guestId, 1L, 1L)).willThrow(new RedisConnectionFailureException("down"));
+		store.addItem(guestId, 1L, 1L);
+		store.addItem(guestId, 2L, 1L);
+		reset(delegate);
+		given(delegate.addItem(guestId, 1L, 1L)).willThrow(new InvalidQuantityException("장바구니는 최대 20개까지만 담을 수 있습니다."));
+		
+		// when
+		store.reconcile();
+		
+		// then
+		verify(delegate).addItem(guestId, 2L, 1L);
+		assertThat(store.pendingCount()).isZero();
+	}
+	
+	@Test
+	@DisplayName("장애 중에는 병합용 claim을 메모리로 대신하지 않고 GuestCartUnavailableException을 던진다")
+	void claim_whileDown_throwsWithoutFallback() {
+		// given
+		given(delegate.addItem(guestId, 1L, 1L)).willThrow(new RedisConnectionFailureException("down"));
+		store.addItem(guestId, 1L, 1L);
+		
+		// when & then
+		assertThatThrownBy(() -> store.claim(guestId)).isInstanceOf(GuestCartUnavailableException.class);
+		verify(delegate, never()).claim(anyString());
+	}
+}
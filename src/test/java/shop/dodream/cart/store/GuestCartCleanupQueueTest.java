@@ -0,0 +1,192 @@
+package shop.dodream.cart.store;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import shop.dodream.cart.config.GuestCartProperties;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GuestCartCleanupQueue 단위 테스트")
+class GuestCartCleanupQueueTest {
+	
+	private static final long NOW = 1_000_000L;
+	private static final String ENTRY = GuestCartCleanupQueue.entry("guest", "claim-1");
+	
+	@Mock
+	private GuestCartStore guestCartStore;
+	@Mock
+	private StringRedisTemplate redisTemplate;
+	@Mock
+	private ZSetOperations<String, String> zSetOperations;
+	@Mock
+	private HashOperations<String, Object, Object> hashOperations;
+	@Mock
+	private ScheduledExecutorService scheduler;
+	
+	private SimpleMeterRegistry meterRegistry;
+	private GuestCartCleanupQueue queue;
+	
+	@BeforeEach
+	void setUp() {
+		GuestCartProperties.Cleanup config = new GuestCartProperties.Cleanup();
+		config.setMaxAttempts(3);
+		config.setInitialBackoff(Duration.ofSeconds(1));
+		config.setMaxBackoff(Duration.ofSeconds(3));
+		meterRegistry = new SimpleMeterRegistry();
+		queue = new GuestCartCleanupQueue(guestCartStore, redisTemplate, config, meterRegistry, scheduler, () -> NOW);
+		lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+		lenient().when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+	}
+	
+	@Test
+	@DisplayName("enqueue는 먼저 Redis 큐에 기록하고, 작업 스레드에서 병합 중 장바구니를 지운 뒤 큐에서 뺀다")
+	void enqueue_recordsFirstAndRemovesAfterDelete() {
+		// when
+		queue.enqueue("guest", "claim-1");
+		
+		// then
+		// 재시작되어도 남도록 첫 시도 전에 기록하고, 첫 시도 중에는 다른 노드가 가져가지 않게 점수를 미룬다
+		verify(zSetOperations).add(GuestCartCleanupQueue.QUEUE_KEY, ENTRY, NOW + 1000);
+		verifyNoInteractions(guestCartStore);
+		ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+		verify(scheduler).execute(task.capture());
+		
+		task.getValue().run();
+		verify(guestCartStore).completeClaim("guest", "claim-1");
+		verify(zSetOperations).remove(GuestCartCleanupQueue.QUEUE_KEY, ENTRY);
+	}
+	
+	@Test
+	@DisplayName("enqueue 때 Redis 큐에 기록하지 못해도 첫 시도는 하고, 성공하면 큐를 건드리지 않는다")
+	void enqueue_whenRecordFails_stillAttempts() {
+		// given
+		willThrow(new RedisConnectionFailureException("down")).given(zSetOperations)
+				.add(anyString(), anyString(), anyDouble());
+		
+		// when
+		queue.enqueue("guest", "claim-1");
+		
+		// then
+		ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+		verify(scheduler).execute(task.capture());
+		task.getValue().run();
+		verify(guestCartStore).completeClaim("guest", "claim-1");
+		verify(zSetOperations, never()).remove(anyString(), any());
+	}
+	
+	@Test
+	@DisplayName("삭제에 실패하면 다음 시도 시각을 점수로 Redis 큐에 넣는다")
+	void attempt_whenDeleteFails_schedulesRetryInRedis() {
+		// given
+		willThrow(new RedisConnectionFailureException("down")).given(guestCartStore).completeClaim("guest", "claim-1");
+		
+		// when
+		queue.attempt(ENTRY, 0, true);
+		
+		// then
+		// enqueue 때 넣은 항목의 점수를 다음 시도 시각으로 바꾸고, 큐에서 빼지 않는다
+		verify(hashOperations).put(GuestCartCleanupQueue.ATTEMPTS_KEY, ENTRY, "1");
+		verify(zSetOperations).add(GuestCartCleanupQueue.QUEUE_KEY, ENTRY, NOW + 1000);
+		assertThat(meterRegistry.get("cart.guest.cleanup.attempts").tag("result", "failure").counter().count())
+				.isEqualTo(1.0);
+		verify(zSetOperations, never()).remove(anyString(), any());
+	}
+	
+	@Test
+	@DisplayName("poll은 꺼낸 항목 중 ZREM에 성공한 것만 재시도하고 성공하면 시도 횟수를 지운다")
+	void poll_retriesOnlyClaimedEntries() {
+		// given
+		String mine = GuestCartCleanupQueue.entry("mine", "claim-1");
+		String taken = GuestCartCleanupQueue.entry("taken", "claim-2");
+		given(zSetOperations.rangeByScore(GuestCartCleanupQueue.QUEUE_KEY, 0, NOW, 0, 100))
+				.willReturn(Set.of(mine, taken));
+		given(zSetOperations.remove(GuestCartCleanupQueue.QUEUE_KEY, mine)).willReturn(1L);
+		given(zSetOperations.remove(GuestCartCleanupQueue.QUEUE_KEY, taken)).willReturn(0L);
+		given(hashOperations.get(GuestCartCleanupQueue.ATTEMPTS_KEY, mine)).willReturn("2");
+		given(zSetOperations.zCard(GuestCartCleanupQueue.QUEUE_KEY)).willReturn(4L);
+		
+		// when
+		queue.poll();
+		
+		// then
+		verify(guestCartStore).completeClaim("mine", "claim-1");
+		verify(guestCartStore, never()).completeClaim(eq("taken"), anyString());
+		verify(hashOperations).delete(GuestCartCleanupQueue.ATTEMPTS_KEY, mine);
+		assertThat(queue.depth()).isEqualTo(4);
+	}
+	
+	@Test
+	@DisplayName("최대 시도 횟수에 도달하면 큐에 다시 넣지 않고 정리 작업에 맡긴다")
+	void poll_whenMaxAttemptsReached_abandons() {
+		// given
+		given(zSetOperations.rangeByScore(GuestCartCleanupQueue.QUEUE_KEY, 0, NOW, 0, 100)).willReturn(Set.of(ENTRY));
+		given(zSetOperations.remove(GuestCartCleanupQueue.QUEUE_KEY, ENTRY)).willReturn(1L);
+		given(hashOperations.get(GuestCartCleanupQueue.ATTEMPTS_KEY, ENTRY)).willReturn("2");
+		willThrow(new RedisConnectionFailureException("down")).given(guestCartStore).completeClaim("guest", "claim-1");
+		
+		// when
+		queue.poll();
+		
+		// then
+		verify(zSetOperations, never()).add(anyString(), anyString(), anyDouble());
+		assertThat(meterRegistry.get("cart.guest.cleanup.abandoned").counter().count()).isEqualTo(1.0);
+	}
+	
+	@Test
+	@DisplayName("Redis 큐에도 넣지 못하면 노드 메모리에 두었다가 다음 poll에서 다시 시도한다")
+	void attempt_whenQueueUnavailable_keepsLocally() {
+		// given
+		willThrow(new RedisConnectionFailureException("down")).given(guestCartStore).completeClaim("guest", "claim-1");
+		willThrow(new RedisConnectionFailureException("down")).given(hashOperations)
+				.put(anyString(), any(), any());
+		queue.attempt(ENTRY, 0, false);
+		assertThat(queue.depth()).isEqualTo(1);
+		
+		willReturn(true).given(guestCartStore).completeClaim("guest", "claim-1");
+		
+		// when
+		queue.poll();
+		
+		// then
+		verify(guestCartStore, times(2)).completeClaim("guest", "claim-1");
+		assertThat(queue.depth()).isZero();
+	}
+	
+	@Test
+	@DisplayName("claimId 없는 이전 형식 항목은 지우지 않고 건너뛴다")
+	void attempt_withoutClaimId_skips() {
+		// when
+		queue.attempt("guest", 1, false);
+		
+		// then
+		verifyNoInteractions(guestCartStore);
+	}
+	
+	@Test
+	@DisplayName("재시도 간격은 두 배씩 늘어나 최대값에서 멈춘다")
+	void backoffMillis_doublesUpToMax() {
+		assertThat(queue.backoffMillis(1)).isEqualTo(1000);
+		assertThat(queue.backoffMillis(2)).isEqualTo(2000);
+		assertThat(queue.backoffMillis(3)).isEqualTo(3000);
+		assertThat(queue.backoffMillis(40)).isEqualTo(3000);
+	}
+}
@@ -0,0 +1,62 @@
+package shop.dodream.cart.store;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import shop.dodream.cart.dto.GuestCart;
+import shop.dodream.cart.dto.GuestCartItem;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+// 기본 테스트 실행에는 포함되지 않음: mvn test -Dtest=GuestCartCodecBenchmark
+class GuestCartCodecBenchmark {
+	
+	private static final int WARMUP = 200_000;
+	private static final int ITERATIONS = 1_000_000;
+	
+	private static volatile Object sink;
+	
+	@Test
+	void compareJsonWithBinary() {
+		RedisSerializer<GuestCart> json = new Jackson2JsonRedisSerializer<>(GuestCart.class);
+		RedisSerializer<GuestCart> binary = new BinaryGuestCartSerializer();
+		
+		System.out.printf("%-6s %-8s %10s %14s %14s%n", "items", "codec", "bytes", "encode(ns/op)", "decode(ns/op)");
+		for (int size : new int[]{1, 5, 20}) {
+			GuestCart cart = cart(size);
+			report(size, "json", json, cart);
+			report(size, "binary", binary, cart);
+		}
+	}
+	
+	private void report(int size, String name, RedisSerializer<GuestCart> serializer, GuestCart cart) {
+		byte[] bytes = serializer.serialize(cart);
+		for (int i = 0; i < WARMUP; i++) {
+			sink = serializer.deserialize(serializer.serialize(cart));
+		}
+		
+		long started = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			sink = serializer.serialize(cart);
+		}
+		double encodeNanos = (System.nanoTime() - started) / (double) ITERATIONS;
+		
+		started = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			sink = serializer.deserialize(bytes);
+		}
+		double decodeNanos = (System.nanoTime() - started) / (double) ITERATIONS;
+		
+		System.out.printf("%-6d %-8s %10d %14.1f %14.1f%n", size, name, bytes.length, encodeNanos, decodeNanos);
+	}
+	
+	// 실제 비회원 ID(UUID)와 수천~수십만 범위의 도서 ID를 흉내낸 장바구니
+	private GuestCart cart(int size) {
+		List<GuestCartItem> items = LongStream.rangeClosed(1, size)
+				                            .mapToObj(i -> new GuestCartItem(10_000L + i * 7_919, i % 5 + 1))
+				                            .toList();
+		return new GuestCart(UUID.randomUUID().toString(), items);
+	}
+}
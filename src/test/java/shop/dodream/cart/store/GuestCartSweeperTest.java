@@ -0,0 +1,191 @@
+package shop.dodream.cart.store;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisNode;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import shop.dodream.cart.entity.GuestCartMerge;
+import shop.dodream.cart.repository.GuestCartMergeRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GuestCartSweeper 단위 테스트")
+class GuestCartSweeperTest {
+	
+	@Mock
+	private StringRedisTemplate redisTemplate;
+	@Mock
+	private ScheduledExecutorService scheduler;
+	@Mock
+	private GuestCartMergeRepository guestCartMergeRepository;
+	
+	private GuestCartSweeper sweeper;
+	
+	@BeforeEach
+	void setUp() {
+		sweeper = new GuestCartSweeper(redisTemplate, guestCartMergeRepository, 10, Duration.ZERO,
+				new SimpleMeterRegistry(), scheduler);
+	}
+	
+	@Test
+	@DisplayName("장바구니 키의 TTL/크기 분포를 집계한다")
+	void sweep_buildsHistograms() {
+		// given
+		// Lettuce가 MULTI 형식 EVAL 응답을 읽은 그대로: 키마다 [PTTL, MEMORY USAGE] 정수 목록
+		given(redisTemplate.executePipelined(any(RedisCallback.class))).willReturn(List.<Object>of(
+				List.<Object>of(Duration.ofHours(2).toMillis(), 100L),
+				List.<Object>of(-1L, 300L)));
+		
+		// when
+		GuestCartKeyspaceReport report = sweeper.sweep(List.of(
+				"guest_cart:{a}", "guest_cart:{a}:claim", "guest_cart:legacy").iterator());
+		
+		// then
+		assertThat(report.scannedKeys()).isEqualTo(3);
+		assertThat(report.carts()).isEqualTo(2);
+		assertThat(report.legacyCarts()).isEqualTo(1);
+		assertThat(report.totalBytes()).isEqualTo(400);
+		assertThat(report.ttlHistogram()).containsEntry("<1d", 1L).containsEntry("none", 1L);
+		assertThat(report.sizeHistogram()).containsEntry("<256B", 1L).containsEntry("<1KB", 1L);
+		assertThat(report.completed()).isTrue();
+		verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+	}
+	
+	@Test
+	@DisplayName("병합 기록이 남은 claim의 병합 중 키만 claim ID 비교 스크립트로 지운다")
+	@SuppressWarnings("unchecked")
+	void sweep_deletesMergingKeysOfMergedClaims() {
+		// given
+		// 병합 중 키마다 claim 키 GET 결과
+		given(redisTemplate.executePipelined(any(RedisCallback.class)))
+				.willReturn(Arrays.<Object>asList("claim-a", "claim-b", null));
+		given(guestCartMergeRepository.findAllById(any()))
+				.willReturn(List.of(new GuestCartMerge("claim-a", "a", 1L, null)));
+		given(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+				eq(List.of("guest_cart:{a}", "guest_cart:{a}:merging", "guest_cart:{a}:claim", "guest_cart:{a}:order",
+						"guest_cart:{a}:merging:order")), eq("claim-a")))
+				.willReturn(1L);
+		
+		// when
+		GuestCartKeyspaceReport report = sweeper.sweep(List.of(
+				"guest_cart:{a}:merging", "guest_cart:{b}:merging", "guest_cart:{c}:merging").iterator());
+		
+		// then
+		ArgumentCaptor<Iterable<String>> claimIds = ArgumentCaptor.forClass(Iterable.class);
+		verify(guestCartMergeRepository).findAllById(claimIds.capture());
+		assertThat(claimIds.getValue()).containsExactlyInAnyOrder("claim-a", "claim-b");
+		assertThat(report.mergingCarts()).isEqualTo(3);
+		assertThat(report.mergedDeleted()).isEqualTo(1);
+		assertThat(report.carts()).isZero();
+	}
+	
+	@Test
+	@DisplayName("조회 사이에 만료된 키는 집계에서 뺀다")
+	void sweep_skipsKeysExpiredDuringScan() {
+		// given
+		// 없는 키는 PTTL -2, MEMORY USAGE nil은 스크립트가 -1로 바꾼다
+		given(redisTemplate.executePipelined(any(RedisCallback.class)))
+				.willReturn(List.<Object>of(List.<Object>of(-2L, -1L)));
+		
+		// when
+		GuestCartKeyspaceReport report = sweeper.sweep(List.of("guest_cart:{a}").iterator());
+		
+		// then
+		assertThat(report.carts()).isZero();
+		assertThat(report.totalBytes()).isZero();
+	}
+	
+	@Test
+	@DisplayName("키마다 MULTI 응답 형식의 스크립트 한 번으로 PTTL과 크기를 조회한다")
+	@SuppressWarnings("unchecked")
+	void sweep_queriesStatsThroughScript() {
+		// given
+		given(redisTemplate.executePipelined(any(RedisCallback.class)))
+				.willReturn(List.<Object>of(List.<Object>of(1000L, 50L)));
+		RedisConnection connection = mock(RedisConnection.class);
+		RedisScriptingCommands scripting = mock(RedisScriptingCommands.class);
+		given(connection.scriptingCommands()).willReturn(scripting);
+		
+		// when
+		sweeper.sweep(List.of("guest_cart:{a}").iterator());
+		
+		// then
+		ArgumentCaptor<RedisCallback<Object>> callback = ArgumentCaptor.forClass(RedisCallback.class);
+		verify(redisTemplate).executePipelined(callback.capture());
+		callback.getValue().doInRedis(connection);
+		verify(scripting).eval(any(byte[].class), eq(ReturnType.MULTI), eq(1),
+				eq("guest_cart:{a}".getBytes(StandardCharsets.UTF_8)));
+		verify(connection, never()).execute(anyString(), any(byte[][].class));
+	}
+	
+	@Test
+	@DisplayName("클러스터에서는 모든 마스터 노드를 훑는다")
+	@SuppressWarnings("unchecked")
+	void sweep_onCluster_scansEveryMaster() {
+		// given
+		RedisConnectionFactory factory = mock(RedisConnectionFactory.class);
+		RedisClusterConnection cluster = mock(RedisClusterConnection.class);
+		RedisClusterNode master1 = node("10.0.0.1", RedisNode.NodeType.MASTER);
+		RedisClusterNode master2 = node("10.0.0.2", RedisNode.NodeType.MASTER);
+		RedisClusterNode replica = node("10.0.0.3", RedisNode.NodeType.REPLICA);
+		Cursor<byte[]> cursor1 = cursorOf("guest_cart:{a}");
+		Cursor<byte[]> cursor2 = cursorOf("guest_cart:{b}");
+		given(redisTemplate.getRequiredConnectionFactory()).willReturn(factory);
+		given(factory.getConnection()).willReturn(cluster);
+		given(cluster.clusterGetNodes()).willReturn(List.of(master1, replica, master2));
+		given(cluster.scan(eq(master1), any(ScanOptions.class))).willReturn(cursor1);
+		given(cluster.scan(eq(master2), any(ScanOptions.class))).willReturn(cursor2);
+		given(redisTemplate.executePipelined(any(RedisCallback.class))).willReturn(List.<Object>of(
+				List.<Object>of(1000L, 50L), List.<Object>of(1000L, 50L)));
+		
+		// when
+		GuestCartKeyspaceReport report = sweeper.sweep();
+		
+		// then
+		assertThat(report.carts()).isEqualTo(2);
+		verify(cluster, never()).scan(eq(replica), any(ScanOptions.class));
+		verify(cursor1).close();
+		verify(cursor2).close();
+		verify(cluster).close();
+	}
+	
+	private RedisClusterNode node(String host, RedisNode.NodeType type) {
+		return RedisClusterNode.newRedisClusterNode().listeningAt(host, 6379).promotedAs(type).build();
+	}
+	
+	@SuppressWarnings("unchecked")
+	private Cursor<byte[]> cursorOf(String key) {
+		Cursor<byte[]> cursor = mock(Cursor.class);
+		given(cursor.hasNext()).willReturn(true, false);
+		given(cursor.next()).willReturn(key.getBytes(StandardCharsets.UTF_8));
+		return cursor;
+	}
+}
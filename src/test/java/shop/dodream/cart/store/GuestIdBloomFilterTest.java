@@ -0,0 +1,50 @@
+package shop.dodream.cart.store;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("GuestIdBloomFilter 단위 테스트")
+class GuestIdBloomFilterTest {
+	
+	@Test
+	@DisplayName("넣은 ID는 항상 있다고 답한다")
+	void mightContain_neverReturnsFalseNegative() {
+		// given
+		GuestIdBloomFilter filter = new GuestIdBloomFilter(10_000, 0.01);
+		
+		// when
+		for (int i = 0; i < 10_000; i++) {
+			filter.put("guest" + i);
+		}
+		
+		// then
+		for (int i = 0; i < 10_000; i++) {
+			assertThat(filter.mightContain("guest" + i)).isTrue();
+		}
+	}
+	
+	@Test
+	@DisplayName("넣지 않은 ID의 오탐률은 설정값 근처에 머문다")
+	void mightContain_falsePositiveRateNearConfigured() {
+		// given
+		GuestIdBloomFilter filter = new GuestIdBloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.put(UUID.randomUUID().toString());
+		}
+		
+		// when
+		int falsePositives = 0;
+		for (int i = 0; i < 10_000; i++) {
+			if (filter.mightContain(UUID.randomUUID().toString())) {
+				falsePositives++;
+			}
+		}
+		
+		// then
+		assertThat(falsePositives).isLessThan(300);
+	}
+}
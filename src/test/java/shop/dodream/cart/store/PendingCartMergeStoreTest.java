@@ -0,0 +1,119 @@
+package shop.dodream.cart.store;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import shop.dodream.cart.config.GuestCartProperties;
+import shop.dodream.cart.dto.GuestCartItem;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PendingCartMergeStore 단위 테스트")
+class PendingCartMergeStoreTest {
+	
+	private static final String KEY = "cart_merge_pending_claims:user";
+	
+	@Mock
+	private StringRedisTemplate redisTemplate;
+	@Mock
+	private HashOperations<String, Object, Object> hashOperations;
+	@Mock
+	private ZSetOperations<String, String> zSetOperations;
+	@Mock
+	private ValueOperations<String, String> valueOperations;
+	
+	private PendingCartMergeStore store;
+	
+	@BeforeEach
+	void setUp() {
+		GuestCartProperties properties = new GuestCartProperties();
+		properties.getMerge().setAsync(true);
+		properties.getMerge().setPendingTtl(Duration.ofHours(1));
+		store = new PendingCartMergeStore(redisTemplate, properties);
+		lenient().when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+		lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+		lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+	}
+	
+	private PendingCartMerge pending(String guestId, String claimId) {
+		return new PendingCartMerge(guestId, claimId, List.of(new GuestCartItem(101L, 1L)), 1_000L);
+	}
+	
+	@Test
+	@DisplayName("save는 회원 해시에 claim마다 필드를 두어 다른 기기의 대기 기록을 덮어쓰지 않는다")
+	void save_storesEachClaimAsSeparateField() {
+		// when
+		store.save("user", pending("guest-a", "claim-1"));
+		store.save("user", pending("guest-b", "claim-2"));
+		
+		// then
+		verify(hashOperations).put(eq(KEY), eq("claim-1"), anyString());
+		verify(hashOperations).put(eq(KEY), eq("claim-2"), anyString());
+		verify(redisTemplate, times(2)).expire(KEY, Duration.ofHours(1));
+		verify(zSetOperations).add(PendingCartMergeStore.INDEX_KEY, "claim-1:user", 1_000L);
+		verify(zSetOperations).add(PendingCartMergeStore.INDEX_KEY, "claim-2:user", 1_000L);
+	}
+	
+	@Test
+	@DisplayName("findAll은 회원의 대기 기록을 모두 돌려주고, Redis 장애 시 빈 목록을 돌려준다")
+	void findAll_returnsEveryClaim() {
+		// given
+		given(hashOperations.values(KEY)).willReturn(List.of(
+				"{\"guestId\":\"guest-a\",\"claimId\":\"claim-1\",\"items\":[{\"bookId\":101,\"quantity\":1}],\"requestedAt\":1}",
+				"{\"guestId\":\"guest-b\",\"claimId\":\"claim-2\",\"items\":[{\"bookId\":102,\"quantity\":2}],\"requestedAt\":2}"));
+		given(hashOperations.values("cart_merge_pending_claims:down"))
+				.willThrow(new RedisConnectionFailureException("down"));
+		
+		// when & then
+		assertThat(store.findAll("user")).extracting(PendingCartMerge::claimId).containsExactly("claim-1", "claim-2");
+		assertThat(store.findAll("down")).isEmpty();
+	}
+	
+	@Test
+	@DisplayName("remove는 해당 claim의 필드와 색인 항목만 지운다")
+	void remove_deletesOnlyThatClaim() {
+		// when
+		store.remove("user", "claim-1");
+		
+		// then
+		verify(hashOperations).delete(KEY, "claim-1");
+		verify(zSetOperations).remove(PendingCartMergeStore.INDEX_KEY, "claim-1:user");
+	}
+	
+	@Test
+	@DisplayName("requestedBefore는 색인 항목을 회원 ID와 claimId로 나누고, 이전 형식 기록을 먼저 옮긴다")
+	void requestedBefore_parsesEntriesAndMigratesLegacyRecords() {
+		// given
+		given(zSetOperations.range(PendingCartMergeStore.LEGACY_INDEX_KEY, 0, 99)).willReturn(Set.of("old-user"));
+		given(valueOperations.getAndDelete("cart_merge_pending:old-user")).willReturn(
+				"{\"guestId\":\"guest-c\",\"claimId\":\"claim-3\",\"items\":[{\"bookId\":101,\"quantity\":1}],\"requestedAt\":5}");
+		Set<String> entries = new LinkedHashSet<>(List.of("claim-1:user:with:colons", "claim-3:old-user"));
+		given(zSetOperations.rangeByScore(PendingCartMergeStore.INDEX_KEY, 0, 10_000L, 0, 100)).willReturn(entries);
+		
+		// when
+		List<PendingCartMergeStore.Entry> result = store.requestedBefore(10_000L, 100);
+		
+		// then
+		verify(hashOperations).put(eq("cart_merge_pending_claims:old-user"), eq("claim-3"), anyString());
+		verify(zSetOperations).add(PendingCartMergeStore.INDEX_KEY, "claim-3:old-user", 5L);
+		verify(zSetOperations).remove(PendingCartMergeStore.LEGACY_INDEX_KEY, "old-user");
+		assertThat(result).containsExactly(new PendingCartMergeStore.Entry("user:with:colons", "claim-1"),
+				new PendingCartMergeStore.Entry("old-user", "claim-3"));
+	}
+}
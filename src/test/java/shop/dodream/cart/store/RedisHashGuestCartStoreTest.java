@@ -0,0 +1,185 @@
+package shop.dodream.cart.store;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import shop.dodream.cart.config.GuestCartProperties;
+import shop.dodream.cart.dto.GuestCart;
+import shop.dodream.cart.dto.GuestCartItem;
+import shop.dodream.cart.dto.GuestCartOperationType;
+import shop.dodream.cart.exception.DataNotFoundException;
+import shop.dodream.cart.exception.InvalidQuantityException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RedisHashGuestCartStore 단위 테스트")
+class RedisHashGuestCartStoreTest {
+	
+	@Mock
+	private StringRedisTemplate redisTemplate;
+	
+	private RedisHashGuestCartStore store;
+	
+	private final String guestId = "guest123";
+	private final List<String> keys = List.of("guest_cart:{guest123}", "guest_cart:{guest123}:order", "guest_cart:guest123");
+	private final String ttlSeconds = String.valueOf(30 * 24 * 60 * 60);
+	
+	@BeforeEach
+	void setUp() {
+		store = new RedisHashGuestCartStore(redisTemplate, new GuestCartProperties());
+	}
+	
+	@Test
+	@DisplayName("아이템 추가는 수량, 최대 개수, TTL을 스크립트 한 번으로 전달하고 담은 순서대로 온 결과로 장바구니를 만든다")
+	void addItem_executesScriptOnceAndParsesHash() {
+		// given
+		given(redisTemplate.execute(any(RedisScript.class), eq(keys), eq("1"), eq("3"), eq("20"), eq(ttlSeconds)))
+				.willReturn(List.of("1", "3", "2", "20"));
+		
+		// when
+		GuestCart cart = store.addItem(guestId, 1L, 3L);
+		
+		// then
+		assertThat(cart.getGuestId()).isEqualTo(guestId);
+		assertThat(cart.getItems()).extracting(GuestCartItem::getBookId).containsExactly(1L, 2L);
+		assertThat(cart.getItems()).extracting(GuestCartItem::getQuantity).containsExactly(3L, 20L);
+	}
+	
+	@Test
+	@DisplayName("스크립트가 nil을 반환하면 장바구니가 가득 찬 것으로 보고 예외를 던진다")
+	void addItem_whenScriptReturnsNil_throwsException() {
+		// given
+		given(redisTemplate.execute(any(RedisScript.class), eq(keys), eq("21"), eq("1"), eq("20"), eq(ttlSeconds)))
+				.willReturn(null);
+		
+		// when & then
+		assertThatThrownBy(() -> store.addItem(guestId, 21L, 1L))
+				.isInstanceOf(InvalidQuantityException.class)
+				.hasMessage("장바구니는 최대 20개까지만 담을 수 있습니다.");
+	}
+	
+	@Test
+	@DisplayName("없는 도서의 수량을 변경하면 예외를 던진다")
+	void updateQuantity_whenFieldMissing_throwsException() {
+		// given
+		given(redisTemplate.execute(any(RedisScript.class), eq(keys), eq("1"), eq("5"), eq(ttlSeconds)))
+				.willReturn(null);
+		
+		// when & then
+		assertThatThrownBy(() -> store.updateQuantity(guestId, 1L, 5L))
+				.isInstanceOf(DataNotFoundException.class)
+				.hasMessage("해당 도서가 장바구니에 존재하지 않습니다.");
+	}
+	
+	@Test
+	@DisplayName("해시가 비어 있으면 장바구니가 없는 것으로 본다")
+	void find_whenHashIsEmpty_returnsNull() {
+		// given
+		given(redisTemplate.execute(any(RedisScript.class), eq(keys))).willReturn(List.of());
+		
+		// when & then
+		assertThat(store.find(guestId)).isNull();
+	}
+	
+	@Test
+	@DisplayName("아이템 삭제는 HDEL과 TTL 갱신을 스크립트 한 번으로 처리한다")
+	void removeItem_executesScriptOnce() {
+		// when
+		store.removeItem(guestId, 1L);
+		
+		// then
+		verify(redisTemplate).execute(any(RedisScript.class), eq(keys), eq("1"), eq(ttlSeconds));
+	}
+	
+	@Test
+	@DisplayName("일괄 변경은 (종류, bookId, 수량)을 스크립트 한 번으로 전달한다")
+	void applyAll_executesScriptOnce() {
+		// given
+		given(redisTemplate.execute(any(RedisScript.class), eq(keys),
+				eq("20"), eq(ttlSeconds), eq("ADD"), eq("1"), eq("2"), eq("REMOVE"), eq("3"), eq("0")))
+				.willReturn(List.of("ok", "1", "2"));
+		
+		// when
+		GuestCart cart = store.applyAll(guestId, List.of(
+				new GuestCartOperation(GuestCartOperationType.ADD, 1L, 2L),
+				new GuestCartOperation(GuestCartOperationType.REMOVE, 3L, 0L)));
+		
+		// then
+		assertThat(cart.getItems()).extracting(GuestCartItem::getQuantity).containsExactly(2L);
+	}
+	
+	@Test
+	@DisplayName("스크립트가 missing을 반환하면 DataNotFoundException을 던진다")
+	void applyAll_whenScriptReportsMissing_throws() {
+		// given
+		given(redisTemplate.execute(any(RedisScript.class), eq(keys),
+				eq("20"), eq(ttlSeconds), eq("UPDATE"), eq("1"), eq("5")))
+				.willReturn(List.of("missing"));
+		
+		// when & then
+		assertThatThrownBy(() -> store.applyAll(guestId, List.of(
+				new GuestCartOperation(GuestCartOperationType.UPDATE, 1L, 5L))))
+				.isInstanceOf(DataNotFoundException.class);
+	}
+	
+	@Test
+	@DisplayName("claim은 장바구니를 병합 중 키로 옮긴 뒤 병합 중 키의 해시로 장바구니를 만든다")
+	void claim_movesCartAndReadsMergingHash() {
+		// given
+		given(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+				eq(List.of(keys.get(0), keys.get(0) + ":merging", keys.get(0) + ":claim", keys.get(0) + ":order",
+						keys.get(0) + ":merging:order")), anyString(), eq(ttlSeconds)))
+				.willReturn("claim-1");
+		given(redisTemplate.execute(any(RedisScript.class), eq(List.of(keys.get(0) + ":merging", keys.get(0) + ":merging:order"))))
+				.willReturn(List.of("1", "2"));
+		
+		// when
+		GuestCartClaim claim = store.claim(guestId);
+		
+		// then
+		assertThat(claim.claimId()).isEqualTo("claim-1");
+		assertThat(claim.cart().getItems()).extracting(GuestCartItem::getQuantity).containsExactly(2L);
+		// 이전 키는 먼저 새 키로 옮겨 둔다
+		verify(redisTemplate).execute(any(RedisScript.class), eq(keys));
+	}
+	
+	@Test
+	@DisplayName("스크립트가 순서 키 순으로 돌려준 아이템 순서를 그대로 지킨다")
+	void find_keepsOrderFromScript() {
+		// given
+		given(redisTemplate.execute(any(RedisScript.class), eq(keys)))
+				.willReturn(List.of("9", "4", "2", "7", "5", "1"));
+		
+		// when
+		GuestCart cart = store.find(guestId);
+		
+		// then
+		assertThat(cart.getItems()).extracting(GuestCartItem::getBookId).containsExactly(9L, 2L, 5L);
+		assertThat(cart.getItems()).extracting(GuestCartItem::getQuantity).containsExactly(4L, 7L, 1L);
+	}
+	
+	@Test
+	@DisplayName("만료 연장은 장바구니와 순서 키를 함께 연장한다")
+	void touch_extendsCartAndOrderKeys() {
+		// when
+		store.touch(guestId);
+		
+		// then
+		verify(redisTemplate).execute(any(RedisScript.class), eq(keys.subList(0, 2)), eq(ttlSeconds));
+	}
+}
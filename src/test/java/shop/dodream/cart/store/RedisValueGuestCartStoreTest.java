@@ -0,0 +1,314 @@
+package shop.dodream.cart.store;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import shop.dodream.cart.config.GuestCartProperties;
+import shop.dodream.cart.dto.GuestCart;
+import shop.dodream.cart.dto.GuestCartItem;
+import shop.dodream.cart.dto.GuestCartOperationType;
+import shop.dodream.cart.exception.DataNotFoundException;
+import shop.dodream.cart.exception.InvalidQuantityException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RedisValueGuestCartStore 단위 테스트")
+class RedisValueGuestCartStoreTest {
+	
+	@Mock
+	private RedisTemplate<String, GuestCart> redisTemplate;
+	@Mock
+	private ValueOperations<String, GuestCart> valueOperations;
+	
+	@Captor
+	private ArgumentCaptor<GuestCart> cartCaptor;
+	
+	private RedisValueGuestCartStore store;
+	
+	private final String guestId = "guest123";
+	private final String redisKey = "guest_cart:{guest123}";
+	private final Duration CART_EXPIRATION = Duration.ofDays(30);
+	
+	@BeforeEach
+	void setUp() {
+		lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+		store = new RedisValueGuestCartStore(redisTemplate, new GuestCartProperties());
+	}
+	
+	@Test
+	@DisplayName("새로운 아이템을 추가하면 수량이 20을 넘을 경우 20으로 제한된다")
+	void addItem_whenNewAndQuantityOverMax_capsAtMax() {
+		// given
+		given(valueOperations.get(redisKey)).willReturn(new GuestCart(guestId, new ArrayList<>()));
+		
+		// when
+		store.addItem(guestId, 1L, 25L);
+		
+		// then
+		verify(valueOperations).set(eq(redisKey), cartCaptor.capture(), eq(CART_EXPIRATION));
+		assertThat(cartCaptor.getValue().getItems().get(0).getQuantity()).isEqualTo(20L);
+	}
+	
+	@Test
+	@DisplayName("기존 아이템에 수량을 더할 때 20을 넘으면 20으로 제한된다")
+	void addItem_whenExistingAndSumOverMax_capsAtMax() {
+		// given
+		GuestCart cart = new GuestCart(guestId, new ArrayList<>(List.of(new GuestCartItem(1L, 15L))));
+		given(valueOperations.get(redisKey)).willReturn(cart);
+		
+		// when
+		GuestCart result = store.addItem(guestId, 1L, 10L);
+		
+		// then
+		verify(valueOperations).set(eq(redisKey), cartCaptor.capture(), eq(CART_EXPIRATION));
+		assertThat(cartCaptor.getValue().getItems().get(0).getQuantity()).isEqualTo(20L);
+		assertThat(result.getItems()).hasSize(1);
+	}
+	
+	@Test
+	@DisplayName("장바구니가 가득 찼을 때 새 아이템 추가 시 예외를 던진다")
+	void addItem_whenCartIsFull_throwsException() {
+		// given
+		List<GuestCartItem> fullItems = LongStream.range(1, 21)
+				                                .mapToObj(i -> new GuestCartItem(i, 1L))
+				                                .collect(toList());
+		given(valueOperations.get(redisKey)).willReturn(new GuestCart(guestId, fullItems));
+		
+		// when & then
+		assertThatThrownBy(() -> store.addItem(guestId, 21L, 1L))
+				.isInstanceOf(InvalidQuantityException.class)
+				.hasMessage("장바구니는 최대 20개까지만 담을 수 있습니다.");
+		verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+	}
+	
+	@Test
+	@DisplayName("변경할 아이템이 장바구니에 없으면 예외를 던진다")
+	void updateQuantity_whenItemNotFound_throwsException() {
+		// given
+		given(valueOperations.get(redisKey)).willReturn(new GuestCart(guestId, new ArrayList<>()));
+		
+		// when & then
+		assertThatThrownBy(() -> store.updateQuantity(guestId, 1L, 5L))
+				.isInstanceOf(DataNotFoundException.class)
+				.hasMessage("해당 도서가 장바구니에 존재하지 않습니다.");
+	}
+	
+	@Test
+	@DisplayName("성공적으로 아이템 수량을 변경한다")
+	void updateQuantity_success() {
+		// given
+		GuestCart cart = new GuestCart(guestId, new ArrayList<>(List.of(new GuestCartItem(1L, 2L))));
+		given(valueOperations.get(redisKey)).willReturn(cart);
+		
+		// when
+		store.updateQuantity(guestId, 1L, 10L);
+		
+		// then
+		verify(valueOperations).set(eq(redisKey), cartCaptor.capture(), eq(CART_EXPIRATION));
+		assertThat(cartCaptor.getValue().getItems().get(0).getQuantity()).isEqualTo(10L);
+	}
+	
+	@Test
+	@DisplayName("같은 수량으로 변경하면 값을 다시 쓰지 않고 만료 시간만 연장한다")
+	void updateQuantity_whenUnchanged_onlyExpires() {
+		// given
+		GuestCart cart = new GuestCart(guestId, new ArrayList<>(List.of(new GuestCartItem(1L, 2L))));
+		given(valueOperations.get(redisKey)).willReturn(cart);
+		
+		// when
+		store.updateQuantity(guestId, 1L, 2L);
+		
+		// then
+		verify(redisTemplate).expire(redisKey, CART_EXPIRATION);
+		verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+	}
+	
+	@Test
+	@DisplayName("장바구니에 없는 도서를 제거하면 값을 다시 쓰지 않는다")
+	void removeItem_whenItemAbsent_doesNotRewrite() {
+		// given
+		GuestCart cart = new GuestCart(guestId, new ArrayList<>(List.of(new GuestCartItem(2L, 1L))));
+		given(valueOperations.get(redisKey)).willReturn(cart);
+		
+		// when
+		store.removeItem(guestId, 1L);
+		
+		// then
+		verify(redisTemplate).expire(redisKey, CART_EXPIRATION);
+		verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+	}
+	
+	@Test
+	@DisplayName("removeItem은 특정 아이템을 장바구니에서 제거한다")
+	void removeItem_removesItemFromCart() {
+		// given
+		GuestCart cart = new GuestCart(guestId, new ArrayList<>(List.of(new GuestCartItem(1L, 2L), new GuestCartItem(2L, 1L))));
+		given(valueOperations.get(redisKey)).willReturn(cart);
+		
+		// when
+		store.removeItem(guestId, 1L);
+		
+		// then
+		verify(valueOperations).set(eq(redisKey), cartCaptor.capture(), eq(CART_EXPIRATION));
+		assertThat(cartCaptor.getValue().getItems()).extracting(GuestCartItem::getBookId).containsExactly(2L);
+	}
+	
+	@Test
+	@DisplayName("delete는 Redis에서 새 키와 이전 키를 함께 삭제한다")
+	void delete_deletesKeyFromRedis() {
+		// given
+		given(redisTemplate.delete(List.of(redisKey, "guest_cart:guest123"))).willReturn(1L);
+		
+		// when & then
+		assertThat(store.delete(guestId)).isTrue();
+	}
+	
+	@Test
+	@DisplayName("새 키에 장바구니가 없으면 이전 키를 새 키로 옮겨 읽는다")
+	void find_whenOnlyLegacyKeyExists_migratesAndReads() {
+		// given
+		GuestCart cart = new GuestCart(guestId, new ArrayList<>(List.of(new GuestCartItem(1L, 2L))));
+		given(valueOperations.get(redisKey)).willReturn(null, cart);
+		given(redisTemplate.execute(any(RedisScript.class), eq(List.of(redisKey, "guest_cart:guest123")))).willReturn(1L);
+		
+		// when
+		GuestCart result = store.find(guestId);
+		
+		// then
+		assertThat(result.getItems()).extracting(GuestCartItem::getQuantity).containsExactly(2L);
+	}
+	
+	@Test
+	@DisplayName("일괄 변경은 한 번 읽고 모두 적용한 뒤 한 번만 저장한다")
+	void applyAll_readsOnceAndSavesOnce() {
+		// given
+		GuestCart cart = new GuestCart(guestId, new ArrayList<>(List.of(new GuestCartItem(1L, 2L))));
+		given(valueOperations.get(redisKey)).willReturn(cart);
+		
+		// when
+		GuestCart result = store.applyAll(guestId, List.of(
+				new GuestCartOperation(GuestCartOperationType.ADD, 2L, 3L),
+				new GuestCartOperation(GuestCartOperationType.UPDATE, 1L, 5L),
+				new GuestCartOperation(GuestCartOperationType.REMOVE, 9L, 0L)));
+		
+		// then
+		assertThat(result.getItems()).extracting(GuestCartItem::getQuantity).containsExactly(5L, 3L);
+		verify(valueOperations, times(1)).get(redisKey);
+		verify(valueOperations, times(1)).set(eq(redisKey), any(GuestCart.class), eq(CART_EXPIRATION));
+	}
+	
+	@Test
+	@DisplayName("서로 상쇄되는 일괄 변경은 장바구니를 다시 저장하지 않는다")
+	void applyAll_whenOperationsCancelOut_doesNotSave() {
+		// given
+		GuestCart cart = new GuestCart(guestId, new ArrayList<>(List.of(new GuestCartItem(1L, 2L))));
+		given(valueOperations.get(redisKey)).willReturn(cart);
+		
+		// when
+		GuestCart result = store.applyAll(guestId, List.of(
+				new GuestCartOperation(GuestCartOperationType.ADD, 2L, 3L),
+				new GuestCartOperation(GuestCartOperationType.REMOVE, 2L, 0L),
+				new GuestCartOperation(GuestCartOperationType.UPDATE, 1L, 2L)));
+		
+		// then
+		assertThat(result.getItems()).extracting(GuestCartItem::getBookId).containsExactly(1L);
+		verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+	}
+	
+	@Test
+	@DisplayName("일괄 변경 중 하나라도 실패하면 아무것도 저장하지 않는다")
+	void applyAll_whenAnyOperationFails_savesNothing() {
+		// given
+		given(valueOperations.get(redisKey)).willReturn(new GuestCart(guestId, new ArrayList<>()));
+		
+		// when & then
+		assertThatThrownBy(() -> store.applyAll(guestId, List.of(
+				new GuestCartOperation(GuestCartOperationType.ADD, 1L, 1L),
+				new GuestCartOperation(GuestCartOperationType.UPDATE, 2L, 5L))))
+				.isInstanceOf(DataNotFoundException.class);
+		verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+	}
+	
+	@Test
+	@DisplayName("claim은 장바구니를 병합 중 키로 옮긴 뒤 그 키에서 읽는다")
+	void claim_movesCartAndReadsMergingKey() {
+		// given
+		given(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+				eq(List.of(redisKey, redisKey + ":merging", redisKey + ":claim", redisKey + ":order",
+						redisKey + ":merging:order")), anyString(), eq("2592000")))
+				.willReturn("claim-1");
+		given(valueOperations.get(redisKey + ":merging"))
+				.willReturn(new GuestCart(guestId, new ArrayList<>(List.of(new GuestCartItem(1L, 2L)))));
+		
+		// when
+		GuestCartClaim claim = store.claim(guestId);
+		
+		// then
+		assertThat(claim.claimId()).isEqualTo("claim-1");
+		assertThat(claim.cart().getItems()).extracting(GuestCartItem::getBookId).containsExactly(1L);
+		verify(valueOperations, never()).get(redisKey);
+	}
+	
+	@Test
+	@DisplayName("옮길 장바구니가 없으면 claim은 null을 반환한다")
+	void claim_whenNoCart_returnsNull() {
+		// when
+		GuestCartClaim claim = store.claim(guestId);
+		
+		// then
+		assertThat(claim).isNull();
+		verify(valueOperations, never()).get(anyString());
+	}
+	
+	@Test
+	@DisplayName("completeClaim은 claim 키와 claimId를 스크립트에 넘겨 같은 claim일 때만 지운다")
+	void completeClaim_passesClaimIdToScript() {
+		// given
+		given(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+				eq(List.of(redisKey, redisKey + ":merging", redisKey + ":claim", redisKey + ":order",
+						redisKey + ":merging:order")), eq("claim-1")))
+				.willReturn(0L);
+		
+		// when
+		boolean completed = store.completeClaim(guestId, "claim-1");
+		
+		// then
+		assertThat(completed).isFalse();
+		verify(redisTemplate, never()).delete(anyList());
+	}
+	
+	@Test
+	@DisplayName("releaseClaim은 claimId를 스크립트에 넘겨 병합 중 키가 같은 claim일 때만 되돌린다")
+	void releaseClaim_passesClaimIdToScript() {
+		// given
+		given(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+				eq(List.of(redisKey, redisKey + ":merging", redisKey + ":claim", redisKey + ":order",
+						redisKey + ":merging:order")), eq("claim-1")))
+				.willReturn(1L);
+		
+		// when
+		boolean released = store.releaseClaim(guestId, "claim-1");
+		
+		// then
+		assertThat(released).isTrue();
+	}
+}
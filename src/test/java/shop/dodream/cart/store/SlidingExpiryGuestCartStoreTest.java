@@ -0,0 +1,91 @@
+package shop.dodream.cart.store;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import shop.dodream.cart.dto.GuestCart;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SlidingExpiryGuestCartStore 단위 테스트")
+class SlidingExpiryGuestCartStoreTest {
+	
+	@Mock
+	private GuestCartStore delegate;
+	
+	private final AtomicLong now = new AtomicLong();
+	private final String guestId = "guest123";
+	
+	private SlidingExpiryGuestCartStore store;
+	
+	@BeforeEach
+	void setUp() {
+		store = new SlidingExpiryGuestCartStore(delegate, Duration.ofMinutes(10), 100, new SimpleMeterRegistry(), now::get);
+	}
+	
+	@Test
+	@DisplayName("조회 시 만료 시간은 간격마다 한 번만 연장한다")
+	void find_touchesAtMostOncePerInterval() {
+		// given
+		given(delegate.find(guestId)).willReturn(new GuestCart(guestId, new ArrayList<>()));
+		
+		// when
+		store.find(guestId);
+		now.addAndGet(Duration.ofMinutes(5).toNanos());
+		store.find(guestId);
+		now.addAndGet(Duration.ofMinutes(6).toNanos());
+		store.find(guestId);
+		
+		// then
+		verify(delegate, times(2)).touch(guestId);
+	}
+	
+	@Test
+	@DisplayName("장바구니가 없으면 만료 시간을 연장하지 않는다")
+	void find_whenCartMissing_doesNotTouch() {
+		// when
+		store.find(guestId);
+		
+		// then
+		verify(delegate, never()).touch(anyString());
+	}
+	
+	@Test
+	@DisplayName("변경 직후의 조회는 저장소가 이미 TTL을 갱신했으므로 연장하지 않는다")
+	void find_afterMutation_doesNotTouch() {
+		// given
+		given(delegate.find(guestId)).willReturn(new GuestCart(guestId, new ArrayList<>()));
+		
+		// when
+		store.addItem(guestId, 1L, 1L);
+		store.find(guestId);
+		
+		// then
+		verify(delegate, never()).touch(anyString());
+	}
+	
+	@Test
+	@DisplayName("만료 연장에 실패해도 조회 결과는 반환하고 다음 조회에서 다시 시도한다")
+	void find_whenTouchFails_retriesNextTime() {
+		// given
+		given(delegate.find(guestId)).willReturn(new GuestCart(guestId, new ArrayList<>()));
+		doThrow(new RuntimeException("Connection error")).doNothing().when(delegate).touch(guestId);
+		
+		// when
+		store.find(guestId);
+		store.find(guestId);
+		
+		// then
+		verify(delegate, times(2)).touch(guestId);
+	}
+}
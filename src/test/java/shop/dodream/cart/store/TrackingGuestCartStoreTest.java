@@ -0,0 +1,189 @@
+package shop.dodream.cart.store;
+
+import io.lettuce.core.ConnectionState;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.StatefulRedisConnectionImpl;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import shop.dodream.cart.dto.GuestCart;
+import shop.dodream.cart.dto.GuestCartItem;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TrackingGuestCartStore 단위 테스트")
+class TrackingGuestCartStoreTest {
+	
+	@Mock
+	private GuestCartStore delegate;
+	@Mock
+	private RedisClient redisClient;
+	@Mock
+	private StatefulRedisConnectionImpl<byte[], byte[]> connection;
+	@Mock
+	private ConnectionState connectionState;
+	@Mock
+	private RedisCommands<byte[], byte[]> commands;
+	
+	private final BinaryGuestCartSerializer serializer = new BinaryGuestCartSerializer();
+	private final String guestId = "guest123";
+	
+	private TrackingGuestCartStore store;
+	
+	@BeforeEach
+	void setUp() {
+		store = new TrackingGuestCartStore(delegate, () -> redisClient, serializer, 100, true, new SimpleMeterRegistry());
+		lenient().when(redisClient.connect(ByteArrayCodec.INSTANCE)).thenReturn(connection);
+		lenient().when(connection.getConnectionState()).thenReturn(connectionState);
+		lenient().when(connection.sync()).thenReturn(commands);
+		lenient().when(connectionState.getNegotiatedProtocolVersion()).thenReturn(ProtocolVersion.RESP3);
+	}
+	
+	@Test
+	@DisplayName("한 번 읽은 장바구니는 Redis를 다시 조회하지 않는다")
+	void find_secondReadIsServedFromCache() {
+		// given
+		given(commands.get(any())).willReturn(serializer.serialize(cart(2L)));
+		
+		// when
+		store.find(guestId);
+		GuestCart result = store.find(guestId);
+		
+		// then
+		assertThat(result.getItems().get(0).getQuantity()).isEqualTo(2L);
+		verify(commands, times(1)).get(any());
+		verify(delegate, never()).find(any());
+	}
+	
+	@Test
+	@DisplayName("Redis 무효화 메시지를 받으면 다음 조회는 Redis에서 새로 읽는다")
+	void find_afterInvalidationPush_readsAgain() {
+		// given
+		given(commands.get(any())).willReturn(serializer.serialize(cart(2L)), serializer.serialize(cart(5L)));
+		PushMessage invalidate = mock(PushMessage.class);
+		given(invalidate.getType()).willReturn("invalidate");
+		given(invalidate.getContent(any())).willReturn(List.of("invalidate", List.of(GuestCartKeys.cart(guestId))));
+		store.find(guestId);
+		
+		// when
+		store.onPushMessage(invalidate);
+		GuestCart result = store.find(guestId);
+		
+		// then
+		assertThat(result.getItems().get(0).getQuantity()).isEqualTo(5L);
+		verify(commands, times(2)).get(any());
+	}
+	
+	@Test
+	@DisplayName("조회 도중 다른 키가 무효화되어도 읽은 장바구니를 캐시한다")
+	void find_otherKeyInvalidatedDuringRead_stillCaches() {
+		// given
+		PushMessage invalidate = invalidation(GuestCartKeys.cart("other"));
+		given(commands.get(any())).willAnswer(invocation -> {
+			store.onPushMessage(invalidate);
+			return serializer.serialize(cart(2L));
+		});
+		
+		// when
+		store.find(guestId);
+		store.find(guestId);
+		
+		// then
+		verify(commands, times(1)).get(any());
+	}
+	
+	@Test
+	@DisplayName("새 키와 이전 키가 모두 없으면 없는 장바구니로 캐시하고, 이전 키 무효화로 지운다")
+	void find_whenBothKeysAbsent_cachesMiss() {
+		// given
+		given(commands.get(any())).willReturn(null);
+		
+		// when
+		GuestCart first = store.find(guestId);
+		GuestCart second = store.find(guestId);
+		store.onPushMessage(invalidation(GuestCartKeys.legacyCart(guestId)));
+		store.find(guestId);
+		
+		// then
+		assertThat(first).isNull();
+		assertThat(second).isNull();
+		verify(commands, times(4)).get(any());
+		verify(delegate, never()).find(any());
+	}
+	
+	@Test
+	@DisplayName("이전 키에 장바구니가 남아 있으면 원래 저장소로 옮겨 읽고 캐시하지 않는다")
+	void find_whenLegacyKeyPresent_delegatesWithoutCaching() {
+		// given
+		given(commands.get(GuestCartKeys.cart(guestId).getBytes(StandardCharsets.UTF_8))).willReturn(null);
+		given(commands.get(GuestCartKeys.legacyCart(guestId).getBytes(StandardCharsets.UTF_8)))
+				.willReturn(serializer.serialize(cart(2L)));
+		given(delegate.find(guestId)).willReturn(cart(2L));
+		
+		// when
+		store.find(guestId);
+		store.find(guestId);
+		
+		// then
+		verify(delegate, times(2)).find(guestId);
+	}
+	
+	@Test
+	@DisplayName("이 노드에서 변경하면 캐시된 장바구니를 바로 지운다")
+	void addItem_invalidatesLocalEntry() {
+		// given
+		given(commands.get(any())).willReturn(serializer.serialize(cart(2L)), serializer.serialize(cart(3L)));
+		store.find(guestId);
+		
+		// when
+		store.addItem(guestId, 1L, 1L);
+		GuestCart result = store.find(guestId);
+		
+		// then
+		verify(delegate).addItem(guestId, 1L, 1L);
+		assertThat(result.getItems().get(0).getQuantity()).isEqualTo(3L);
+	}
+	
+	@Test
+	@DisplayName("RESP3를 사용할 수 없으면 캐시 없이 원래 저장소로 조회한다")
+	void find_whenResp2_fallsBackToDelegate() {
+		// given
+		given(connectionState.getNegotiatedProtocolVersion()).willReturn(ProtocolVersion.RESP2);
+		given(delegate.find(guestId)).willReturn(cart(2L));
+		
+		// when
+		store.find(guestId);
+		store.find(guestId);
+		
+		// then
+		verify(delegate, times(2)).find(guestId);
+		verify(redisClient, times(1)).connect(ByteArrayCodec.INSTANCE);
+		verify(connection).close();
+	}
+	
+	private PushMessage invalidation(String key) {
+		PushMessage message = mock(PushMessage.class);
+		given(message.getType()).willReturn("invalidate");
+		given(message.getContent(any())).willReturn(List.of("invalidate", List.of(key)));
+		return message;
+	}
+	
+	private GuestCart cart(long quantity) {
+		return new GuestCart(guestId, List.of(new GuestCartItem(1L, quantity)));
+	}
+}
@@ -0,0 +1,101 @@
+package shop.dodream.cart.util;
+
+import org.junit.jupiter.api.Test;
+import shop.dodream.cart.dto.GuestCartItem;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+// 기본 테스트 실행에는 포함되지 않음: mvn test -Dtest=CartQuantitiesBenchmark
+// 회원/비회원 장바구니 병합을 기존 방식(박싱 맵, 스트림 선형 탐색)과 비교해 연산당 시간과 할당 바이트를 출력한다
+class CartQuantitiesBenchmark {
+	
+	private static final int WARMUP = 200_000;
+	private static final int ITERATIONS = 1_000_000;
+	private static final long MAX_ITEM_COUNT = 20;
+	
+	private static volatile Object sink;
+	
+	@Test
+	void compareMergeWithBoxedCollections() {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		
+		System.out.printf("%-6s %-14s %12s %14s%n", "items", "merge", "ns/op", "bytes/op");
+		for (int size : new int[]{1, 5, 20}) {
+			List<GuestCartItem> member = items(size, 0);
+			List<GuestCartItem> guest = items(size, size / 2);
+			report(threads, size, "linked-map", () -> mergeWithLinkedHashMap(member, guest));
+			report(threads, size, "stream-scan", () -> mergeWithStreamScan(member, guest));
+			report(threads, size, "quantities", () -> mergeWithQuantities(member, guest));
+		}
+	}
+	
+	private void report(com.sun.management.ThreadMXBean threads, int size, String name, Supplier<Object> merge) {
+		for (int i = 0; i < WARMUP; i++) {
+			sink = merge.get();
+		}
+		
+		long threadId = Thread.currentThread().threadId();
+		long allocated = threads.getThreadAllocatedBytes(threadId);
+		long started = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			sink = merge.get();
+		}
+		double nanos = (System.nanoTime() - started) / (double) ITERATIONS;
+		double bytes = (threads.getThreadAllocatedBytes(threadId) - allocated) / (double) ITERATIONS;
+		
+		System.out.printf("%-6d %-14s %12.1f %14.1f%n", size, name, nanos, bytes);
+	}
+	
+	// 이전 CartItemService 방식: Long 키/값 LinkedHashMap에 합산
+	private Object mergeWithLinkedHashMap(List<GuestCartItem> member, List<GuestCartItem> guest) {
+		Map<Long, Long> merged = new LinkedHashMap<>();
+		for (GuestCartItem item : member) {
+			merged.merge(item.getBookId(), item.getQuantity(), Long::sum);
+		}
+		for (GuestCartItem item : guest) {
+			merged.merge(item.getBookId(), item.getQuantity(), (a, b) -> Math.min(a + b, MAX_ITEM_COUNT));
+		}
+		return merged;
+	}
+	
+	// 이전 GuestCartMutations 방식: 항목마다 stream().filter()로 선형 탐색
+	private Object mergeWithStreamScan(List<GuestCartItem> member, List<GuestCartItem> guest) {
+		List<GuestCartItem> merged = new ArrayList<>(member.size() + guest.size());
+		for (GuestCartItem item : member) {
+			merged.add(new GuestCartItem(item.getBookId(), item.getQuantity()));
+		}
+		for (GuestCartItem item : guest) {
+			Optional<GuestCartItem> existing = merged.stream()
+					                                   .filter(candidate -> candidate.getBookId().equals(item.getBookId()))
+					                                   .findFirst();
+			if (existing.isPresent()) {
+				existing.get().setQuantity(Math.min(existing.get().getQuantity() + item.getQuantity(), MAX_ITEM_COUNT));
+			} else {
+				merged.add(new GuestCartItem(item.getBookId(), item.getQuantity()));
+			}
+		}
+		return merged;
+	}
+	
+	private Object mergeWithQuantities(List<GuestCartItem> member, List<GuestCartItem> guest) {
+		CartQuantities merged = CartQuantities.of(member);
+		for (GuestCartItem item : guest) {
+			merged.addClamped(item.getBookId(), item.getQuantity(), MAX_ITEM_COUNT);
+		}
+		return merged;
+	}
+	
+	// offset만큼 밀린 도서 ID로 회원/비회원 장바구니가 절반쯤 겹치게 만든다
+	private List<GuestCartItem> items(int size, int offset) {
+		return LongStream.range(offset, offset + size)
+				       .mapToObj(i -> new GuestCartItem(10_000L + i * 7_919, i % 5 + 1))
+				       .toList();
+	}
+}
@@ -0,0 +1,107 @@
+package shop.dodream.cart.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import shop.dodream.cart.dto.GuestCartItem;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DisplayName("CartQuantities 단위 테스트")
+class CartQuantitiesTest {
+	
+	@Test
+	@DisplayName("같은 도서는 수량을 합치고 처음 넣은 순서를 유지한다")
+	void of_sumsDuplicatesInInsertionOrder() {
+		// when
+		CartQuantities quantities = CartQuantities.of(List.of(
+				new GuestCartItem(3L, 1L), new GuestCartItem(1L, 2L), new GuestCartItem(3L, 4L)));
+		
+		// then
+		assertThat(quantities.size()).isEqualTo(2);
+		assertThat(quantities.bookIdAt(0)).isEqualTo(3L);
+		assertThat(quantities.quantityAt(0)).isEqualTo(5L);
+		assertThat(quantities.get(1L)).isEqualTo(2L);
+		assertThat(quantities.get(99L)).isZero();
+	}
+	
+	@Test
+	@DisplayName("용량을 넘겨도 모든 항목을 찾을 수 있고, 삭제 뒤에도 순서가 유지된다")
+	void growAndRemove_keepLookupAndOrder() {
+		// given
+		CartQuantities quantities = new CartQuantities(1);
+		for (long bookId = 1; bookId <= 100; bookId++) {
+			quantities.put(bookId * 1_024, bookId);
+		}
+		
+		// when
+		boolean removed = quantities.remove(1_024L);
+		
+		// then
+		assertThat(removed).isTrue();
+		assertThat(quantities.remove(1_024L)).isFalse();
+		assertThat(quantities.size()).isEqualTo(99);
+		assertThat(quantities.bookIdAt(0)).isEqualTo(2_048L);
+		for (long bookId = 2; bookId <= 100; bookId++) {
+			assertThat(quantities.get(bookId * 1_024)).isEqualTo(bookId);
+		}
+	}
+	
+	@Test
+	@DisplayName("addClamped와 clampAll은 수량을 최대값으로 자른다")
+	void clamp_limitsQuantities() {
+		// given
+		CartQuantities quantities = new CartQuantities();
+		quantities.put(1L, 15L);
+		quantities.put(2L, 30L);
+		
+		// when
+		long added = quantities.addClamped(1L, 10L, 20L);
+		int clamped = quantities.clampAll(20L);
+		
+		// then
+		assertThat(added).isEqualTo(20L);
+		assertThat(clamped).isEqualTo(1);
+		assertThat(quantities.get(2L)).isEqualTo(20L);
+	}
+	
+	@Test
+	@DisplayName("addAll은 다른 맵의 수량을 더하고 없던 도서는 뒤에 붙인다")
+	void addAll_mergesQuantities() {
+		// given
+		CartQuantities member = CartQuantities.of(List.of(new GuestCartItem(1L, 2L)));
+		CartQuantities guest = CartQuantities.of(List.of(new GuestCartItem(2L, 1L), new GuestCartItem(1L, 3L)));
+		
+		// when
+		member.addAll(guest);
+		
+		// then
+		assertThat(member.toGuestItems()).extracting(GuestCartItem::getBookId, GuestCartItem::getQuantity)
+				.containsExactly(tuple(1L, 5L), tuple(2L, 1L));
+	}
+	
+	@Test
+	@DisplayName("diff는 바뀐 수량만 담고, 사라진 도서는 음수로 담는다")
+	void diff_reportsChangedAddedAndRemoved() {
+		// given
+		CartQuantities before = CartQuantities.of(List.of(
+				new GuestCartItem(1L, 2L), new GuestCartItem(2L, 1L), new GuestCartItem(3L, 4L)));
+		CartQuantities after = before.copy();
+		after.put(1L, 5L);
+		after.remove(2L);
+		after.put(4L, 1L);
+		
+		// when
+		CartQuantities changes = after.diff(before);
+		
+		// then
+		assertThat(changes.size()).isEqualTo(3);
+		assertThat(changes.get(1L)).isEqualTo(3L);
+		assertThat(changes.get(4L)).isEqualTo(1L);
+		assertThat(changes.get(2L)).isEqualTo(-1L);
+		assertThat(changes.contains(3L)).isFalse();
+		assertThat(before.diff(before.copy()).isEmpty()).isTrue();
+	}
+}